@@ -0,0 +1,109 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.formula.BaseFormulaEvaluator;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures SUM, AVERAGE, MIN and MAX over whole columns of {@link #rows} rows.
+ * The numbers of a column are read once per evaluation cache and copied in bulk by the
+ * further formulas over the same column. {@link #recalculate()} changes a cell of one
+ * column, so only the formulas over that column are evaluated again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class AggregateEvaluationBench {
+
+    private static final String[] FORMULAS = {
+        "SUM(A:A)", "AVERAGE(A:A)", "MIN(A:A)", "MAX(A:A)", "SUM(B:B)", "AVERAGE(A:A,B:B)", "MAX(B:B)", "SUM(A:B)"
+    };
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private XSSFWorkbook wb;
+    private BaseFormulaEvaluator evaluator;
+    private Cell valueCell;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = new XSSFWorkbook();
+        Sheet sheet = wb.createSheet("aggregates");
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r % 1000);
+            // text and blank cells between the numbers
+            if (r % 10 == 0) {
+                row.createCell(1).setCellValue("text" + r);
+            } else if (r % 10 != 5) {
+                row.createCell(1).setCellValue(r * 0.5);
+            }
+            if (r < FORMULAS.length) {
+                row.createCell(3).setCellFormula(FORMULAS[r]);
+            }
+        }
+        valueCell = sheet.getRow(rows / 2 + 1).getCell(1);
+        evaluator = (BaseFormulaEvaluator)wb.getCreationHelper().createFormulaEvaluator();
+        evaluator.evaluateAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void evaluateAll() {
+        evaluator.clearAllCachedResultValues();
+        evaluator.evaluateAll();
+    }
+
+    @Benchmark
+    public List<Cell> recalculate() {
+        valueCell.setCellValue(valueCell.getNumericCellValue() + 1);
+        return evaluator.recalculate(Collections.singletonList(valueCell));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + AggregateEvaluationBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
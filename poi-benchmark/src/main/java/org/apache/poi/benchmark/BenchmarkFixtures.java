@@ -0,0 +1,127 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Generates the workbooks used by the benchmarks, so the suites don't depend on
+ * the test-data directory and can be run at arbitrary sizes.
+ * <p>
+ * The data sheets contain a typical mix of numbers, shared strings, dates and booleans
+ * in {@link #COLUMNS} columns. The formula sheets contain a column of numbers and
+ * columns of arithmetic, aggregate, conditional and lookup formulas referring to them.
+ */
+final class BenchmarkFixtures {
+    static final int COLUMNS = 10;
+
+    /** the formulas of the formula sheets, {@code #} is replaced by the 1-based row number */
+    static final String[] FORMULAS = {
+        "A#*2+1",
+        "B#/(A#+1)",
+        "SUM(A#:C#)",
+        "IF(MOD(A#,3)=0,\"fizz\",TEXT(A#,\"0.00\"))",
+        "ROUND(AVERAGE($A$1:A#),2)",
+        "VLOOKUP(MOD(A#,50),$A$1:$B$50,2,FALSE)",
+    };
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Fills the sheet with {@code rows} rows of mixed cell values
+     */
+    static void fillDataSheet(Sheet sheet, int rows) {
+        Workbook wb = sheet.getWorkbook();
+        CellStyle dateStyle = wb.createCellStyle();
+        dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+        CellStyle percentStyle = wb.createCellStyle();
+        percentStyle.setDataFormat(wb.createDataFormat().getFormat("0.00%"));
+        LocalDate start = LocalDate.of(2000, 1, 1);
+
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r);
+            row.createCell(1).setCellValue("Item " + (r % 1000));
+            row.createCell(2).setCellValue(r * 1.25);
+            Cell date = row.createCell(3);
+            date.setCellValue(start.plusDays(r % 10000));
+            date.setCellStyle(dateStyle);
+            row.createCell(4).setCellValue(r % 2 == 0);
+            row.createCell(5).setCellValue("Category " + (char)('A' + r % 26));
+            Cell percent = row.createCell(6);
+            percent.setCellValue((r % 100) / 100.0);
+            percent.setCellStyle(percentStyle);
+            row.createCell(7).setCellValue(-r / 3.0);
+            row.createCell(8).setCellValue("Unique text " + r);
+            row.createCell(9).setCellValue(r * 1000L);
+        }
+    }
+
+    /**
+     * Fills the sheet with {@code rows} rows of numbers and the {@link #FORMULAS}
+     */
+    static void fillFormulaSheet(Sheet sheet, int rows) {
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r % 100);
+            String rowNum = Integer.toString(r + 1);
+            for (int f = 0; f < FORMULAS.length; f++) {
+                row.createCell(f + 1).setCellFormula(FORMULAS[f].replace("#", rowNum));
+            }
+        }
+    }
+
+    /**
+     * @return a .xlsx file with a data sheet and a formula sheet of {@code rows} rows each
+     */
+    static byte[] createXlsx(int rows) throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            fillDataSheet(wb.createSheet("data"), rows);
+            fillFormulaSheet(wb.createSheet("formulas"), rows);
+            return toByteArray(wb);
+        }
+    }
+
+    /**
+     * @return a .xls file with a data sheet and a formula sheet of {@code rows} rows each
+     */
+    static byte[] createXls(int rows) throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            fillDataSheet(wb.createSheet("data"), rows);
+            fillFormulaSheet(wb.createSheet("formulas"), rows);
+            return toByteArray(wb);
+        }
+    }
+
+    static byte[] toByteArray(Workbook wb) throws IOException {
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            wb.write(bos);
+            return bos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link DataFormatter#formatCellValue(Cell)} over all cells of a data sheet
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class DataFormatterBench {
+
+    @Param({"xls", "xlsx"})
+    public String format;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private Workbook wb;
+    private Cell[] cells;
+    private DataFormatter formatter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = "xls".equals(format) ? new HSSFWorkbook() : new XSSFWorkbook();
+        Sheet sheet = wb.createSheet();
+        BenchmarkFixtures.fillDataSheet(sheet, rows);
+
+        cells = new Cell[rows * BenchmarkFixtures.COLUMNS];
+        int i = 0;
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                cells[i++] = cell;
+            }
+        }
+        formatter = new DataFormatter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void formatCellValues(Blackhole bh) {
+        for (Cell cell : cells) {
+            bh.consume(formatter.formatCellValue(cell));
+        }
+    }
+
+    @Benchmark
+    public void formatCellValuesNewFormatter(Blackhole bh) {
+        // a new formatter has to build its format cache again
+        DataFormatter df = new DataFormatter();
+        for (Cell cell : cells) {
+            bh.consume(df.formatCellValue(cell));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + DataFormatterBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
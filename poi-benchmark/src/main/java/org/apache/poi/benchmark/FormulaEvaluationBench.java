@@ -0,0 +1,124 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.BaseFormulaEvaluator;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the {@link WorkbookEvaluator} behind the {@link FormulaEvaluator}s.
+ * <p>
+ * {@link #evaluateAll()} starts with an empty evaluation cache, while {@link #evaluateCached(Blackhole)}
+ * evaluates the last column again with all intermediate results being cached.
+ * {@link #recalculate()} changes an input cell in the middle of the sheet and recalculates only its
+ * dependents, which is the what-if alternative to {@link #evaluateAll()}.
+ * With {@link #compile}, the formulas are compiled into evaluation plans, which are reused by
+ * {@link #recalculate()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FormulaEvaluationBench {
+
+    @Param({"xls", "xlsx"})
+    public String format;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean compile;
+
+    private Workbook wb;
+    private BaseFormulaEvaluator evaluator;
+    private Cell[] lastColumn;
+    private Cell inputCell;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = "xls".equals(format) ? new HSSFWorkbook() : new XSSFWorkbook();
+        Sheet sheet = wb.createSheet("formulas");
+        BenchmarkFixtures.fillFormulaSheet(sheet, rows);
+        evaluator = (BaseFormulaEvaluator)wb.getCreationHelper().createFormulaEvaluator();
+        evaluator.setCompileFormulas(compile);
+        evaluator.evaluateAll();
+
+        lastColumn = new Cell[rows];
+        for (int r = 0; r < rows; r++) {
+            lastColumn[r] = sheet.getRow(r).getCell(BenchmarkFixtures.FORMULAS.length);
+        }
+        inputCell = sheet.getRow(rows / 2).getCell(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void evaluateAll() {
+        evaluator.clearAllCachedResultValues();
+        evaluator.evaluateAll();
+    }
+
+    @Benchmark
+    public void evaluateCached(Blackhole bh) {
+        for (Cell cell : lastColumn) {
+            CellValue cv = evaluator.evaluate(cell);
+            bh.consume(cv);
+        }
+    }
+
+    @Benchmark
+    public List<Cell> recalculate() {
+        // toggle the value, so that the dependents are always dirty
+        inputCell.setCellValue(inputCell.getNumericCellValue() == 0 ? 1 : 0);
+        return evaluator.recalculate(Collections.singletonList(inputCell));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + FormulaEvaluationBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
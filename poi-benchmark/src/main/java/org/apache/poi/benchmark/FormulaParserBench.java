@@ -0,0 +1,103 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link FormulaParser#parse(String, FormulaParsingWorkbook, FormulaType, int)}
+ * for the formulas of the generated formula sheets
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FormulaParserBench {
+
+    @Param({"xls", "xlsx"})
+    public String format;
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private Workbook wb;
+    private FormulaParsingWorkbook fpw;
+    private String[] formulas;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("xls".equals(format)) {
+            HSSFWorkbook hwb = new HSSFWorkbook();
+            fpw = HSSFEvaluationWorkbook.create(hwb);
+            wb = hwb;
+        } else {
+            XSSFWorkbook xwb = new XSSFWorkbook();
+            fpw = XSSFEvaluationWorkbook.create(xwb);
+            wb = xwb;
+        }
+        wb.createSheet("formulas");
+
+        final String[] templates = BenchmarkFixtures.FORMULAS;
+        formulas = new String[rows * templates.length];
+        for (int r = 0; r < rows; r++) {
+            for (int f = 0; f < templates.length; f++) {
+                formulas[r * templates.length + f] = templates[f].replace("#", Integer.toString(r + 1));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String formula : formulas) {
+            bh.consume(FormulaParser.parse(formula, fpw, FormulaType.CELL, 0));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + FormulaParserBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
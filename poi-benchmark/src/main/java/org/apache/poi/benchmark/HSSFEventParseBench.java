@@ -0,0 +1,96 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures scanning the numeric cells with {@link HSSFEventFactory}, either as
+ * {@link NumberRecord}s or via the flyweight of a numeric cell listener
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HSSFEventParseBench {
+
+    @Param({"1000", "10000", "60000"})
+    public int rows;
+
+    private POIFSFileSystem fs;
+    private String workbookEntry;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] xls = BenchmarkFixtures.createXls(rows);
+        fs = new POIFSFileSystem(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+        workbookEntry = HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fs.close();
+    }
+
+    @Benchmark
+    public void numberRecords(Blackhole bh) throws IOException {
+        HSSFRequest req = new HSSFRequest();
+        req.addListener(r -> bh.consume(((NumberRecord) r).getValue()), NumberRecord.sid);
+        process(req);
+    }
+
+    @Benchmark
+    public void numericCellListener(Blackhole bh) throws IOException {
+        HSSFRequest req = new HSSFRequest();
+        req.addNumericCellListener(c -> bh.consume(c.getValue()));
+        process(req);
+    }
+
+    private void process(HSSFRequest req) throws IOException {
+        try (InputStream is = fs.createDocumentInputStream(workbookEntry)) {
+            new HSSFEventFactory().processEvents(req, is);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + HSSFEventParseBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,88 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures opening a multi-sheet {@link HSSFWorkbook} and reading one of its sheets,
+ * with all sheets parsed up front or with lazy sheets
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HSSFLazySheetsBench {
+
+    @Param({"10"})
+    public int sheets;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private byte[] xls;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            for (int i = 0; i < sheets; i++) {
+                BenchmarkFixtures.fillDataSheet(wb.createSheet("data" + i), rows);
+            }
+            xls = BenchmarkFixtures.toByteArray(wb);
+        }
+    }
+
+    @Benchmark
+    public int eagerSheets() throws IOException {
+        return readSheet(false);
+    }
+
+    @Benchmark
+    public int lazySheets() throws IOException {
+        return readSheet(true);
+    }
+
+    private int readSheet(boolean lazy) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), false, lazy)) {
+            return wb.getSheetAt(sheets / 2).getPhysicalNumberOfRows();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + HSSFLazySheetsBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,112 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures opening a multi-sheet {@link HSSFWorkbook}, with the sheets parsed sequentially
+ * or concurrently, optionally for an encrypted workbook
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HSSFParallelSheetsBench {
+
+    private static final String PASSWORD = "pass";
+
+    @Param({"8"})
+    public int sheets;
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private byte[] xls;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            for (int i = 0; i < sheets; i++) {
+                BenchmarkFixtures.fillDataSheet(wb.createSheet("data" + i), rows);
+            }
+            Biff8EncryptionKey.setCurrentUserPassword(encrypted ? PASSWORD : null);
+            xls = BenchmarkFixtures.toByteArray(wb);
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() throws IOException {
+        Biff8EncryptionKey.setCurrentUserPassword(encrypted ? PASSWORD : null);
+        try (POIFSFileSystem fs = new POIFSFileSystem(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), false)) {
+            return wb.getNumberOfSheets();
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+        }
+    }
+
+    @Benchmark
+    public int parallel() throws IOException {
+        Biff8EncryptionKey.setCurrentUserPassword(encrypted ? PASSWORD : null);
+        try (POIFSFileSystem fs = new POIFSFileSystem(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), false, executor)) {
+            return wb.getNumberOfSheets();
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + HSSFParallelSheetsBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,96 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures writing and reading a {@link HSSFWorkbook} with mostly distinct plain strings,
+ * i.e. the shared string table (SST) dominates the workbook
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HSSFSharedStringsBench {
+
+    private static final int COLUMNS = 5;
+
+    @Param({"10000", "50000"})
+    public int rows;
+
+    private byte[] xls;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        xls = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet("strings");
+            for (int r = 0; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < COLUMNS; c++) {
+                    // every 10th string is repeated
+                    int id = (r % 10 == 0) ? c : r * COLUMNS + c;
+                    row.createCell(c).setCellValue("Customer " + id);
+                }
+            }
+            return BenchmarkFixtures.toByteArray(wb);
+        }
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long length = 0;
+        try (HSSFWorkbook wb = new HSSFWorkbook(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get())) {
+            for (Row row : wb.getSheetAt(0)) {
+                for (Cell cell : row) {
+                    length += cell.getStringCellValue().length();
+                }
+            }
+        }
+        return length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + HSSFSharedStringsBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,127 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures loading and saving a {@link HSSFWorkbook}. {@link #createRecords()} isolates
+ * the record parsing of {@link RecordFactory} from building the usermodel, {@link #readCells()}
+ * measures reading the values of the loaded cells.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HSSFWorkbookBench {
+
+    @Param({"1000", "10000", "60000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean compactCells;
+
+    private byte[] xls;
+    private POIFSFileSystem fs;
+    private String workbookEntry;
+    private HSSFWorkbook wb;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        xls = BenchmarkFixtures.createXls(rows);
+        fs = new POIFSFileSystem(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+        workbookEntry = HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot());
+        wb = new HSSFWorkbook(fs);
+        wb.getSheetAt(0).setCompactCellStorage(compactCells);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+        fs.close();
+    }
+
+    @Benchmark
+    public List<Record> createRecords() throws IOException {
+        try (InputStream is = fs.createDocumentInputStream(workbookEntry)) {
+            return RecordFactory.createRecords(is);
+        }
+    }
+
+    @Benchmark
+    public HSSFWorkbook loadWorkbook() throws IOException {
+        try (HSSFWorkbook wb2 = new HSSFWorkbook(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get())) {
+            wb2.getSheetAt(0).setCompactCellStorage(compactCells);
+            return wb2;
+        }
+    }
+
+    @Benchmark
+    public void saveWorkbook() throws IOException {
+        wb.write(NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public double readCells() {
+        double sum = 0;
+        for (Row row : wb.getSheetAt(0)) {
+            for (Cell cell : row) {
+                switch (cell.getCellType()) {
+                    case NUMERIC:
+                        sum += cell.getNumericCellValue();
+                        break;
+                    case STRING:
+                        sum += cell.getStringCellValue().length();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + HSSFWorkbookBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,114 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.formula.BaseFormulaEvaluator;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures exact match lookups with VLOOKUP, MATCH and XLOOKUP into a table of {@link #rows} rows.
+ * The lookup column is indexed once per evaluation cache, so the time of {@link #evaluateAll()}
+ * grows with the number of rows plus lookups, instead of their product.
+ * {@link #recalculate()} changes a key of the table, which rebuilds the index and re-evaluates
+ * all lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LookupEvaluationBench {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int lookups;
+
+    private XSSFWorkbook wb;
+    private BaseFormulaEvaluator evaluator;
+    private Cell keyCell;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = new XSSFWorkbook();
+        Sheet sheet = wb.createSheet("lookups");
+        String keys = "$A$1:$A$" + rows;
+        String table = "$A$1:$B$" + rows;
+        for (int r = 0; r < Math.max(rows, lookups); r++) {
+            Row row = sheet.createRow(r);
+            if (r < rows) {
+                row.createCell(0).setCellValue("key" + r);
+                row.createCell(1).setCellValue(r);
+            }
+            if (r < lookups) {
+                // spread the lookup values over the whole table
+                String key = "\"KEY" + (int)((r * 7919L) % rows) + "\"";
+                row.createCell(3).setCellFormula("VLOOKUP(" + key + "," + table + ",2,FALSE)");
+                row.createCell(4).setCellFormula("MATCH(" + key + "," + keys + ",0)");
+                row.createCell(5).setCellFormula("XLOOKUP(" + key + "," + keys + ",$B$1:$B$" + rows + ")");
+            }
+        }
+        keyCell = sheet.getRow(rows / 2).getCell(0);
+        evaluator = (BaseFormulaEvaluator)wb.getCreationHelper().createFormulaEvaluator();
+        evaluator.evaluateAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void evaluateAll() {
+        evaluator.clearAllCachedResultValues();
+        evaluator.evaluateAll();
+    }
+
+    @Benchmark
+    public List<Cell> recalculate() {
+        // toggle the key, so that the lookups are always dirty
+        String key = "key" + (rows / 2);
+        keyCell.setCellValue(key.equals(keyCell.getStringCellValue()) ? "other" : key);
+        return evaluator.recalculate(Collections.singletonList(keyCell));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + LookupEvaluationBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,120 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the default TreeMap based row/cell storage of XSSF with the compact
+ * int-keyed storage (see {@link XSSFWorkbook#setCompactRowStorage(boolean)}).
+ * <p>
+ * Run with the GC profiler, the {@code gc.alloc.rate.norm} of {@link #createRows()}
+ * approximates the memory footprint of the row and cell structures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class RowStorageBench {
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"20"})
+    public int cols;
+
+    private XSSFWorkbook wb;
+    private XSSFSheet sheet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = new XSSFWorkbook();
+        wb.setCompactRowStorage(compact);
+        sheet = wb.createSheet();
+        fill(sheet, rows, cols);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public XSSFSheet createRows() throws IOException {
+        try (XSSFWorkbook wb2 = new XSSFWorkbook()) {
+            wb2.setCompactRowStorage(compact);
+            XSSFSheet sheet2 = wb2.createSheet();
+            fill(sheet2, rows, cols);
+            return sheet2;
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                bh.consume(cell);
+            }
+        }
+    }
+
+    @Benchmark
+    public void randomAccess(Blackhole bh) {
+        for (int r = 0; r < rows; r += 7) {
+            XSSFRow row = sheet.getRow(r);
+            bh.consume(row.getCell(r % cols));
+        }
+    }
+
+    private static void fill(XSSFSheet sheet, int rows, int cols) {
+        for (int r = 0; r < rows; r++) {
+            XSSFRow row = sheet.createRow(r);
+            for (int c = 0; c < cols; c++) {
+                row.createCell(c).setCellValue(r + c);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + RowStorageBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,106 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
+
+/**
+ * Measures {@link FormulaEvaluator#evaluateAll()} on a sheet, where each formula column is
+ * a single shared formula group, as written by Excel when a formula is filled down.
+ * The tokens of the group are parsed once by {@link XSSFEvaluationWorkbook}, so the time
+ * per row is dominated by the evaluation itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SharedFormulaEvaluationBench {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private XSSFWorkbook wb;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook src = new XSSFWorkbook()) {
+            fill(src.createSheet("shared"));
+            xlsx = BenchmarkFixtures.toByteArray(src);
+        }
+        // the shared formula groups are only collected when the sheet is read
+        wb = new XSSFWorkbook(UnsynchronizedByteArrayInputStream.builder().setByteArray(xlsx).get());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public FormulaEvaluator evaluateAll() {
+        FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        evaluator.evaluateAll();
+        return evaluator;
+    }
+
+    private void fill(XSSFSheet sheet) {
+        for (int r = 0; r < rows; r++) {
+            XSSFRow row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r % 100);
+            for (int f = 0; f < BenchmarkFixtures.FORMULAS.length; f++) {
+                int col = f + 1;
+                CTCellFormula ctf = row.createCell(col).getCTCell().addNewF();
+                ctf.setT(STCellFormulaType.SHARED);
+                ctf.setSi(f);
+                if (r == 0) {
+                    ctf.setStringValue(BenchmarkFixtures.FORMULAS[f].replace("#", "1"));
+                    ctf.setRef(new CellRangeAddress(0, rows - 1, col, col).formatAsString());
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + SharedFormulaEvaluationBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,127 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.hssf.usermodel.HSSFOptimiser;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFOptimiser;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures removing duplicate fonts and cell styles with {@link HSSFOptimiser} and
+ * {@link XSSFOptimiser}, for workbooks where every cell got its own copy of a few styles.
+ * The time per style should stay the same when the number of styles grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class StyleOptimiserBench {
+
+    /** .xls files are limited to about 4000 cell styles */
+    @Param({"1000", "4000"})
+    public int styles;
+
+    private byte[] xls;
+    private byte[] xlsx;
+
+    private HSSFWorkbook hssfWorkbook;
+    private XSSFWorkbook xssfWorkbook;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // the styles part consists of repetitions only and compresses too well for the default limit
+        ZipSecureFile.setMinInflateRatio(0.001);
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            fill(wb);
+            xls = BenchmarkFixtures.toByteArray(wb);
+        }
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            fill(wb);
+            xlsx = BenchmarkFixtures.toByteArray(wb);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void load() throws IOException {
+        hssfWorkbook = new HSSFWorkbook(UnsynchronizedByteArrayInputStream.builder().setByteArray(xls).get());
+        xssfWorkbook = new XSSFWorkbook(UnsynchronizedByteArrayInputStream.builder().setByteArray(xlsx).get());
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+        hssfWorkbook.close();
+        xssfWorkbook.close();
+    }
+
+    @Benchmark
+    public int hssf() {
+        HSSFOptimiser.optimiseFonts(hssfWorkbook);
+        HSSFOptimiser.optimiseCellStyles(hssfWorkbook);
+        return hssfWorkbook.getNumCellStyles();
+    }
+
+    @Benchmark
+    public int xssf() {
+        XSSFOptimiser.optimiseFonts(xssfWorkbook);
+        XSSFOptimiser.optimiseCellStyles(xssfWorkbook);
+        return xssfWorkbook.getNumCellStyles();
+    }
+
+    private void fill(Workbook wb) {
+        Sheet sheet = wb.createSheet("styles");
+        for (int i = 0; i < styles; i++) {
+            // a style and font of its own for each row, in 10 variants
+            Font font = wb.createFont();
+            font.setFontHeightInPoints((short) (12 + i % 10));
+            CellStyle style = wb.createCellStyle();
+            style.setFont(font);
+            style.setFillForegroundColor((short) (8 + i % 10));
+            Row row = sheet.createRow(i);
+            for (int c = 0; c < BenchmarkFixtures.COLUMNS; c++) {
+                row.createCell(c).setCellStyle(style);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + StyleOptimiserBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,120 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the startup of a streaming read via {@link XSSFReader}, i.e. opening the package,
+ * listing the sheets and loading the styles, for workbooks with many cell styles.
+ * Run it with the {@link GCProfiler} to compare the allocated heap of the styles tables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class XSSFReaderStartupBench {
+
+    private static final String[] FORMATS = { "0.0", "0.00%", "#,##0.000", "yyyy-mm-dd", "hh:mm:ss", "0.00E+00" };
+
+    @Param({"100", "10000", "60000"})
+    public int styles;
+
+    private byte[] xlsx;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // the generated styles are very repetitive and compress too well for the zip bomb check
+        ZipSecureFile.setMinInflateRatio(0.001);
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            DataFormat df = wb.createDataFormat();
+            Sheet sheet = wb.createSheet("styles");
+            for (int i = 0; i < styles; i++) {
+                CellStyle style = wb.createCellStyle();
+                style.setDataFormat(df.getFormat(FORMATS[i % FORMATS.length]));
+                style.setIndention((short)(i % 15));
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.getCell(0).setCellStyle(style);
+            }
+            xlsx = BenchmarkFixtures.toByteArray(wb);
+        }
+    }
+
+    @Benchmark
+    public void stylesTable(Blackhole bh) throws Exception {
+        try (OPCPackage pkg = open()) {
+            XSSFReader reader = new XSSFReader(pkg);
+            listSheets(reader, bh);
+            bh.consume(reader.getStylesTable());
+        }
+    }
+
+    @Benchmark
+    public void readOnlyStylesTable(Blackhole bh) throws Exception {
+        try (OPCPackage pkg = open()) {
+            XSSFReader reader = new XSSFReader(pkg);
+            listSheets(reader, bh);
+            bh.consume(reader.getReadOnlyStylesTable());
+        }
+    }
+
+    private OPCPackage open() throws Exception {
+        return OPCPackage.open(UnsynchronizedByteArrayInputStream.builder().setByteArray(xlsx).get());
+    }
+
+    private static void listSheets(XSSFReader reader, Blackhole bh) throws Exception {
+        XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)reader.getSheetsData();
+        while (iter.hasNext()) {
+            try (InputStream stream = iter.next()) {
+                bh.consume(stream);
+                bh.consume(iter.getSheetName());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + XSSFReaderStartupBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -22,11 +22,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
 
 import org.apache.poi.ooxml.POIXMLException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.openxml4j.opc.PackagePartName;
 import org.apache.poi.openxml4j.opc.PackageProperties;
@@ -36,6 +38,10 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.apache.poi.openxml4j.opc.TargetMode;
 import org.apache.poi.openxml4j.opc.internal.InvalidZipException;
+import org.apache.poi.openxml4j.opc.internal.ZipHelper;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.DocumentFactoryHelper;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Removal;
 
@@ -78,6 +84,45 @@ public final class PackageHelper {
         }
     }
 
+    /**
+     * Opens the package of an encrypted OOXML document.<p>
+     *
+     * If the encryption allows random access, the package is read directly from the encrypted
+     * data and only the parts of it which are actually read are decrypted. In this case the
+     * filesystem stays open until the package is closed. Otherwise the package is decrypted into
+     * memory and the filesystem is closed right away.
+     *
+     * @param fs The filesystem containing the encrypted document, which is closed by this method or
+     *  together with the package
+     * @param password The password, null if the default password should be used
+     * @return OPCPackage
+     * @throws IOException If reading or decrypting the data fails
+     * @throws org.apache.poi.EncryptedDocumentException If the password is wrong
+     * @throws POIXMLException If the data is not a valid OPC package
+     * @since POI 5.4.1
+     */
+    @SuppressWarnings("resource")
+    public static OPCPackage openEncrypted(POIFSFileSystem fs, String password) throws IOException {
+        SeekableByteChannel channel = null;
+        try {
+            EncryptionInfo info = DocumentFactoryHelper.getEncryptionInfo(fs.getRoot());
+            channel = DocumentFactoryHelper.getDecryptedChannel(fs, password, info);
+            if (channel == null) {
+                try (InputStream stream = DocumentFactoryHelper.getDecryptedStream(fs, password, info)) {
+                    return open(stream);
+                }
+            }
+            return OPCPackage.open(ZipHelper.openZipEntrySource(channel), PackageAccess.READ_WRITE);
+        } catch (InvalidFormatException e) {
+            IOUtils.closeQuietly(channel);
+            throw new POIXMLException(e);
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(channel);
+            IOUtils.closeQuietly(fs);
+            throw e;
+        }
+    }
+
     /**
      * Clone the specified package.
      *
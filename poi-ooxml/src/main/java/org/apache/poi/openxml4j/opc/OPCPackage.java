@@ -134,6 +134,11 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
      */
     protected OutputStream output;
 
+    /**
+     * Number of threads used to compress the parts when saving.
+     */
+    private int compressionThreads = 1;
+
     /**
      * Constructor.
      *
@@ -204,7 +209,24 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
     * @throws InvalidFormatException if a parsing error occur.
     */
    public static OPCPackage open(ZipEntrySource zipEntry) throws InvalidFormatException {
-       OPCPackage pack = new ZipPackage(zipEntry, PackageAccess.READ);
+       return open(zipEntry, PackageAccess.READ);
+   }
+
+   /**
+    * Open a user provided {@link ZipEntrySource} with the given access.
+    * With {@link PackageAccess#READ_WRITE} the package can be modified and saved to
+    * another file or stream, like a package opened from an {@link InputStream}.
+    * Opposed to other open variants, the data is read as-is, e.g. there aren't
+    * any zip-bomb protection put in place.
+    *
+    * @param zipEntry the custom source
+    * @param access the package access mode
+    * @return A Package object
+    * @throws InvalidFormatException if a parsing error occur.
+    * @since POI 5.4.1
+    */
+   public static OPCPackage open(ZipEntrySource zipEntry, PackageAccess access) throws InvalidFormatException {
+       OPCPackage pack = new ZipPackage(zipEntry, access);
        try {
            if (pack.partList == null) {
                pack.getParts();
@@ -212,7 +234,7 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
            // pack.originalPackagePath = file.getAbsolutePath();
            return pack;
        } catch (InvalidFormatException | RuntimeException e) {
-           // use revert() to free resources when the package is opened read-only
+           // use revert() to free resources without saving the package
            pack.revert();
 
            throw e;
@@ -1493,6 +1515,33 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
         return packageAccess;
     }
 
+    /**
+     * Set the number of threads, which compress the parts concurrently when the package is saved.
+     * <p>
+     * The parts are deflated into temporary files by the worker threads and then copied into the
+     * archive in the usual order, so this trades some additional disk I/O for using more than one
+     * core on packages with several large parts. The default of 1 compresses the parts sequentially.
+     * <p>
+     * The setting applies to all documents based on this package, e.g. use
+     * {@code workbook.getPackage().setCompressionThreads(4)} for a {@code XSSFWorkbook},
+     * {@code SXSSFWorkbook} (via its template workbook), {@code XMLSlideShow} or {@code XWPFDocument}.
+     *
+     * @param threads the number of threads, 1 or less disables the concurrent compression
+     * @since POI 5.4.1
+     */
+    public void setCompressionThreads(int threads) {
+        this.compressionThreads = Math.max(1, threads);
+    }
+
+    /**
+     * @return the number of threads, which compress the parts when the package is saved
+     * @see #setCompressionThreads(int)
+     * @since POI 5.4.1
+     */
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
     /**
      * Validates the package compliance with the OPC specifications.
      *
@@ -21,15 +21,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
-import org.apache.poi.ooxml.util.DocumentHelper;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.apache.poi.util.XMLHelper;
 
 /**
  * Represents a collection of PackageRelationship elements that are owned by a
@@ -37,6 +38,7 @@ import org.w3c.dom.NodeList;
  */
 public final class PackageRelationshipCollection implements Iterable<PackageRelationship> {
 
+    private static final XMLInputFactory STAX_FACTORY = XMLHelper.newXMLInputFactory();
     private static final Logger LOG = PoiLogManager.getLogger(PackageRelationshipCollection.class);
 
     /**
@@ -305,65 +307,86 @@ public final class PackageRelationshipCollection implements Iterable<PackageRela
             throws InvalidFormatException {
         try {
             LOG.atDebug().log("Parsing relationship: {}", relPart.getPartName());
-            Document xmlRelationshipsDoc;
             try (InputStream partStream = relPart.getInputStream()) {
-                xmlRelationshipsDoc = DocumentHelper.readDocument(partStream);
-            }
-
-            // Browse default types
-            Element root = xmlRelationshipsDoc.getDocumentElement();
-
-            // Check OPC compliance M4.1 rule
-            boolean fCorePropertiesRelationship = false;
-
-            NodeList nodeList = root.getElementsByTagNameNS(PackageNamespaces.RELATIONSHIPS, PackageRelationship.RELATIONSHIP_TAG_NAME);
-            int nodeCount = nodeList.getLength();
-            for (int i = 0; i < nodeCount; i++) {
-                Element element = (Element)nodeList.item(i);
-                // Relationship ID
-                String id = element.getAttribute(PackageRelationship.ID_ATTRIBUTE_NAME);
-                // Relationship type
-                String type = element.getAttribute(PackageRelationship.TYPE_ATTRIBUTE_NAME);
-
-                /* Check OPC Compliance */
-                // Check Rule M4.1
-                if (type.equals(PackageRelationshipTypes.CORE_PROPERTIES))
-                    if (!fCorePropertiesRelationship)
-                        fCorePropertiesRelationship = true;
-                    else
-                        throw new InvalidFormatException(
-                                "OPC Compliance error [M4.1]: there is more than one core properties relationship in the package !");
-
-                /* End OPC Compliance */
-
-                // TargetMode (default value "Internal")
-                Attr targetModeAttr = element.getAttributeNode(PackageRelationship.TARGET_MODE_ATTRIBUTE_NAME);
-                TargetMode targetMode = TargetMode.INTERNAL;
-                if (targetModeAttr != null) {
-                    targetMode = targetModeAttr.getValue().toLowerCase(Locale.ROOT)
-                            .equals("internal") ? TargetMode.INTERNAL
-                            : TargetMode.EXTERNAL;
-                }
-
-                // Target converted in URI
-                URI target = PackagingURIHelper.toURI("http://invalid.uri"); // dummy url
-                String value = element.getAttribute(PackageRelationship.TARGET_ATTRIBUTE_NAME);
+                // relationship parts are parsed for each package part, so
+                // they are streamed instead of building a DOM for them
+                XMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(partStream);
                 try {
-                    // when parsing of the given uri fails, we can either
-                    // ignore this relationship, which leads to IllegalStateException
-                    // later on, or use a dummy value and thus enable processing of the
-                    // package
-                    target = PackagingURIHelper.toURI(value);
-                } catch (URISyntaxException e) {
-                    LOG.atError().withThrowable(e).log("Cannot convert {} in a valid relationship URI-> dummy-URI used", value);
+                    parseRelationships(reader);
+                } finally {
+                    reader.close();
                 }
-                addRelationship(target, targetMode, type, id);
             }
         } catch (Exception e) {
             throw new InvalidFormatException("Failed to parse relationships", e);
         }
     }
 
+    private void parseRelationships(XMLStreamReader reader)
+            throws XMLStreamException, InvalidFormatException, URISyntaxException {
+        // Check OPC compliance M4.1 rule
+        boolean fCorePropertiesRelationship = false;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.DTD) {
+                // like the DOM parser, reject doctype declarations instead of skipping the entities
+                throw new InvalidFormatException("DOCTYPE is disallowed in relationship parts");
+            }
+            if (event != XMLStreamConstants.START_ELEMENT
+                || !PackageRelationship.RELATIONSHIP_TAG_NAME.equals(reader.getLocalName())
+                || !PackageNamespaces.RELATIONSHIPS.equals(reader.getNamespaceURI())) {
+                continue;
+            }
+            // Relationship ID
+            String id = getAttribute(reader, PackageRelationship.ID_ATTRIBUTE_NAME);
+            // Relationship type
+            String type = getAttribute(reader, PackageRelationship.TYPE_ATTRIBUTE_NAME);
+
+            /* Check OPC Compliance */
+            // Check Rule M4.1
+            if (type.equals(PackageRelationshipTypes.CORE_PROPERTIES))
+                if (!fCorePropertiesRelationship)
+                    fCorePropertiesRelationship = true;
+                else
+                    throw new InvalidFormatException(
+                            "OPC Compliance error [M4.1]: there is more than one core properties relationship in the package !");
+
+            /* End OPC Compliance */
+
+            // TargetMode (default value "Internal")
+            String targetModeAttr = reader.getAttributeValue(null, PackageRelationship.TARGET_MODE_ATTRIBUTE_NAME);
+            TargetMode targetMode = TargetMode.INTERNAL;
+            if (targetModeAttr != null) {
+                targetMode = targetModeAttr.toLowerCase(Locale.ROOT)
+                        .equals("internal") ? TargetMode.INTERNAL
+                        : TargetMode.EXTERNAL;
+            }
+
+            // Target converted in URI
+            URI target = PackagingURIHelper.toURI("http://invalid.uri"); // dummy url
+            String value = getAttribute(reader, PackageRelationship.TARGET_ATTRIBUTE_NAME);
+            try {
+                // when parsing of the given uri fails, we can either
+                // ignore this relationship, which leads to IllegalStateException
+                // later on, or use a dummy value and thus enable processing of the
+                // package
+                target = PackagingURIHelper.toURI(value);
+            } catch (URISyntaxException e) {
+                LOG.atError().withThrowable(e).log("Cannot convert {} in a valid relationship URI-> dummy-URI used", value);
+            }
+            addRelationship(target, targetMode, type, id);
+        }
+    }
+
+    /**
+     * @return the attribute value or an empty string, if the attribute doesn't exist
+     */
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return (value == null) ? "" : value;
+    }
+
     /**
      * Retrieves all relations with the specified type.
      *
@@ -540,7 +540,8 @@ public final class ZipPackage extends OPCPackage {
         final ZipArchiveOutputStream zos = (outputStream instanceof ZipArchiveOutputStream)
             ? (ZipArchiveOutputStream) outputStream : new ZipArchiveOutputStream(outputStream);
 
-        try {
+        final int threads = getCompressionThreads();
+        try (ParallelZipArchiveWriter parallelWriter = (threads > 1) ? new ParallelZipArchiveWriter(threads) : null) {
             // If the core properties part does not exist in the part list,
             // we save it as well
             if (this.getPartsByRelationshipType(PackageRelationshipTypes.CORE_PROPERTIES).isEmpty() &&
@@ -588,6 +589,19 @@ public final class ZipPackage extends OPCPackage {
                 LOG.atDebug().log(() -> new SimpleMessage("Save part '" + ZipHelper.getZipItemNameFromOPCName(ppn.getName()) + "'"));
                 final PartMarshaller marshaller = partMarshallers.get(part._contentType);
 
+                if (parallelWriter != null) {
+                    if (marshaller == null) {
+                        // the default marshaller delegates to the part, which uses the ZipPartMarshaller
+                        if (!ZipPartMarshaller.marshall(part, parallelWriter)) {
+                            throw new OpenXML4JException("The part " + ppn.getURI() + " failed to be queued for the compression" +
+                                    ". Enable logging via Log4j 2 for more details.");
+                        }
+                        continue;
+                    }
+                    // write the already queued parts first to keep the order of the zip entries
+                    parallelWriter.writeTo(zos);
+                }
+
                 final PartMarshaller pm = (marshaller != null) ? marshaller : defaultPartMarshaller;
                 if (!pm.marshall(part, zos)) {
                     String errMsg = "The part " + ppn.getURI() + " failed to be saved in the stream with marshaller " + pm +
@@ -596,6 +610,9 @@ public final class ZipPackage extends OPCPackage {
                 }
             }
 
+            if (parallelWriter != null) {
+                parallelWriter.writeTo(zos);
+            }
             zos.finish();
         } catch (OpenXML4JRuntimeException e) {
             // no need to wrap this type of Exception
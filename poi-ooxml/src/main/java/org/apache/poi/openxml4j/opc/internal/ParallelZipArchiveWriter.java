@@ -0,0 +1,185 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntryRequest;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Compresses zip entries concurrently and writes them in the order they were added.
+ * <p>
+ * Each entry is deflated by a worker thread into a temporary file. {@link #writeTo(ZipArchiveOutputStream)}
+ * then copies the already compressed entries as raw entries into the archive, so the resulting
+ * archive only differs from a sequentially written one in the absence of data descriptors.
+ * <p>
+ * The {@link InputStreamSupplier}s are called by the worker threads, so the provided content
+ * must not be modified until the entries have been written.
+ */
+@Internal
+public final class ParallelZipArchiveWriter implements Closeable {
+    private static final Logger LOG = PoiLogManager.getLogger(ParallelZipArchiveWriter.class);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Deque<Future<ScatterZipOutputStream>> pending = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    /**
+     * @param threads the number of threads used for the compression
+     */
+    public ParallelZipArchiveWriter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "poi-zip-compression-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues an entry for the compression. If no compression method was set,
+     * the entry is deflated.
+     *
+     * @param entry the zip entry
+     * @param content the supplier of the uncompressed content, which is called by a worker thread
+     */
+    public void addEntry(ZipArchiveEntry entry, InputStreamSupplier content) {
+        if (closed) {
+            throw new IllegalStateException("The writer has already been closed");
+        }
+        if (entry.getMethod() == -1) {
+            entry.setMethod(ZipEntry.DEFLATED);
+        }
+        final ZipArchiveEntryRequest request = ZipArchiveEntryRequest.createZipArchiveEntryRequest(entry, content);
+        pending.add(executor.submit(() -> compress(request)));
+    }
+
+    /**
+     * Queues an entry for the compression.
+     *
+     * @param entry the zip entry
+     * @param content the uncompressed content
+     */
+    public void addEntry(ZipArchiveEntry entry, byte[] content) {
+        addEntry(entry, () -> new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Writes all queued entries to the archive. This waits for the compression of the entries,
+     * so calling this in between is only necessary, if entries are written directly to the
+     * archive and the order of the entries needs to be kept.
+     *
+     * @param zos the archive stream
+     * @throws IOException if the content of an entry can't be read or written
+     */
+    public void writeTo(ZipArchiveOutputStream zos) throws IOException {
+        while (!pending.isEmpty()) {
+            try (ScatterZipOutputStream scatter = get(pending.poll())) {
+                scatter.writeTo(zos);
+            }
+        }
+    }
+
+    /**
+     * Discards all entries, which haven't been written yet, and stops the worker threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<ScatterZipOutputStream> future : pending) {
+            try {
+                ScatterZipOutputStream scatter = get(future);
+                if (scatter != null) {
+                    scatter.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.atDebug().withThrowable(e).log("Discarded a compressed zip entry");
+            }
+        }
+        pending.clear();
+        executor.shutdown();
+    }
+
+    private ScatterZipOutputStream compress(ZipArchiveEntryRequest request) throws IOException {
+        if (closed) {
+            return null;
+        }
+        final File tmpFile = TempFile.createTempFile("poi-zip-entry", ".tmp");
+        final ScatterZipOutputStream scatter;
+        try {
+            scatter = ScatterZipOutputStream.fileBased(tmpFile);
+        } catch (IOException e) {
+            if (!tmpFile.delete()) {
+                LOG.atWarn().log("Failed to delete the temp file {}", tmpFile);
+            }
+            throw e;
+        }
+        try {
+            scatter.addArchiveEntry(request);
+            return scatter;
+        } catch (IOException | RuntimeException e) {
+            scatter.close();
+            throw e;
+        }
+    }
+
+    private static ScatterZipOutputStream get(Future<ScatterZipOutputStream> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the zip entry compression");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException)cause).getCause();
+            } else if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
@@ -34,6 +36,7 @@ import org.apache.poi.openxml4j.opc.PackageRelationship;
 import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.ZipPackage;
 import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.util.Internal;
@@ -223,6 +226,27 @@ public final class ZipHelper {
         return new ZipSecureFile(file);
     }
 
+    /**
+     * Opens the data of the specified channel as a secure zip
+     *
+     * @param channel
+     *            The channel to open, which is closed together with the zip archive.
+     * @return The entries of the zip archive freshly open.
+     * @throws IOException if the zip file cannot be opened or closed to read the header signature
+     * @throws NotOfficeXmlFileException if stream does not start with zip header signature
+     * @see ZipSecureFile#openChannel(SeekableByteChannel)
+     * @since POI 5.4.1
+     */
+    public static ZipEntrySource openZipEntrySource(SeekableByteChannel channel) throws IOException, NotOfficeXmlFileException {
+        // Peek at the first few bytes to sanity check
+        channel.position(0);
+        verifyZipHeader(new NoCloseInputStream(Channels.newInputStream(channel)));
+        channel.position(0);
+
+        // Open as a proper zip file
+        return ZipSecureFile.openChannel(channel);
+    }
+
     /**
      * Retrieve and open as a secure zip file with the specified path.
      *
@@ -20,11 +20,13 @@ package org.apache.poi.openxml4j.opc.internal.marshallers;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Objects;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
@@ -37,6 +39,7 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.apache.poi.openxml4j.opc.StreamHelper;
 import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.internal.ParallelZipArchiveWriter;
 import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
 import org.apache.poi.ooxml.util.DocumentHelper;
@@ -72,19 +75,13 @@ public final class ZipPartMarshaller implements PartMarshaller {
             // exception
         }
 
-        // check if there is anything to save for some parts. We don't do this for all parts as some code
-        // might depend on empty parts being saved, e.g. some unit tests verify this currently.
-        if(part.getSize() == 0 && part.getPartName().getName().equals(XSSFRelation.SHARED_STRINGS.getDefaultFileName())) {
+        if (isEmptySharedStrings(part)) {
             return true;
         }
 
         ZipArchiveOutputStream zos = (ZipArchiveOutputStream) os;
-        ZipArchiveEntry partEntry = new ZipArchiveEntry(ZipHelper
-                .getZipItemNameFromOPCName(part.getPartName().getURI()
-                        .getPath()));
+        ZipArchiveEntry partEntry = createPartEntry(part);
         try {
-            ZipHelper.adjustEntryTime(partEntry);
-
             // Create next zip entry
             zos.putArchiveEntry(partEntry);
 
@@ -128,6 +125,94 @@ public final class ZipPartMarshaller implements PartMarshaller {
     public static boolean marshallRelationshipPart(
             PackageRelationshipCollection rels, PackagePartName relPartName,
             ZipArchiveOutputStream zos) {
+        Document xmlOutDoc = createRelationshipsDocument(rels, relPartName);
+
+        // String schemaFilename = Configuration.getPathForXmlSchema()+
+        // File.separator + "opc-relationships.xsd";
+
+        // Save part in zip
+        ZipArchiveEntry ctEntry = createRelationshipsEntry(relPartName);
+        try {
+            zos.putArchiveEntry(ctEntry);
+            try {
+                return StreamHelper.saveXmlInStream(xmlOutDoc, zos);
+            } finally {
+                zos.closeArchiveEntry();
+            }
+        } catch (IOException e) {
+            LOG.atError().withThrowable(e).log("Cannot create zip entry {}", relPartName);
+            return false;
+        }
+    }
+
+    /**
+     * Queue the specified part and its relationships for the concurrent compression.
+     * The content of the part is read by a worker thread of the given writer.
+     *
+     * @param part The {@link PackagePart} to save
+     * @param writer The writer, which compresses the zip entries
+     * @return true if queueing the part was successful or there was nothing to save,
+     *      false if an error occurred.
+     *      In case of errors, logging via Log4j 2 is used to provide more information.
+     * @throws OpenXML4JException
+     *      Throws if an internal exception is thrown.
+     * @since POI 5.4.1
+     */
+    public static boolean marshall(PackagePart part, ParallelZipArchiveWriter writer)
+            throws OpenXML4JException {
+        if (isEmptySharedStrings(part)) {
+            return true;
+        }
+
+        writer.addEntry(createPartEntry(part), () -> {
+            try {
+                return part.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // Queue the relationship part
+        if (part.hasRelationships()) {
+            PackagePartName relationshipPartName = PackagingURIHelper
+                    .getRelationshipPartName(part.getPartName());
+
+            Document xmlOutDoc = createRelationshipsDocument(part.getRelationships(), relationshipPartName);
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            if (!StreamHelper.saveXmlInStream(xmlOutDoc, bos)) {
+                return false;
+            }
+            writer.addEntry(createRelationshipsEntry(relationshipPartName), bos.toByteArray());
+        }
+
+        return true;
+    }
+
+    /**
+     * Check if there is anything to save for some parts. We don't do this for all parts as some code
+     * might depend on empty parts being saved, e.g. some unit tests verify this currently.
+     */
+    private static boolean isEmptySharedStrings(PackagePart part) {
+        return part.getSize() == 0 && part.getPartName().getName().equals(XSSFRelation.SHARED_STRINGS.getDefaultFileName());
+    }
+
+    private static ZipArchiveEntry createPartEntry(PackagePart part) {
+        ZipArchiveEntry partEntry = new ZipArchiveEntry(ZipHelper
+                .getZipItemNameFromOPCName(part.getPartName().getURI()
+                        .getPath()));
+        ZipHelper.adjustEntryTime(partEntry);
+        return partEntry;
+    }
+
+    private static ZipArchiveEntry createRelationshipsEntry(PackagePartName relPartName) {
+        ZipArchiveEntry ctEntry = new ZipArchiveEntry(ZipHelper.getZipURIFromOPCName(
+                relPartName.getURI().toASCIIString()).getPath());
+        ZipHelper.adjustEntryTime(ctEntry);
+        return ctEntry;
+    }
+
+    private static Document createRelationshipsDocument(
+            PackageRelationshipCollection rels, PackagePartName relPartName) {
         // Building xml
         Document xmlOutDoc = DocumentHelper.createDocument();
         // make something like <Relationships
@@ -181,25 +266,6 @@ public final class ZipPartMarshaller implements PartMarshaller {
         }
 
         xmlOutDoc.normalize();
-
-        // String schemaFilename = Configuration.getPathForXmlSchema()+
-        // File.separator + "opc-relationships.xsd";
-
-        // Save part in zip
-        ZipArchiveEntry ctEntry = new ZipArchiveEntry(ZipHelper.getZipURIFromOPCName(
-                relPartName.getURI().toASCIIString()).getPath());
-        try {
-            ZipHelper.adjustEntryTime(ctEntry);
-
-            zos.putArchiveEntry(ctEntry);
-            try {
-                return StreamHelper.saveXmlInStream(xmlOutDoc, zos);
-            } finally {
-                zos.closeArchiveEntry();
-            }
-        } catch (IOException e) {
-            LOG.atError().withThrowable(e).log("Cannot create zip entry {}", relPartName);
-            return false;
-        }
+        return xmlOutDoc;
     }
 }
@@ -19,6 +19,8 @@ package org.apache.poi.openxml4j.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Locale;
@@ -29,6 +31,7 @@ import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.openxml4j.opc.internal.InvalidZipException;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.Removal;
 
@@ -210,7 +213,7 @@ public class ZipSecureFile extends ZipFile {
     public ZipSecureFile(File file) throws IOException {
         super(file);
         this.fileName = file.getAbsolutePath();
-        validateEntryNames();
+        validateEntryNames(this);
     }
 
     /**
@@ -220,7 +223,33 @@ public class ZipSecureFile extends ZipFile {
     public ZipSecureFile(String name) throws IOException {
         super(name);
         this.fileName = new File(name).getAbsolutePath();
-        validateEntryNames();
+        validateEntryNames(this);
+    }
+
+    /**
+     * Opens the archive of a channel with the checks of a {@code ZipSecureFile}, i.e. the entry names
+     * are validated and the entries are read through a {@link ZipArchiveThresholdInputStream}.
+     *
+     * @param channel the channel to read the archive from, e.g. the decrypted data of an encrypted document.
+     *  The channel is closed together with the archive.
+     * @return the entries of the archive
+     * @throws IOException  if an error occurs while reading the channel.
+     * @since POI 5.4.1
+     */
+    public static ZipEntrySource openChannel(SeekableByteChannel channel) throws IOException {
+        ZipFile zipFile = ZipFile.builder().setSeekableByteChannel(channel).get();
+        try {
+            validateEntryNames(zipFile);
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(zipFile);
+            throw e;
+        }
+        return new ZipFileZipEntrySource(zipFile) {
+            @Override
+            public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+                return getThresholdInputStream(zipFile.getInputStream(entry), entry);
+            }
+        };
     }
 
     /**
@@ -239,7 +268,11 @@ public class ZipSecureFile extends ZipFile {
     @Override
     @SuppressWarnings("resource")
     public ZipArchiveThresholdInputStream getInputStream(ZipArchiveEntry entry) throws IOException {
-        ZipArchiveThresholdInputStream zatis = new ZipArchiveThresholdInputStream(super.getInputStream(entry));
+        return getThresholdInputStream(super.getInputStream(entry), entry);
+    }
+
+    private static ZipArchiveThresholdInputStream getThresholdInputStream(InputStream is, ZipArchiveEntry entry) {
+        ZipArchiveThresholdInputStream zatis = new ZipArchiveThresholdInputStream(is);
         zatis.setEntry(entry);
         return zatis;
     }
@@ -254,8 +287,8 @@ public class ZipSecureFile extends ZipFile {
         return fileName;
     }
 
-    private void validateEntryNames() throws IOException {
-        final Enumeration<ZipArchiveEntry> en = getEntries();
+    private static void validateEntryNames(ZipFile zipFile) throws IOException {
+        final Enumeration<ZipArchiveEntry> en = zipFile.getEntries();
         final Set<String> filenames = new HashSet<>();
         while (en.hasMoreElements()) {
             final ZipArchiveEntry entry = en.nextElement();
@@ -0,0 +1,209 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+/**
+ * <p>This is a lightweight way to process the Styles table
+ *  for streaming reads. In contrast to the {@link StylesTable},
+ *  which loads the whole part via XMLBeans, only the number formats
+ *  and the number format ids of the cell styles ({@code cellXfs})
+ *  are read via StAX, i.e. no DOM or XMLBeans objects are built
+ *  per style.
+ * <p>Example input:
+ * <pre>{@code
+ * <styleSheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main">
+ *     <numFmts count="1">
+ *         <numFmt numFmtId="164" formatCode="yyyy-mm-dd"/>
+ *     </numFmts>
+ *     ...
+ *     <cellXfs count="2">
+ *         <xf numFmtId="0" fontId="0" fillId="0" borderId="0" xfId="0"/>
+ *         <xf numFmtId="164" fontId="0" fillId="0" borderId="0" xfId="0" applyNumberFormat="1"/>
+ *     </cellXfs>
+ * </styleSheet>
+ * }</pre>
+ *
+ * @since POI 5.4.1
+ */
+public class ReadOnlyStylesTable {
+    private static final XMLInputFactory STAX_FACTORY = XMLHelper.newXMLInputFactory();
+
+    /**
+     * The custom number formats by their id
+     */
+    private final Map<Short, String> numberFormats = new HashMap<>();
+
+    /**
+     * The number format ids of the cell styles
+     */
+    private short[] styleFormats = new short[16];
+    private int styleCount;
+
+    /**
+     * @param pkg The {@link OPCPackage} to use as basis for the styles table.
+     * @throws IOException If reading or parsing the data from the package fails.
+     */
+    public ReadOnlyStylesTable(OPCPackage pkg) throws IOException {
+        ArrayList<PackagePart> parts =
+                pkg.getPartsByContentType(XSSFRelation.STYLES.getContentType());
+
+        // Some workbooks have no styles table.
+        if (!parts.isEmpty()) {
+            readFrom(parts.get(0));
+        }
+    }
+
+    /**
+     * @param part The {@link PackagePart} of the styles table.
+     * @throws IOException If reading or parsing the data from the part fails.
+     */
+    public ReadOnlyStylesTable(PackagePart part) throws IOException {
+        readFrom(part);
+    }
+
+    /**
+     * @param is The stream of the styles table.
+     * @throws IOException If reading or parsing the data from the stream fails.
+     */
+    public ReadOnlyStylesTable(InputStream is) throws IOException {
+        readFrom(is);
+    }
+
+    private void readFrom(PackagePart part) throws IOException {
+        try (InputStream stream = part.getInputStream()) {
+            readFrom(stream);
+        }
+    }
+
+    /**
+     * Read this styles table from an XML file.
+     *
+     * @param is The input stream containing the XML document.
+     * @throws IOException if an error occurs while reading or parsing.
+     */
+    private void readFrom(InputStream is) throws IOException {
+        try {
+            XMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(is);
+            try {
+                boolean cellXfsIsOpen = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                        continue;
+                    }
+                    if (!NS_SPREADSHEETML.equals(reader.getNamespaceURI())) {
+                        continue;
+                    }
+                    String localName = reader.getLocalName();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        if ("cellXfs".equals(localName)) {
+                            // the other style parts aren't needed
+                            break;
+                        }
+                    } else if ("numFmt".equals(localName)) {
+                        String id = reader.getAttributeValue(null, "numFmtId");
+                        String formatCode = reader.getAttributeValue(null, "formatCode");
+                        if (id != null && formatCode != null) {
+                            numberFormats.put((short)Integer.parseInt(id), formatCode);
+                        }
+                    } else if ("cellXfs".equals(localName)) {
+                        cellXfsIsOpen = true;
+                    } else if (cellXfsIsOpen && "xf".equals(localName)) {
+                        String id = reader.getAttributeValue(null, "numFmtId");
+                        addStyle(id == null ? 0 : (short)Integer.parseInt(id));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Failed to parse styles table", e);
+        }
+    }
+
+    private void addStyle(short formatId) {
+        if (styleCount == styleFormats.length) {
+            styleFormats = Arrays.copyOf(styleFormats, styleCount * 2);
+        }
+        styleFormats[styleCount++] = formatId;
+    }
+
+    /**
+     * @return the number of cell styles
+     */
+    public int getNumCellStyles() {
+        return styleCount;
+    }
+
+    /**
+     * @param styleIndex the index of the cell style, i.e. the {@code s} attribute of a cell
+     * @return the number format id of the cell style or -1, if the style doesn't exist
+     */
+    public short getDataFormat(int styleIndex) {
+        return (styleIndex >= 0 && styleIndex < styleCount) ? styleFormats[styleIndex] : -1;
+    }
+
+    /**
+     * @param styleIndex the index of the cell style, i.e. the {@code s} attribute of a cell
+     * @return the number format of the cell style or {@code null}, if the style doesn't exist
+     */
+    public String getDataFormatString(int styleIndex) {
+        short formatId = getDataFormat(styleIndex);
+        return (formatId < 0) ? null : getNumberFormatAt(formatId);
+    }
+
+    /**
+     * Get number format string given its id. Custom number formats may override the
+     * builtin formats.
+     *
+     * @param fmtId number format id
+     * @return number format code or {@code null} if the format id is unknown
+     */
+    public String getNumberFormatAt(short fmtId) {
+        String fmt = numberFormats.get(fmtId);
+        return (fmt != null) ? fmt : BuiltinFormats.getBuiltinFormat(fmtId);
+    }
+
+    /**
+     * @return the custom number formats by their id
+     */
+    public Map<Short, String> getNumberFormats() {
+        return Collections.unmodifiableMap(numberFormats);
+    }
+}
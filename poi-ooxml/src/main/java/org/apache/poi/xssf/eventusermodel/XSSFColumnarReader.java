@@ -0,0 +1,617 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads the cell values of a sheet#.xml sheet part of a XSSF .xlsx file column by column
+ * into primitive vectors, e.g. for feeding them into columnar or vectorized engines.
+ * <p>
+ * In contrast to {@link XSSFSheetXMLHandler}, the values are not formatted and no objects
+ * are created per cell. The rows are collected in batches of {@link #setBatchSize(int) batch size}
+ * rows, which are passed to a {@link ColumnBatchHandler}. Each column of a batch provides
+ * <ul>
+ *     <li>the {@link ColumnVector#getTypes() types} of its cells,</li>
+ *     <li>the numeric, boolean (0 or 1) and error code values as {@code double[]},</li>
+ *     <li>the values of date formatted cells as {@code long[]} milliseconds since the epoch (of the
+ *     local date and time in UTC), besides their Excel date in the {@code double[]} and</li>
+ *     <li>the strings as dictionary codes in a {@code int[]}, which can be resolved
+ *     by {@link #getString(int)}.</li>
+ * </ul>
+ * The string codes of shared strings are the indexes of the shared strings table, i.e. the shared
+ * strings are only resolved on demand. Inline strings and string results of formulas get negative
+ * codes from a dictionary of this reader.
+ * <p>
+ * The vectors are reused for the following batches, i.e. their content is only valid until the handler returns.
+ * The sheet rows, which don't exist in the sheet part, are skipped - use {@link ColumnBatch#getRowNumbers()}
+ * to map the batch rows to the sheet rows.
+ *
+ * @since POI 5.4.1
+ */
+public class XSSFColumnarReader {
+    private static final Logger LOG = PoiLogManager.getLogger(XSSFColumnarReader.class);
+
+    /** The default number of rows of a batch */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    /**
+     * Receives the batches of rows read by {@link #read(InputStream, ColumnBatchHandler)}
+     */
+    public interface ColumnBatchHandler {
+        /**
+         * A batch of rows has been read. The batch and its vectors are reused after this method returns.
+         */
+        void batch(ColumnBatch batch);
+    }
+
+    private final ReadOnlyStylesTable styles;
+    private final SharedStrings sharedStrings;
+    private final boolean date1904;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** date format flags by style index, see {@link #isDateStyle(int)} */
+    private byte[] dateStyles = new byte[0];
+    private static final byte STYLE_UNKNOWN = 0, STYLE_DATE = 1, STYLE_OTHER = 2;
+
+    /** strings which are not in the shared strings table, with the code {@code -1-index} */
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String,Integer> stringCodes = new HashMap<>();
+
+    /**
+     * Creates a columnar reader for the sheets of the given reader
+     *
+     * @param reader the reader of the package
+     * @throws IOException if there is an I/O issue reading the data
+     * @throws InvalidFormatException if the package parts are invalid
+     * @throws SAXException if the workbook part can't be parsed
+     */
+    public XSSFColumnarReader(XSSFReader reader) throws IOException, InvalidFormatException, SAXException {
+        this(reader.getReadOnlyStylesTable(), reader.getSharedStringsTable(), isDate1904(reader));
+    }
+
+    /**
+     * Creates a columnar reader
+     *
+     * @param styles the styles table used to detect date formatted cells, may be {@code null}
+     * @param sharedStrings the shared strings table used by {@link #getString(int)}
+     * @param date1904 whether the workbook uses the 1904 date system
+     */
+    public XSSFColumnarReader(ReadOnlyStylesTable styles, SharedStrings sharedStrings, boolean date1904) {
+        this.styles = styles;
+        this.sharedStrings = sharedStrings;
+        this.date1904 = date1904;
+    }
+
+    /**
+     * @param batchSize the maximum number of rows of a batch, defaults to {@link #DEFAULT_BATCH_SIZE}
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Reads the cell values of the given sheet part, e.g. from {@link XSSFReader#getSheetsData()}
+     *
+     * @param sheetData the sheet part
+     * @param handler the handler receiving the batches of rows
+     * @throws IOException if there is an I/O issue reading the data
+     * @throws SAXException if the sheet part can't be parsed
+     */
+    public void read(InputStream sheetData, ColumnBatchHandler handler) throws IOException, SAXException {
+        parse(sheetData, new SheetHandler(handler));
+    }
+
+    /**
+     * Resolves a string code of the {@link ColumnVector#getStrings() string vectors}
+     *
+     * @param code the string code
+     * @return the string
+     */
+    public String getString(int code) {
+        return (code >= 0) ? sharedStrings.getItemAt(code).getString() : strings.get(-1 - code);
+    }
+
+    /**
+     * @return the number of strings, which are not in the shared strings table, i.e. the
+     * negative string codes range from {@code -1} to {@code -getStringCount()}
+     */
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    private int getStringCode(String str) {
+        Integer code = stringCodes.get(str);
+        if (code == null) {
+            strings.add(str);
+            code = -strings.size();
+            stringCodes.put(str, code);
+        }
+        return code;
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styles == null || styleIndex < 0) {
+            return false;
+        }
+        if (styleIndex >= dateStyles.length) {
+            dateStyles = Arrays.copyOf(dateStyles, Math.max(styleIndex + 1, dateStyles.length * 2));
+        }
+        if (dateStyles[styleIndex] == STYLE_UNKNOWN) {
+            short formatIndex = styles.getDataFormat(styleIndex);
+            boolean isDate = formatIndex >= 0 && DateUtil.isADateFormat(formatIndex, styles.getDataFormatString(styleIndex));
+            dateStyles[styleIndex] = isDate ? STYLE_DATE : STYLE_OTHER;
+        }
+        return dateStyles[styleIndex] == STYLE_DATE;
+    }
+
+    /**
+     * @return the milliseconds since the epoch of the Excel date, see {@link DateUtil#getLocalDateTime(double, boolean)}
+     */
+    private long toEpochMillis(double date) {
+        final double epochDays;
+        if (date1904) {
+            epochDays = date - 24107;
+        } else {
+            // Excel wrongly treats 1900 as a leap year
+            epochDays = date - (date < 61 ? 25568 : 25569);
+        }
+        return Math.round(epochDays * DateUtil.DAY_MILLISECONDS);
+    }
+
+    private static void parse(InputStream stream, DefaultHandler handler) throws IOException, SAXException {
+        try {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(stream));
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("SAX parser appears to be broken - " + e.getMessage());
+        }
+    }
+
+    private static boolean isDate1904(XSSFReader reader) throws IOException, InvalidFormatException, SAXException {
+        final boolean[] date1904 = { false };
+        try (InputStream is = reader.getWorkbookData()) {
+            parse(is, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equals(value);
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+    /**
+     * Parses a number of a cell value. Decimal numbers with up to 15 digits are converted directly,
+     * as their digits and the power of ten are exact doubles - other numbers are parsed by {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException if the value isn't a number, e.g. {@code "."} or {@code "1e"}
+     */
+    static double parseDouble(CharSequence str) {
+        final int len = str.length();
+        int i = 0;
+        boolean negative = false;
+        if (len > 0 && str.charAt(0) == '-') {
+            negative = true;
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < len; i++) {
+            char c = str.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i < len || digits == 0 || digits > 15) {
+            return Double.parseDouble(str.toString());
+        }
+        double value = (scale > 0) ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * A batch of rows of a sheet
+     */
+    public static final class ColumnBatch {
+        private int rowCount;
+        private int[] rowNumbers;
+        private int columnCount;
+        private ColumnVector[] columns = new ColumnVector[0];
+
+        private ColumnBatch(int batchSize) {
+            rowNumbers = new int[batchSize];
+        }
+
+        /**
+         * @return the number of rows of the batch, i.e. the number of valid entries of the vectors
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return the zero based sheet row numbers of the batch rows
+         */
+        public int[] getRowNumbers() {
+            return rowNumbers;
+        }
+
+        /**
+         * @return the number of columns, i.e. the maximum column index of the sheet read so far plus 1
+         */
+        public int getColumnCount() {
+            return columnCount;
+        }
+
+        /**
+         * @param columnIndex the zero based column index
+         * @return the column vector
+         */
+        public ColumnVector getColumn(int columnIndex) {
+            if (columnIndex < 0 || columnIndex >= columnCount) {
+                throw new IndexOutOfBoundsException("Column " + columnIndex + " is outside of 0.." + (columnCount - 1));
+            }
+            return columns[columnIndex];
+        }
+
+        private ColumnVector getOrCreateColumn(int columnIndex) {
+            if (columnIndex >= columnCount) {
+                if (columnIndex >= columns.length) {
+                    columns = Arrays.copyOf(columns, Math.max(columnIndex + 1, columns.length * 2));
+                }
+                for (int c = columnCount; c <= columnIndex; c++) {
+                    columns[c] = new ColumnVector(rowNumbers.length);
+                }
+                columnCount = columnIndex + 1;
+            }
+            return columns[columnIndex];
+        }
+
+        private void clear() {
+            for (int c = 0; c < columnCount; c++) {
+                Arrays.fill(columns[c].types, 0, rowCount, ColumnVector.BLANK);
+            }
+            rowCount = 0;
+        }
+    }
+
+    /**
+     * The cell values of a column of a {@link ColumnBatch}. The vectors are indexed by the batch row,
+     * the value vectors are only allocated, when the first value of their kind was read.
+     */
+    public static final class ColumnVector {
+        public static final byte BLANK = 0;
+        /** a number - the value is in {@link #getNumbers()} */
+        public static final byte NUMERIC = 1;
+        /** a date formatted number - the value is in {@link #getDates()} and {@link #getNumbers()} */
+        public static final byte DATE = 2;
+        /** a string - the code is in {@link #getStrings()} */
+        public static final byte STRING = 3;
+        /** a boolean - the value 0 or 1 is in {@link #getNumbers()} */
+        public static final byte BOOLEAN = 4;
+        /** an error - the {@link FormulaError#getCode() error code} is in {@link #getNumbers()} */
+        public static final byte ERROR = 5;
+
+        private static final double[] NO_NUMBERS = {};
+        private static final long[] NO_DATES = {};
+        private static final int[] NO_STRINGS = {};
+
+        private final byte[] types;
+        private double[] numbers = NO_NUMBERS;
+        private long[] dates = NO_DATES;
+        private int[] strings = NO_STRINGS;
+
+        private ColumnVector(int batchSize) {
+            types = new byte[batchSize];
+        }
+
+        /**
+         * @return the cell types, i.e. {@link #BLANK}, {@link #NUMERIC}, {@link #DATE}, {@link #STRING},
+         * {@link #BOOLEAN} or {@link #ERROR}
+         */
+        public byte[] getTypes() {
+            return types;
+        }
+
+        /**
+         * @return the numeric values, empty if the column doesn't contain numeric, date, boolean or error values yet
+         */
+        public double[] getNumbers() {
+            return numbers;
+        }
+
+        /**
+         * @return the date values in milliseconds since the epoch, empty if the column doesn't contain dates yet
+         */
+        public long[] getDates() {
+            return dates;
+        }
+
+        /**
+         * @return the string codes, empty if the column doesn't contain strings yet
+         * @see XSSFColumnarReader#getString(int)
+         */
+        public int[] getStrings() {
+            return strings;
+        }
+
+        private void setNumber(int row, byte type, double value) {
+            if (numbers == NO_NUMBERS) {
+                numbers = new double[types.length];
+            }
+            types[row] = type;
+            numbers[row] = value;
+        }
+
+        private void setDate(int row, double value, long millis) {
+            setNumber(row, DATE, value);
+            if (dates == NO_DATES) {
+                dates = new long[types.length];
+            }
+            dates[row] = millis;
+        }
+
+        private void setString(int row, int code) {
+            if (strings == NO_STRINGS) {
+                strings = new int[types.length];
+            }
+            types[row] = STRING;
+            strings[row] = code;
+        }
+    }
+
+    /**
+     * Fills the batches from the SAX events of a sheet part
+     */
+    private final class SheetHandler extends DefaultHandler {
+        private final ColumnBatchHandler output;
+        private final ColumnBatch batch;
+
+        private int rowNum = -1;
+        private int columnIndex;
+        private String cellType;
+        private int styleIndex;
+
+        // Set when a "v" element or the "t" elements of an inline string are open
+        private boolean valueIsOpen;
+        private boolean isIsOpen;
+        // phonetic runs of inline strings are ignored
+        private boolean rPhIsOpen;
+        private final StringBuilder value = new StringBuilder(64);
+
+        SheetHandler(ColumnBatchHandler output) {
+            this.output = output;
+            this.batch = new ColumnBatch(batchSize);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            switch (localName) {
+                case "row": {
+                    String r = attributes.getValue("r");
+                    rowNum = (r != null) ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    columnIndex = -1;
+                    batch.rowNumbers[batch.rowCount] = rowNum;
+                    break;
+                }
+                case "c": {
+                    String r = attributes.getValue("r");
+                    columnIndex = (r != null) ? parseColumnIndex(r) : columnIndex + 1;
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = (s != null) ? parseInt(s, 0, s.length()) : 0;
+                    value.setLength(0);
+                    break;
+                }
+                case "v":
+                    valueIsOpen = true;
+                    value.setLength(0);
+                    break;
+                case "is":
+                    isIsOpen = true;
+                    value.setLength(0);
+                    break;
+                case "rPh":
+                    rPhIsOpen = true;
+                    break;
+                case "t":
+                    valueIsOpen = isIsOpen && !rPhIsOpen;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            switch (localName) {
+                case "v":
+                    valueIsOpen = false;
+                    setValue();
+                    break;
+                case "t":
+                    valueIsOpen = false;
+                    break;
+                case "rPh":
+                    rPhIsOpen = false;
+                    break;
+                case "is":
+                    isIsOpen = false;
+                    batch.getOrCreateColumn(columnIndex).setString(batch.rowCount, getStringCode(value.toString()));
+                    break;
+                case "row":
+                    if (++batch.rowCount == batchSize) {
+                        flush();
+                    }
+                    break;
+                case "sheetData":
+                    if (batch.rowCount > 0) {
+                        flush();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (valueIsOpen) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private void flush() {
+            output.batch(batch);
+            batch.clear();
+        }
+
+        private void setValue() {
+            final ColumnVector column = batch.getOrCreateColumn(columnIndex);
+            final int row = batch.rowCount;
+            if (cellType == null || "n".equals(cellType)) {
+                if (value.length() == 0) {
+                    return;
+                }
+                final double d;
+                try {
+                    d = parseDouble(value);
+                } catch (NumberFormatException ex) {
+                    LOG.atWarn().log("Invalid number '{}' - will use its raw value instead", value);
+                    column.setString(row, getStringCode(value.toString()));
+                    return;
+                }
+                if (isDateStyle(styleIndex) && DateUtil.isValidExcelDate(d)) {
+                    column.setDate(row, d, toEpochMillis(d));
+                } else {
+                    column.setNumber(row, ColumnVector.NUMERIC, d);
+                }
+                return;
+            }
+            switch (cellType) {
+                case "s":
+                    try {
+                        column.setString(row, parseInt(value, 0, value.length()));
+                    } catch (NumberFormatException ex) {
+                        LOG.atError().withThrowable(ex).log("Failed to parse SST index '{}'", value);
+                    }
+                    break;
+                case "b":
+                    column.setNumber(row, ColumnVector.BOOLEAN, (value.length() > 0 && value.charAt(0) == '1') ? 1 : 0);
+                    break;
+                case "e":
+                    try {
+                        column.setNumber(row, ColumnVector.ERROR, FormulaError.forString(value.toString()).getCode());
+                    } catch (IllegalArgumentException ex) {
+                        LOG.atWarn().log("Unknown error value '{}'", value);
+                    }
+                    break;
+                default:
+                    // "str" formula results, "inlineStr" values in "v" elements and ISO 8601 dates ("d")
+                    column.setString(row, getStringCode(value.toString()));
+                    break;
+            }
+        }
+
+        /**
+         * @return the zero based column index of a cell reference like "AB12"
+         */
+        private int parseColumnIndex(String ref) {
+            int col = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    col = col * 26 + (c - 'A' + 1);
+                } else if (c != '$') {
+                    break;
+                }
+            }
+            return col - 1;
+        }
+
+        private int parseInt(CharSequence str, int start, int end) {
+            if (start == end) {
+                throw new NumberFormatException("Empty number");
+            }
+            int result = 0;
+            for (int i = start; i < end; i++) {
+                char c = str.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Invalid number '" + str + "'");
+                }
+                result = result * 10 + (c - '0');
+            }
+            return result;
+        }
+    }
+}
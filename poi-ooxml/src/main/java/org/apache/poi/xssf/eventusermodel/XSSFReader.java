@@ -75,6 +75,7 @@ public class XSSFReader {
     protected OPCPackage pkg;
     protected PackagePart workbookPart;
     protected boolean useReadOnlySharedStringsTable;
+    protected boolean useTempFileSharedStringsTable;
 
     /**
      * Creates a new XSSFReader, for the given package
@@ -142,6 +143,27 @@ public class XSSFReader {
         return useReadOnlySharedStringsTable;
     }
 
+    /**
+     * Controls whether {@link #getSharedStringsTable()} uses a {@link TempFileSharedStringsTable}, which
+     * keeps the strings in a memory-mapped temp file instead of the heap. If enabled, this takes precedence
+     * over {@link #setUseReadOnlySharedStringsTable(boolean)} and the returned table needs to be closed
+     * to remove the temp file.
+     *
+     * @param useTempFileSharedStringsTable if true, the TempFileSharedStringsTable is used
+     * @since POI 5.4.1
+     */
+    public void setUseTempFileSharedStringsTable(boolean useTempFileSharedStringsTable) {
+        this.useTempFileSharedStringsTable = useTempFileSharedStringsTable;
+    }
+
+    /**
+     * @return whether {@link #getSharedStringsTable()} uses {@link TempFileSharedStringsTable}
+     * @since POI 5.4.1
+     */
+    public boolean useTempFileSharedStringsTable() {
+        return useTempFileSharedStringsTable;
+    }
+
     /**
      * Opens up the Shared Strings Table, parses it, and
      * returns a handy object for working with
@@ -151,11 +173,13 @@ public class XSSFReader {
      * @throws InvalidFormatException if the shared strings data format is invalid
      * @throws IOException if there is an I/O issue reading the data
      * @see #setUseReadOnlySharedStringsTable(boolean)
+     * @see #setUseTempFileSharedStringsTable(boolean)
      */
     public SharedStrings getSharedStringsTable() throws IOException, InvalidFormatException {
         ArrayList<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
         try {
             return parts.isEmpty() ? null :
+                    useTempFileSharedStringsTable ? new TempFileSharedStringsTable(parts.get(0)) :
                     useReadOnlySharedStringsTable ? new ReadOnlySharedStringsTable(parts.get(0)) :
                             new SharedStringsTable(parts.get(0));
         } catch (SAXException se) {
@@ -184,6 +208,21 @@ public class XSSFReader {
         return styles;
     }
 
+    /**
+     * Opens up the Styles Table and reads only the number formats
+     * of the cell styles. This is considerably faster and uses less
+     * memory than {@link #getStylesTable()}, which is useful for
+     * streaming reads of workbooks with many cell styles.
+     *
+     * @return {@link ReadOnlyStylesTable} or {@code null} if there is no styles part
+     * @throws InvalidFormatException if the styles data format is invalid
+     * @throws IOException if there is an I/O issue reading the data
+     * @since POI 5.4.1
+     */
+    public ReadOnlyStylesTable getReadOnlyStylesTable() throws IOException, InvalidFormatException {
+        ArrayList<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.STYLES.getContentType());
+        return parts.isEmpty() ? null : new ReadOnlyStylesTable(parts.get(0));
+    }
 
     /**
      * Returns an InputStream to read the contents of the
@@ -0,0 +1,308 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.poifs.nio.CleanerUtil;
+import org.apache.poi.util.TempFile;
+
+/**
+ * An append-only list of byte entries, which are stored in a temporary file and read back
+ * via memory-mapped segments of the file.
+ * <p>
+ * Only the offset index and - if lookups are used - a hash index are kept on the heap, i.e.
+ * about 4 bytes per entry plus 12 bytes per entry for the hash index.
+ */
+final class MappedStringStore implements Closeable {
+    private static final Logger LOG = PoiLogManager.getLogger(MappedStringStore.class);
+
+    /** the file is mapped in segments of 1 GB */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    /** the growing last segment is only remapped after this many bytes have been appended */
+    private static final long REMAP_THRESHOLD = 1 << 20;
+    /** the entries of a block share a base offset, so each entry only needs a 32-bit offset */
+    private static final int BLOCK_SHIFT = 8;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    /** number of bytes written to the file, excluding the pending bytes in the write buffer */
+    private long flushedSize;
+
+    /** the end offset of each entry relative to the base offset of its block */
+    private int[] relEnds = new int[1 << BLOCK_SHIFT];
+    /** the start offset of each block */
+    private long[] blockBases = new long[16];
+    private int size;
+    private long totalSize;
+
+    private MappedByteBuffer[] segments = new MappedByteBuffer[1];
+
+    /** the hashes of the entries, only maintained after the first lookup */
+    private int[] hashes;
+    /** open addressing table of entry index + 1, 0 marks an empty slot */
+    private int[] slots;
+
+    MappedStringStore() throws IOException {
+        file = TempFile.createTempFile("poi-sst-", ".tmp");
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+    }
+
+    /**
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends an entry - this doesn't check for duplicates
+     *
+     * @param data the entry
+     * @return the index of the entry
+     */
+    int add(byte[] data) throws IOException {
+        final int idx = size;
+        final int block = idx >>> BLOCK_SHIFT;
+        if ((idx & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+            if (block == blockBases.length) {
+                blockBases = Arrays.copyOf(blockBases, block * 2);
+            }
+            blockBases[block] = totalSize;
+        }
+        final long relEnd = totalSize + data.length - blockBases[block];
+        if (relEnd > 0xFFFFFFFFL) {
+            throw new IllegalStateException("The entries of a block exceed 4 GB");
+        }
+        if (idx == relEnds.length) {
+            relEnds = Arrays.copyOf(relEnds, idx * 2);
+        }
+
+        write(data);
+        relEnds[idx] = (int)relEnd;
+        totalSize += data.length;
+        size++;
+
+        if (slots != null) {
+            insert(idx, hash(data));
+        }
+        return idx;
+    }
+
+    /**
+     * @param idx the index of the entry
+     * @return the entry at the given index
+     */
+    byte[] get(int idx) throws IOException {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index " + idx + " out of bounds for length " + size);
+        }
+        final long start = start(idx);
+        final long end = end(idx);
+        final byte[] data = new byte[(int)(end - start)];
+        if (data.length == 0) {
+            return data;
+        }
+        if (end > flushedSize) {
+            flush();
+        }
+
+        final int seg = (int)(start >>> SEGMENT_SHIFT);
+        final ByteBuffer buf = ((end - 1) >>> SEGMENT_SHIFT == seg) ? segment(seg, end) : null;
+        if (buf != null) {
+            buf.position((int)(start - ((long)seg << SEGMENT_SHIFT)));
+            buf.get(data);
+        } else {
+            // the entry spans two segments or the segment hasn't been remapped yet
+            final ByteBuffer dst = ByteBuffer.wrap(data);
+            for (long pos = start; dst.hasRemaining(); ) {
+                int read = channel.read(dst, pos);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of " + file);
+                }
+                pos += read;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * @param data the entry to look for
+     * @return the index of the first entry equal to the given data, or -1 if there's none
+     */
+    int indexOf(byte[] data) throws IOException {
+        if (slots == null) {
+            buildHashIndex();
+        }
+        final int hash = hash(data);
+        final int mask = slots.length - 1;
+        for (int i = hash & mask; slots[i] != 0; i = (i + 1) & mask) {
+            final int idx = slots[i] - 1;
+            if (hashes[idx] == hash && end(idx) - start(idx) == data.length && Arrays.equals(get(idx), data)) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer buf : segments) {
+            unmap(buf);
+        }
+        Arrays.fill(segments, null);
+        try {
+            raf.close();
+        } finally {
+            if (!file.delete()) {
+                LOG.atWarn().log("Failed to delete the temp file {}", file);
+            }
+        }
+    }
+
+    private long start(int idx) {
+        return (idx == 0) ? 0 : end(idx - 1);
+    }
+
+    private long end(int idx) {
+        return blockBases[idx >>> BLOCK_SHIFT] + (relEnds[idx] & 0xFFFFFFFFL);
+    }
+
+    private void write(byte[] data) throws IOException {
+        if (data.length > writeBuffer.remaining()) {
+            flush();
+        }
+        if (data.length > writeBuffer.capacity()) {
+            final ByteBuffer src = ByteBuffer.wrap(data);
+            while (src.hasRemaining()) {
+                flushedSize += channel.write(src, flushedSize);
+            }
+        } else {
+            writeBuffer.put(data);
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            flushedSize += channel.write(writeBuffer, flushedSize);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * @return a view of the mapped segment, which contains the given end offset,
+     *  or {@code null} if it's not worth to remap the segment yet
+     */
+    private ByteBuffer segment(int seg, long end) throws IOException {
+        if (seg >= segments.length) {
+            segments = Arrays.copyOf(segments, seg + 1);
+        }
+        MappedByteBuffer buf = segments[seg];
+        final long base = (long)seg << SEGMENT_SHIFT;
+        if (buf == null || base + buf.capacity() < end) {
+            final long length = Math.min(SEGMENT_SIZE, flushedSize - base);
+            if (buf != null && length < SEGMENT_SIZE && length - buf.capacity() < REMAP_THRESHOLD) {
+                return null;
+            }
+            unmap(buf);
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+            segments[seg] = buf;
+        }
+        return buf.duplicate();
+    }
+
+    private void buildHashIndex() throws IOException {
+        hashes = new int[Math.max(size, 16)];
+        slots = new int[tableSize(size)];
+        for (int idx = 0; idx < size; idx++) {
+            insert(idx, hash(get(idx)));
+        }
+    }
+
+    private void insert(int idx, int hash) {
+        if (idx == hashes.length) {
+            hashes = Arrays.copyOf(hashes, idx * 2);
+        }
+        hashes[idx] = hash;
+        if ((idx + 1) * 2 > slots.length) {
+            // rehash the existing entries, the new entry is added below
+            slots = new int[slots.length * 2];
+            for (int i = 0; i < idx; i++) {
+                putSlot(i, hashes[i]);
+            }
+        }
+        putSlot(idx, hash);
+    }
+
+    private void putSlot(int idx, int hash) {
+        final int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = idx + 1;
+    }
+
+    private static int tableSize(int entries) {
+        int tableSize = 16;
+        while (tableSize < entries * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private static int hash(byte[] data) {
+        int h = Arrays.hashCode(data);
+        // spread the bits, as the lower bits are used for the slot index
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static void unmap(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (CleanerUtil.UNMAP_SUPPORTED) {
+            try {
+                CleanerUtil.getCleaner().freeBuffer(buffer);
+            } catch (IOException e) {
+                LOG.atWarn().withThrowable(e).log("Failed to unmap the buffer");
+            }
+        } else {
+            LOG.atDebug().log(CleanerUtil.UNMAP_NOT_SUPPORTED_REASON);
+        }
+    }
+}
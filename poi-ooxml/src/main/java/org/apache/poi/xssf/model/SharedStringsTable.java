@@ -107,9 +107,24 @@ public class SharedStringsTable extends POIXMLDocumentPart implements SharedStri
      * @since POI 3.14-Beta1
      */
     public SharedStringsTable(PackagePart part) throws IOException {
+        this(part, true);
+    }
+
+    /**
+     * Constructor for subclasses, which need to initialize their storage
+     * before the part is read via {@link #readFrom(InputStream)}
+     *
+     * @param part the package part of the table
+     * @param readPart if {@code true} the part is read immediately, otherwise it's up to the subclass
+     *
+     * @since POI 5.4.1
+     */
+    protected SharedStringsTable(PackagePart part, boolean readPart) throws IOException {
         super(part);
-        try (InputStream stream = part.getInputStream()) {
-            readFrom(stream);
+        if (readPart) {
+            try (InputStream stream = part.getInputStream()) {
+                readFrom(stream);
+            }
         }
     }
 
@@ -467,6 +467,12 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public int putStyle(XSSFCellStyle style) {
         CTXf mainXF = style.getCoreXf();
 
+        // usually the style is already at its index, which saves the search
+        int idx = style.getIndex();
+        if (idx >= 0 && idx < xfs.size() && xfs.get(idx) == mainXF) {
+            return idx;
+        }
+
         int ret = xfs.indexOf(mainXF);
         if(ret == -1) {
             xfs.add(mainXF);
@@ -559,6 +565,40 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         xfs.set(idx, cellXf);
     }
 
+    /**
+     * Removes several cell styles in a single pass. This will make all
+     * subsequent style indices drop, so you'll need to update those yourself!
+     *
+     * @param remove flags by style index, if the style is to be removed
+     * @since POI 5.4.1
+     */
+    @Internal
+    public void removeCellXfs(boolean[] remove) {
+        removeAll(xfs, remove);
+    }
+
+    /**
+     * Removes several fonts in a single pass. This will make all
+     * subsequent font indices drop, so you'll need to update those yourself!
+     *
+     * @param remove flags by font index, if the font is to be removed
+     * @since POI 5.4.1
+     */
+    @Internal
+    public void removeFonts(boolean[] remove) {
+        removeAll(fonts, remove);
+    }
+
+    private static <T> void removeAll(List<T> list, boolean[] remove) {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (i >= remove.length || !remove[i]) {
+                list.set(kept++, list.get(i));
+            }
+        }
+        list.subList(kept, list.size()).clear();
+    }
+
     @Internal
     public CTXf getCellStyleXfAt(int idx) {
         try {
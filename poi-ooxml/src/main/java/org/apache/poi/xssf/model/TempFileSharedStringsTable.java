@@ -0,0 +1,400 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.model;
+
+import static org.apache.poi.ooxml.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.ooxml.POIXMLRelation;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.usermodel.XSSFFactory;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A {@link SharedStringsTable} for very large string pools, which keeps the strings
+ * UTF-8 encoded in a memory-mapped temp file instead of XMLBeans objects on the heap.
+ * <p>
+ * Plain strings are stored as text, formatted strings (runs, phonetic properties) as their XML.
+ * The items returned by {@link #getItemAt(int)} are decoded on each call, i.e. they are copies and
+ * changes to them aren't reflected in the table.
+ * <p>
+ * The table needs to be closed to remove the temp file - this is done by {@code XSSFWorkbook#close()}
+ * for the table of a workbook. To use the table for new workbooks, e.g. with a {@code SXSSFWorkbook},
+ * create the workbook with {@link #getFactory()}:
+ * <pre>{@code
+ * try (SXSSFWorkbook wb = new SXSSFWorkbook(new XSSFWorkbook(TempFileSharedStringsTable.getFactory()), 100, false, true)) {
+ *     ...
+ * }
+ * }</pre>
+ * For reading, see {@code XSSFReader#setUseTempFileSharedStringsTable(boolean)}.
+ *
+ * @since POI 5.4.1
+ */
+public class TempFileSharedStringsTable extends SharedStringsTable {
+    private static final byte PLAIN = 0;
+    private static final byte RICH = 1;
+
+    private static final XSSFFactory FACTORY = new XSSFFactory() {
+        @Override
+        public POIXMLDocumentPart createDocumentPart(POIXMLDocumentPart parent, PackagePart part) {
+            if (XSSFRelation.SHARED_STRINGS.getRelation().equals(getPackageRelationship(parent, part).getRelationshipType())) {
+                try {
+                    return new TempFileSharedStringsTable(part);
+                } catch (IOException e) {
+                    throw new POIXMLException(e);
+                }
+            }
+            return super.createDocumentPart(parent, part);
+        }
+
+        @Override
+        public POIXMLDocumentPart newDocumentPart(POIXMLRelation descriptor) {
+            if (descriptor == XSSFRelation.SHARED_STRINGS) {
+                try {
+                    return new TempFileSharedStringsTable();
+                } catch (IOException e) {
+                    throw new POIXMLException(e);
+                }
+            }
+            return super.newDocumentPart(descriptor);
+        }
+    };
+
+    private final MappedStringStore store;
+
+    public TempFileSharedStringsTable() throws IOException {
+        super();
+        store = new MappedStringStore();
+    }
+
+    public TempFileSharedStringsTable(PackagePart part) throws IOException {
+        super(part, false);
+        store = new MappedStringStore();
+        try (InputStream stream = part.getInputStream()) {
+            readFrom(stream);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return a factory, which creates the shared strings table of new workbooks as {@code TempFileSharedStringsTable}
+     */
+    public static XSSFFactory getFactory() {
+        return FACTORY;
+    }
+
+    /**
+     * Read this shared strings table from an XML file.
+     *
+     * @param is The input stream containing the XML document.
+     * @throws IOException if an error occurs while reading.
+     */
+    @Override
+    public void readFrom(InputStream is) throws IOException {
+        try {
+            XMLReader reader = XMLHelper.newXMLReader();
+            reader.setContentHandler(new SstHandler());
+            reader.parse(new InputSource(is));
+        } catch (SAXException | ParserConfigurationException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException("unable to parse shared strings table", e);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        final byte[] data;
+        try {
+            data = store.get(idx);
+        } catch (IOException e) {
+            throw new POIXMLException(e);
+        }
+        final String str = new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+        if (data[0] == PLAIN) {
+            return new XSSFRichTextString(str);
+        }
+        try {
+            XmlOptions options = new XmlOptions(DEFAULT_XML_OPTIONS);
+            // the si element is replaced by the CTRst
+            options.setLoadReplaceDocumentElement(null);
+            return new XSSFRichTextString(CTRst.Factory.parse("<si xmlns=\"" + NS_SPREADSHEETML + "\">" + str + "</si>", options));
+        } catch (XmlException e) {
+            throw new POIXMLException(e);
+        }
+    }
+
+    @Internal
+    @Override
+    int addEntry(CTRst st) {
+        final byte[] data = isPlain(st) ? encode(PLAIN, st.getT()) : encode(RICH, xmlText(st));
+        count++;
+        try {
+            int idx = store.indexOf(data);
+            if (idx == -1) {
+                uniqueCount++;
+                idx = store.add(data);
+            }
+            return idx;
+        } catch (IOException e) {
+            throw new POIXMLException(e);
+        }
+    }
+
+    /**
+     * Provide access to the strings in the SharedStringsTable.
+     * The items are decoded on access.
+     *
+     * @return list of shared string instances
+     */
+    @Override
+    public List<RichTextString> getSharedStringItems() {
+        return Collections.unmodifiableList(new AbstractList<RichTextString>() {
+            @Override
+            public RichTextString get(int index) {
+                return getItemAt(index);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        });
+    }
+
+    /**
+     * Write this table out as XML.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if an error occurs while writing.
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        w.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        w.write("<sst xmlns=\"" + NS_SPREADSHEETML + "\" count=\"" + count + "\" uniqueCount=\"" + uniqueCount + "\">");
+        for (int i = 0; i < store.size(); i++) {
+            final byte[] data = store.get(i);
+            final String str = new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            w.write("<si>");
+            if (data[0] == PLAIN) {
+                w.write(hasLeadingTrailingSpaces(str) ? "<t xml:space=\"preserve\">" : "<t>");
+                w.write(escape(new StringBuilder(str.length() + 16), str).toString());
+                w.write("</t>");
+            } else {
+                w.write(str);
+            }
+            w.write("</si>");
+        }
+        w.write("</sst>");
+        // don't close the writer, as the stream is owned by the caller
+        w.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private static boolean isPlain(CTRst st) {
+        return st.isSetT() && st.sizeOfRArray() == 0 && st.sizeOfRPhArray() == 0 && !st.isSetPhoneticPr();
+    }
+
+    private static byte[] encode(byte type, String str) {
+        final byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+        final byte[] data = new byte[utf8.length + 1];
+        data[0] = type;
+        System.arraycopy(utf8, 0, data, 1, utf8.length);
+        return data;
+    }
+
+    private static boolean hasLeadingTrailingSpaces(String str) {
+        return !str.isEmpty() && (Character.isWhitespace(str.charAt(0)) || Character.isWhitespace(str.charAt(str.length() - 1)));
+    }
+
+    private static StringBuilder escape(StringBuilder sb, CharSequence str) {
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '\"':
+                    sb.append("&quot;");
+                    break;
+                case '\n':
+                    sb.append("&#xa;");
+                    break;
+                case '\r':
+                    sb.append("&#xd;");
+                    break;
+                case '\t':
+                    sb.append("&#x9;");
+                    break;
+                default:
+                    // XmlBeans replaces the ISO control characters and "not a character" symbols with question marks
+                    sb.append(c < ' ' || ('\uFFFE' <= c && c <= '\uFFFF') ? '?' : c);
+                    break;
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Stores the si elements - either the text of plain strings or the inner XML of formatted strings
+     */
+    private final class SstHandler extends DefaultHandler {
+        private final StringBuilder text = new StringBuilder(64);
+        private final StringBuilder xml = new StringBuilder(64);
+        private final Deque<String> elementNames = new ArrayDeque<>();
+        private final Map<String, String> prefixes = new HashMap<>();
+        /** the depth within the current si element, 0 if outside */
+        private int depth;
+        private boolean plain;
+        private int textElements;
+        private boolean inText;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (depth == 0) {
+                if (NS_SPREADSHEETML.equals(uri) && "sst".equals(localName)) {
+                    String cnt = attributes.getValue("count");
+                    if (cnt != null) count = (int) Long.parseLong(cnt);
+                    String uniqueCnt = attributes.getValue("uniqueCount");
+                    if (uniqueCnt != null) uniqueCount = (int) Long.parseLong(uniqueCnt);
+                } else if (NS_SPREADSHEETML.equals(uri) && "si".equals(localName)) {
+                    depth = 1;
+                    plain = true;
+                    textElements = 0;
+                    text.setLength(0);
+                    xml.setLength(0);
+                }
+                return;
+            }
+
+            if (++depth == 2) {
+                if (NS_SPREADSHEETML.equals(uri) && "t".equals(localName)) {
+                    textElements++;
+                    inText = true;
+                } else {
+                    plain = false;
+                }
+            }
+
+            final StringBuilder declarations = new StringBuilder();
+            final String name = qualify(uri, localName, declarations);
+            xml.append('<').append(name);
+            for (int i = 0; i < attributes.getLength(); i++) {
+                final String attrUri = attributes.getURI(i);
+                final String attrName = attrUri.isEmpty() ? attributes.getLocalName(i)
+                    : XMLConstants.XML_NS_URI.equals(attrUri) ? "xml:" + attributes.getLocalName(i)
+                    : qualify(attrUri, attributes.getLocalName(i), declarations);
+                xml.append(' ').append(attrName).append("=\"");
+                escape(xml, attributes.getValue(i)).append('"');
+            }
+            xml.append(declarations).append('>');
+            elementNames.push(name);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (depth == 0) {
+                return;
+            }
+            if (--depth == 0) {
+                try {
+                    store.add(plain && textElements <= 1 ? encode(PLAIN, text.toString()) : encode(RICH, xml.toString()));
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+                return;
+            }
+            if (depth == 1) {
+                inText = false;
+            }
+            xml.append("</").append(elementNames.pop()).append('>');
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (depth > 0) {
+                escape(xml, new String(ch, start, length));
+                if (inText) {
+                    text.append(ch, start, length);
+                }
+            }
+        }
+
+        /**
+         * @return the name of the element or attribute, elements of the spreadsheetml namespace
+         *  use the default namespace, other namespaces are declared on the element
+         */
+        private String qualify(String uri, String localName, StringBuilder declarations) {
+            if (uri.isEmpty() || NS_SPREADSHEETML.equals(uri)) {
+                return localName;
+            }
+            final String prefix = prefixes.computeIfAbsent(uri, k -> "ns" + prefixes.size());
+            final String declaration = " xmlns:" + prefix + "=\"" + uri + "\"";
+            if (declarations.indexOf(declaration) == -1) {
+                declarations.append(declaration);
+            }
+            return prefix + ":" + localName;
+        }
+    }
+}
@@ -73,6 +73,12 @@ public class DeferredSXSSFWorkbook extends SXSSFWorkbook {
         };
     }
 
+    @Override
+    boolean isParallelInjectionSupported() {
+        // the rows are generated while they are written, so they can't be provided as a stream
+        return false;
+    }
+
     @Override
     SXSSFSheet createAndRegisterSXSSFSheet(XSSFSheet xSheet) {
         final DeferredSXSSFSheet sxSheet;
@@ -17,6 +17,7 @@
 
 package org.apache.poi.xssf.streaming;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,9 +25,13 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -43,6 +48,7 @@ import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.internal.ParallelZipArchiveWriter;
 import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
 import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
@@ -424,6 +430,17 @@ public class SXSSFWorkbook implements Workbook {
 
     protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
         ZipArchiveOutputStream zos = createArchiveOutputStream(out);
+        final int threads = _wb.getPackage().getCompressionThreads();
+        if (threads > 1 && !(zos instanceof OpcZipArchiveOutputStream) && isParallelInjectionSupported()) {
+            try (ParallelZipArchiveWriter parallelWriter = new ParallelZipArchiveWriter(threads)) {
+                injectDataParallel(zipEntrySource, zos, parallelWriter);
+            } finally {
+                zos.finish();
+                zipEntrySource.close();
+            }
+            return;
+        }
+
         try {
             Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
             while (en.hasMoreElements()) {
@@ -456,6 +473,64 @@ public class SXSSFWorkbook implements Workbook {
         }
     }
 
+    /**
+     * Queues the entries of the template for the concurrent compression. The worksheet entries are
+     * split around their sheet data, so the worker threads can stream the template parts and
+     * the generated sheet data directly into the compressor.
+     */
+    private void injectDataParallel(ZipEntrySource zipEntrySource, ZipArchiveOutputStream zos,
+            ParallelZipArchiveWriter parallelWriter) throws IOException {
+        Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
+        while (en.hasMoreElements()) {
+            ZipArchiveEntry ze = en.nextElement();
+            ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
+            if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
+
+            XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
+            // See bug 56557, we should not inject data into the special ChartSheets
+            if (xSheet != null && !(xSheet instanceof XSSFChartSheet)) {
+                SXSSFSheet sxSheet = getSXSSFSheet(xSheet);
+                final byte[] template;
+                final int[] dataPos = new int[1];
+                try (
+                    InputStream is = zipEntrySource.getInputStream(ze);
+                    UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()
+                ) {
+                    copyStreamAndInjectWorksheet(is, bos, (output) -> dataPos[0] = bos.size());
+                    template = bos.toByteArray();
+                }
+                final InputStream sheetData = sxSheet.getWorksheetXMLInputStream();
+                parallelWriter.addEntry(zeOut, () -> new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(template, 0, dataPos[0]),
+                    sheetData,
+                    new ByteArrayInputStream(template, dataPos[0], template.length - dataPos[0])
+                ))));
+            } else {
+                parallelWriter.addEntry(zeOut, () -> {
+                    try {
+                        InputStream is = zipEntrySource.getInputStream(ze);
+                        if (is instanceof ZipArchiveThresholdInputStream) {
+                            // #59743 - disable Threshold handling for SXSSF copy
+                            ((ZipArchiveThresholdInputStream)is).setGuardState(false);
+                        }
+                        return is;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+        parallelWriter.writeTo(zos);
+    }
+
+    /**
+     * @return true, if the sheet data can be taken from {@link SXSSFSheet#getWorksheetXMLInputStream()}
+     *  when the entries are compressed concurrently
+     */
+    boolean isParallelInjectionSupported() {
+        return true;
+    }
+
     protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
         if (Zip64Mode.Always.equals(zip64Mode)) {
             return new OpcZipArchiveOutputStream(out);
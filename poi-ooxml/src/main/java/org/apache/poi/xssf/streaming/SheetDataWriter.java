@@ -19,7 +19,6 @@
 
 package org.apache.poi.xssf.streaming;
 
-import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -27,11 +26,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
-import java.util.PrimitiveIterator;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
@@ -40,8 +36,6 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.ss.util.CellReference;
-import org.apache.poi.util.CodepointsUtil;
 import org.apache.poi.util.Removal;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
@@ -55,6 +49,7 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
  */
 public class SheetDataWriter implements Closeable {
     private static final Logger LOG = PoiLogManager.getLogger(SheetDataWriter.class);
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
 
     private final File _fd;
     protected final Writer _out;
@@ -63,6 +58,8 @@ public class SheetDataWriter implements Closeable {
     private int _lowestIndexOfFlushedRows; // meaningful only of _numberOfFlushedRows>0
     private int _numberOfCellsOfLastFlushedRow; // meaningful only of _numberOfFlushedRows>0
     private int _numberLastFlushedRow = -1; // meaningful only of _numberOfFlushedRows>0
+    // reused to format numbers and cell references without creating strings
+    private final char[] _formatBuffer = new char[32];
 
     /**
      * Table of strings shared across this workbook.
@@ -117,8 +114,7 @@ public class SheetDataWriter implements Closeable {
             fos.close();
             throw e;
         }
-        return new BufferedWriter(
-                new OutputStreamWriter(decorated, StandardCharsets.UTF_8));
+        return new Utf8Writer(decorated);
     }
 
     /**
@@ -220,7 +216,7 @@ public class SheetDataWriter implements Closeable {
 
     void beginRow(int rownum, SXSSFRow row) throws IOException {
         _out.write("<row");
-        writeAttribute("r", Integer.toString(rownum + 1));
+        writeAttribute("r", rownum + 1);
         if (row.hasCustomHeight()) {
             writeAttribute("customHeight", "1");
             writeAttribute("ht", Float.toString(row.getHeightInPoints()));
@@ -229,11 +225,11 @@ public class SheetDataWriter implements Closeable {
             writeAttribute("hidden", "1");
         }
         if (row.isFormatted()) {
-            writeAttribute("s", Integer.toString(row.getRowStyleIndex()));
+            writeAttribute("s", row.getRowStyleIndex());
             writeAttribute("customFormat", "1");
         }
         if (row.getOutlineLevel() != 0) {
-            writeAttribute("outlineLevel", Integer.toString(row.getOutlineLevel()));
+            writeAttribute("outlineLevel", row.getOutlineLevel());
         }
         if(row.getHidden() != null) {
             writeAttribute("hidden", row.getHidden() ? "1" : "0");
@@ -254,15 +250,15 @@ public class SheetDataWriter implements Closeable {
         if (cell == null) {
             return;
         }
-        String ref = new CellReference(_rownum, columnIndex).formatAsString();
-        _out.write("<c");
-        writeAttribute("r", ref);
+        _out.write("<c r=\"");
+        writeCellReference(_rownum, columnIndex);
+        _out.write('\"');
         CellStyle cellStyle = cell.getCellStyle();
         if (cellStyle.getIndex() != 0) {
             // need to convert the short to unsigned short as the indexes can be up to 64k
             // ideally we would use int for this index, but that would need changes to some more
             // APIs
-            writeAttribute("s", Integer.toString(cellStyle.getIndex() & 0xffff));
+            writeAttribute("s", cellStyle.getIndex() & 0xffff);
         }
         CellType cellType = cell.getCellType();
         switch (cellType) {
@@ -293,7 +289,7 @@ public class SheetDataWriter implements Closeable {
                         double nval = cell.getNumericCellValue();
                         if (!Double.isNaN(nval)) {
                             _out.write("<v>");
-                            _out.write(Double.toString(nval));
+                            writeDouble(nval);
                             _out.write("</v>");
                         }
                         break;
@@ -328,7 +324,7 @@ public class SheetDataWriter implements Closeable {
 
                     writeAttribute("t", STCellType.S.toString());
                     _out.write("><v>");
-                    _out.write(String.valueOf(sRef));
+                    writeInt(sRef);
                     _out.write("</v>");
                 } else {
                     writeAttribute("t", "inlineStr");
@@ -345,7 +341,7 @@ public class SheetDataWriter implements Closeable {
             case NUMERIC: {
                 writeAttribute("t", "n");
                 _out.write("><v>");
-                _out.write(Double.toString(cell.getNumericCellValue()));
+                writeDouble(cell.getNumericCellValue());
                 _out.write("</v>");
                 break;
             }
@@ -393,56 +389,114 @@ public class SheetDataWriter implements Closeable {
         return false;
     }
 
+    private void writeAttribute(String name, int value) throws IOException {
+        _out.write(' ');
+        _out.write(name);
+        _out.write("=\"");
+        writeInt(value);
+        _out.write('\"');
+    }
+
+    /**
+     * Writes the cell reference in A1 notation, like {@code CellReference#formatAsString()}
+     */
+    private void writeCellReference(int row, int col) throws IOException {
+        int pos = _formatBuffer.length;
+        for (int colRemain = col + 1; colRemain > 0; colRemain = (colRemain - 1) / 26) {
+            _formatBuffer[--pos] = (char)('A' + (colRemain - 1) % 26);
+        }
+        _out.write(_formatBuffer, pos, _formatBuffer.length - pos);
+        writeInt(row + 1);
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            _out.write(Long.toString(value));
+            return;
+        }
+        int pos = _formatBuffer.length;
+        long remain = Math.abs(value);
+        do {
+            _formatBuffer[--pos] = (char)('0' + (remain % 10));
+            remain /= 10;
+        } while (remain > 0);
+        if (value < 0) {
+            _formatBuffer[--pos] = '-';
+        }
+        _out.write(_formatBuffer, pos, _formatBuffer.length - pos);
+    }
+
+    /**
+     * Writes the number like {@link Double#toString(double)} - integral values within
+     * the plain notation range of {@code Double.toString} are formatted without creating a string
+     */
+    private void writeDouble(double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e7 && Double.doubleToRawLongBits(value) != NEGATIVE_ZERO_BITS) {
+            writeLong((long)value);
+            _out.write(".0");
+        } else {
+            _out.write(Double.toString(value));
+        }
+    }
+
     protected void outputEscapedString(String s) throws IOException {
         if (s == null || s.length() == 0) {
             return;
         }
 
-        int codepoint;
-        for (PrimitiveIterator.OfInt iter = CodepointsUtil.primitiveIterator(s); iter.hasNext(); ) {
-            codepoint = iter.nextInt();
-            switch (codepoint) {
+        // write the runs of characters, which don't need escaping, in one go
+        int runStart = 0;
+        final int length = s.length();
+        for (int i = 0; i < length; i++) {
+            final char c = s.charAt(i);
+            final String escaped;
+            switch (c) {
                 case '<':
-                    _out.write("&lt;");
+                    escaped = "&lt;";
                     break;
                 case '>':
-                    _out.write("&gt;");
+                    escaped = "&gt;";
                     break;
                 case '&':
-                    _out.write("&amp;");
+                    escaped = "&amp;";
                     break;
                 case '\"':
-                    _out.write("&quot;");
+                    escaped = "&quot;";
                     break;
                 // Special characters
                 case '\n':
-                    _out.write("&#xa;");
+                    escaped = "&#xa;";
                     break;
                 case '\r':
-                    _out.write("&#xd;");
+                    escaped = "&#xd;";
                     break;
                 case '\t':
-                    _out.write("&#x9;");
+                    escaped = "&#x9;";
                     break;
                 case '\u00A0': // NO-BREAK SPACE
-                    _out.write("&#xa0;");
+                    escaped = "&#xa0;";
                     break;
                 default:
-                    final char[] chars = Character.toChars(codepoint);
-                    if (chars.length == 1) {
-                        char c = chars[0];
-                        // YK: XmlBeans silently replaces all ISO control characters ( < 32) with question marks.
-                        // the same rule applies to "not a character" symbols.
-                        if (replaceWithQuestionMark(c)) {
-                            _out.write('?');
-                        } else {
-                            _out.write(c);
-                        }
-                    } else {
-                        _out.write(chars);
-                    }
+                    // YK: XmlBeans silently replaces all ISO control characters ( < 32) with question marks.
+                    // the same rule applies to "not a character" symbols.
+                    // Surrogates are written as-is, as they never match these rules.
+                    escaped = replaceWithQuestionMark(c) ? "?" : null;
                     break;
             }
+            if (escaped != null) {
+                if (i > runStart) {
+                    _out.write(s, runStart, i - runStart);
+                }
+                _out.write(escaped);
+                runStart = i + 1;
+            }
+        }
+        if (runStart < length) {
+            _out.write(s, runStart, length - runStart);
         }
     }
 
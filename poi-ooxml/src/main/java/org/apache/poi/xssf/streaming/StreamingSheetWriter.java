@@ -17,14 +17,11 @@
 
 package org.apache.poi.xssf.streaming;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
@@ -65,7 +62,7 @@ public class StreamingSheetWriter extends SheetDataWriter {
      * @param out the output stream to write to
      */
     protected static Writer createWriter(OutputStream out) throws IOException {
-        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return new Utf8Writer(out);
     }
 
     @Override
@@ -0,0 +1,150 @@
+/*
+ *  ====================================================================
+ *    Licensed to the Apache Software Foundation (ASF) under one or more
+ *    contributor license agreements.  See the NOTICE file distributed with
+ *    this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0
+ *    (the "License"); you may not use this file except in compliance with
+ *    the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * ====================================================================
+ */
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * A buffered, unsynchronized writer, which encodes the characters directly as UTF-8 into
+ * a reusable byte buffer. This replaces the combination of {@code BufferedWriter} and
+ * {@code OutputStreamWriter}, which go through a {@code CharsetEncoder} and an additional char buffer.
+ * <p>
+ * Like the UTF-8 encoder of the JDK, unpaired surrogates are written as {@code '?'}.
+ */
+final class Utf8Writer extends Writer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    /** a high surrogate, which waits for its low surrogate, or 0 */
+    private char highSurrogate;
+    private boolean closed;
+
+    Utf8Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        writeChar((char)c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        for (int i = off, end = off + len; i < end; i++) {
+            final char c = cbuf[i];
+            if (c < 0x80 && highSurrogate == 0 && pos < BUFFER_SIZE) {
+                buf[pos++] = (byte)c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        for (int i = off, end = off + len; i < end; i++) {
+            final char c = str.charAt(i);
+            if (c < 0x80 && highSurrogate == 0 && pos < BUFFER_SIZE) {
+                buf[pos++] = (byte)c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                writeChar('?');
+            }
+            flushBuffer();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        // a surrogate pair and a preceding unpaired surrogate need at most 5 bytes
+        if (pos > BUFFER_SIZE - 5) {
+            flushBuffer();
+        }
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int cp = Character.toCodePoint(high, c);
+                buf[pos++] = (byte)(0xF0 | (cp >> 18));
+                buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte)(0x80 | (cp & 0x3F));
+                return;
+            }
+            buf[pos++] = '?';
+        }
+
+        if (c < 0x80) {
+            buf[pos++] = (byte)c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte)(0xC0 | (c >> 6));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[pos++] = '?';
+        } else {
+            buf[pos++] = (byte)(0xE0 | (c >> 12));
+            buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -50,6 +50,7 @@ public abstract class BaseXSSFFormulaEvaluator extends BaseFormulaEvaluator {
     /**
      * Turns a XSSFCell / SXSSFCell into a XSSFEvaluationCell
      */
+    @Override
     protected abstract EvaluationCell toEvaluationCell(Cell cell);
 
     /**
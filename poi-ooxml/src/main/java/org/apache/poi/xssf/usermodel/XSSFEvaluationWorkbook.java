@@ -18,14 +18,21 @@
 package org.apache.poi.xssf.usermodel;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationSheet;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SharedFormula;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.Internal;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
 
 /**
  * Internal POI use only
@@ -33,6 +40,9 @@ import org.apache.poi.util.Internal;
 @Internal
 public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     private final Map<XSSFSheet, XSSFEvaluationSheet> _sheetCache = new HashMap<>();
+    /** parsed master formulas of the shared formula groups, keyed by the master formula bean of the sheet */
+    private final Map<CTCellFormula, SharedFormulaTokens> _sharedFormulaCache = new IdentityHashMap<>();
+    private final SharedFormula _sharedFormula = new SharedFormula(SpreadsheetVersion.EXCEL2007);
 
     public static XSSFEvaluationWorkbook create(XSSFWorkbook book) {
         if (book == null) {
@@ -52,6 +62,7 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     public void clearAllCachedResultValues() {
         super.clearAllCachedResultValues();
         _sheetCache.clear();
+        _sharedFormulaCache.clear();
     }
 
     @Override
@@ -81,7 +92,85 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     public Ptg[] getFormulaTokens(EvaluationCell evalCell) {
         final XSSFCell cell = ((XSSFEvaluationCell)evalCell).getXSSFCell();
         final int sheetIndex = _uBook.getSheetIndex(cell.getSheet());
+        Ptg[] ptgs = getSharedFormulaTokens(cell, sheetIndex);
+        if (ptgs != null) {
+            return ptgs;
+        }
         return FormulaParser.parse(cell.getCellFormula(this), this,
                 FormulaType.CELL, sheetIndex, cell.getRowIndex());
     }
+
+    /**
+     * Shared formulas are parsed once per group and the tokens of the other cells are derived
+     * by shifting the relative references of the master formula, instead of rendering the
+     * shifted formula for each cell and parsing it again.
+     *
+     * @return the tokens of the cell or {@code null} if the cell is not part of a shared formula
+     *  or the formula can't be shifted at token level
+     */
+    private Ptg[] getSharedFormulaTokens(XSSFCell cell, int sheetIndex) {
+        CTCellFormula f = cell.getCTCell().getF();
+        if (f == null || f.getT() != STCellFormulaType.SHARED || cell.isPartOfArrayFormulaGroup()) {
+            return null;
+        }
+        CTCellFormula master = cell.getSheet().getSharedFormula(Math.toIntExact(f.getSi()));
+        if (master == null) {
+            // let XSSFCell report the missing master cell
+            return null;
+        }
+
+        // the master formula bean is replaced or updated when the formula group is edited
+        String formula = master.getStringValue();
+        String ref = master.getRef();
+        SharedFormulaTokens tokens = _sharedFormulaCache.get(master);
+        if (tokens == null || !tokens.isValid(formula, ref, sheetIndex)) {
+            tokens = new SharedFormulaTokens(formula, ref, sheetIndex);
+            _sharedFormulaCache.put(master, tokens);
+        }
+        if (tokens._ptgs == null) {
+            return null;
+        }
+        return _sharedFormula.convertSharedFormulas(tokens._ptgs,
+                cell.getRowIndex() - tokens._firstRow, cell.getColumnIndex() - tokens._firstColumn);
+    }
+
+    private final class SharedFormulaTokens {
+        private final String _formula;
+        private final String _ref;
+        private final int _sheetIndex;
+        private final int _firstRow;
+        private final int _firstColumn;
+        /** the tokens of the master formula or {@code null} if they can't be shifted */
+        private final Ptg[] _ptgs;
+
+        SharedFormulaTokens(String formula, String ref, int sheetIndex) {
+            _formula = formula;
+            _ref = ref;
+            _sheetIndex = sheetIndex;
+            CellRangeAddress range = CellRangeAddress.valueOf(ref);
+            _firstRow = range.getFirstRow();
+            _firstColumn = range.getFirstColumn();
+            _ptgs = parse();
+        }
+
+        private Ptg[] parse() {
+            // structured references like Table[#This Row] depend on the row of the cell
+            if (_formula == null || _formula.indexOf('[') >= 0) {
+                return null;
+            }
+            Ptg[] ptgs = FormulaParser.parse(_formula, XSSFEvaluationWorkbook.this,
+                    FormulaType.CELL, _sheetIndex, _firstRow);
+            for (Ptg ptg : ptgs) {
+                // SharedFormula converts references to other sheets into local references
+                if (ptg instanceof Pxg3D) {
+                    return null;
+                }
+            }
+            return ptgs;
+        }
+
+        boolean isValid(String formula, String ref, int sheetIndex) {
+            return _formula != null && _formula.equals(formula) && _ref.equals(ref) && _sheetIndex == sheetIndex;
+        }
+    }
 }
@@ -659,6 +659,13 @@ public class XSSFFont implements Font {
         return _index;
     }
 
+    /**
+     * Updates the index after the font table has been compacted
+     */
+    void setIndex(int index) {
+        _index = index;
+    }
+
     /**
      * @return index
      * @deprecated use {@link #getIndex()} instead
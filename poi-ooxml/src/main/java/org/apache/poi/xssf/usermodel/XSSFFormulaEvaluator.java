@@ -17,6 +17,8 @@
 
 package org.apache.poi.xssf.usermodel;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.poi.ss.formula.BaseFormulaEvaluator;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.IStabilityClassifier;
@@ -100,6 +102,25 @@ public final class XSSFFormulaEvaluator extends BaseXSSFFormulaEvaluator {
         evaluateAllFormulaCells(_book, this);
     }
 
+    /**
+     * Evaluates all formula cells like {@link #evaluateAll()}, but evaluates sheets
+     * which don't refer to each other concurrently on the given pool.
+     * The workbook must not be modified while the evaluation is running.
+     *
+     * @param pool the pool to run the evaluation on, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(org.apache.poi.ss.usermodel.Workbook, BaseFormulaEvaluator, ForkJoinPool)
+     * @since POI 5.4.1
+     */
+    public void evaluateAll(ForkJoinPool pool) {
+        evaluateAllFormulaCells(_book, this, pool);
+    }
+
+    @Override
+    protected XSSFFormulaEvaluator createWorkerEvaluator() {
+        return new XSSFFormulaEvaluator(_book, _bookEvaluator.copyFor(XSSFEvaluationWorkbook.create(_book)));
+    }
+
     /**
      * Turns a XSSFCell into a XSSFEvaluationCell
      */
@@ -0,0 +1,213 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.usermodel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.model.StylesTable;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTXf;
+
+/**
+ * The XSSF counterpart of {@link org.apache.poi.hssf.usermodel.HSSFOptimiser}:
+ *  removes duplicate fonts and duplicate or unused cell styles, which
+ *  are typical for generated workbooks.
+ * Duplicates are found by hashing the XML of the fonts and styles,
+ *  so the time taken grows linearly with the number of fonts,
+ *  styles and cells.
+ * As with HSSF, {@link XSSFFont} and {@link XSSFCellStyle} objects
+ *  fetched before the optimisation should not be used afterwards.
+ *
+ * @since POI 5.4.1
+ */
+public final class XSSFOptimiser {
+    private XSSFOptimiser() {}
+
+    /**
+     * Goes through the Workbook, optimising the fonts by
+     *  removing duplicate ones and updating the cell styles
+     *  and cell style formats which use them.
+     * Rich text doesn't reference fonts by index in XSSF,
+     *  so it is not affected.
+     * @param workbook The workbook in which to optimise the fonts
+     */
+    public static void optimiseFonts(XSSFWorkbook workbook) {
+        StylesTable styles = workbook.getStylesSource();
+        List<XSSFFont> fonts = styles.getFonts();
+
+        // Where each font has ended up, and if we need to
+        //  delete it. The first of several equal fonts is kept
+        int[] newPos = new int[fonts.size()];
+        boolean[] zapFonts = new boolean[newPos.length];
+        Map<String,Integer> firstFonts = new HashMap<>();
+        for (int i = 0; i < newPos.length; i++) {
+            Integer earlierDuplicate = firstFonts.putIfAbsent(fonts.get(i).getCTFont().xmlText(), i);
+            newPos[i] = earlierDuplicate == null ? i : earlierDuplicate;
+            zapFonts[i] = earlierDuplicate != null;
+        }
+        if (!adjustForDeletes(newPos, zapFonts)) {
+            return;
+        }
+
+        styles.removeFonts(zapFonts);
+        for (int i = 0; i < fonts.size(); i++) {
+            fonts.get(i).setIndex(i);
+        }
+
+        for (int i = 0; i < styles.getNumCellStyles(); i++) {
+            updateFontId(styles.getCellXfAt(i), newPos);
+        }
+        for (int i = 0; i < styles._getStyleXfsSize(); i++) {
+            updateFontId(styles.getCellStyleXfAt(i), newPos);
+        }
+    }
+
+    /**
+     * Goes through the Workbook, optimising the cell styles
+     *  by removing duplicate ones, and ones that aren't used
+     *  by any cell, row or column.
+     * The default style (index 0) is always kept.
+     * For best results, optimise the fonts via a call to
+     *  {@link #optimiseFonts(XSSFWorkbook)} first.
+     * @param workbook The workbook in which to optimise the cell styles
+     */
+    public static void optimiseCellStyles(XSSFWorkbook workbook) {
+        StylesTable styles = workbook.getStylesSource();
+        int numStyles = styles.getNumCellStyles();
+        if (numStyles == 0) {
+            return;
+        }
+
+        // Point each style to the first equal one
+        int[] newPos = new int[numStyles];
+        boolean[] zapStyles = new boolean[numStyles];
+        Map<String,Integer> firstStyles = new HashMap<>();
+        for (int i = 0; i < numStyles; i++) {
+            Integer earlierDuplicate = firstStyles.putIfAbsent(styles.getCellXfAt(i).xmlText(), i);
+            newPos[i] = earlierDuplicate == null ? i : earlierDuplicate;
+            zapStyles[i] = earlierDuplicate != null;
+        }
+
+        // Find the styles which are actually used
+        boolean[] isUsed = new boolean[numStyles];
+        isUsed[0] = true;
+        for (int sheetNum = 0; sheetNum < workbook.getNumberOfSheets(); sheetNum++) {
+            XSSFSheet sheet = workbook.getSheetAt(sheetNum);
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    CTCell ctCell = ((XSSFCell) cell).getCTCell();
+                    if (ctCell.isSetS()) {
+                        markUsed(isUsed, ctCell.getS());
+                    }
+                }
+                CTRow ctRow = ((XSSFRow) row).getCTRow();
+                if (ctRow.isSetS()) {
+                    markUsed(isUsed, ctRow.getS());
+                }
+            }
+            for (CTCols cols : sheet.getCTWorksheet().getColsArray()) {
+                for (CTCol col : cols.getColArray()) {
+                    if (col.isSetStyle()) {
+                        markUsed(isUsed, col.getStyle());
+                    }
+                }
+            }
+        }
+
+        // A duplicate which is used keeps the one it points to,
+        //  unused styles are removed
+        for (int i = 1; i < numStyles; i++) {
+            if (isUsed[i]) {
+                isUsed[newPos[i]] = true;
+            }
+        }
+        for (int i = 1; i < numStyles; i++) {
+            if (!isUsed[i]) {
+                zapStyles[i] = true;
+                newPos[i] = 0;
+            }
+        }
+        if (!adjustForDeletes(newPos, zapStyles)) {
+            return;
+        }
+
+        styles.removeCellXfs(zapStyles);
+
+        // Finally, update the cells, rows and columns to point
+        //  at their new styles
+        for (int sheetNum = 0; sheetNum < workbook.getNumberOfSheets(); sheetNum++) {
+            XSSFSheet sheet = workbook.getSheetAt(sheetNum);
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    CTCell ctCell = ((XSSFCell) cell).getCTCell();
+                    if (ctCell.isSetS() && ctCell.getS() < numStyles) {
+                        ctCell.setS(newPos[(int) ctCell.getS()]);
+                    }
+                }
+                CTRow ctRow = ((XSSFRow) row).getCTRow();
+                if (ctRow.isSetS() && ctRow.getS() < numStyles) {
+                    ctRow.setS(newPos[(int) ctRow.getS()]);
+                }
+            }
+            for (CTCols cols : sheet.getCTWorksheet().getColsArray()) {
+                for (CTCol col : cols.getColArray()) {
+                    if (col.isSetStyle() && col.getStyle() < numStyles) {
+                        col.setStyle(newPos[(int) col.getStyle()]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void markUsed(boolean[] isUsed, long index) {
+        // some documents contain invalid values here
+        if (index >= 0 && index < isUsed.length) {
+            isUsed[(int) index] = true;
+        }
+    }
+
+    private static void updateFontId(CTXf xf, int[] newPos) {
+        if (xf.isSetFontId() && xf.getFontId() < newPos.length) {
+            xf.setFontId(newPos[(int) xf.getFontId()]);
+        }
+    }
+
+    /**
+     * Moves the new positions down by the number of deleted entries before them
+     *
+     * @return {@code false} if nothing is deleted
+     */
+    private static boolean adjustForDeletes(int[] newPos, boolean[] zapped) {
+        // the number of deleted entries before each position
+        int[] zappedBefore = new int[zapped.length + 1];
+        for (int i = 0; i < zapped.length; i++) {
+            zappedBefore[i + 1] = zappedBefore[i] + (zapped[i] ? 1 : 0);
+        }
+        for (int i = 0; i < newPos.length; i++) {
+            newPos[i] -= zappedBefore[newPos[i]];
+        }
+        return zappedBefore[zapped.length] > 0;
+    }
+}
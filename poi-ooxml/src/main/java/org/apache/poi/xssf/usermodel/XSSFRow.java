@@ -22,8 +22,8 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.Spliterator;
-import java.util.TreeMap;
 
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaShifter;
@@ -55,9 +55,10 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
 
     /**
      * Cells of this row keyed by their column indexes.
-     * The TreeMap ensures that the cells are ordered by columnIndex in the ascending order.
+     * The sorted map ensures that the cells are ordered by columnIndex in the ascending order.
+     * @see XSSFWorkbook#setCompactRowStorage(boolean)
      */
-    private final TreeMap<Integer, XSSFCell> _cells;
+    private final SortedMap<Integer, XSSFCell> _cells;
 
     /**
      * the parent sheet
@@ -73,7 +74,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     protected XSSFRow(CTRow row, XSSFSheet sheet) {
         _row = row;
         _sheet = sheet;
-        _cells = new TreeMap<>();
+        _cells = XSSFWorkbook.createIndexMap(sheet.getWorkbook());
         for (CTCell c : row.getCArray()) {
             XSSFCell cell = new XSSFCell(this, c);
             // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
@@ -90,7 +90,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     protected CTSheet sheet;
     protected CTWorksheet worksheet;
 
-    private final SortedMap<Integer, XSSFRow> _rows = new TreeMap<>();
+    private SortedMap<Integer, XSSFRow> _rows;
     private List<XSSFHyperlink> hyperlinks;
     private ColumnHelper columnHelper;
     private Comments sheetComments;
@@ -195,7 +195,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
             throw new IllegalArgumentException("Had empty sheet data when initializing the sheet");
         }
 
-        _rows.clear();
+        _rows = XSSFWorkbook.createIndexMap(getWorkbook());
         tables = new TreeMap<>();
         sharedFormulas = new HashMap<>();
         arrayFormulas = new ArrayList<>();
@@ -208,6 +208,18 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         }
     }
 
+    /**
+     * Called by the workbook after creating a new sheet, as the rows of the sheet are
+     * initialized before the sheet is added to the workbook
+     *
+     * @see XSSFWorkbook#setCompactRowStorage(boolean)
+     */
+    void initRowStorage() {
+        if (_rows.isEmpty()) {
+            _rows = XSSFWorkbook.createIndexMap(getWorkbook());
+        }
+    }
+
     /**
      * Read hyperlink relations, link them with CTHyperlink beans in this worksheet
      * and initialize the internal array of XSSFHyperlink objects
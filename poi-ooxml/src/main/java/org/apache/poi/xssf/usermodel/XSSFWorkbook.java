@@ -36,7 +36,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.SortedMap;
 import java.util.Spliterator;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
@@ -89,6 +91,7 @@ import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.NotImplemented;
 import org.apache.poi.util.Removal;
+import org.apache.poi.util.SortedIntArrayMap;
 import org.apache.poi.xssf.XLSBUnsupportedException;
 import org.apache.poi.xssf.model.CalculationChain;
 import org.apache.poi.xssf.model.ExternalLinksTable;
@@ -120,6 +123,18 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     public static final int PICTURE_TYPE_BMP = 11;
     public static final int PICTURE_TYPE_WPG = 12;
 
+    /**
+     * The initial value of {@link #compactRowStorage} for workbooks created or loaded afterwards,
+     * see {@link #setDefaultCompactRowStorage(boolean)}
+     */
+    private static boolean defaultCompactRowStorage = false;
+
+    /**
+     * Whether rows and cells are kept in int-keyed arrays instead of TreeMaps,
+     * see {@link #setCompactRowStorage(boolean)}
+     */
+    private boolean compactRowStorage = defaultCompactRowStorage;
+
     /**
      * The underlying XML bean
      */
@@ -253,8 +268,24 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      * input format
      */
     public XSSFWorkbook(OPCPackage pkg) throws IOException {
+        this(pkg, defaultCompactRowStorage);
+    }
+
+    /**
+     * Constructs a XSSFWorkbook object given a OpenXML4J {@code Package} object,
+     *  optionally keeping the rows and cells of the loaded sheets in the compact storage.
+     *
+     * @param pkg the OpenXML4J {@code OPC Package} object.
+     * @param compactRowStorage {@code true} to keep rows and cells in sorted int-keyed arrays,
+     *  see {@link #setCompactRowStorage(boolean)}
+     * @throws IOException If reading data from the package fails
+     * @throws POIXMLException a RuntimeException that can be caused by invalid OOXML data
+     * @since POI 5.4.1
+     */
+    public XSSFWorkbook(OPCPackage pkg, boolean compactRowStorage) throws IOException {
         super(pkg);
         this.xssfFactory = XSSFFactory.getInstance();
+        this.compactRowStorage = compactRowStorage;
 
         beforeDocumentRead();
 
@@ -986,6 +1017,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
         RelationPart rp = createRelationship(XSSFRelation.WORKSHEET, this.xssfFactory, sheetNumber, false);
         XSSFSheet wrapper = rp.getDocumentPart();
         wrapper.sheet = sheet;
+        wrapper.initRowStorage();
         sheet.setId(rp.getRelationship().getId());
         sheet.setSheetId(sheetNumber);
         if (sheets.isEmpty()) {
@@ -2559,6 +2591,68 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
         return this.cellFormulaValidation;
     }
 
+    /**
+     * Enables or disables the compact storage of rows and cells of this workbook.
+     * <p>
+     * By default, the rows of a sheet and the cells of a row are kept in {@link TreeMap}s.
+     * When enabled, sheets and rows created afterwards keep them in sorted int-keyed arrays
+     * instead, which avoids the boxed keys and the tree nodes and therefore needs considerably less
+     * memory for big sheets. The iteration order and the behaviour of the API are the same.
+     * Use {@link #setDefaultCompactRowStorage(boolean)} or {@link #XSSFWorkbook(OPCPackage, boolean)}
+     * to apply it to the sheets of a loaded workbook.
+     * <p>
+     * Inserting rows or cells in the middle of a sheet/row is more expensive in compact mode,
+     * as the following entries have to be moved, so it's best suited for reading workbooks and for
+     * writing rows and cells in ascending order.
+     * <p>
+     * This setting doesn't affect already instantiated sheets and rows.
+     *
+     * @param enable {@code true} to use the compact storage, {@code false} to use the default TreeMaps
+     * @since POI 5.4.1
+     */
+    public void setCompactRowStorage(boolean enable) {
+        compactRowStorage = enable;
+    }
+
+    /**
+     * @return {@code true}, if the compact storage of rows and cells is enabled
+     * @see #setCompactRowStorage(boolean)
+     * @since POI 5.4.1
+     */
+    public boolean isCompactRowStorage() {
+        return compactRowStorage;
+    }
+
+    /**
+     * Sets whether workbooks, which are created or loaded afterwards, keep the rows and cells
+     * of their sheets in the compact storage, see {@link #setCompactRowStorage(boolean)}.
+     * This applies to all constructors, also when the workbook is loaded via
+     * {@link org.apache.poi.ss.usermodel.WorkbookFactory WorkbookFactory}.
+     *
+     * @param enable {@code true} to use the compact storage by default, {@code false} to use the default TreeMaps
+     * @since POI 5.4.1
+     */
+    public static void setDefaultCompactRowStorage(boolean enable) {
+        defaultCompactRowStorage = enable;
+    }
+
+    /**
+     * @return {@code true}, if workbooks use the compact storage of rows and cells by default
+     * @see #setDefaultCompactRowStorage(boolean)
+     * @since POI 5.4.1
+     */
+    public static boolean isDefaultCompactRowStorage() {
+        return defaultCompactRowStorage;
+    }
+
+    /**
+     * @param workbook the workbook of the sheet or row, {@code null} if not known yet
+     * @return a new sorted map for storing rows or cells by their index, depending on {@link #isCompactRowStorage()}
+     */
+    static <T> SortedMap<Integer, T> createIndexMap(XSSFWorkbook workbook) {
+        return workbook != null && workbook.compactRowStorage ? new SortedIntArrayMap<>() : new TreeMap<>();
+    }
+
     @Override
     public XSSFEvaluationWorkbook createEvaluationWorkbook() {
         return XSSFEvaluationWorkbook.create(this);
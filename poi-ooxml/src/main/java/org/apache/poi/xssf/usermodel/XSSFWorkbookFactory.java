@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.ooxml.util.PackageHelper;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
@@ -60,15 +61,14 @@ public class XSSFWorkbookFactory implements WorkbookProvider {
     }
 
     @Override
+    @SuppressWarnings("resource")
     public Workbook create(InputStream inp, String password) throws IOException {
         InputStream bufInp = FileMagic.prepareToCheckMagic(inp);
         FileMagic fm = FileMagic.valueOf(bufInp);
 
         if (fm == FileMagic.OLE2) {
-            try (POIFSFileSystem poifs = new POIFSFileSystem(bufInp);
-                 InputStream stream = DocumentFactoryHelper.getDecryptedStream(poifs.getRoot(), password)) {
-                return create(stream);
-            }
+            // the filesystem is closed together with the package
+            return createWorkbook(PackageHelper.openEncrypted(new POIFSFileSystem(bufInp), password));
         }
 
         if (fm == FileMagic.OOXML) {
@@ -145,10 +145,8 @@ public class XSSFWorkbookFactory implements WorkbookProvider {
         FileMagic fm = FileMagic.valueOf(file);
 
         if (fm == FileMagic.OLE2) {
-            try (POIFSFileSystem poifs = new POIFSFileSystem(file, true);
-                 InputStream stream = DocumentFactoryHelper.getDecryptedStream(poifs.getRoot(), password)) {
-                return create(stream);
-            }
+            // the filesystem is closed together with the package
+            return createWorkbook(PackageHelper.openEncrypted(new POIFSFileSystem(file, true), password));
         }
 
         try {
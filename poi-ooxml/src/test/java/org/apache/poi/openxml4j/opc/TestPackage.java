@@ -387,6 +387,51 @@ public final class TestPackage {
         }
     }
 
+    @Test
+    void saveWithCompressionThreads() throws IOException, InvalidFormatException {
+        String originalFile = getSampleFileName("TestPackageCommon.docx");
+
+        try (OPCPackage p = OPCPackage.open(originalFile, PackageAccess.READ_WRITE)) {
+            try {
+                UnsynchronizedByteArrayOutputStream serial = UnsynchronizedByteArrayOutputStream.builder().get();
+                p.save(serial);
+
+                p.setCompressionThreads(4);
+                assertEquals(4, p.getCompressionThreads());
+                UnsynchronizedByteArrayOutputStream parallel = UnsynchronizedByteArrayOutputStream.builder().get();
+                p.save(parallel);
+
+                // same entries in the same order with the same content
+                File serialFile = TempFile.createTempFile("TestPackageSerial", ".docx");
+                File parallelFile = TempFile.createTempFile("TestPackageParallel", ".docx");
+                try {
+                    try (OutputStream os = new FileOutputStream(serialFile)) {
+                        serial.writeTo(os);
+                    }
+                    try (OutputStream os = new FileOutputStream(parallelFile)) {
+                        parallel.writeTo(os);
+                    }
+                    ZipFileAssert.assertEquals(serialFile, parallelFile);
+                    try (ZipFile zf1 = ZipHelper.openZipFile(serialFile);
+                         ZipFile zf2 = ZipHelper.openZipFile(parallelFile)) {
+                        Enumeration<ZipArchiveEntry> en1 = zf1.getEntriesInPhysicalOrder();
+                        Enumeration<ZipArchiveEntry> en2 = zf2.getEntriesInPhysicalOrder();
+                        while (en1.hasMoreElements()) {
+                            assertEquals(en1.nextElement().getName(), en2.nextElement().getName());
+                        }
+                        assertFalse(en2.hasMoreElements());
+                    }
+                } finally {
+                    assertTrue(serialFile.delete());
+                    assertTrue(parallelFile.delete());
+                }
+            } finally {
+                // use revert to not re-write the input file
+                p.revert();
+            }
+        }
+    }
+
     /**
      * Checks that we can open+read a package from a
      *  simple InputStream, in addition to the normal
@@ -17,7 +17,9 @@
 package org.apache.poi.poifs.crypt.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
@@ -25,9 +27,11 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.Collections;
 
 import javax.crypto.Cipher;
 
@@ -35,11 +39,15 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.internal.ZipHelper;
+import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.poifs.crypt.CryptoFunctions;
 import org.apache.poi.poifs.crypt.Decryptor;
 import org.apache.poi.poifs.crypt.EncryptionInfo;
 import org.apache.poi.poifs.crypt.HashAlgorithm;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentFactoryHelper;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.IOUtils;
 import org.junit.jupiter.api.Test;
@@ -101,6 +109,34 @@ class TestDecryptor {
         }
     }
 
+    @Test
+    void agileChannel() throws IOException {
+        try (InputStream is = samples.openResourceAsStream("protected_agile.docx");
+             POIFSFileSystem fs = new POIFSFileSystem(is);
+             SeekableByteChannel channel = DocumentFactoryHelper.getDecryptedChannel(fs.getRoot(), null)) {
+            assertNotNull(channel);
+            assertEquals(12810, channel.size());
+            try (ZipEntrySource zipFile = ZipHelper.openZipEntrySource(channel)) {
+                int entries = 0;
+                for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                    // crc32 is checked within zip-stream
+                    try (InputStream zis = zipFile.getInputStream(entry)) {
+                        assertInstanceOf(ZipArchiveThresholdInputStream.class, zis);
+                        assertEquals(entry.getSize(), IOUtils.toByteArray(zis).length);
+                    }
+                    entries++;
+                }
+                assertTrue(entries > 0);
+            }
+        }
+
+        // standard encryption can't be read at random positions
+        try (InputStream is = samples.openResourceAsStream("protect.xlsx");
+             POIFSFileSystem fs = new POIFSFileSystem(is)) {
+            assertNull(DocumentFactoryHelper.getDecryptedChannel(fs.getRoot(), null));
+        }
+    }
+
     @Test
     void dataLength() throws Exception {
         try (InputStream fsIs = samples.openResourceAsStream("protected_agile.docx");
@@ -18,10 +18,12 @@
 package org.apache.poi.ss.tests;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -34,6 +36,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
+import javax.crypto.Cipher;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.EmptyFileException;
@@ -239,6 +244,34 @@ public final class TestWorkbookFactory {
         }
     }
 
+    /**
+     * Agile encrypted workbooks are read directly from the encrypted package,
+     * but can still be modified and written like other workbooks
+     */
+    @Test
+    void testModifyAgileEncryptedFromFile() throws Exception {
+        int maxKeyLen = Cipher.getMaxAllowedKeyLength("AES");
+        assumeTrue(maxKeyLen == 0x7FFFFFFF, "Please install JCE Unlimited Strength Jurisdiction Policy files for AES 256");
+
+        File file = POIDataSamples.getPOIFSInstance().getFile("60320-protected.xlsx");
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        int sheets, rows;
+        try (Workbook wb = WorkbookFactory.create(file, "Test001!!", true)) {
+            assertTrue(wb instanceof XSSFWorkbook);
+            sheets = wb.getNumberOfSheets();
+            rows = wb.getSheetAt(0).getPhysicalNumberOfRows();
+            assertTrue(rows > 0);
+            wb.createSheet("added").createRow(0).createCell(0).setCellValue("new");
+            wb.write(bos);
+        }
+
+        try (Workbook wb = WorkbookFactory.create(bos.toInputStream())) {
+            assertEquals(sheets + 1, wb.getNumberOfSheets());
+            assertEquals(rows, wb.getSheetAt(0).getPhysicalNumberOfRows());
+            assertEquals("new", wb.getSheet("added").getRow(0).getCell(0).getStringCellValue());
+        }
+    }
+
     /**
      * Check that a helpful exception is given on an empty input stream
      */
@@ -0,0 +1,102 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class TestReadOnlyStylesTable {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    void testSameAsStylesTable() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("sample.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            assertSameFormats(reader.getStylesTable(), reader.getReadOnlyStylesTable());
+        }
+    }
+
+    @Test
+    void testCustomFormats() throws Exception {
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (XSSFWorkbook wb = new XSSFWorkbook()) {
+                DataFormat df = wb.createDataFormat();
+                String[] formats = { "yyyy-mm-dd", "0.000", "#,##0.00 \"EUR\"", "0.00%" };
+                for (int i = 0; i < 100; i++) {
+                    CellStyle style = wb.createCellStyle();
+                    style.setDataFormat(df.getFormat(formats[i % formats.length]));
+                }
+                wb.write(bos);
+            }
+
+            try (OPCPackage pkg = OPCPackage.open(bos.toInputStream())) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlyStylesTable styles = reader.getReadOnlyStylesTable();
+                assertEquals(101, styles.getNumCellStyles());
+                assertEquals("yyyy-mm-dd", styles.getDataFormatString(1));
+                assertEquals("0.00%", styles.getDataFormatString(4));
+                assertSameFormats(reader.getStylesTable(), styles);
+
+                assertSameFormats(reader.getStylesTable(), new ReadOnlyStylesTable(pkg));
+            }
+        }
+    }
+
+    @Test
+    void testInvalidStyles() throws IOException {
+        String xml = "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" +
+            "<cellXfs count=\"2\"><xf/><xf numFmtId=\"14\"/></cellXfs><fonts/></styleSheet>";
+        ReadOnlyStylesTable styles = new ReadOnlyStylesTable(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, styles.getNumCellStyles());
+        assertEquals(0, styles.getDataFormat(0));
+        assertEquals(14, styles.getDataFormat(1));
+        assertEquals("m/d/yy", styles.getDataFormatString(1));
+        assertEquals(-1, styles.getDataFormat(2));
+        assertNull(styles.getDataFormatString(2));
+
+        String invalid = "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" +
+            "<cellXfs><xf numFmtId=\"abc\"/></cellXfs></styleSheet>";
+        assertThrows(IOException.class, () -> new ReadOnlyStylesTable(
+            new ByteArrayInputStream(invalid.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static void assertSameFormats(StylesTable expected, ReadOnlyStylesTable actual) {
+        assertEquals(expected.getNumCellStyles(), actual.getNumCellStyles());
+        assertEquals(expected.getNumberFormats(), actual.getNumberFormats());
+        for (int i = 0; i < expected.getNumCellStyles(); i++) {
+            XSSFCellStyle style = expected.getStyleAt(i);
+            assertEquals(style.getDataFormat(), actual.getDataFormat(i));
+            assertEquals(style.getDataFormatString(), actual.getDataFormatString(i));
+        }
+    }
+}
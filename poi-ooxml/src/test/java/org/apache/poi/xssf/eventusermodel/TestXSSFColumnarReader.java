@@ -0,0 +1,209 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.BLANK;
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.BOOLEAN;
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.DATE;
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.ERROR;
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.NUMERIC;
+import static org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector.STRING;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnBatch;
+import org.apache.poi.xssf.eventusermodel.XSSFColumnarReader.ColumnVector;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class TestXSSFColumnarReader {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    void testColumns() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2024, 2, 29, 12, 30);
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (Workbook wb = new XSSFWorkbook()) {
+                CellStyle dateStyle = wb.createCellStyle();
+                dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+                Sheet sheet = wb.createSheet();
+                for (int r = 0; r < 10; r++) {
+                    // leave a gap in the rows
+                    Row row = sheet.createRow(r < 5 ? r : r + 2);
+                    row.createCell(0).setCellValue(r + 0.25);
+                    row.createCell(1).setCellValue("Item " + (r % 3));
+                    row.createCell(2).setCellValue(date.plusDays(r));
+                    row.getCell(2).setCellStyle(dateStyle);
+                    if (r % 2 == 0) {
+                        row.createCell(3).setCellValue(r % 4 == 0);
+                    }
+                    row.createCell(4).setCellErrorValue(FormulaError.DIV0.getCode());
+                    row.createCell(5).setCellFormula("\"A\"&" + r);
+                }
+                wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+                wb.write(bos);
+            }
+
+            try (OPCPackage pkg = OPCPackage.open(bos.toInputStream())) {
+                XSSFReader reader = new XSSFReader(pkg);
+                XSSFColumnarReader columnar = new XSSFColumnarReader(reader);
+                columnar.setBatchSize(4);
+
+                List<Integer> rowNumbers = new ArrayList<>();
+                List<Object> values = new ArrayList<>();
+                try (InputStream is = reader.getSheetsData().next()) {
+                    columnar.read(is, batch -> {
+                        assertTrue(batch.getRowCount() <= 4);
+                        assertEquals(6, batch.getColumnCount());
+                        for (int r = 0; r < batch.getRowCount(); r++) {
+                            rowNumbers.add(batch.getRowNumbers()[r]);
+                            values.add(batch.getColumn(0).getNumbers()[r]);
+                            values.add(columnar.getString(batch.getColumn(1).getStrings()[r]));
+                            values.add(batch.getColumn(2).getDates()[r]);
+                            ColumnVector bool = batch.getColumn(3);
+                            values.add(bool.getTypes()[r] == BOOLEAN ? bool.getNumbers()[r] : null);
+                            values.add(batch.getColumn(4).getNumbers()[r]);
+                            values.add(columnar.getString(batch.getColumn(5).getStrings()[r]));
+                        }
+                        assertColumnType(batch, 0, NUMERIC);
+                        assertColumnType(batch, 1, STRING);
+                        assertColumnType(batch, 2, DATE);
+                        assertColumnType(batch, 4, ERROR);
+                        assertColumnType(batch, 5, STRING);
+                    });
+                }
+
+                assertEquals(10, rowNumbers.size());
+                for (int r = 0; r < 10; r++) {
+                    assertEquals(r < 5 ? r : r + 2, rowNumbers.get(r));
+                    assertEquals(r + 0.25, values.get(r*6));
+                    assertEquals("Item " + (r % 3), values.get(r*6+1));
+                    assertEquals(date.plusDays(r).toInstant(ZoneOffset.UTC).toEpochMilli(), values.get(r*6+2));
+                    assertEquals(r % 2 == 0 ? (r % 4 == 0 ? 1.0 : 0.0) : null, values.get(r*6+3));
+                    assertEquals((double)FormulaError.DIV0.getCode(), values.get(r*6+4));
+                    assertEquals("A" + r, values.get(r*6+5));
+                }
+                assertEquals(10, columnar.getStringCount());
+            }
+        }
+    }
+
+    private static void assertColumnType(ColumnBatch batch, int column, byte type) {
+        byte[] expected = new byte[batch.getRowCount()];
+        Arrays.fill(expected, type);
+        byte[] types = Arrays.copyOf(batch.getColumn(column).getTypes(), batch.getRowCount());
+        assertArrayEquals(expected, types);
+    }
+
+    @Test
+    void testInlineStrings() throws Exception {
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (Workbook wb = new SXSSFWorkbook()) {
+                Row row = wb.createSheet().createRow(0);
+                row.createCell(0).setCellValue("ABC");
+                row.createCell(2).setCellValue("ABC");
+                row.createCell(3).setCellValue(1.5);
+                wb.write(bos);
+            }
+
+            try (OPCPackage pkg = OPCPackage.open(bos.toInputStream())) {
+                XSSFReader reader = new XSSFReader(pkg);
+                XSSFColumnarReader columnar = new XSSFColumnarReader(reader);
+                int[] batches = { 0 };
+                try (InputStream is = reader.getSheetsData().next()) {
+                    columnar.read(is, batch -> {
+                        batches[0]++;
+                        assertEquals(1, batch.getRowCount());
+                        assertEquals(4, batch.getColumnCount());
+                        assertEquals(STRING, batch.getColumn(0).getTypes()[0]);
+                        assertEquals(BLANK, batch.getColumn(1).getTypes()[0]);
+                        // inline strings are dictionary encoded
+                        assertEquals(-1, batch.getColumn(0).getStrings()[0]);
+                        assertEquals(-1, batch.getColumn(2).getStrings()[0]);
+                        assertEquals(1.5, batch.getColumn(3).getNumbers()[0]);
+                    });
+                }
+                assertEquals(1, batches[0]);
+                assertEquals("ABC", columnar.getString(-1));
+            }
+        }
+
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("InlineString.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFColumnarReader columnar = new XSSFColumnarReader(reader);
+            Iterator<InputStream> iter = reader.getSheetsData();
+            try (InputStream is = iter.next()) {
+                columnar.read(is, batch ->
+                    assertEquals("\uD83D\uDE1Cmore text", columnar.getString(batch.getColumn(0).getStrings()[0])));
+            }
+        }
+    }
+
+    @Test
+    void testParseDouble() {
+        String[] numbers = { "0", "-0", "1", "-17", "0.1", "1.25", "-3.0000001", "123456789012345",
+            "1234567890123456789", "1.5E-7", "4.9E-324", "0.30000000000000004", "1e3" };
+        for (String n : numbers) {
+            assertEquals(Double.parseDouble(n), XSSFColumnarReader.parseDouble(n), n);
+        }
+
+        for (String n : new String[]{ ".", "-", "-.", "1e", "1.2.3", "--1", "" }) {
+            assertThrows(NumberFormatException.class, () -> XSSFColumnarReader.parseDouble(n), n);
+        }
+    }
+
+    @Test
+    void testInvalidNumbers() throws Exception {
+        String sheet = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"1\"><c r=\"A1\"><v>.</v></c><c r=\"B1\"><v>-</v></c><c r=\"C1\" t=\"n\"><v>1e</v></c>" +
+            "<c r=\"D1\"><v>2.5</v></c></row></sheetData></worksheet>";
+        XSSFColumnarReader columnar = new XSSFColumnarReader(null, null, false);
+        List<String> values = new ArrayList<>();
+        columnar.read(new ByteArrayInputStream(sheet.getBytes(StandardCharsets.UTF_8)), batch -> {
+            assertEquals(1, batch.getRowCount());
+            for (int col = 0; col < 3; col++) {
+                assertEquals(STRING, batch.getColumn(col).getTypes()[0]);
+                values.add(columnar.getString(batch.getColumn(col).getStrings()[0]));
+            }
+            assertEquals(NUMERIC, batch.getColumn(3).getTypes()[0]);
+            assertEquals(2.5, batch.getColumn(3).getNumbers()[0]);
+        });
+        // invalid numbers are kept as their raw text
+        assertEquals(Arrays.asList(".", "-", "1e"), values);
+    }
+}
@@ -0,0 +1,123 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test {@link TempFileSharedStringsTable}
+ */
+final class TestTempFileSharedStringsTable {
+    @Test
+    void testCreateUsingRichTextStrings() throws IOException {
+        try (TempFileSharedStringsTable sst = new TempFileSharedStringsTable()) {
+            assertEquals(0, sst.getSharedStringItems().size());
+
+            XSSFRichTextString rts = new XSSFRichTextString("Hello, World!");
+            assertEquals(0, sst.addSharedStringItem(rts));
+            assertEquals(0, sst.addSharedStringItem(rts));
+
+            rts = new XSSFRichTextString(" Second string ");
+            assertEquals(1, sst.addSharedStringItem(rts));
+
+            rts = new XSSFRichTextString(" Second string ");
+            XSSFFont font = new XSSFFont();
+            font.setFontName("Arial");
+            font.setBold(true);
+            rts.applyFont(font);
+            assertEquals(2, sst.addSharedStringItem(rts));
+            assertEquals(2, sst.addSharedStringItem(rts));
+
+            assertEquals(5, sst.getCount());
+            assertEquals(3, sst.getUniqueCount());
+            assertEquals(3, sst.getSharedStringItems().size());
+            assertEquals("Hello, World!", sst.getItemAt(0).getString());
+            assertEquals(" Second string ", sst.getItemAt(1).getString());
+            XSSFRichTextString rich = (XSSFRichTextString)sst.getItemAt(2);
+            assertEquals(" Second string ", rich.getString());
+            assertEquals(1, rich.numFormattingRuns());
+            assertTrue(rich.getFontAtIndex(1).getBold());
+
+            // write and read back with the default implementation
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            sst.writeTo(bos);
+            try (SharedStringsTable sst2 = new SharedStringsTable()) {
+                sst2.readFrom(bos.toInputStream());
+                assertEquals(5, sst2.getCount());
+                assertEquals(3, sst2.getUniqueCount());
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(sst.getItemAt(i).toString(), sst2.getItemAt(i).toString());
+                }
+                assertEquals(1, sst2.getItemAt(2).numFormattingRuns());
+            }
+        }
+    }
+
+    @Test
+    void testXSSFReader() throws Exception {
+        try (OPCPackage pkg = XSSFTestDataSamples.openSamplePackage("sample.xlsx")) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings expected = reader.getSharedStringsTable();
+            reader.setUseTempFileSharedStringsTable(true);
+            try (TempFileSharedStringsTable sst = assertInstanceOf(TempFileSharedStringsTable.class, reader.getSharedStringsTable())) {
+                assertEquals(expected.getCount(), sst.getCount());
+                assertEquals(expected.getUniqueCount(), sst.getUniqueCount());
+                for (int i = 0; i < expected.getUniqueCount(); i++) {
+                    assertEquals(expected.getItemAt(i).getString(), sst.getItemAt(i).getString());
+                    assertEquals(expected.getItemAt(i).numFormattingRuns(), sst.getItemAt(i).numFormattingRuns());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSXSSF() throws IOException {
+        UnsynchronizedByteArrayOutputStream bos;
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(new XSSFWorkbook(TempFileSharedStringsTable.getFactory()), 10, false, true)) {
+            assertInstanceOf(TempFileSharedStringsTable.class, wb.getXSSFWorkbook().getSharedStringSource());
+            Sheet sheet = wb.createSheet();
+            for (int r = 0; r < 100; r++) {
+                sheet.createRow(r).createCell(0).setCellValue("value <" + (r % 30) + "> & more");
+            }
+            bos = XSSFTestDataSamples.writeOut(wb);
+        }
+
+        try (XSSFWorkbook wb = XSSFTestDataSamples.readBack(bos)) {
+            assertEquals(100, wb.getSharedStringSource().getCount());
+            assertEquals(30, wb.getSharedStringSource().getUniqueCount());
+            for (int r = 0; r < 100; r++) {
+                assertEquals("value <" + (r % 30) + "> & more", wb.getSheetAt(0).getRow(r).getCell(0).getStringCellValue());
+            }
+        }
+    }
+}
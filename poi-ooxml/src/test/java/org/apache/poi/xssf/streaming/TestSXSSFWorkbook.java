@@ -167,6 +167,35 @@ public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
         }
     }
 
+    @Test
+    void writeWithCompressionThreads() throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(10)) {
+            wb.getXSSFWorkbook().getPackage().setCompressionThreads(4);
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.createSheet("S" + s);
+                for (int r = 0; r < 100; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(s * 1000 + r);
+                    row.createCell(1).setCellValue("text " + r);
+                }
+            }
+
+            try (XSSFWorkbook xssfWb = SXSSFITestDataProvider.instance.writeOutAndReadBack(wb)) {
+                assertEquals(3, xssfWb.getNumberOfSheets());
+                for (int s = 0; s < 3; s++) {
+                    Sheet sheet = xssfWb.getSheetAt(s);
+                    assertEquals("S" + s, sheet.getSheetName());
+                    assertEquals(99, sheet.getLastRowNum());
+                    for (int r = 0; r < 100; r++) {
+                        assertEquals(s * 1000 + r, sheet.getRow(r).getCell(0).getNumericCellValue(), 0);
+                        assertEquals("text " + r, sheet.getRow(r).getCell(1).getStringCellValue());
+                    }
+                }
+            }
+            assertTrue(wb.dispose());
+        }
+    }
+
     @Test
     void useSharedStringsTableWithRichText() throws Exception {
         testUseSharedStringsTableWithRichText(false);
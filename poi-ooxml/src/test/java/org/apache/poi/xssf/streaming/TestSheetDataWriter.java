@@ -84,4 +84,32 @@ public final class TestSheetDataWriter {
             IOUtils.closeQuietly(writer);
         }
     }
+
+    @Test
+    void testWriteRow() throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook()) {
+            SXSSFRow row = wb.createSheet().createRow(99);
+            row.createCell(0).setCellValue(42);
+            row.createCell(27).setCellValue(-0.5);
+            row.createCell(28).setCellValue(-0.0);
+            row.createCell(16383).setCellValue(1.0e7);
+            SheetDataWriter writer = new SheetDataWriter();
+            try {
+                writer.writeRow(99, row);
+                writer.close();
+                File file = writer.getTempFile();
+                try (FileInputStream is = new FileInputStream(file)) {
+                    String text = new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8);
+                    assertEquals("<row r=\"100\">\n" +
+                        "<c r=\"A100\" t=\"n\"><v>42.0</v></c>" +
+                        "<c r=\"AB100\" t=\"n\"><v>-0.5</v></c>" +
+                        "<c r=\"AC100\" t=\"n\"><v>-0.0</v></c>" +
+                        "<c r=\"XFD100\" t=\"n\"><v>1.0E7</v></c>" +
+                        "</row>\n", text);
+                }
+            } finally {
+                IOUtils.closeQuietly(writer);
+            }
+        }
+    }
 }
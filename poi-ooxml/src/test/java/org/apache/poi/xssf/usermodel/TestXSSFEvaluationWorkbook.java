@@ -19,13 +19,22 @@ package org.apache.poi.xssf.usermodel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
 
 class TestXSSFEvaluationWorkbook {
 
@@ -77,4 +86,66 @@ class TestXSSFEvaluationWorkbook {
         assertEquals("3",cellC3.getStringCellValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSharedFormulaTokens() throws IOException {
+        try (XSSFWorkbook wb = XSSFTestDataSamples.writeOutAndReadBack(createSharedFormulas())) {
+            XSSFSheet sheet = wb.getSheetAt(0);
+            XSSFEvaluationWorkbook evalWb = XSSFEvaluationWorkbook.create(wb);
+            for (int r = 0; r < 10; r++) {
+                for (int c = 1; c < 4; c++) {
+                    XSSFCell cell = sheet.getRow(r).getCell(c);
+                    assertTokens(evalWb, cell);
+                }
+            }
+
+            // editing the master formula invalidates the cached tokens of its group
+            XSSFCell master = sheet.getRow(0).getCell(1);
+            master.setCellFormula("A1*3");
+            XSSFCell cell = sheet.getRow(5).getCell(1);
+            assertEquals("A6*3", cell.getCellFormula());
+            assertTokens(evalWb, cell);
+
+            // removing the master formula passes it on to the next cell of the group
+            master.removeFormula();
+            assertTokens(evalWb, cell);
+
+            FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            assertEquals(18, fe.evaluate(cell).getNumberValue(), 0);
+            assertEquals(40, fe.evaluate(sheet.getRow(9).getCell(2)).getNumberValue(), 0);
+            assertEquals(55, fe.evaluate(sheet.getRow(9).getCell(3)).getNumberValue(), 0);
+        }
+    }
+
+    /**
+     * @return a workbook with the numbers 1 to 10 in column A and a shared formula
+     *  group in each of the columns B to D
+     */
+    private static XSSFWorkbook createSharedFormulas() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        XSSFSheet sheet = wb.createSheet();
+        String[] formulas = { "A1*2", "A1+B1", "SUM($A$1:A1)" };
+        for (int r = 0; r < 10; r++) {
+            XSSFRow row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r + 1);
+            for (int c = 1; c < 4; c++) {
+                CTCellFormula f = row.createCell(c).getCTCell().addNewF();
+                f.setT(STCellFormulaType.SHARED);
+                f.setSi(c);
+                if (r == 0) {
+                    f.setStringValue(formulas[c - 1]);
+                    f.setRef(new CellRangeAddress(0, 9, c, c).formatAsString());
+                }
+            }
+        }
+        return wb;
+    }
+
+    /**
+     * the tokens derived from the shared formula group need to match the parsed cell formula
+     */
+    private static void assertTokens(XSSFEvaluationWorkbook evalWb, XSSFCell cell) {
+        Ptg[] expected = FormulaParser.parse(cell.getCellFormula(), evalWb, FormulaType.CELL, 0, cell.getRowIndex());
+        Ptg[] actual = evalWb.getFormulaTokens(new XSSFEvaluationCell(cell));
+        assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+    }
+}
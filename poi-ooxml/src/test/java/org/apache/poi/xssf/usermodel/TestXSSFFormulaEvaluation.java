@@ -26,12 +26,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.ss.usermodel.BaseTestFormulaEvaluator;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
@@ -40,6 +42,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.xssf.XSSFITestDataProvider;
 import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.model.SharedStringsTable;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -485,4 +488,57 @@ public final class TestXSSFFormulaEvaluation extends BaseTestFormulaEvaluator {
             assertEquals("Male", value.getStringValue());
         }
     }
+
+    @Test
+    void testEvaluateAllParallel() throws IOException {
+        try (XSSFWorkbook serial = createSheetsWithFormulas();
+             XSSFWorkbook parallel = createSheetsWithFormulas()) {
+            serial.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            parallel.getCreationHelper().createFormulaEvaluator().evaluateAll(ForkJoinPool.commonPool());
+
+            for (int s = 0; s < serial.getNumberOfSheets(); s++) {
+                for (Row row : serial.getSheetAt(s)) {
+                    for (Cell cell : row) {
+                        if (cell.getCellType() != CellType.FORMULA) {
+                            continue;
+                        }
+                        Cell other = parallel.getSheetAt(s).getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                        assertEquals(cell.getCachedFormulaResultType(), other.getCachedFormulaResultType());
+                        if (cell.getCachedFormulaResultType() == CellType.STRING) {
+                            assertEquals(cell.getStringCellValue(), other.getStringCellValue());
+                        } else if (cell.getCachedFormulaResultType() == CellType.NUMERIC) {
+                            assertEquals(cell.getNumericCellValue(), other.getNumericCellValue(), 0);
+                        }
+                    }
+                }
+            }
+            assertEquals("v100", parallel.getSheet("S1").getRow(0).getCell(2).getStringCellValue());
+            assertEquals(1225.0, parallel.getSheet("S1").getRow(0).getCell(3).getNumericCellValue(), 0);
+
+            // the string results are added to the shared strings in the same order
+            SharedStringsTable sst = serial.getSharedStringSource();
+            SharedStringsTable sst2 = parallel.getSharedStringSource();
+            assertEquals(sst.getUniqueCount(), sst2.getUniqueCount());
+            for (int i = 0; i < sst.getUniqueCount(); i++) {
+                assertEquals(sst.getItemAt(i).getString(), sst2.getItemAt(i).getString());
+            }
+        }
+    }
+
+    private static XSSFWorkbook createSheetsWithFormulas() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        for (int s = 0; s < 4; s++) {
+            XSSFSheet sheet = wb.createSheet("S" + s);
+            for (int r = 0; r < 50; r++) {
+                XSSFRow row = sheet.createRow(r);
+                row.createCell(0).setCellValue(s * 100 + r);
+                row.createCell(1).setCellFormula("A" + (r + 1) + "*2");
+                row.createCell(2).setCellFormula("\"v\"&B" + (r + 1) + "/" + (s + 1));
+            }
+        }
+        // S1 depends on S0, S2 and S3 are independent
+        wb.getSheet("S1").getRow(0).createCell(3).setCellFormula("SUM(S0!A1:A50)");
+        wb.getSheet("S3").getRow(1).createCell(3).setCellFormula("1/0");
+        return wb;
+    }
 }
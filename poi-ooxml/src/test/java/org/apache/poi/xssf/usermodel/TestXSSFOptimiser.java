@@ -0,0 +1,103 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.usermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.model.StylesTable;
+import org.junit.jupiter.api.Test;
+
+final class TestXSSFOptimiser {
+    @Test
+    void testDoesNoHarmIfNothingToDo() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFFont font = wb.createFont();
+            font.setFontName("Testing");
+            XSSFCellStyle style = wb.createCellStyle();
+            style.setFont(font);
+            wb.createSheet().createRow(0).createCell(0).setCellStyle(style);
+
+            assertEquals(2, wb.getNumberOfFonts());
+            assertEquals(2, wb.getNumCellStyles());
+
+            XSSFOptimiser.optimiseFonts(wb);
+            XSSFOptimiser.optimiseCellStyles(wb);
+
+            assertEquals(2, wb.getNumberOfFonts());
+            assertEquals(2, wb.getNumCellStyles());
+            assertEquals("Testing", wb.getSheetAt(0).getRow(0).getCell(0).getCellStyle().getFont().getFontName());
+        }
+    }
+
+    @Test
+    void testManyDuplicates() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFSheet sheet = wb.createSheet();
+            // styles and fonts in 10 variants, each created 500 times
+            for (int i = 0; i < 5000; i++) {
+                XSSFFont font = wb.createFont();
+                font.setFontHeightInPoints((short) (12 + i % 10));
+                XSSFCellStyle style = wb.createCellStyle();
+                style.setFont(font);
+                style.setFillForegroundColor((short) (8 + i % 10));
+                style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+                sheet.createRow(i).createCell(0).setCellStyle(style);
+            }
+            // an unused style and styled rows and columns
+            wb.createCellStyle().setFont(wb.createFont());
+            sheet.getRow(0).setRowStyle(sheet.getRow(10).getCell(0).getCellStyle());
+            sheet.setDefaultColumnStyle(2, sheet.getRow(3).getCell(0).getCellStyle());
+            assertEquals(5002, wb.getNumberOfFonts());
+            assertEquals(5002, wb.getNumCellStyles());
+
+            XSSFOptimiser.optimiseFonts(wb);
+            assertEquals(12, wb.getNumberOfFonts());
+            StylesTable styles = wb.getStylesSource();
+            for (int i = 0; i < styles.getFonts().size(); i++) {
+                assertEquals(i, styles.getFonts().get(i).getIndex());
+            }
+
+            XSSFOptimiser.optimiseCellStyles(wb);
+            assertEquals(11, wb.getNumCellStyles());
+            checkStyles(sheet);
+
+            try (XSSFWorkbook wb2 = XSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                assertEquals(12, wb2.getNumberOfFonts());
+                assertEquals(11, wb2.getNumCellStyles());
+                checkStyles(wb2.getSheetAt(0));
+            }
+        }
+    }
+
+    private static void checkStyles(XSSFSheet sheet) {
+        for (int i = 0; i < 5000; i++) {
+            XSSFCellStyle style = sheet.getRow(i).getCell(0).getCellStyle();
+            assertEquals(1 + i % 10, style.getIndex());
+            assertEquals(8 + i % 10, style.getFillForegroundColor());
+            assertEquals(12 + i % 10, style.getFont().getFontHeightInPoints());
+        }
+        assertEquals(1, sheet.getRow(0).getRowStyle().getIndex());
+        assertEquals(4, sheet.getColumnStyle(2).getIndex());
+        assertNull(sheet.getRow(1).getRowStyle());
+    }
+}
@@ -50,6 +50,7 @@ import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.common.usermodel.HyperlinkType;
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.poifs.crypt.CryptoFunctions;
 import org.apache.poi.poifs.crypt.HashAlgorithm;
 import org.apache.poi.ss.tests.usermodel.BaseTestXSheet;
@@ -2414,4 +2415,62 @@ public final class TestXSSFSheet extends BaseTestXSheet {
             assertEquals("2-1,2-1,1+2,2-1,2-1,3+3,3+3,3+3,2-1,2-1,", sb.toString());
         }
     }
+
+    @Test
+    void testCompactRowStorage() throws Exception {
+        try (XSSFWorkbook wb1 = new XSSFWorkbook()) {
+            wb1.setCompactRowStorage(true);
+            XSSFSheet sheet = wb1.createSheet();
+            for (int rownum : new int[]{5, 1, 3, 0, 4}) {
+                XSSFRow row = sheet.createRow(rownum);
+                row.createCell(3).setCellValue(rownum);
+                row.createCell(1).setCellValue("r" + rownum);
+            }
+            sheet.removeRow(sheet.getRow(3));
+            sheet.shiftRows(4, 5, 2);
+
+            assertEquals(0, sheet.getFirstRowNum());
+            assertEquals(7, sheet.getLastRowNum());
+            assertEquals(4, sheet.getPhysicalNumberOfRows());
+            assertEquals(Arrays.asList(0, 1, 6, 7), StreamSupport.stream(sheet.spliterator(), false)
+                .map(Row::getRowNum).collect(Collectors.toList()));
+
+            XSSFRow row = sheet.getRow(6);
+            assertEquals(1, row.getFirstCellNum());
+            assertEquals(4, row.getLastCellNum());
+            assertEquals(4.0, row.getCell(3).getNumericCellValue(), 0);
+            row.removeCell(row.getCell(1));
+            assertEquals(1, row.getPhysicalNumberOfCells());
+
+            // the setting only applies to this workbook
+            try (XSSFWorkbook wb2 = new XSSFWorkbook()) {
+                assertFalse(wb2.isCompactRowStorage());
+            }
+
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            wb1.write(bos);
+            try (XSSFWorkbook wb2 = new XSSFWorkbook(OPCPackage.open(bos.toInputStream()), true)) {
+                assertTrue(wb2.isCompactRowStorage());
+                XSSFSheet sheet2 = wb2.getSheetAt(0);
+                assertEquals(4, sheet2.getPhysicalNumberOfRows());
+                assertEquals("r5", sheet2.getRow(7).getCell(1).getStringCellValue());
+                assertNull(sheet2.getRow(6).getCell(1));
+                sheet2.createRow(2).createCell(0).setCellValue(2);
+                assertEquals(Arrays.asList(0, 1, 2, 6, 7), StreamSupport.stream(sheet2.spliterator(), false)
+                    .map(Row::getRowNum).collect(Collectors.toList()));
+            }
+
+            // the default applies to all constructors, e.g. of the WorkbookFactory
+            XSSFWorkbook.setDefaultCompactRowStorage(true);
+            try (Workbook wb3 = WorkbookFactory.create(bos.toInputStream())) {
+                assertTrue(((XSSFWorkbook) wb3).isCompactRowStorage());
+                assertEquals("r5", wb3.getSheetAt(0).getRow(7).getCell(1).getStringCellValue());
+            } finally {
+                XSSFWorkbook.setDefaultCompactRowStorage(false);
+            }
+            try (XSSFWorkbook wb4 = new XSSFWorkbook(bos.toInputStream())) {
+                assertFalse(wb4.isCompactRowStorage());
+            }
+        }
+    }
 }
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.util.Set;
 
 import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.RecordFactoryInputStream.RawRecordHandler;
+import org.apache.poi.hssf.util.RKUtil;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
@@ -164,6 +166,9 @@ public class HSSFEventFactory {
 
         // Create a new RecordStream and use that
         RecordFactoryInputStream recordStream = new RecordFactoryInputStream(in, false);
+        if (req.hasNumericCellListeners()) {
+            recordStream.setRawRecordHandler(new NumericCellReader(req));
+        }
 
         // Process each record as they come in
         while(true) {
@@ -180,4 +185,54 @@ public class HSSFEventFactory {
         // All done, return our last code
         return userCode;
     }
+
+    /**
+     * Reads the numeric cells directly from the record stream into a reused
+     * {@link HSSFNumericCell}, instead of creating a NumberRecord per cell
+     */
+    private static final class NumericCellReader implements RawRecordHandler {
+        private final HSSFRequest _req;
+        private final HSSFNumericCell _cell = new HSSFNumericCell();
+
+        NumericCellReader(HSSFRequest req) {
+            _req = req;
+        }
+
+        @Override
+        public boolean handlesRecord(short sid) {
+            return sid == NumberRecord.sid || sid == RKRecord.sid || sid == MulRKRecord.sid;
+        }
+
+        @Override
+        public void processRecord(RecordInputStream in) {
+            short sid = in.getSid();
+            int row = in.readUShort();
+            int column = in.readUShort();
+            switch (sid) {
+                case NumberRecord.sid: {
+                    short xf = in.readShort();
+                    _cell.set(sid, row, column, xf, in.readDouble());
+                    _req.processNumericCell(_cell);
+                    break;
+                }
+                case RKRecord.sid: {
+                    short xf = in.readShort();
+                    _cell.set(sid, row, column, xf, RKUtil.decodeNumber(in.readInt()));
+                    _req.processNumericCell(_cell);
+                    break;
+                }
+                default: {
+                    // MulRK: (xf, rk) pairs of the consecutive columns, followed by the last column
+                    int nItems = (in.remaining() - 2) / 6;
+                    for (int i = 0; i < nItems; i++) {
+                        short xf = in.readShort();
+                        _cell.set(sid, row, column + i, xf, RKUtil.decodeNumber(in.readInt()));
+                        _req.processNumericCell(_cell);
+                    }
+                    in.readShort();
+                    break;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.eventusermodel;
+
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+
+/**
+ * A numeric cell of the workbook stream, as passed to a {@link HSSFNumericCellListener}.
+ * <p>
+ * This is a flyweight, i.e. the same instance is reused for all numeric cells.
+ * Copy the values, if they are needed after the listener returns.
+ *
+ * @since POI 5.4.1
+ */
+public final class HSSFNumericCell {
+    private short _sid;
+    private int _row;
+    private int _column;
+    private short _xfIndex;
+    private double _value;
+
+    HSSFNumericCell() {}
+
+    void set(short sid, int row, int column, short xfIndex, double value) {
+        _sid = sid;
+        _row = row;
+        _column = column;
+        _xfIndex = xfIndex;
+        _value = value;
+    }
+
+    /**
+     * @return the sid of the record containing the cell, i.e. {@link NumberRecord#sid},
+     * {@link RKRecord#sid} or {@link MulRKRecord#sid}
+     */
+    public short getSid() {
+        return _sid;
+    }
+
+    /**
+     * @return the 0-based row of the cell
+     */
+    public int getRow() {
+        return _row;
+    }
+
+    /**
+     * @return the 0-based column of the cell
+     */
+    public int getColumn() {
+        return _column;
+    }
+
+    /**
+     * @return the index of the extended format record of the cell
+     */
+    public short getXFIndex() {
+        return _xfIndex;
+    }
+
+    /**
+     * @return the value of the cell, RK numbers are already decoded
+     */
+    public double getValue() {
+        return _value;
+    }
+
+    @Override
+    public String toString() {
+        return "HSSFNumericCell[sid=0x" + Integer.toHexString(_sid) + ",row=" + _row + ",column=" + _column
+            + ",xf=" + _xfIndex + ",value=" + _value + "]";
+    }
+}
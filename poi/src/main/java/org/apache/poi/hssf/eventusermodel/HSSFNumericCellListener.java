@@ -0,0 +1,40 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.eventusermodel;
+
+/**
+ * Listener for the numeric cells of a workbook stream, i.e. the cells of the
+ * NumberRecord, RKRecord and MulRKRecord records.
+ * <p>
+ * In contrast to a {@link HSSFListener} registered for {@link org.apache.poi.hssf.record.NumberRecord#sid},
+ * no record objects are created for the numeric cells. The cell values are passed in a
+ * {@link HSSFNumericCell}, which is reused for all cells and therefore only valid
+ * until the listener returns.
+ *
+ * @see HSSFRequest#addNumericCellListener(HSSFNumericCellListener)
+ * @since POI 5.4.1
+ */
+public interface HSSFNumericCellListener {
+
+    /**
+     * process a numeric cell. Called for each numeric cell of a sheet in the HSSF file.
+     *
+     * @param cell the cell, which is only valid during this call
+     */
+    void processNumericCell(HSSFNumericCell cell);
+}
@@ -34,6 +34,7 @@ import org.apache.poi.hssf.record.RecordFactory;
  */
 public class HSSFRequest {
     private final Map<Short, List<HSSFListener>> _records;
+    private final List<HSSFNumericCellListener> _numericCellListeners = new ArrayList<>(1);
 
     /** Creates a new instance of HSSFRequest */
     public HSSFRequest() {
@@ -78,6 +79,35 @@ public class HSSFRequest {
         }
     }
 
+    /**
+     * add a listener for the numeric cells, which are then passed without creating record objects.
+     * <p>
+     * If a numeric cell listener is registered, the NumberRecord, RKRecord and MulRKRecord records
+     * are not passed to the {@link HSSFListener}s anymore, e.g. a {@link MissingRecordAwareHSSFListener}
+     * or {@link FormatTrackingHSSFListener} won't see the numeric cells.
+     *
+     * @param lsnr the listener for the numeric cells
+     * @since POI 5.4.1
+     */
+    public void addNumericCellListener(HSSFNumericCellListener lsnr) {
+        _numericCellListeners.add(lsnr);
+    }
+
+    boolean hasNumericCellListeners() {
+        return !_numericCellListeners.isEmpty();
+    }
+
+    /**
+     * Called by HSSFEventFactory, passes the numeric cell to each numeric cell listener
+     *
+     * @param cell the cell to be processed
+     */
+    void processNumericCell(HSSFNumericCell cell) {
+        for (HSSFNumericCellListener listener : _numericCellListeners) {
+            listener.processNumericCell(cell);
+        }
+    }
+
     /**
      * Called by HSSFEventFactory, passes the Record to each listener associated with
      * a record.sid.
@@ -0,0 +1,491 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.eventusermodel;
+
+import static org.apache.poi.hssf.model.InternalWorkbook.BOOK;
+import static org.apache.poi.hssf.model.InternalWorkbook.WORKBOOK;
+import static org.apache.poi.hssf.model.InternalWorkbook.WORKBOOK_DIR_ENTRY_NAMES;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.hssf.record.ArrayRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.ContinueRecord;
+import org.apache.poi.hssf.record.DBCellRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.record.RecordInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.SharedFormulaRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.record.TableRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.RecordFormatException;
+
+/**
+ * Reads the records of a range of rows of a sheet, without reading the rest of the sheet.<p>
+ *
+ * The cell records of a sheet are stored in blocks of up to 32 rows. The INDEX record
+ * at the start of the sheet points to the DBCELL record at the end of each block, which
+ * in turn points back to the first ROW record of the block. This reader uses these
+ * records to find the block containing the first requested row by a binary search
+ * and only reads and decodes the records from there up to the last requested row.
+ * If the sheet has no INDEX record or its offsets don't point to the expected records,
+ * the sheet is scanned from its start instead, still only decoding the requested rows.<p>
+ *
+ * The workbook globals are read once when the reader is created, so that e.g. the
+ * strings of {@link LabelSSTRecord}s can be looked up in {@link #getSSTRecord()}.<p>
+ *
+ * The listener receives the {@link RowRecord}s and cell value records of the requested
+ * rows in file order, followed by the {@link StringRecord} of string formula results.
+ * {@link SharedFormulaRecord}s, {@link ArrayRecord}s and {@link TableRecord}s are passed
+ * on if their range overlaps the requested rows, but only if they are located in the
+ * blocks which are read, i.e. a shared formula which starts in an earlier block of
+ * rows is not passed on.
+ *
+ * @since POI 5.4.1
+ */
+public final class HSSFRowRangeReader implements Closeable {
+    private final DocumentInputStream _in;
+    private final int _size;
+    private final List<BoundSheetRecord> _boundSheets = new ArrayList<>();
+    private SSTRecord _sst;
+
+    /** the offset of the stream */
+    private int _pos;
+    /** whether a record header has been read, whose body wasn't read yet */
+    private boolean _hasRecord;
+    private int _sid;
+    private int _len;
+    /** the number of bytes of the current body, which have already been read */
+    private int _bodyRead;
+    /** the start of the current body, which has been read to check the row numbers */
+    private final byte[] _prefix = new byte[4];
+
+    /** whether the last call of {@link #readRows} could use the INDEX record, for testing */
+    private boolean _lastReadIndexed;
+
+    /**
+     * Opens the workbook stream of the given file system and reads the workbook globals.
+     *
+     * @param fs the POIFS filesystem containing the workbook
+     * @throws IOException if the workbook can't be read
+     * @throws EncryptedDocumentException if the workbook is encrypted
+     */
+    public HSSFRowRangeReader(POIFSFileSystem fs) throws IOException {
+        this(fs.getRoot());
+    }
+
+    /**
+     * Opens the workbook stream of the given directory and reads the workbook globals.
+     *
+     * @param dir the directory containing the workbook
+     * @throws IOException if the workbook can't be read
+     * @throws EncryptedDocumentException if the workbook is encrypted
+     */
+    public HSSFRowRangeReader(DirectoryNode dir) throws IOException {
+        // some old documents have "WORKBOOK" or "BOOK"
+        String name = WORKBOOK_DIR_ENTRY_NAMES.get(0);
+        if (dir.hasEntry(WORKBOOK)) {
+            name = WORKBOOK;
+        } else if (dir.hasEntry(BOOK)) {
+            name = BOOK;
+        }
+        _in = dir.createDocumentInputStream(name);
+        _size = _in.available();
+        readGlobals();
+    }
+
+    private void readGlobals() throws IOException {
+        RecordInputStream rin = new RecordInputStream(_in);
+        while (rin.hasNextRecord()) {
+            rin.nextRecord();
+            switch (rin.getSid()) {
+                case FilePassRecord.sid:
+                    throw new EncryptedDocumentException("Reading row ranges of encrypted workbooks isn't supported");
+                case BoundSheetRecord.sid:
+                    _boundSheets.add(new BoundSheetRecord(rin));
+                    break;
+                case SSTRecord.sid:
+                    _sst = new SSTRecord(rin);
+                    break;
+                case EOFRecord.sid:
+                    return;
+                default:
+                    rin.readRemainder();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the number of sheets of the workbook
+     */
+    public int getNumberOfSheets() {
+        return _boundSheets.size();
+    }
+
+    /**
+     * @param sheetIndex the 0-based index of the sheet
+     * @return the name of the sheet
+     */
+    public String getSheetName(int sheetIndex) {
+        return _boundSheets.get(sheetIndex).getSheetname();
+    }
+
+    /**
+     * @return the shared string table of the workbook or {@code null} if it has none
+     */
+    public SSTRecord getSSTRecord() {
+        return _sst;
+    }
+
+    /**
+     * Passes the records of the rows {@code firstRow} to {@code lastRow} of the given sheet
+     * to the listener.
+     *
+     * @param sheetIndex the 0-based index of the sheet
+     * @param firstRow the 0-based index of the first row to read
+     * @param lastRow the 0-based index of the last row to read, inclusive
+     * @param listener the listener which receives the records
+     * @throws IOException if the stream has been closed
+     * @throws IllegalArgumentException if the sheet doesn't exist or the row range is invalid
+     * @throws RecordFormatException if the sheet can't be found or its records are corrupt
+     */
+    public void readRows(int sheetIndex, int firstRow, int lastRow, HSSFListener listener) throws IOException {
+        if (sheetIndex < 0 || sheetIndex >= _boundSheets.size()) {
+            throw new IllegalArgumentException("Sheet index (" + sheetIndex + ") is out of range (0.."
+                    + (_boundSheets.size() - 1) + ")");
+        }
+        if (firstRow < 0 || lastRow < firstRow) {
+            throw new IllegalArgumentException("Invalid row range " + firstRow + ".." + lastRow);
+        }
+
+        final int bofPos = findSheetBof(sheetIndex);
+        seekRecord(bofPos);
+        skipBody();
+        nextHeader();
+
+        int startPos = -1;
+        if (_hasRecord && _sid == IndexRecord.sid && _len >= 16) {
+            startPos = findStartBlock(readDbCells(), firstRow, bofPos);
+        }
+        _lastReadIndexed = (startPos != -1);
+        if (_lastReadIndexed) {
+            seekRecord(startPos);
+        } else {
+            // no usable index, so scan the sheet from its start
+            seekRecord(bofPos);
+            skipBody();
+            nextHeader();
+        }
+        readCells(firstRow, lastRow, listener);
+    }
+
+    /**
+     * @return the offset of the BOF record of the sheet, preferably taken from its BoundSheet record
+     */
+    private int findSheetBof(int sheetIndex) throws IOException {
+        int bofPos = _boundSheets.get(sheetIndex).getPositionOfBof();
+        if (bofPos >= 0 && bofPos <= _size - 4 && seekRecord(bofPos) && _sid == BOFRecord.sid) {
+            return bofPos;
+        }
+
+        // the BoundSheet record is wrong, so count the substreams instead -
+        // the first one contains the workbook globals, embedded charts are nested within the sheets
+        int substream = -1;
+        int depth = 0;
+        seekRecord(0);
+        while (_hasRecord) {
+            if (_sid == BOFRecord.sid) {
+                if (depth == 0 && ++substream == sheetIndex + 1) {
+                    return _pos - 4;
+                }
+                depth++;
+            } else if (_sid == EOFRecord.sid) {
+                depth = Math.max(0, depth - 1);
+            }
+            skipBody();
+            nextHeader();
+        }
+        throw new RecordFormatException("Couldn't find the BOF record of sheet " + sheetIndex);
+    }
+
+    private int[] readDbCells() throws IOException {
+        // reserved, first row, last row + 1, reserved
+        _in.skip(16);
+        _pos += 16;
+        int[] dbCells = new int[(_len - 16) / 4];
+        for (int i = 0; i < dbCells.length; i++) {
+            dbCells[i] = _in.readInt();
+        }
+        _pos += dbCells.length * 4;
+        _bodyRead = 16 + dbCells.length * 4;
+        return dbCells;
+    }
+
+    /**
+     * Searches the row block, which contains the first requested row
+     *
+     * @return the offset of the first ROW record of the block or -1 if the index is missing or stale
+     */
+    private int findStartBlock(int[] dbCells, int firstRow, int bofPos) throws IOException {
+        if (dbCells.length == 0) {
+            return -1;
+        }
+        int startPos = -1;
+        int low = 0;
+        int high = dbCells.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int rowPos = findBlockRow(dbCells[mid], bofPos);
+            int row = (rowPos == -1) ? -1 : readRowNumberAt(rowPos);
+            if (row == -1) {
+                return -1;
+            }
+            if (row <= firstRow) {
+                startPos = rowPos;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // the first requested row precedes all blocks
+        return (startPos == -1) ? findBlockRow(dbCells[0], bofPos) : startPos;
+    }
+
+    /**
+     * @return the offset of the first ROW record of the block ended by the given DBCELL record
+     *  or -1 if there's no DBCELL record at the offset
+     */
+    private int findBlockRow(int dbCellPos, int bofPos) throws IOException {
+        if (dbCellPos <= bofPos || dbCellPos > _size - 8
+            || !seekRecord(dbCellPos) || _sid != DBCellRecord.sid || _len < 4) {
+            return -1;
+        }
+        // the offset is a 32-bit value relative to the start of the DBCELL record
+        int rowPos = dbCellPos - _in.readInt();
+        _pos += 4;
+        _bodyRead = 4;
+        return (rowPos > bofPos && rowPos < dbCellPos) ? rowPos : -1;
+    }
+
+    /**
+     * @return the row number of the ROW record at the given offset or -1 if there's no ROW record
+     */
+    private int readRowNumberAt(int rowPos) throws IOException {
+        if (!seekRecord(rowPos) || _sid != RowRecord.sid || _len < 2) {
+            return -1;
+        }
+        return readPrefix();
+    }
+
+    private void readCells(int firstRow, int lastRow, HSSFListener listener) throws IOException {
+        boolean inCells = false;
+        boolean blockStart = true;
+        boolean formulaPassed = false;
+        while (_hasRecord) {
+            switch (_sid) {
+                case RowRecord.sid: {
+                    int row = readPrefix();
+                    if (blockStart && row > lastRow) {
+                        // rows are sorted, so the following blocks can't contain requested rows
+                        return;
+                    }
+                    blockStart = false;
+                    inCells = true;
+                    formulaPassed = false;
+                    if (row >= firstRow && row <= lastRow) {
+                        listener.processRecord(readRecord());
+                        continue;
+                    }
+                    break;
+                }
+                case NumberRecord.sid:
+                case RKRecord.sid:
+                case LabelSSTRecord.sid:
+                case LabelRecord.sid:
+                case BlankRecord.sid:
+                case BoolErrRecord.sid:
+                case FormulaRecord.sid:
+                case MulRKRecord.sid:
+                case MulBlankRecord.sid: {
+                    int sid = _sid;
+                    int row = readPrefix();
+                    inCells = true;
+                    formulaPassed = false;
+                    if (row >= firstRow && row <= lastRow) {
+                        listener.processRecord(readRecord());
+                        formulaPassed = (sid == FormulaRecord.sid);
+                        continue;
+                    }
+                    break;
+                }
+                case SharedFormulaRecord.sid:
+                case ArrayRecord.sid:
+                case TableRecord.sid: {
+                    // the range starts with the first and last row
+                    int rangeFirstRow = readPrefix();
+                    int rangeLastRow = readPrefix();
+                    if (rangeFirstRow <= lastRow && rangeLastRow >= firstRow) {
+                        listener.processRecord(readRecord());
+                        continue;
+                    }
+                    break;
+                }
+                case StringRecord.sid:
+                    if (formulaPassed) {
+                        formulaPassed = false;
+                        listener.processRecord(readRecord());
+                        continue;
+                    }
+                    break;
+                case DBCellRecord.sid:
+                    blockStart = true;
+                    break;
+                case ContinueRecord.sid:
+                    break;
+                case EOFRecord.sid:
+                    return;
+                default:
+                    if (inCells) {
+                        // end of the cell records
+                        return;
+                    }
+                    break;
+            }
+            skipBody();
+            nextHeader();
+        }
+    }
+
+    /**
+     * Moves to the record at the given offset and reads its header
+     *
+     * @return {@code true} if there's a record at the offset
+     */
+    private boolean seekRecord(int pos) throws IOException {
+        _in.seek(pos);
+        _pos = pos;
+        return nextHeader();
+    }
+
+    /**
+     * Reads the header of the next record, the previous body must have been read or skipped
+     */
+    private boolean nextHeader() {
+        _hasRecord = _size - _pos >= 4;
+        if (!_hasRecord) {
+            return false;
+        }
+        _sid = _in.readUShort();
+        _len = _in.readUShort();
+        _pos += 4;
+        _bodyRead = 0;
+        if (_len > _size - _pos) {
+            throw new RecordFormatException("Record 0x" + Integer.toHexString(_sid) + " of size " + _len
+                    + " exceeds the workbook stream at offset " + _pos);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next two bytes at the start of the current body, e.g. the row number of cell records
+     */
+    private int readPrefix() {
+        if (_len < _bodyRead + 2) {
+            throw new RecordFormatException("Record 0x" + Integer.toHexString(_sid) + " is too short");
+        }
+        int value = _in.readUShort();
+        LittleEndian.putUShort(_prefix, _bodyRead, value);
+        _pos += 2;
+        _bodyRead += 2;
+        return value;
+    }
+
+    private void skipBody() throws IOException {
+        int remaining = _len - _bodyRead;
+        _in.skip(remaining);
+        _pos += remaining;
+        _bodyRead = _len;
+    }
+
+    /**
+     * Decodes the current record including its continue records. The bytes read by
+     * {@link #readPrefix()} are put back in front of the remaining body.
+     * Afterwards the header of the following record has been read.
+     */
+    private Record readRecord() throws IOException {
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        byte[] buf = new byte[4];
+        LittleEndian.putUShort(buf, 0, _sid);
+        LittleEndian.putUShort(buf, 2, _len);
+        bos.write(buf, 0, 4);
+        bos.write(_prefix, 0, _bodyRead);
+        copyBody(bos);
+        while (nextHeader() && _sid == ContinueRecord.sid) {
+            LittleEndian.putUShort(buf, 0, _sid);
+            LittleEndian.putUShort(buf, 2, _len);
+            bos.write(buf, 0, 4);
+            copyBody(bos);
+        }
+
+        RecordInputStream rin = new RecordInputStream(bos.toInputStream());
+        rin.nextRecord();
+        return RecordFactory.createSingleRecord(rin);
+    }
+
+    private void copyBody(UnsynchronizedByteArrayOutputStream bos) {
+        byte[] body = new byte[_len - _bodyRead];
+        _in.readFully(body);
+        _pos += body.length;
+        _bodyRead = _len;
+        bos.write(body, 0, body.length);
+    }
+
+    /* package */ boolean isLastReadIndexed() {
+        return _lastReadIndexed;
+    }
+
+    @Override
+    public void close() {
+        _in.close();
+    }
+}
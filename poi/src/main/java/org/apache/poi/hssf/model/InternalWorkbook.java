@@ -524,6 +524,29 @@ public final class InternalWorkbook {
         numfonts--;
     }
 
+    /**
+     * Removes several font records in a single pass. This will make all
+     *  subsequent font indices drop, so you'll need to update those yourself!
+     *
+     * @param remove flags by font index, if the font is to be removed, the flag for
+     *  the (non-existing) index 4 is ignored
+     *
+     * @since POI 5.4.1
+     */
+    public void removeFontRecords(boolean[] remove) {
+        // there is no font 4, so the font index doesn't match the record position
+        boolean[] removeRecords = new boolean[numfonts];
+        int count = 0;
+        for (int i = 0; i < remove.length; i++) {
+            if (i != 4 && remove[i]) {
+                removeRecords[i > 4 ? i - 1 : i] = true;
+                count++;
+            }
+        }
+        records.removeAll(records.getFontpos() - (numfonts - 1), removeRecords);
+        numfonts -= count;
+    }
+
     /**
      * gets the number of font records
      *
@@ -880,6 +903,26 @@ public final class InternalWorkbook {
         numxfs--;
     }
 
+    /**
+     * Removes several ExtendedFormatRecord records in a single pass.
+     *  This will make all subsequent indices drop,
+     *  so you'll need to update those yourself!
+     *
+     * @param remove flags by extended format index, if the record is to be removed
+     *
+     * @since POI 5.4.1
+     */
+    public void removeExFormatRecords(boolean[] remove) {
+        int count = 0;
+        for (boolean r : remove) {
+            if (r) {
+                count++;
+            }
+        }
+        records.removeAll(records.getXfpos() - (numxfs - 1), remove);
+        numxfs -= count;
+    }
+
 
     /**
      * creates a new Cell-type Extended Format Record and adds it to the end of
@@ -942,6 +985,28 @@ public final class InternalWorkbook {
         }
     }
 
+    /**
+     * Update all StyleRecords to point to the new extended format indices
+     * in a single pass.
+     *
+     * @param newXfs the new extended format index by the previous index, StyleRecords
+     *  with indices beyond the array are left unchanged
+     *
+     * @since POI 5.4.1
+     */
+    public void updateStyleRecords(short[] newXfs) {
+        for(int i=records.getXfpos(); i<records.size(); i++) {
+            Record r = records.get(i);
+            if (r instanceof StyleRecord) {
+                StyleRecord sr = (StyleRecord)r;
+                int xf = sr.getXFIndex();
+                if (xf < newXfs.length) {
+                    sr.setXFIndex(newXfs[xf]);
+                }
+            }
+        }
+    }
+
     /**
      * Creates a new StyleRecord, for the given Extended
      *  Format index, and adds it onto the end of the
@@ -1010,6 +1075,21 @@ public final class InternalWorkbook {
         return retval;
     }
 
+    /**
+     * Checks if the SST table contains a string at the given index without creating it.
+     *
+     * @param str the index into the SST table
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *
+     * @since POI 5.4.1
+     */
+    public void checkSSTIndex(int str) {
+        int size = (sst == null) ? 0 : sst.countStrings();
+        if (str < 0 || str >= size) {
+            throw new IndexOutOfBoundsException("Index: " + str + ", Size: " + size);
+        }
+    }
+
     /**
      * use this function to add a Shared String Table to an existing sheet (say
      * generated by a different java api) without an sst....
@@ -90,6 +90,53 @@ public final class WorkbookRecordList {
         updateRecordPos(pos, false);
     }
 
+    /**
+     * Removes several records of a block in a single pass
+     *
+     * @param start the position of the first record of the block
+     * @param remove flags for each record of the block, if it is to be removed
+     *
+     * @since POI 5.4.1
+     */
+    public void removeAll(int start, boolean[] remove) {
+        // the number of removed records before each position of the block
+        int[] removedBefore = new int[remove.length + 1];
+        List<Record> kept = new ArrayList<>(remove.length);
+        for (int i = 0; i < remove.length; i++) {
+            removedBefore[i + 1] = removedBefore[i] + (remove[i] ? 1 : 0);
+            if (!remove[i]) {
+                kept.add(records.get(start + i));
+            }
+        }
+        if (removedBefore[remove.length] == 0) {
+            return;
+        }
+        List<Record> block = records.subList(start, start + remove.length);
+        block.clear();
+        block.addAll(kept);
+
+        setProtpos(shiftPos(protpos, start, removedBefore));
+        setBspos(shiftPos(bspos, start, removedBefore));
+        setTabpos(shiftPos(tabpos, start, removedBefore));
+        setFontpos(shiftPos(fontpos, start, removedBefore));
+        setXfpos(shiftPos(xfpos, start, removedBefore));
+        setBackuppos(shiftPos(backuppos, start, removedBefore));
+        setNamepos(shiftPos(namepos, start, removedBefore));
+        setSupbookpos(shiftPos(supbookpos, start, removedBefore));
+        setPalettepos(shiftPos(palettepos, start, removedBefore));
+        setExternsheetPos(shiftPos(externsheetPos, start, removedBefore));
+    }
+
+    private static int shiftPos(int pos, int start, int[] removedBefore) {
+        if (pos < start) {
+            // also covers the unset positions (-1)
+            return pos;
+        }
+        // same as repeated calls to updateRecordPos: a position moves for each removal at or before it
+        int offset = Math.min(pos - start + 1, removedBefore.length - 1);
+        return pos - removedBefore[offset];
+    }
+
     public int getProtpos() {
         return protpos;
     }
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.poi.poifs.crypt.EncryptionInfo;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.RecordFormatException;
 
@@ -192,4 +193,36 @@ public final class RecordFactory {
 
         return records;
     }
+
+    /**
+     * Create an array of records from a single substream of a workbook stream, e.g. a sheet
+     * substream, which can be read independently of the other substreams, once the workbook
+     * globals have been read.
+     *
+     * @param in the InputStream positioned at the BOF record of the substream
+     * @param key the encryption info of the workbook stream with an already verified password,
+     *            or {@code null} if the workbook stream isn't encrypted
+     * @param offset the offset of the substream within the workbook stream
+     *
+     * @return a list of Records created from the InputStream
+     *
+     * @throws org.apache.poi.util.RecordFormatException on error processing the InputStream
+     * @since POI 5.4.1
+     */
+    public static List<org.apache.poi.hssf.record.Record> createRecords(InputStream in, EncryptionInfo key, int offset)
+            throws RecordFormatException {
+
+        List<org.apache.poi.hssf.record.Record> records = new ArrayList<>(NUM_RECORDS);
+
+        RecordFactoryInputStream recStream = new RecordFactoryInputStream(in, key, offset, true);
+
+        Record record;
+        while ((record = recStream.nextRecord())!=null) {
+            records.add(record);
+
+            IOUtils.safelyAllocateCheck(records.size(), MAX_NUMBER_OF_RECORDS);
+        }
+
+        return records;
+    }
 }
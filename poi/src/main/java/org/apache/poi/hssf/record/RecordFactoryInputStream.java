@@ -41,6 +41,28 @@ import org.apache.poi.util.RecordFormatException;
  */
 public final class RecordFactoryInputStream {
 
+    /**
+     * Processes records of some sids directly from the {@link RecordInputStream},
+     * i.e. without creating record objects for them.
+     *
+     * @since POI 5.4.1
+     */
+    public interface RawRecordHandler {
+        /**
+         * @param sid the sid of the current record
+         * @return {@code true}, if the record is processed by this handler and
+         * is not returned by {@link RecordFactoryInputStream#nextRecord()}
+         */
+        boolean handlesRecord(short sid);
+
+        /**
+         * Processes the current record. The handler needs to read the whole record data.
+         *
+         * @param in the stream positioned at the data of the record
+         */
+        void processRecord(RecordInputStream in);
+    }
+
     /**
      * Keeps track of the sizes of the initial records up to and including {@link FilePassRecord}
      * Needed for protected files because each byte is encrypted with respect to its absolute
@@ -173,6 +195,13 @@ public final class RecordFactoryInputStream {
 
     private boolean _lastRecordWasEOFLevelZero;
 
+    /**
+     * {@code true}, if only the records up to the EOF record matching the first BOF record are read
+     */
+    private final boolean _singleSubstream;
+
+    private RawRecordHandler _rawRecordHandler;
+
 
     /**
      * @param in the InputStream to read from
@@ -182,6 +211,20 @@ public final class RecordFactoryInputStream {
      * processing).
      */
     public RecordFactoryInputStream(InputStream in, boolean shouldIncludeContinueRecords) {
+        this(in, shouldIncludeContinueRecords, false);
+    }
+
+    /**
+     * @param in the InputStream to read from
+     *
+     * @param shouldIncludeContinueRecords caller can pass <code>false</code> if loose
+     * {@link ContinueRecord}s should be skipped (this is sometimes useful in event based
+     * processing).
+     * @param singleSubstream if {@code true}, only the records up to the EOF record matching
+     * the initial BOF record are read, e.g. only the workbook globals of a workbook stream
+     * @since POI 5.4.1
+     */
+    public RecordFactoryInputStream(InputStream in, boolean shouldIncludeContinueRecords, boolean singleSubstream) {
         RecordInputStream rs = new RecordInputStream(in);
         List<org.apache.poi.hssf.record.Record> records = new ArrayList<>();
         StreamEncryptionInfo sei = new StreamEncryptionInfo(rs, records);
@@ -219,6 +262,43 @@ public final class RecordFactoryInputStream {
         */
         _bofDepth = sei.hasBOFRecord() ? 1 : 0;
         _lastRecordWasEOFLevelZero = false;
+        _singleSubstream = singleSubstream;
+    }
+
+    /**
+     * Creates a stream for a single substream of the workbook stream, e.g. a sheet substream.
+     * Only the records up to the EOF record matching the initial BOF record are read.
+     * <p>
+     * The encryption can't be detected from a sheet substream, as the FILEPASS record is
+     * part of the workbook globals. Hence the encryption info needs to be provided.
+     *
+     * @param in the InputStream positioned at the BOF record of the substream
+     * @param key the encryption info of the workbook stream with an already verified password,
+     *            or {@code null} if the workbook stream isn't encrypted
+     * @param initialOffset the offset of the substream within the workbook stream
+     * @param shouldIncludeContinueRecords caller can pass <code>false</code> if loose
+     * {@link ContinueRecord}s should be skipped
+     * @since POI 5.4.1
+     */
+    public RecordFactoryInputStream(InputStream in, EncryptionInfo key, int initialOffset,
+            boolean shouldIncludeContinueRecords) {
+        _recStream = new RecordInputStream(in, key, initialOffset);
+        _shouldIncludeContinueRecords = shouldIncludeContinueRecords;
+        _bofDepth = 0;
+        _lastRecordWasEOFLevelZero = false;
+        _singleSubstream = true;
+    }
+
+    /**
+     * Sets a handler for records, which are read without creating record objects.
+     * This doesn't apply to the records at the start of the stream, which are read
+     * while checking for encryption, i.e. the BOF record and the following one or two records.
+     *
+     * @param rawRecordHandler the handler or {@code null} to create all records
+     * @since POI 5.4.1
+     */
+    public void setRawRecordHandler(RawRecordHandler rawRecordHandler) {
+        _rawRecordHandler = rawRecordHandler;
     }
 
     /**
@@ -232,6 +312,10 @@ public final class RecordFactoryInputStream {
             return r;
         }
         while (true) {
+            if (_lastRecordWasEOFLevelZero && _singleSubstream) {
+                // the stream may continue with the next substream
+                return null;
+            }
             if (!_recStream.hasNextRecord()) {
                 // recStream is exhausted;
                 return null;
@@ -252,6 +336,12 @@ public final class RecordFactoryInputStream {
             // step underlying RecordInputStream to the next record
             _recStream.nextRecord();
 
+            if (_rawRecordHandler != null && _rawRecordHandler.handlesRecord(_recStream.getSid())) {
+                _rawRecordHandler.processRecord(_recStream);
+                _lastRecordWasEOFLevelZero = false;
+                continue;
+            }
+
             r = readNextRecord();
             if (r == null) {
                 // some record types may get skipped (e.g. DBCellRecord and ContinueRecord)
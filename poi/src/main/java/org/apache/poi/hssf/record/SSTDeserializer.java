@@ -22,7 +22,6 @@ package org.apache.poi.hssf.record;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.hssf.record.common.UnicodeString;
-import org.apache.poi.util.IntMapper;
 
 import static org.apache.logging.log4j.util.Unbox.box;
 
@@ -31,9 +30,9 @@ import static org.apache.logging.log4j.util.Unbox.box;
  */
 class SSTDeserializer {
     private static final Logger LOG = PoiLogManager.getLogger(SSTDeserializer.class);
-    private IntMapper<UnicodeString> strings;
+    private SSTStringTable strings;
 
-    public SSTDeserializer(IntMapper<UnicodeString> strings) {
+    public SSTDeserializer(SSTStringTable strings) {
         this.strings = strings;
     }
 
@@ -58,7 +57,7 @@ class SSTDeserializer {
         }
     }
 
-    static public void addToStringTable(IntMapper<UnicodeString> strings, UnicodeString string) {
+    static public void addToStringTable(SSTStringTable strings, UnicodeString string) {
         strings.add(string);
     }
 }
@@ -25,7 +25,6 @@ import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.hssf.record.cont.ContinuableRecord;
 import org.apache.poi.hssf.record.cont.ContinuableRecordOutput;
 import org.apache.poi.util.GenericRecordUtil;
-import org.apache.poi.util.IntMapper;
 
 /**
  * Static String Table Record (0x00FC)<p>
@@ -49,7 +48,7 @@ public final class SSTRecord extends ContinuableRecord {
      * according to docs ONLY SST
      */
     private int field_2_num_unique_strings;
-    private final IntMapper<UnicodeString> field_3_strings;
+    private final SSTStringTable field_3_strings;
 
     private final SSTDeserializer deserializer;
 
@@ -65,7 +64,7 @@ public final class SSTRecord extends ContinuableRecord {
     public SSTRecord() {
         field_1_num_strings = 0;
         field_2_num_unique_strings = 0;
-        field_3_strings = new IntMapper<>();
+        field_3_strings = new SSTStringTable();
         deserializer = new SSTDeserializer(field_3_strings);
     }
 
@@ -128,7 +127,8 @@ public final class SSTRecord extends ContinuableRecord {
      *
      * @param id index into the array of strings
      *
-     * @return the desired string
+     * @return the desired string - plain strings are returned as new instances,
+     *  so changes to them don't affect the string table
      */
     public UnicodeString getString(int id ) {
         return field_3_strings.get( id );
@@ -222,7 +222,7 @@ public final class SSTRecord extends ContinuableRecord {
         // we initialize our fields
         field_1_num_strings = in.readInt();
         field_2_num_unique_strings = in.readInt();
-        field_3_strings = new IntMapper<>();
+        field_3_strings = new SSTStringTable();
 
         deserializer = new SSTDeserializer(field_3_strings);
         // Bug 57456: some Excel Sheets send 0 as field=1, but have some random number in field_2,
@@ -246,8 +246,10 @@ public final class SSTRecord extends ContinuableRecord {
 
     /**
      * @return count of the strings we hold.
+     *
+     * @since POI 5.4.1
      */
-    int countStrings() {
+    public int countStrings() {
         return field_3_strings.size();
     }
 
@@ -0,0 +1,403 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.poi.common.Duplicatable;
+import org.apache.poi.hssf.record.common.UnicodeString;
+import org.apache.poi.hssf.record.cont.ContinuableRecordOutput;
+
+/**
+ * The string table of the {@link SSTRecord}.<p>
+ *
+ * Plain strings, i.e. strings without formatting runs or extended data, are the
+ * vast majority of the shared strings. Instead of keeping a {@link UnicodeString}
+ * (and its {@link String}) per entry, their character data is packed into shared
+ * byte pages - one byte per character, if all characters fit into "ISO-8859-1",
+ * otherwise two bytes per character - and looked up via an open addressing hash table.
+ * {@link UnicodeString}s of plain strings are only created on demand in {@link #get(int)}.<p>
+ *
+ * Rich text strings are kept as {@link UnicodeString} objects.<p>
+ *
+ * Like the {@code IntMapper} this class replaces, an entry can be looked up by its
+ * index and the index can be looked up by its value. If a value has been added
+ * several times, the index of the last occurrence is returned.
+ */
+final class SSTStringTable implements Duplicatable, Iterable<UnicodeString> {
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final int CHAR_COUNT_MASK = 0xFFFF;
+    private static final int FLAGS_SHIFT = 16;
+    private static final int WIDE = 1 << 24;
+    private static final int RICH = 1 << 25;
+
+    /** the character data of the plain strings */
+    private byte[][] pages;
+    /** the number of used pages */
+    private int pageCount;
+    /** the next write position in the last page */
+    private int pagePos;
+
+    /** the number of strings */
+    private int size;
+    /** page index and position of plain strings or the index into {@link #richStrings} */
+    private int[] offsets;
+    /** char count, option flags and the wide/rich bits of each string */
+    private int[] meta;
+    /** the hash code of plain strings */
+    private int[] hashes;
+
+    /** hash slots of the plain strings - the string index + 1 or 0 for empty slots */
+    private int[] slots;
+    private int plainCount;
+
+    private final List<UnicodeString> richStrings;
+    private final Map<UnicodeString, Integer> richIndex;
+
+    SSTStringTable() {
+        pages = new byte[4][];
+        pages[0] = new byte[1024];
+        pageCount = 1;
+        offsets = new int[16];
+        meta = new int[16];
+        hashes = new int[16];
+        slots = new int[32];
+        richStrings = new ArrayList<>();
+        richIndex = new HashMap<>();
+    }
+
+    SSTStringTable(SSTStringTable other) {
+        pages = new byte[other.pages.length][];
+        for (int i = 0; i < other.pageCount; i++) {
+            pages[i] = other.pages[i].clone();
+        }
+        pageCount = other.pageCount;
+        pagePos = other.pagePos;
+        size = other.size;
+        offsets = other.offsets.clone();
+        meta = other.meta.clone();
+        hashes = other.hashes.clone();
+        slots = other.slots.clone();
+        plainCount = other.plainCount;
+        richStrings = new ArrayList<>(other.richStrings);
+        richIndex = new HashMap<>(other.richIndex);
+    }
+
+    /**
+     * Appends the specified string to the end of this table
+     *
+     * @param value the string to be appended
+     * @return true (as per the general contract of the Collection.add method).
+     */
+    public boolean add(UnicodeString value) {
+        ensureCapacity(size + 1);
+        int index = size;
+        if (isPlain(value)) {
+            addPlain(index, value);
+        } else {
+            offsets[index] = richStrings.size();
+            meta[index] = RICH;
+            richStrings.add(value);
+            richIndex.put(value, index);
+        }
+        size++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UnicodeString get(int index) {
+        checkIndex(index);
+        int m = meta[index];
+        if ((m & RICH) != 0) {
+            return richStrings.get(offsets[index]);
+        }
+        UnicodeString us = new UnicodeString(decode(index));
+        us.setOptionFlags((byte)(m >>> FLAGS_SHIFT));
+        return us;
+    }
+
+    public int getIndex(UnicodeString value) {
+        if (!isPlain(value)) {
+            return richIndex.getOrDefault(value, -1);
+        }
+        String str = value.getString();
+        int flags = value.getOptionFlags() & 0xFF;
+        int hash = hash(str.hashCode(), flags);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int idx = slots[slot] - 1;
+            if (hashes[idx] == hash && matches(idx, str, flags)) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    public Iterator<UnicodeString> iterator() {
+        return new Iterator<UnicodeString>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public UnicodeString next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * @return a new list of all strings
+     */
+    public List<UnicodeString> getElements() {
+        List<UnicodeString> elements = new ArrayList<>(size);
+        for (UnicodeString us : this) {
+            elements.add(us);
+        }
+        return elements;
+    }
+
+    /**
+     * Serializes the string at the given index. Plain strings are written directly
+     * from the packed character data.
+     */
+    void serialize(int index, ContinuableRecordOutput out) {
+        checkIndex(index);
+        int m = meta[index];
+        if ((m & RICH) != 0) {
+            richStrings.get(offsets[index]).serialize(out);
+        } else {
+            int offset = offsets[index];
+            out.writeString(pages[offset >>> PAGE_BITS], offset & PAGE_MASK, m & CHAR_COUNT_MASK, (m & WIDE) != 0);
+        }
+    }
+
+    @Override
+    public SSTStringTable copy() {
+        return new SSTStringTable(this);
+    }
+
+    /**
+     * @return {@code true}, if the string can be stored in the packed form without losing information
+     */
+    private static boolean isPlain(UnicodeString value) {
+        if (value.getFormatRunCount() > 0 || value.getExtendedRst() != null) {
+            return false;
+        }
+        String str = value.getString();
+        return str.length() == value.getCharCount() && str.length() <= CHAR_COUNT_MASK;
+    }
+
+    private void addPlain(int index, UnicodeString value) {
+        String str = value.getString();
+        int len = str.length();
+        boolean wide = false;
+        for (int i = 0; i < len; i++) {
+            if (str.charAt(i) > 0xFF) {
+                wide = true;
+                break;
+            }
+        }
+
+        int byteLen = wide ? len * 2 : len;
+        byte[] page = reservePage(byteLen);
+        int pos = pagePos;
+        if (wide) {
+            for (int i = 0; i < len; i++) {
+                char c = str.charAt(i);
+                page[pos++] = (byte)c;
+                page[pos++] = (byte)(c >>> 8);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                page[pos++] = (byte)str.charAt(i);
+            }
+        }
+
+        int flags = value.getOptionFlags() & 0xFF;
+        offsets[index] = ((pageCount - 1) << PAGE_BITS) | pagePos;
+        meta[index] = len | (flags << FLAGS_SHIFT) | (wide ? WIDE : 0);
+        hashes[index] = hash(str.hashCode(), flags);
+        pagePos = pos;
+
+        insertSlot(index);
+    }
+
+    /**
+     * @return the last page with at least {@code byteLen} bytes of free space
+     */
+    private byte[] reservePage(int byteLen) {
+        byte[] page = pages[pageCount - 1];
+        int required = pagePos + byteLen;
+        if (required <= page.length) {
+            return page;
+        }
+        if (required <= PAGE_SIZE) {
+            // grow the last page until it reaches the page size
+            int newLen = Math.max(required, Math.min(PAGE_SIZE, page.length * 2));
+            page = Arrays.copyOf(page, newLen);
+            pages[pageCount - 1] = page;
+            return page;
+        }
+        // start a new page - a single string is always smaller than a page
+        if (pageCount == pages.length) {
+            pages = Arrays.copyOf(pages, pageCount * 2);
+        }
+        page = new byte[Math.min(PAGE_SIZE, Math.max(byteLen, 1024) * 2)];
+        pages[pageCount++] = page;
+        pagePos = 0;
+        return page;
+    }
+
+    private void insertSlot(int index) {
+        if ((plainCount + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int hash = hashes[index];
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int idx = slots[slot] - 1;
+            if (hashes[idx] == hash && meta[idx] == meta[index] && sameData(idx, index)) {
+                // replace the duplicate, so the index of the last occurrence is found
+                slots[slot] = index + 1;
+                return;
+            }
+        }
+        slots[slot] = index + 1;
+        plainCount++;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] newSlots = new int[newCapacity];
+        int mask = newCapacity - 1;
+        for (int s : slots) {
+            if (s == 0) {
+                continue;
+            }
+            int slot = hashes[s - 1] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = s;
+        }
+        slots = newSlots;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > offsets.length) {
+            int newLen = Math.max(capacity, offsets.length * 2);
+            offsets = Arrays.copyOf(offsets, newLen);
+            meta = Arrays.copyOf(meta, newLen);
+            hashes = Arrays.copyOf(hashes, newLen);
+        }
+    }
+
+    private boolean matches(int index, String str, int flags) {
+        int m = meta[index];
+        int len = m & CHAR_COUNT_MASK;
+        if (len != str.length() || ((m >>> FLAGS_SHIFT) & 0xFF) != flags) {
+            return false;
+        }
+        int offset = offsets[index];
+        byte[] page = pages[offset >>> PAGE_BITS];
+        int pos = offset & PAGE_MASK;
+        if ((m & WIDE) != 0) {
+            for (int i = 0; i < len; i++, pos += 2) {
+                char c = (char)((page[pos] & 0xFF) | ((page[pos + 1] & 0xFF) << 8));
+                if (c != str.charAt(i)) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                if ((page[pos++] & 0xFF) != str.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean sameData(int index1, int index2) {
+        int byteLen = (meta[index1] & CHAR_COUNT_MASK) * ((meta[index1] & WIDE) != 0 ? 2 : 1);
+        int offset1 = offsets[index1];
+        int offset2 = offsets[index2];
+        byte[] page1 = pages[offset1 >>> PAGE_BITS];
+        byte[] page2 = pages[offset2 >>> PAGE_BITS];
+        int pos1 = offset1 & PAGE_MASK;
+        int pos2 = offset2 & PAGE_MASK;
+        for (int i = 0; i < byteLen; i++) {
+            if (page1[pos1 + i] != page2[pos2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int index) {
+        int m = meta[index];
+        int len = m & CHAR_COUNT_MASK;
+        int offset = offsets[index];
+        byte[] page = pages[offset >>> PAGE_BITS];
+        int pos = offset & PAGE_MASK;
+        if ((m & WIDE) == 0) {
+            return new String(page, pos, len, StandardCharsets.ISO_8859_1);
+        }
+        // decode manually, the charset decoders would replace unpaired surrogates
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++, pos += 2) {
+            chars[i] = (char)((page[pos] & 0xFF) | ((page[pos + 1] & 0xFF) << 8));
+        }
+        return new String(chars);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Combines the {@link String#hashCode()} with the option flags and spreads
+     * the bits, so that the lower bits can be used for the hash slot.
+     */
+    private static int hash(int strHash, int flags) {
+        int h = strHash * 31 + flags;
+        return h ^ (h >>> 16);
+    }
+}
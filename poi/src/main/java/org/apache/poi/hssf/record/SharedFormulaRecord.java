@@ -24,7 +24,11 @@ import org.apache.poi.hssf.util.CellRangeAddress8Bit;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.Formula;
 import org.apache.poi.ss.formula.SharedFormula;
+import org.apache.poi.ss.formula.ptg.AreaNPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefNPtg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
 import org.apache.poi.util.GenericRecordUtil;
 import org.apache.poi.util.LittleEndianOutput;
 
@@ -43,6 +47,11 @@ public final class SharedFormulaRecord extends SharedValueRecordBase {
     private int field_5_reserved;
     private Formula field_7_parsed_expr;
 
+    /** the decoded tokens of the formula, shared by all cells of the range */
+    private Ptg[] _tokens;
+    /** whether the decoded tokens can be evaluated without conversion */
+    private boolean _evaluable;
+
     // for testing only
     public SharedFormulaRecord() {
         this(new CellRangeAddress8Bit(0,0,0,0));
@@ -99,7 +108,40 @@ public final class SharedFormulaRecord extends SharedValueRecordBase {
         }
 
         SharedFormula sf = new SharedFormula(SpreadsheetVersion.EXCEL97);
-        return sf.convertSharedFormulas(field_7_parsed_expr.getTokens(), formulaRow, formulaColumn);
+        return sf.convertSharedFormulas(getTokens(), formulaRow, formulaColumn);
+    }
+
+    /**
+     * Returns the tokens of the shared formula without converting them for a cell, so relative
+     * references are {@link RefNPtg} and {@link AreaNPtg} tokens which are resolved against the
+     * evaluated cell.  The tokens are decoded once and shared by all cells of the range, so they
+     * must not be modified.
+     *
+     * @return the shared tokens or {@code null} if the formula contains references which can't be
+     *  resolved against the evaluated cell
+     * @since POI 5.4.1
+     */
+    public Ptg[] getSharedFormulaTokens() {
+        Ptg[] ptgs = getTokens();
+        return _evaluable ? ptgs : null;
+    }
+
+    private Ptg[] getTokens() {
+        Ptg[] ptgs = _tokens;
+        if (ptgs == null) {
+            ptgs = field_7_parsed_expr.getTokens();
+            boolean evaluable = true;
+            for (Ptg ptg : ptgs) {
+                if ((ptg instanceof RefPtgBase && !(ptg instanceof RefNPtg))
+                        || (ptg instanceof AreaPtgBase && !(ptg instanceof AreaNPtg))) {
+                    evaluable = false;
+                    break;
+                }
+            }
+            _evaluable = evaluable;
+            _tokens = ptgs;
+        }
+        return ptgs;
     }
 
     @Override
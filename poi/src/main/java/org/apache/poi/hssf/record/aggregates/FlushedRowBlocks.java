@@ -0,0 +1,190 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record.aggregates;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.poi.common.usermodel.GenericRecord;
+import org.apache.poi.hssf.record.DBCellRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordBase;
+import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.record.RecordInputStream;
+import org.apache.poi.util.GenericRecordUtil;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+
+/**
+ * The row blocks of a sheet, which have been flushed to a temporary file to save memory.
+ * Each block consists of the ROW records, the cell value records and the DBCELL record
+ * of {@link DBCellRecord#BLOCK_SIZE} rows.<p>
+ *
+ * This is not a BIFF record, so it's not passed to {@link RecordAggregate.RecordVisitor#visitRecord(Record)}.
+ * Visitors, which only serialize the records, copy the flushed data as it is, see
+ * {@link RecordAggregate.RecordVisitor#visitFlushedRowBlocks(FlushedRowBlocks)}, all others get the
+ * records read back from the temporary file.
+ *
+ * @see RowRecordsAggregate#flushRowBlocks(int)
+ * @since POI 5.4.1
+ */
+public final class FlushedRowBlocks extends RecordBase implements Closeable, GenericRecord {
+    private final File _tempFile;
+    private final OutputStream _out;
+    private byte[] _buffer = new byte[256];
+    private int _size;
+    /** offsets of the DBCELL records relative to the start of the flushed data */
+    private int[] _dbCellOffsets = new int[16];
+    private int _blockCount;
+    private int _lastRowNum = -1;
+
+    FlushedRowBlocks() throws IOException {
+        _tempFile = TempFile.createTempFile("poi-hssf-rows", ".tmp");
+        _out = new BufferedOutputStream(new FileOutputStream(_tempFile));
+    }
+
+    /**
+     * Appends the records of a row block
+     *
+     * @param records the ROW records, the cell value records and the DBCELL record of the block
+     * @param lastRowNum the row number of the last row of the block
+     */
+    void writeBlock(List<Record> records, int lastRowNum) throws IOException {
+        for (Record r : records) {
+            if (r instanceof DBCellRecord) {
+                if (_blockCount == _dbCellOffsets.length) {
+                    _dbCellOffsets = Arrays.copyOf(_dbCellOffsets, _blockCount * 2);
+                }
+                _dbCellOffsets[_blockCount++] = _size;
+            }
+            int recSize = r.getRecordSize();
+            if (recSize > _buffer.length) {
+                _buffer = new byte[Math.max(recSize, _buffer.length * 2)];
+            }
+            int written = r.serialize(0, _buffer);
+            _out.write(_buffer, 0, written);
+            _size += written;
+        }
+        _lastRowNum = lastRowNum;
+    }
+
+    /**
+     * @return the number of flushed row blocks
+     */
+    public int getBlockCount() {
+        return _blockCount;
+    }
+
+    /**
+     * @param block the index of the row block
+     * @return the offset of the DBCELL record of the block relative to the start of the flushed data
+     */
+    public int getDbCellOffset(int block) {
+        if (block < 0 || block >= _blockCount) {
+            throw new IndexOutOfBoundsException("Block " + block + " of " + _blockCount + " blocks");
+        }
+        return _dbCellOffsets[block];
+    }
+
+    /**
+     * @return the row number of the last flushed row or -1 if no rows have been flushed
+     */
+    public int getLastRowNum() {
+        return _lastRowNum;
+    }
+
+    /**
+     * Copies the flushed records to the given stream
+     *
+     * @param out the stream to write to
+     * @throws IOException if the flushed records can't be read or written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        _out.flush();
+        Files.copy(_tempFile.toPath(), out);
+    }
+
+    /**
+     * Reads the flushed records back from the temporary file and visits them one by one
+     *
+     * @param rv the visitor of the records
+     */
+    public void visitRecords(RecordAggregate.RecordVisitor rv) {
+        try {
+            _out.flush();
+            try (InputStream is = Files.newInputStream(_tempFile.toPath())) {
+                RecordInputStream in = new RecordInputStream(is);
+                while (in.hasNextRecord()) {
+                    in.nextRecord();
+                    rv.visitRecord(RecordFactory.createSingleRecord(in));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the flushed rows", e);
+        }
+    }
+
+    @Override
+    public int serialize(int offset, byte[] data) {
+        try {
+            _out.flush();
+            try (InputStream is = Files.newInputStream(_tempFile.toPath())) {
+                IOUtils.readFully(is, data, offset, _size);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the flushed rows", e);
+        }
+        return _size;
+    }
+
+    @Override
+    public int getRecordSize() {
+        return _size;
+    }
+
+    /**
+     * Closes the temporary file and deletes it
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            _out.close();
+        } finally {
+            Files.deleteIfExists(_tempFile.toPath());
+        }
+    }
+
+    @Override
+    public Map<String, Supplier<?>> getGenericProperties() {
+        return GenericRecordUtil.getGenericProperties(
+            "dataSize", this::getRecordSize,
+            "blockCount", this::getBlockCount,
+            "lastRowNum", this::getLastRowNum
+        );
+    }
+}
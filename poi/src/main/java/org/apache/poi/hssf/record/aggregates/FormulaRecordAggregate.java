@@ -200,6 +200,25 @@ public final class FormulaRecordAggregate extends RecordAggregate implements Cel
         return _formulaRecord.getParsedExpression();
     }
 
+    /**
+     * Returns the tokens for evaluating this formula.  Unlike {@link #getFormulaTokens()}, the tokens
+     * of a shared formula are not converted for this cell, i.e. they are shared by all cells of the
+     * shared formula range and reference cells relative to the evaluated cell.
+     * The returned tokens must not be modified.
+     *
+     * @return the formula tokens, which may contain {@code RefNPtg} and {@code AreaNPtg} references
+     * @since POI 5.4.1
+     */
+    public Ptg[] getEvaluationTokens() {
+        if (_sharedFormulaRecord != null) {
+            Ptg[] ptgs = _sharedFormulaRecord.getSharedFormulaTokens();
+            if (ptgs != null) {
+                return ptgs;
+            }
+        }
+        return getFormulaTokens();
+    }
+
     /**
      * Also checks for a related shared formula and unlinks it if found
      */
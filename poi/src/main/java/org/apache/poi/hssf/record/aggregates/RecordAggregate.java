@@ -56,6 +56,17 @@ public abstract class RecordAggregate extends RecordBase {
          * @param r must not be {@code null}
          */
         void visitRecord(org.apache.poi.hssf.record.Record r);
+
+        /**
+         * Visits the row blocks, which have been flushed to a temporary file. By default,
+         * their records are read back and visited one by one.
+         *
+         * @param blocks the flushed row blocks
+         * @since POI 5.4.1
+         */
+        default void visitFlushedRowBlocks(FlushedRowBlocks blocks) {
+            blocks.visitRecords(this);
+        }
     }
 
     private static final class SerializingRecordVisitor implements RecordVisitor {
@@ -77,6 +88,11 @@ public abstract class RecordAggregate extends RecordBase {
             int currentOffset = _startOffset + _countBytesWritten;
             _countBytesWritten += r.serialize(currentOffset, _data);
         }
+        @Override
+        public void visitFlushedRowBlocks(FlushedRowBlocks blocks) {
+            int currentOffset = _startOffset + _countBytesWritten;
+            _countBytesWritten += blocks.serialize(currentOffset, _data);
+        }
     }
     private static final class RecordSizingVisitor implements RecordVisitor {
 
@@ -92,6 +108,10 @@ public abstract class RecordAggregate extends RecordBase {
         public void visitRecord(org.apache.poi.hssf.record.Record r) {
             _totalSize += r.getRecordSize();
         }
+        @Override
+        public void visitFlushedRowBlocks(FlushedRowBlocks blocks) {
+            _totalSize += blocks.getRecordSize();
+        }
     }
     /**
      * A wrapper for {@link RecordVisitor} which accumulates the sizes of all
@@ -110,6 +130,11 @@ public abstract class RecordAggregate extends RecordBase {
             _position += r.getRecordSize();
             _rv.visitRecord(r);
         }
+        @Override
+        public void visitFlushedRowBlocks(FlushedRowBlocks blocks) {
+            _position += blocks.getRecordSize();
+            _rv.visitFlushedRowBlocks(blocks);
+        }
         public void setPosition(int position) {
             _position = position;
         }
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.record.aggregates;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +57,9 @@ public final class RowRecordsAggregate extends RecordAggregate {
     // getStartRowNumberForBlock / getEndRowNumberForBlock, see Bugzilla 47405
     private RowRecord[] _rowRecordValues;
 
+    /** the row blocks, which have been flushed to a temporary file - or {@code null} */
+    private FlushedRowBlocks _flushedBlocks;
+
     /** Creates a new instance of ValueRecordsAggregate */
     public RowRecordsAggregate() {
         this(SharedValueManager.createEmpty());
@@ -128,6 +132,10 @@ public final class RowRecordsAggregate extends RecordAggregate {
         _unknownRecords.add(rec);
     }
     public void insertRow(RowRecord row) {
+        if (_flushedBlocks != null && row.getRowNumber() <= _flushedBlocks.getLastRowNum()) {
+            throw new IllegalArgumentException("Attempting to write a row[" + row.getRowNumber() +
+                "] in the range [0," + _flushedBlocks.getLastRowNum() + "] that is already written to disk.");
+        }
         // Integer integer = Integer.valueOf(row.getRowNumber());
         _rowRecords.put(row.getRowNumber(), row);
         // Clear the cached values
@@ -260,45 +268,101 @@ public final class RowRecordsAggregate extends RecordAggregate {
 
     @Override
     public void visitContainedRecords(RecordVisitor rv) {
-
-        PositionTrackingVisitor stv = new PositionTrackingVisitor(rv, 0);
-        //DBCells are serialized before row records.
+        if (_flushedBlocks != null) {
+            rv.visitFlushedRowBlocks(_flushedBlocks);
+        }
         final int blockCount = getRowBlockCount();
         for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
-            // Serialize a block of rows.
-            // Hold onto the position of the first row in the block
-            int pos=0;
-            // Hold onto the size of this block that was serialized
-            final int rowBlockSize = visitRowRecordsForBlock(blockIndex, rv);
-            pos += rowBlockSize;
-            // Serialize a block of cells for those rows
-            final int startRowNumber = getStartRowNumberForBlock(blockIndex);
-            final int endRowNumber = getEndRowNumberForBlock(blockIndex);
-
-            final List<Short> cellOffsets = new ArrayList<>();
-
-            // Note: Cell references start from the second row...
-            int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
-            for (int row = startRowNumber; row <= endRowNumber; row++) {
-                if (_valuesAgg.rowHasCells(row)) {
-                    stv.setPosition(0);
-                    _valuesAgg.visitCellsForRow(row, stv);
-                    int rowCellSize = stv.getPosition();
-                    pos += rowCellSize;
-                    // Add the offset to the first cell for the row into the
-                    // DBCellRecord.
-                    cellOffsets.add((short)cellRefOffset);
-                    cellRefOffset = rowCellSize;
-                }
-            }
-            // Calculate Offset from the start of a DBCellRecord to the first Row
-            rv.visitRecord(new DBCellRecord(pos, shortListToArray(cellOffsets)));
+            visitRowBlock(blockIndex, rv);
         }
 
         // Potentially breaking the file here since we don't know exactly where to write these records
         _unknownRecords.forEach(rv::visitRecord);
     }
 
+    private void visitRowBlock(int blockIndex, RecordVisitor rv) {
+        PositionTrackingVisitor stv = new PositionTrackingVisitor(rv, 0);
+        //DBCells are serialized before row records.
+        // Serialize a block of rows.
+        // Hold onto the position of the first row in the block
+        int pos=0;
+        // Hold onto the size of this block that was serialized
+        final int rowBlockSize = visitRowRecordsForBlock(blockIndex, rv);
+        pos += rowBlockSize;
+        // Serialize a block of cells for those rows
+        final int startRowNumber = getStartRowNumberForBlock(blockIndex);
+        final int endRowNumber = getEndRowNumberForBlock(blockIndex);
+
+        final List<Short> cellOffsets = new ArrayList<>();
+
+        // Note: Cell references start from the second row...
+        int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
+        for (int row = startRowNumber; row <= endRowNumber; row++) {
+            if (_valuesAgg.rowHasCells(row)) {
+                stv.setPosition(0);
+                _valuesAgg.visitCellsForRow(row, stv);
+                int rowCellSize = stv.getPosition();
+                pos += rowCellSize;
+                // Add the offset to the first cell for the row into the
+                // DBCellRecord.
+                cellOffsets.add((short)cellRefOffset);
+                cellRefOffset = rowCellSize;
+            }
+        }
+        // Calculate Offset from the start of a DBCellRecord to the first Row
+        rv.visitRecord(new DBCellRecord(pos, shortListToArray(cellOffsets)));
+    }
+
+    /**
+     * Writes the first row blocks to a temporary file and removes their rows and cells
+     * from this aggregate. Only complete blocks of {@link DBCellRecord#BLOCK_SIZE} rows
+     * are flushed, so that the row blocks stay the same as without flushing.<p>
+     *
+     * Rows with a row number up to the last flushed row can't be added anymore.
+     *
+     * @param blockCount the number of row blocks to flush, at most the number of complete row blocks
+     * @throws IOException if the temporary file can't be written
+     *
+     * @since POI 5.4.1
+     */
+    public void flushRowBlocks(int blockCount) throws IOException {
+        int completeBlocks = _rowRecords.size() / DBCellRecord.BLOCK_SIZE;
+        if (blockCount > completeBlocks) {
+            throw new IllegalArgumentException("Only " + completeBlocks + " complete row blocks can be flushed");
+        }
+        if (blockCount <= 0) {
+            return;
+        }
+        if (_flushedBlocks == null) {
+            _flushedBlocks = new FlushedRowBlocks();
+        }
+        List<org.apache.poi.hssf.record.Record> blockRecords = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            blockRecords.clear();
+            // the rows of the previous block have been removed, so it's always the first block
+            visitRowBlock(0, blockRecords::add);
+            int lastRowNum = getEndRowNumberForBlock(0);
+            _flushedBlocks.writeBlock(blockRecords, lastRowNum);
+
+            Iterator<RowRecord> iter = _rowRecords.values().iterator();
+            for (int r = 0; r < DBCellRecord.BLOCK_SIZE; r++) {
+                RowRecord row = iter.next();
+                _valuesAgg.removeAllCellsValuesForRow(row.getRowNumber());
+                iter.remove();
+            }
+            _rowRecordValues = null;
+        }
+    }
+
+    /**
+     * @return the row blocks, which have been flushed to a temporary file, or {@code null}
+     *
+     * @since POI 5.4.1
+     */
+    public FlushedRowBlocks getFlushedRowBlocks() {
+        return _flushedBlocks;
+    }
+
     private static short[] shortListToArray(List<Short> list) {
         final short[] arr = new short[list.size()];
         int idx = 0;
@@ -482,6 +546,16 @@ public final class RowRecordsAggregate extends RecordAggregate {
         return _valuesAgg.spliterator();
     }
 
+    /**
+     * Returns the cell values, which also holds the number, string and blank cells
+     * without a record object
+     *
+     * @since POI 5.4.1
+     */
+    public ValueRecordsAggregate getValuesAggregate() {
+        return _valuesAgg;
+    }
+
     public IndexRecord createIndexRecord(int indexRecordOffset, int sizeOfInitialSheetRecords) {
         IndexRecord result = new IndexRecord();
         result.setFirstRow(_firstrow);
@@ -494,11 +568,20 @@ public final class RowRecordsAggregate extends RecordAggregate {
         // 0 for now.....
 
         int blockCount = getRowBlockCount();
+        int flushedBlockCount = (_flushedBlocks == null) ? 0 : _flushedBlocks.getBlockCount();
         // Calculate the size of this IndexRecord
-        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(blockCount);
+        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(flushedBlockCount + blockCount);
 
         int currentOffset = indexRecordOffset + indexRecSize + sizeOfInitialSheetRecords;
 
+        if (_flushedBlocks != null) {
+            // the flushed row blocks precede the blocks in memory
+            for (int block = 0; block < flushedBlockCount; block++) {
+                result.addDbcell(currentOffset + _flushedBlocks.getDbCellOffset(block));
+            }
+            currentOffset += _flushedBlocks.getRecordSize();
+        }
+
         for (int block = 0; block < blockCount; block++) {
             // each row-block has a DBCELL record.
             // The offset of each DBCELL record needs to be updated in the INDEX record
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.record.aggregates;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
@@ -26,24 +27,77 @@ import org.apache.poi.hssf.model.RecordStream;
 import org.apache.poi.hssf.record.BlankRecord;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
 import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
 import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.Record;
 import org.apache.poi.hssf.record.RecordBase;
 import org.apache.poi.hssf.record.StringRecord;
 import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
 import org.apache.poi.ss.formula.FormulaShifter;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.CellType;
 
 /**
  *
  * Aggregate value records together.  Things are easier to handle that way.
+ * <p>
+ * With {@link #setCompactCells(boolean) compact cells}, number, string (SST) and blank cells are
+ * not kept as record objects, but as primitive values in column-wise chunks of {@value #CHUNK_SIZE}
+ * rows.  Their records are created on demand, i.e. temporarily when the sheet is written and for
+ * good when a record is requested via {@link #getCell(int, int)} or the iterator.  All other cells
+ * and the cells inserted via {@link #insertCell(CellValueRecordInterface)} are kept as record objects.
  */
 public final class ValueRecordsAggregate implements Iterable<CellValueRecordInterface> {
     private static final int MAX_ROW_INDEX = 0XFFFF;
     private static final int INDEX_NOT_SET = -1;
+
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final byte NO_CELL = 0;
+    private static final byte NUMBER_CELL = 1;
+    private static final byte LABEL_SST_CELL = 2;
+    private static final byte BLANK_CELL = 3;
+
     private int firstcell = INDEX_NOT_SET;
     private int lastcell  = INDEX_NOT_SET;
     private CellValueRecordInterface[][] records;
+    /** the cells without a record object, indexed by column and row chunk */
+    private CellChunk[][] columns = new CellChunk[0][];
+    /** the number of cells without a record object by row */
+    private int[] denseRowCounts = new int[0];
+    private boolean compactCells;
+
+    /**
+     * The values of up to {@value #CHUNK_SIZE} consecutive cells of a column
+     */
+    private static final class CellChunk {
+        final byte[] types = new byte[CHUNK_SIZE];
+        final short[] xfs = new short[CHUNK_SIZE];
+        /** the bits of the number or the SST index */
+        final long[] values = new long[CHUNK_SIZE];
+        int count;
+    }
+
+    /**
+     * Receives the cells of a {@link ValueRecordsAggregate}
+     *
+     * @see #visitCells(CellVisitor)
+     * @since POI 5.4.1
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+        /**
+         * @param row the row index of the cell
+         * @param column the column index of the cell
+         * @param type the type of a cell without a record object, i.e. {@link CellType#NUMERIC},
+         *             {@link CellType#STRING} or {@link CellType#BLANK}, otherwise {@code null}
+         * @param record the record of the cell or {@code null} for a cell without a record object
+         */
+        void visitCell(int row, int column, CellType type, CellValueRecordInterface record);
+    }
 
     /** Creates a new instance of ValueRecordsAggregate */
 
@@ -86,7 +140,11 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
             records[row] = rowCells;
         }
         rowCells[column] = cell;
+        removeDenseCell(row, column);
+        updateCellRange(column);
+    }
 
+    private void updateCellRange(int column) {
         if (column < firstcell || firstcell == INDEX_NOT_SET) {
             firstcell = column;
         }
@@ -95,11 +153,301 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
         }
     }
 
+    /**
+     * @return {@code true} if number, string and blank cells are read without creating records
+     *
+     * @see #setCompactCells(boolean)
+     * @since POI 5.4.1
+     */
+    public boolean isCompactCells() {
+        return compactCells;
+    }
+
+    /**
+     * Sets whether number, string and blank cells are read via {@link #construct} and
+     * {@link #addMultipleBlanks(MulBlankRecord)} without creating records.  This doesn't
+     * change the records already inserted.  Switching it off creates the records of all
+     * cells held without a record object.
+     *
+     * @since POI 5.4.1
+     */
+    public void setCompactCells(boolean compactCells) {
+        if (!compactCells) {
+            for (int column = 0; column < columns.length; column++) {
+                CellChunk[] chunks = columns[column];
+                for (int chunkIx = 0; chunks != null && chunkIx < chunks.length; chunkIx++) {
+                    CellChunk chunk = chunks[chunkIx];
+                    for (int i = 0; chunk != null && i < CHUNK_SIZE; i++) {
+                        if (chunk.types[i] != NO_CELL) {
+                            insertCell(createRecord((chunkIx << CHUNK_SHIFT) + i, column, chunk));
+                        }
+                    }
+                }
+            }
+        }
+        this.compactCells = compactCells;
+    }
+
+    /**
+     * Inserts a number cell without creating a {@link NumberRecord}
+     *
+     * @since POI 5.4.1
+     */
+    public void insertNumberCell(int row, int column, short xfIndex, double value) {
+        insertDenseCell(row, column, NUMBER_CELL, xfIndex, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Inserts a string cell without creating a {@link LabelSSTRecord}
+     *
+     * @since POI 5.4.1
+     */
+    public void insertLabelSSTCell(int row, int column, short xfIndex, int sstIndex) {
+        insertDenseCell(row, column, LABEL_SST_CELL, xfIndex, sstIndex);
+    }
+
+    /**
+     * Inserts a blank cell without creating a {@link BlankRecord}
+     *
+     * @since POI 5.4.1
+     */
+    public void insertBlankCell(int row, int column, short xfIndex) {
+        insertDenseCell(row, column, BLANK_CELL, xfIndex, 0);
+    }
+
+    private void insertDenseCell(int row, int column, byte type, short xfIndex, long value) {
+        CellValueRecordInterface[] rowCells = getRowCells(row);
+        if (rowCells != null && column < rowCells.length) {
+            rowCells[column] = null;
+        }
+        if (column >= columns.length) {
+            int newSize = Math.max(columns.length * 2, column + 1);
+            CellChunk[][] oldColumns = columns;
+            columns = new CellChunk[newSize][];
+            System.arraycopy(oldColumns, 0, columns, 0, oldColumns.length);
+        }
+        CellChunk[] chunks = columns[column];
+        int chunkIx = row >> CHUNK_SHIFT;
+        if (chunks == null || chunkIx >= chunks.length) {
+            // grow in steps of 8 chunks, i.e. a row block index entry
+            CellChunk[] newChunks = new CellChunk[(chunkIx | 7) + 1];
+            if (chunks != null) {
+                System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+            }
+            chunks = newChunks;
+            columns[column] = chunks;
+        }
+        CellChunk chunk = chunks[chunkIx];
+        if (chunk == null) {
+            chunk = new CellChunk();
+            chunks[chunkIx] = chunk;
+        }
+        int i = row & CHUNK_MASK;
+        if (chunk.types[i] == NO_CELL) {
+            chunk.count++;
+            if (row >= denseRowCounts.length) {
+                denseRowCounts = Arrays.copyOf(denseRowCounts, Math.max(denseRowCounts.length * 2, row + 1));
+            }
+            denseRowCounts[row]++;
+        }
+        chunk.types[i] = type;
+        chunk.xfs[i] = xfIndex;
+        chunk.values[i] = value;
+        updateCellRange(column);
+    }
+
+    private CellChunk getChunk(int row, int column) {
+        if (column >= columns.length) {
+            return null;
+        }
+        CellChunk[] chunks = columns[column];
+        int chunkIx = row >> CHUNK_SHIFT;
+        return (chunks == null || chunkIx >= chunks.length) ? null : chunks[chunkIx];
+    }
+
+    private byte getDenseType(int row, int column) {
+        CellChunk chunk = getChunk(row, column);
+        return (chunk == null) ? NO_CELL : chunk.types[row & CHUNK_MASK];
+    }
+
+    private boolean removeDenseCell(int row, int column) {
+        CellChunk chunk = getChunk(row, column);
+        int i = row & CHUNK_MASK;
+        if (chunk == null || chunk.types[i] == NO_CELL) {
+            return false;
+        }
+        chunk.types[i] = NO_CELL;
+        denseRowCounts[row]--;
+        if (--chunk.count == 0) {
+            columns[column][row >> CHUNK_SHIFT] = null;
+        }
+        return true;
+    }
+
+    private CellChunk getDenseChunk(int row, int column, byte type) {
+        CellChunk chunk = getChunk(row, column);
+        if (chunk == null || chunk.types[row & CHUNK_MASK] != type) {
+            throw new IllegalStateException("No " + (type == NUMBER_CELL ? "number" : "string")
+                + " cell without a record at row " + row + ", column " + column);
+        }
+        return chunk;
+    }
+
+    private CellChunk getDenseChunk(int row, int column) {
+        CellChunk chunk = getChunk(row, column);
+        if (chunk == null || chunk.types[row & CHUNK_MASK] == NO_CELL) {
+            throw new IllegalStateException("No cell without a record at row " + row + ", column " + column);
+        }
+        return chunk;
+    }
+
+    /**
+     * @return {@code true} if the cell at the given position is kept as a record object
+     *
+     * @since POI 5.4.1
+     */
+    public boolean hasCellRecord(int row, int column) {
+        CellValueRecordInterface[] rowCells = getRowCells(row);
+        return rowCells != null && column < rowCells.length && rowCells[column] != null;
+    }
+
+    /**
+     * Returns the record of the cell at the given position.  For a cell without a record object,
+     * the record is created and kept from then on, so changes to it are reflected in the sheet.
+     *
+     * @return the cell record or {@code null} if there's no cell at the given position
+     *
+     * @since POI 5.4.1
+     */
+    public CellValueRecordInterface getCell(int row, int column) {
+        CellValueRecordInterface[] rowCells = getRowCells(row);
+        if (rowCells != null && column < rowCells.length && rowCells[column] != null) {
+            return rowCells[column];
+        }
+        CellChunk chunk = getChunk(row, column);
+        if (chunk == null || chunk.types[row & CHUNK_MASK] == NO_CELL) {
+            return null;
+        }
+        CellValueRecordInterface cell = createRecord(row, column, chunk);
+        insertCell(cell);
+        return cell;
+    }
+
+    /**
+     * @return the value of the number cell without a record object at the given position
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public double getNumericValue(int row, int column) {
+        CellChunk chunk = getDenseChunk(row, column, NUMBER_CELL);
+        return Double.longBitsToDouble(chunk.values[row & CHUNK_MASK]);
+    }
+
+    /**
+     * Sets the value of the number cell without a record object at the given position
+     *
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public void setNumericValue(int row, int column, double value) {
+        CellChunk chunk = getDenseChunk(row, column, NUMBER_CELL);
+        chunk.values[row & CHUNK_MASK] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * @return the SST index of the string cell without a record object at the given position
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public int getSSTIndex(int row, int column) {
+        CellChunk chunk = getDenseChunk(row, column, LABEL_SST_CELL);
+        return (int)chunk.values[row & CHUNK_MASK];
+    }
+
+    /**
+     * Sets the SST index of the string cell without a record object at the given position
+     *
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public void setSSTIndex(int row, int column, int sstIndex) {
+        CellChunk chunk = getDenseChunk(row, column, LABEL_SST_CELL);
+        chunk.values[row & CHUNK_MASK] = sstIndex;
+    }
+
+    /**
+     * @return the XF index of the cell without a record object at the given position
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public short getXFIndex(int row, int column) {
+        return getDenseChunk(row, column).xfs[row & CHUNK_MASK];
+    }
+
+    /**
+     * Sets the XF index of the cell without a record object at the given position
+     *
+     * @throws IllegalStateException if there's no such cell
+     *
+     * @since POI 5.4.1
+     */
+    public void setXFIndex(int row, int column, short xfIndex) {
+        getDenseChunk(row, column).xfs[row & CHUNK_MASK] = xfIndex;
+    }
+
+    private static CellValueRecordInterface createRecord(int row, int column, CellChunk chunk) {
+        int i = row & CHUNK_MASK;
+        CellValueRecordInterface cell;
+        switch (chunk.types[i]) {
+            case NUMBER_CELL:
+                NumberRecord nr = new NumberRecord();
+                nr.setValue(Double.longBitsToDouble(chunk.values[i]));
+                cell = nr;
+                break;
+            case LABEL_SST_CELL:
+                LabelSSTRecord lr = new LabelSSTRecord();
+                lr.setSSTIndex((int)chunk.values[i]);
+                cell = lr;
+                break;
+            default:
+                cell = new BlankRecord();
+                break;
+        }
+        cell.setRow(row);
+        cell.setColumn((short)column);
+        cell.setXFIndex(chunk.xfs[i]);
+        return cell;
+    }
+
+    private CellValueRecordInterface[] getRowCells(int row) {
+        return (row < records.length) ? records[row] : null;
+    }
+
+    /**
+     * @return the number of columns, which need to be checked for cells of the row
+     */
+    private int getRowWidth(int row, CellValueRecordInterface[] rowCells) {
+        int width = (rowCells == null) ? 0 : rowCells.length;
+        return rowHasDenseCells(row) ? Math.max(width, columns.length) : width;
+    }
+
+    private int getRowLimit() {
+        return Math.max(records.length, denseRowCounts.length);
+    }
+
     public void removeCell(CellValueRecordInterface cell) {
         if (cell == null) {
             throw new IllegalArgumentException("cell must not be null");
         }
         int row = cell.getRow();
+        if (removeDenseCell(row, cell.getColumn())) {
+            return;
+        }
         if (row >= records.length) {
             throw new IllegalStateException("cell row is out of range");
         }
@@ -119,6 +467,9 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
             throw new IllegalArgumentException("Specified rowIndex " + rowIndex
                     + " is outside the allowable range (0.." +MAX_ROW_INDEX + ")");
         }
+        for (int column = 0; column < columns.length && rowHasDenseCells(rowIndex); column++) {
+            removeDenseCell(rowIndex, column);
+        }
         if (rowIndex >= records.length) {
             // this can happen when the client code has created a row,
             // and then removes/replaces it before adding any cells. (see bug 46312)
@@ -139,6 +490,14 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
                 }
             }
         }
+        for (CellChunk[] chunks : columns) {
+            if (chunks != null) {
+                for (CellChunk chunk : chunks) {
+                    if (chunk != null)
+                        count += chunk.count;
+                }
+            }
+        }
         return count;
     }
 
@@ -152,6 +511,10 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
 
     public void addMultipleBlanks(MulBlankRecord mbr) {
         for (int j = 0; j < mbr.getNumColumns(); j++) {
+            if (compactCells) {
+                insertBlankCell(mbr.getRow(), j + mbr.getFirstColumn(), mbr.getXFAt(j));
+                continue;
+            }
             BlankRecord br = new BlankRecord();
 
             br.setColumn(( short ) (j + mbr.getFirstColumn()));
@@ -177,6 +540,12 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
                 cachedText = null;
             }
             insertCell(new FormulaRecordAggregate(formulaRec, cachedText, sfh));
+        } else if (compactCells && rec instanceof NumberRecord) {
+            insertNumberCell(rec.getRow(), rec.getColumn(), rec.getXFIndex(), ((NumberRecord)rec).getValue());
+        } else if (compactCells && rec instanceof LabelSSTRecord) {
+            insertLabelSSTCell(rec.getRow(), rec.getColumn(), rec.getXFIndex(), ((LabelSSTRecord)rec).getSSTIndex());
+        } else if (compactCells && rec instanceof BlankRecord) {
+            insertBlankCell(rec.getRow(), rec.getColumn(), rec.getXFIndex());
         } else {
             insertCell(rec);
         }
@@ -187,64 +556,92 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
      */
     public int getRowCellBlockSize(int startRow, int endRow) {
         int result = 0;
-        for(int rowIx=startRow; rowIx<=endRow && rowIx<records.length; rowIx++) {
-            result += getRowSerializedSize(records[rowIx]);
+        int rowLimit = getRowLimit();
+        for(int rowIx=startRow; rowIx<=endRow && rowIx<rowLimit; rowIx++) {
+            result += getRowSerializedSize(rowIx);
         }
         return result;
     }
 
     /** Returns true if the row has cells attached to it */
     public boolean rowHasCells(int row) {
-        if (row >= records.length) {
-            return false;
-        }
-        CellValueRecordInterface[] rowCells=records[row];
-        if(rowCells==null) return false;
-        for (CellValueRecordInterface rowCell : rowCells) {
-            if (rowCell != null)
-                return true;
+        CellValueRecordInterface[] rowCells = getRowCells(row);
+        if (rowCells != null) {
+            for (CellValueRecordInterface rowCell : rowCells) {
+                if (rowCell != null)
+                    return true;
+            }
         }
-        return false;
+        return rowHasDenseCells(row);
     }
 
-    private static int getRowSerializedSize(CellValueRecordInterface[] rowCells) {
-        if(rowCells == null) {
-            return 0;
-        }
+    private boolean rowHasDenseCells(int row) {
+        return row < denseRowCounts.length && denseRowCounts[row] > 0;
+    }
+
+    private int getRowSerializedSize(int row) {
+        CellValueRecordInterface[] rowCells = getRowCells(row);
+        int width = getRowWidth(row, rowCells);
         int result = 0;
-        for (int i = 0; i < rowCells.length; i++) {
-            RecordBase cvr = (RecordBase) rowCells[i];
-            if(cvr == null) {
+        for (int i = 0; i < width; i++) {
+            RecordBase cvr = (RecordBase) getRecord(rowCells, i);
+            byte type = (cvr == null) ? getDenseType(row, i) : NO_CELL;
+            if(cvr == null && type == NO_CELL) {
                 continue;
             }
-            int nBlank = countBlanks(rowCells, i);
+            int nBlank = countBlanks(rowCells, row, i, width);
             if (nBlank > 1) {
                 result += (10 + 2*nBlank);
                 i+=nBlank-1;
-            } else {
+            } else if (cvr != null) {
                 result += cvr.getRecordSize();
+            } else {
+                result += getDenseRecordSize(type);
             }
         }
         return result;
     }
 
+    private static int getDenseRecordSize(byte type) {
+        switch (type) {
+            case NUMBER_CELL:
+                // row, column, xf and the double value
+                return 4 + 14;
+            case LABEL_SST_CELL:
+                // row, column, xf and the int SST index
+                return 4 + 10;
+            default:
+                return 4 + 6;
+        }
+    }
+
+    private static CellValueRecordInterface getRecord(CellValueRecordInterface[] rowCells, int column) {
+        return (rowCells != null && column < rowCells.length) ? rowCells[column] : null;
+    }
+
     public void visitCellsForRow(int rowIndex, RecordVisitor rv) {
 
-        CellValueRecordInterface[] rowCells = records[rowIndex];
-        if(rowCells == null) {
+        CellValueRecordInterface[] rowCells = getRowCells(rowIndex);
+        if(rowCells == null && !rowHasDenseCells(rowIndex)) {
             throw new IllegalArgumentException("Row [" + rowIndex + "] is empty");
         }
 
-
-        for (int i = 0; i < rowCells.length; i++) {
-            RecordBase cvr = (RecordBase) rowCells[i];
+        int width = getRowWidth(rowIndex, rowCells);
+        for (int i = 0; i < width; i++) {
+            RecordBase cvr = (RecordBase) getRecord(rowCells, i);
+            CellChunk chunk = null;
             if(cvr == null) {
-                continue;
+                chunk = getChunk(rowIndex, i);
+                if (chunk == null || chunk.types[rowIndex & CHUNK_MASK] == NO_CELL) {
+                    continue;
+                }
             }
-            int nBlank = countBlanks(rowCells, i);
+            int nBlank = countBlanks(rowCells, rowIndex, i, width);
             if (nBlank > 1) {
-                rv.visitRecord(createMBR(rowCells, i, nBlank));
+                rv.visitRecord(createMBR(rowCells, rowIndex, i, nBlank));
                 i+=nBlank-1;
+            } else if (chunk != null) {
+                rv.visitRecord((org.apache.poi.hssf.record.Record) createRecord(rowIndex, i, chunk));
             } else if (cvr instanceof RecordAggregate) {
                 RecordAggregate agg = (RecordAggregate) cvr;
                 agg.visitContainedRecords(rv);
@@ -255,14 +652,14 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
     }
 
     /**
-     * @return the number of <em>consecutive</em> {@link BlankRecord}s in the specified row
+     * @return the number of <em>consecutive</em> blank cells in the specified row
      * starting from startIx.
      */
-    private static int countBlanks(CellValueRecordInterface[] rowCellValues, int startIx) {
+    private int countBlanks(CellValueRecordInterface[] rowCellValues, int row, int startIx, int width) {
         int i = startIx;
-        while(i < rowCellValues.length) {
-            CellValueRecordInterface cvr = rowCellValues[i];
-            if (!(cvr instanceof BlankRecord)) {
+        while(i < width) {
+            CellValueRecordInterface cvr = getRecord(rowCellValues, i);
+            if (cvr == null ? getDenseType(row, i) != BLANK_CELL : !(cvr instanceof BlankRecord)) {
                 break;
             }
             i++;
@@ -270,16 +667,50 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
         return i - startIx;
     }
 
-    private MulBlankRecord createMBR(CellValueRecordInterface[] cellValues, int startIx, int nBlank) {
+    private MulBlankRecord createMBR(CellValueRecordInterface[] cellValues, int rowIx, int startIx, int nBlank) {
 
         short[] xfs = new short[nBlank];
         for (int i = 0; i < xfs.length; i++) {
-            xfs[i] = cellValues[startIx + i].getXFIndex();
+            CellValueRecordInterface cvr = getRecord(cellValues, startIx + i);
+            xfs[i] = (cvr == null) ? getXFIndex(rowIx, startIx + i) : cvr.getXFIndex();
         }
-        int rowIx = cellValues[startIx].getRow();
         return new MulBlankRecord(rowIx, startIx, xfs);
     }
 
+    /**
+     * Visits all cells in row-major order without creating records for the cells,
+     * which are kept without a record object
+     *
+     * @since POI 5.4.1
+     */
+    public void visitCells(CellVisitor cv) {
+        int rowLimit = getRowLimit();
+        for (int row = 0; row < rowLimit; row++) {
+            CellValueRecordInterface[] rowCells = getRowCells(row);
+            int width = getRowWidth(row, rowCells);
+            for (int column = 0; column < width; column++) {
+                CellValueRecordInterface cvr = getRecord(rowCells, column);
+                if (cvr != null) {
+                    cv.visitCell(row, column, null, cvr);
+                    continue;
+                }
+                switch (getDenseType(row, column)) {
+                    case NUMBER_CELL:
+                        cv.visitCell(row, column, CellType.NUMERIC, null);
+                        break;
+                    case LABEL_SST_CELL:
+                        cv.visitCell(row, column, CellType.STRING, null);
+                        break;
+                    case BLANK_CELL:
+                        cv.visitCell(row, column, CellType.BLANK, null);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
     public void updateFormulasAfterRowShift(FormulaShifter shifter, int currentExternSheetIndex) {
         for (CellValueRecordInterface[] rowCells : records) {
             if (rowCells == null) {
@@ -301,10 +732,12 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
     }
 
     /**
-     * iterator for CellValueRecordInterface
+     * iterator for CellValueRecordInterface, records are created for the cells
+     * without a record object
      */
     class ValueIterator implements Iterator<CellValueRecordInterface> {
 
+        final int rowLimit = getRowLimit();
         int curRowIndex, curColIndex = -1;
         int nextRowIndex, nextColIndex = -1;
 
@@ -313,25 +746,26 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
         }
 
         void getNextPos() {
-            if (nextRowIndex >= records.length)
+            if (nextRowIndex >= rowLimit)
                 return; // no next already
 
-            while (nextRowIndex < records.length) {
+            while (nextRowIndex < rowLimit) {
                 ++nextColIndex;
-                if (records[nextRowIndex] == null || nextColIndex >= records[nextRowIndex].length) {
+                CellValueRecordInterface[] rowCells = getRowCells(nextRowIndex);
+                if (nextColIndex >= getRowWidth(nextRowIndex, rowCells)) {
                     ++nextRowIndex;
                     nextColIndex = -1;
                     continue;
                 }
 
-                if (records[nextRowIndex][nextColIndex] != null)
+                if (getRecord(rowCells, nextColIndex) != null || getDenseType(nextRowIndex, nextColIndex) != NO_CELL)
                     return; // next cell found
             }
             // no next found
         }
 
         public boolean hasNext() {
-            return nextRowIndex < records.length;
+            return nextRowIndex < rowLimit;
         }
 
         public CellValueRecordInterface next() {
@@ -341,7 +775,7 @@ public final class ValueRecordsAggregate implements Iterable<CellValueRecordInte
 
             curRowIndex = nextRowIndex;
             curColIndex = nextColIndex;
-            final CellValueRecordInterface ret = records[curRowIndex][curColIndex];
+            final CellValueRecordInterface ret = getCell(curRowIndex, curColIndex);
             getNextPos();
             return ret;
         }
@@ -378,6 +378,24 @@ public class UnicodeString implements Comparable<UnicodeString>, Duplicatable, G
         }
     }
 
+    /**
+     * Changes the fonts of all format runs at once, so a run is never changed twice.
+     *
+     * @param newFontIndices the new font index by the previous index, fonts beyond
+     *  the array are left unchanged
+     *
+     * @since POI 5.4.1
+     */
+    public void remapFontUse(short[] newFontIndices) {
+        if (field_4_format_runs != null) {
+            for (FormatRun run : field_4_format_runs) {
+                if (run._fontIndex >= 0 && run._fontIndex < newFontIndices.length) {
+                    run._fontIndex = newFontIndices[run._fontIndex];
+                }
+            }
+        }
+    }
+
     /**
      * unlike the real records we return the same as "getString()" rather than debug info
      * @see #getDebugInfo()
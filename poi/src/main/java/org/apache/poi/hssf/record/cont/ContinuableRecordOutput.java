@@ -168,6 +168,42 @@ public final class ContinuableRecordOutput implements LittleEndianOutput {
         writeCharacterData(text, is16bitEncoded);
     }
 
+    /**
+     * Writes a plain unicode string (i.e. without rich text runs or extended data) from
+     * already encoded character data.  The output is the same as for
+     * {@code writeString(text, 0, 0)}, but avoids creating a {@link String} for the text.
+     *
+     * @param data the encoded character data, i.e. one byte per character in "ISO-8859-1"
+     *             or two bytes per character in "UTF-16LE" encoding
+     * @param offset the offset of the first character in {@code data}
+     * @param nChars the number of characters (not bytes) to write
+     * @param is16bitEncoded {@code true} if the data is "UTF-16LE" encoded
+     *
+     * @since POI 5.4.1
+     */
+    public void writeString(byte[] data, int offset, int nChars, boolean is16bitEncoded) {
+        // ushort len, byte optionFlags, at least one character
+        int keepTogetherSize = 2 + 1 + (is16bitEncoded ? 2 : 1);
+        writeContinueIfRequired(keepTogetherSize);
+        writeShort(nChars);
+        int optionFlags = is16bitEncoded ? 0x01 : 0x00;
+        writeByte(optionFlags);
+
+        int charSize = is16bitEncoded ? 2 : 1;
+        int pos = offset;
+        int end = offset + nChars * charSize;
+        while (true) {
+            int nWritableBytes = Math.min(end - pos, (_ulrOutput.getAvailableSpace() / charSize) * charSize);
+            _ulrOutput.write(data, pos, nWritableBytes);
+            pos += nWritableBytes;
+            if (pos >= end) {
+                break;
+            }
+            writeContinue();
+            writeByte(optionFlags);
+        }
+    }
+
 
     private void writeCharacterData(String text, boolean is16bitEncoded) {
         int nChars = text.length();
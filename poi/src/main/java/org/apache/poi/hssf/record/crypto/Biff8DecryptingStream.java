@@ -21,10 +21,10 @@ import java.io.InputStream;
 import java.io.PushbackInputStream;
 
 import org.apache.poi.hssf.record.*;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.poifs.crypt.ChunkedCipherInputStream;
 import org.apache.poi.poifs.crypt.Decryptor;
 import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.LittleEndian;
@@ -42,22 +42,37 @@ public final class Biff8DecryptingStream implements BiffHeaderInput, LittleEndia
     private final byte[] buffer = new byte[LittleEndianConsts.LONG_SIZE];
     private boolean shouldSkipEncryptionOnCurrentRecord;
 
+    /**
+     * @param in the encrypted stream, positioned at {@code initialOffset}
+     * @param initialOffset the offset of {@code in} within the workbook stream
+     * @param info the encryption info with an already verified password
+     */
     public Biff8DecryptingStream(InputStream in, int initialOffset, EncryptionInfo info) throws RecordFormatException {
         try {
-            byte[] initialBuf = IOUtils.safelyAllocate(initialOffset, HSSFWorkbook.getMaxRecordLength());
+            Decryptor dec = info.getDecryptor();
+            dec.setChunkSize(RC4_REKEYING_INTERVAL);
+
+            if (info.getEncryptionMode() == EncryptionMode.xor) {
+                // the xor obfuscation only depends on the offset of the record data
+                ccis = (ChunkedCipherInputStream)dec.getDataStream(in, Integer.MAX_VALUE, initialOffset);
+                return;
+            }
+
+            // RC4 is rekeyed for each block, so only the beginning of the
+            // block containing the initial offset needs to be decrypted
+            int blockOffset = initialOffset - (initialOffset % RC4_REKEYING_INTERVAL);
+            byte[] initialBuf = IOUtils.safelyAllocate(initialOffset - blockOffset, RC4_REKEYING_INTERVAL);
             InputStream stream;
-            if (initialOffset == 0) {
+            if (initialBuf.length == 0) {
                 stream = in;
             } else {
-                stream = new PushbackInputStream(in, initialOffset);
+                stream = new PushbackInputStream(in, initialBuf.length);
                 ((PushbackInputStream)stream).unread(initialBuf);
             }
 
-            Decryptor dec = info.getDecryptor();
-            dec.setChunkSize(RC4_REKEYING_INTERVAL);
-            ccis = (ChunkedCipherInputStream)dec.getDataStream(stream, Integer.MAX_VALUE, 0);
+            ccis = (ChunkedCipherInputStream)dec.getDataStream(stream, Integer.MAX_VALUE, blockOffset);
 
-            if (initialOffset > 0) {
+            if (initialBuf.length > 0) {
                 ccis.readFully(initialBuf);
             }
         } catch (Exception e) {
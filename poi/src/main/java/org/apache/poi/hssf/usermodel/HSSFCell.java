@@ -37,6 +37,7 @@ import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.Record;
 import org.apache.poi.hssf.record.RecordBase;
 import org.apache.poi.hssf.record.aggregates.FormulaRecordAggregate;
+import org.apache.poi.hssf.record.aggregates.ValueRecordsAggregate;
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaType;
@@ -80,12 +81,15 @@ public class HSSFCell extends CellBase {
     public static final short        ENCODING_COMPRESSED_UNICODE = 0;
     public static final short        ENCODING_UTF_16             = 1;
 
-    private final HSSFWorkbook       _book;
     private final HSSFSheet          _sheet;
     private CellType                 _cellType;
     private HSSFRichTextString       _stringValue;
+    /** the cell record, {@code null} for cells held by the sheet without a record object */
     private CellValueRecordInterface _record;
     private HSSFComment              _comment;
+    /** the position of a cell without a record object */
+    private int                      _rowIndex;
+    private short                    _columnIndex;
 
     /**
      * Creates new Cell - Should only be called by HSSFRow.  This creates a cell
@@ -107,7 +111,6 @@ public class HSSFCell extends CellBase {
     {
         checkBounds(col);
         _stringValue  = null;
-        _book    = book;
         _sheet   = sheet;
 
         // Relying on the fact that by default the cellType is set to 0 which
@@ -160,7 +163,6 @@ public class HSSFCell extends CellBase {
         checkBounds(col);
         _cellType     = CellType._NONE; // Force 'setCellType' to create a first Record
         _stringValue  = null;
-        _book    = book;
         _sheet   = sheet;
 
         short xfindex = sheet.getSheet().getXFIndexForColAt(col);
@@ -179,12 +181,12 @@ public class HSSFCell extends CellBase {
         _record      = cval;
         _cellType    = determineType(cval);
         _stringValue = null;
-        _book   = book;
         _sheet  = sheet;
         switch (_cellType)
         {
             case STRING :
-                _stringValue = new HSSFRichTextString(book.getWorkbook(), (LabelSSTRecord ) cval);
+                // the rich text string is created on demand
+                book.getWorkbook().checkSSTIndex(((LabelSSTRecord) cval).getSSTIndex());
                 break;
 
             case FORMULA :
@@ -197,6 +199,116 @@ public class HSSFCell extends CellBase {
         }
     }
 
+    /**
+     * Creates an HSSFCell for a number, string or blank cell, which is held by the sheet
+     * without a record object.  HSSFSheet uses this when reading in cells from an existing sheet.
+     *
+     * @param book - Workbook record of the workbook containing this cell
+     * @param sheet - Sheet record of the sheet containing this cell
+     * @param row   - the row of this cell
+     * @param col   - the column for this cell
+     * @param values - the cell values of the sheet
+     * @param type  - {@link CellType#NUMERIC}, {@link CellType#STRING} or {@link CellType#BLANK}
+     */
+    HSSFCell(HSSFWorkbook book, HSSFSheet sheet, int row, short col, ValueRecordsAggregate values, CellType type) {
+        _cellType    = type;
+        _sheet       = sheet;
+        _rowIndex    = row;
+        _columnIndex = col;
+        if (type == CellType.STRING) {
+            // the rich text string is created on demand
+            book.getWorkbook().checkSSTIndex(values.getSSTIndex(row, col));
+        }
+    }
+
+    private ValueRecordsAggregate getValues() {
+        return _sheet.getSheet().getRowsAggregate().getValuesAggregate();
+    }
+
+    /**
+     * @return {@code true} if the cell is held by the sheet without a record object
+     */
+    private boolean isRecordLess() {
+        if (_record == null && getValues().hasCellRecord(_rowIndex, _columnIndex)) {
+            // the record has been requested through the low level API in the meantime
+            _record = getValues().getCell(_rowIndex, _columnIndex);
+        }
+        return _record == null;
+    }
+
+    /**
+     * Returns the record of this cell.  For a cell held by the sheet without a record object,
+     * the record is created and kept from then on.
+     */
+    private CellValueRecordInterface record() {
+        if (_record == null) {
+            _record = getValues().getCell(_rowIndex, _columnIndex);
+            if (_record == null) {
+                throw new IllegalStateException("Cell " + new CellReference(_rowIndex, _columnIndex).formatAsString()
+                    + " has been removed from its sheet");
+            }
+        }
+        return _record;
+    }
+
+    /**
+     * Hands a number, string or blank cell over to the sheet, which holds it without a record object
+     *
+     * @return {@code false} if the cell type needs a record object or the sheet
+     * doesn't {@link HSSFSheet#setCompactCellStorage(boolean) compact its cells}
+     */
+    private boolean releaseRecord(CellType cellType) {
+        if (!getValues().isCompactCells()) {
+            return false;
+        }
+        int row = _record.getRow();
+        short col = _record.getColumn();
+        short xfIndex = _record.getXFIndex();
+        switch (cellType) {
+            case NUMERIC:
+                getValues().insertNumberCell(row, col, xfIndex, ((NumberRecord)_record).getValue());
+                break;
+            case STRING:
+                getValues().insertLabelSSTCell(row, col, xfIndex, ((LabelSSTRecord)_record).getSSTIndex());
+                break;
+            case BLANK:
+                getValues().insertBlankCell(row, col, xfIndex);
+                break;
+            default:
+                return false;
+        }
+        _rowIndex = row;
+        _columnIndex = col;
+        _record = null;
+        return true;
+    }
+
+    /**
+     * Hands the record of a number, string or blank cell over to the sheet - used by
+     * {@link HSSFSheet#setCompactCellStorage(boolean)}
+     */
+    void releaseRecord() {
+        if (_record != null) {
+            releaseRecord(_cellType);
+        }
+    }
+
+    short getXFIndex() {
+        return isRecordLess() ? getValues().getXFIndex(_rowIndex, _columnIndex) : _record.getXFIndex();
+    }
+
+    void setXFIndex(short xfIndex) {
+        if (isRecordLess()) {
+            getValues().setXFIndex(_rowIndex, _columnIndex, xfIndex);
+        } else {
+            _record.setXFIndex(xfIndex);
+        }
+    }
+
+    private int getSSTIndex() {
+        return isRecordLess() ? getValues().getSSTIndex(_rowIndex, _columnIndex) : ((LabelSSTRecord)_record).getSSTIndex();
+    }
+
 
     /**
      * used internally -- given a cell value record, figure out its type
@@ -226,7 +338,7 @@ public class HSSFCell extends CellBase {
      * Returns the Workbook that this Cell is bound to
      */
     protected InternalWorkbook getBoundWorkbook() {
-        return _book.getWorkbook();
+        return _sheet.getWorkbook().getWorkbook();
     }
 
     /**
@@ -234,7 +346,7 @@ public class HSSFCell extends CellBase {
      */
     @Override
     public int getRowIndex() {
-        return _record.getRow();
+        return (_record == null) ? _rowIndex : _record.getRow();
     }
 
     /**
@@ -244,21 +356,21 @@ public class HSSFCell extends CellBase {
      */
     protected void updateCellNum(short num)
     {
-        _record.setColumn(num);
+        record().setColumn(num);
     }
 
     @Override
     public int getColumnIndex() {
-        return _record.getColumn() & 0xFFFF;
+        return (_record == null) ? _columnIndex : _record.getColumn() & 0xFFFF;
     }
 
     @Override
     protected void setCellTypeImpl(CellType cellType) {
         notifyFormulaChanging();
 
-        int row=_record.getRow();
-        short col=_record.getColumn();
-        short styleIndex=_record.getXFIndex();
+        int row=getRowIndex();
+        short col=(short)getColumnIndex();
+        short styleIndex=getXFIndex();
         setCellType(cellType, true, row, col, styleIndex);
     }
 
@@ -273,6 +385,10 @@ public class HSSFCell extends CellBase {
 
     private void setCellType(CellType cellType, boolean setValue, int row,short col, short styleIndex)
     {
+        if (cellType == _cellType && _record == null) {
+            // the record of the cell is updated below
+            record();
+        }
         switch (cellType)
         {
 
@@ -333,11 +449,10 @@ public class HSSFCell extends CellBase {
                         setCellType(CellType.BLANK, false, row, col, styleIndex);
                         return;
                     } else {
-                        int sstIndex = _book.getWorkbook().addSSTString(new UnicodeString(str));
+                        int sstIndex = getBoundWorkbook().addSSTString(new UnicodeString(str));
                         lrec.setSSTIndex(sstIndex);
-                        UnicodeString us = _book.getWorkbook().getSSTString(sstIndex);
-                        _stringValue = new HSSFRichTextString();
-                        _stringValue.setUnicodeString(us);
+                        // the rich text string is created on demand
+                        _stringValue = null;
                     }
                 }
                 _record = lrec;
@@ -409,7 +524,9 @@ public class HSSFCell extends CellBase {
         if (cellType != _cellType &&
             _cellType != CellType._NONE )  // Special Value to indicate an uninitialized Cell
         {
-            _sheet.getSheet().replaceValueRecord(_record);
+            if (!releaseRecord(cellType)) {
+                _sheet.getSheet().replaceValueRecord(_record);
+            }
         }
         _cellType = cellType;
     }
@@ -430,12 +547,16 @@ public class HSSFCell extends CellBase {
             default:
                 setCellType(CellType.NUMERIC,
                         false,
-                        _record.getRow(),
-                        _record.getColumn(),
-                        _record.getXFIndex());
+                        getRowIndex(),
+                        (short)getColumnIndex(),
+                        getXFIndex());
                 // fall through
             case NUMERIC:
-                ((NumberRecord)_record).setValue(value);
+                if (isRecordLess()) {
+                    getValues().setNumericValue(_rowIndex, _columnIndex, value);
+                } else {
+                    ((NumberRecord)_record).setValue(value);
+                }
                 break;
             case FORMULA:
                 ((FormulaRecordAggregate)_record).setCachedDoubleResult(value);
@@ -452,7 +573,7 @@ public class HSSFCell extends CellBase {
      */
     @Override
     protected void setCellValueImpl(Date value) {
-        setCellValue(DateUtil.getExcelDate(value, _book.getWorkbook().isUsing1904DateWindowing()));
+        setCellValue(DateUtil.getExcelDate(value, getBoundWorkbook().isUsing1904DateWindowing()));
     }
 
     /**
@@ -464,17 +585,36 @@ public class HSSFCell extends CellBase {
      */
     @Override
     protected void setCellValueImpl(LocalDateTime value) {
-        setCellValue(DateUtil.getExcelDate(value, _book.getWorkbook().isUsing1904DateWindowing()));
+        setCellValue(DateUtil.getExcelDate(value, getBoundWorkbook().isUsing1904DateWindowing()));
     }
 
     @Override
     protected void setCellValueImpl(Calendar value) {
-        setCellValue( DateUtil.getExcelDate(value, _book.getWorkbook().isUsing1904DateWindowing()) );
+        setCellValue( DateUtil.getExcelDate(value, getBoundWorkbook().isUsing1904DateWindowing()) );
     }
 
     @Override
     protected void setCellValueImpl(String value) {
-        setCellValueImpl(new HSSFRichTextString(value));
+        if (_cellType == CellType.FORMULA) {
+            setCellValueImpl(new HSSFRichTextString(value));
+            return;
+        }
+
+        if (_cellType != CellType.STRING) {
+            int row = getRowIndex();
+            short col = (short)getColumnIndex();
+            short styleIndex = getXFIndex();
+            setCellType(CellType.STRING, false, row, col, styleIndex);
+        }
+
+        // plain strings don't need a rich text string, it's created on demand
+        int index = getBoundWorkbook().addSSTString(new UnicodeString(value));
+        if (isRecordLess()) {
+            getValues().setSSTIndex(_rowIndex, _columnIndex, index);
+        } else {
+            (( LabelSSTRecord ) record()).setSSTIndex(index);
+        }
+        _stringValue = null;
     }
 
     @Override
@@ -495,28 +635,28 @@ public class HSSFCell extends CellBase {
         //  so handle things as a normal rich text cell
 
         if (_cellType != CellType.STRING) {
-            int row = _record.getRow();
-            short col = _record.getColumn();
-            short styleIndex = _record.getXFIndex();
+            int row = getRowIndex();
+            short col = (short)getColumnIndex();
+            short styleIndex = getXFIndex();
             setCellType(CellType.STRING, false, row, col, styleIndex);
         }
 
         if (value instanceof HSSFRichTextString) {
             HSSFRichTextString hvalue = (HSSFRichTextString) value;
             UnicodeString str = hvalue.getUnicodeString();
-            int index = _book.getWorkbook().addSSTString(str);
-            (( LabelSSTRecord ) _record).setSSTIndex(index);
+            int index = getBoundWorkbook().addSSTString(str);
+            (( LabelSSTRecord ) record()).setSSTIndex(index);
             _stringValue = hvalue;
-            _stringValue.setWorkbookReferences(_book.getWorkbook(), (( LabelSSTRecord ) _record));
-            _stringValue.setUnicodeString(_book.getWorkbook().getSSTString(index));
+            _stringValue.setWorkbookReferences(getBoundWorkbook(), (( LabelSSTRecord ) record()));
+            _stringValue.setUnicodeString(getBoundWorkbook().getSSTString(index));
         } else {
             HSSFRichTextString hvalue = new HSSFRichTextString(value.getString());
             UnicodeString str = hvalue.getUnicodeString();
-            int index = _book.getWorkbook().addSSTString(str);
-            (( LabelSSTRecord ) _record).setSSTIndex(index);
+            int index = getBoundWorkbook().addSSTString(str);
+            (( LabelSSTRecord ) record()).setSSTIndex(index);
             _stringValue = hvalue;
-            _stringValue.setWorkbookReferences(_book.getWorkbook(), (( LabelSSTRecord ) _record));
-            _stringValue.setUnicodeString(_book.getWorkbook().getSSTString(index));
+            _stringValue.setWorkbookReferences(getBoundWorkbook(), (( LabelSSTRecord ) record()));
+            _stringValue.setUnicodeString(getBoundWorkbook().getSSTString(index));
         }
     }
 
@@ -530,13 +670,13 @@ public class HSSFCell extends CellBase {
 
         assert formula != null;
 
-        int row=_record.getRow();
-        short col=_record.getColumn();
-        short styleIndex=_record.getXFIndex();
+        int row=getRowIndex();
+        short col=(short)getColumnIndex();
+        short styleIndex=getXFIndex();
 
         final CellValue savedValue = readValue();
-        int sheetIndex = _book.getSheetIndex(_sheet);
-        Ptg[] ptgs = HSSFFormulaParser.parse(formula, _book, FormulaType.CELL, sheetIndex);
+        int sheetIndex = _sheet.getWorkbook().getSheetIndex(_sheet);
+        Ptg[] ptgs = HSSFFormulaParser.parse(formula, _sheet.getWorkbook(), FormulaType.CELL, sheetIndex);
         setCellType(CellType.FORMULA, false, row, col, styleIndex);
         FormulaRecordAggregate agg = (FormulaRecordAggregate) _record;
         FormulaRecord frec = agg.getFormulaRecord();
@@ -640,7 +780,7 @@ public class HSSFCell extends CellBase {
         if (!(_record instanceof FormulaRecordAggregate)) {
             throw typeMismatch(CellType.FORMULA, _cellType, true);
         }
-        return HSSFFormulaParser.toFormulaString(_book, ((FormulaRecordAggregate)_record).getFormulaTokens());
+        return HSSFFormulaParser.toFormulaString(_sheet.getWorkbook(), ((FormulaRecordAggregate)_record).getFormulaTokens());
     }
 
     private static RuntimeException typeMismatch(CellType expectedTypeCode, CellType actualTypeCode, boolean isFormulaCell) {
@@ -671,6 +811,9 @@ public class HSSFCell extends CellBase {
             case BLANK:
                 return 0.0;
             case NUMERIC:
+                if (isRecordLess()) {
+                    return getValues().getNumericValue(_rowIndex, _columnIndex);
+                }
                 return ((NumberRecord)_record).getValue();
             default:
                 throw typeMismatch(CellType.NUMERIC, _cellType, false);
@@ -696,7 +839,7 @@ public class HSSFCell extends CellBase {
             return null;
         }
         double value = getNumericCellValue();
-        if (_book.getWorkbook().isUsing1904DateWindowing()) {
+        if (getBoundWorkbook().isUsing1904DateWindowing()) {
             return DateUtil.getJavaDate(value, true);
         }
         return DateUtil.getJavaDate(value, false);
@@ -716,7 +859,7 @@ public class HSSFCell extends CellBase {
             return null;
         }
         double value = getNumericCellValue();
-        if (_book.getWorkbook().isUsing1904DateWindowing()) {
+        if (getBoundWorkbook().isUsing1904DateWindowing()) {
             return DateUtil.getLocalDateTime(value, true);
         }
         return DateUtil.getLocalDateTime(value, false);
@@ -730,6 +873,10 @@ public class HSSFCell extends CellBase {
     @Override
     public String getStringCellValue()
     {
+      if (_cellType == CellType.STRING && _stringValue == null) {
+          int sstIndex = getSSTIndex();
+          return getBoundWorkbook().getSSTString(sstIndex).getString();
+      }
       HSSFRichTextString str = getRichStringCellValue();
       return str.getString();
     }
@@ -746,6 +893,9 @@ public class HSSFCell extends CellBase {
             case BLANK:
                 return new HSSFRichTextString("");
             case STRING:
+                if (_stringValue == null) {
+                    _stringValue = new HSSFRichTextString(getBoundWorkbook(), (LabelSSTRecord)record());
+                }
                 return _stringValue;
             default:
                 throw typeMismatch(CellType.STRING, _cellType, false);
@@ -768,9 +918,9 @@ public class HSSFCell extends CellBase {
     @Override
     @SuppressWarnings("fallthrough")
     public void setCellValue(boolean value) {
-        int row=_record.getRow();
-        short col=_record.getColumn();
-        short styleIndex=_record.getXFIndex();
+        int row=getRowIndex();
+        short col=(short)getColumnIndex();
+        short styleIndex=getXFIndex();
 
         switch (_cellType) {
             default:
@@ -811,9 +961,9 @@ public class HSSFCell extends CellBase {
      */
     @SuppressWarnings("fallthrough")
     public void setCellErrorValue(FormulaError error) {
-        int row=_record.getRow();
-        short col=_record.getColumn();
-        short styleIndex=_record.getXFIndex();
+        int row=getRowIndex();
+        short col=(short)getColumnIndex();
+        short styleIndex=getXFIndex();
         switch (_cellType) {
             default:
                 setCellType(CellType.ERROR, false, row, col, styleIndex);
@@ -843,11 +993,11 @@ public class HSSFCell extends CellBase {
             case BOOLEAN:
                 return (( BoolErrRecord ) _record).getBooleanValue();
             case STRING:
-                int sstIndex = ((LabelSSTRecord)_record).getSSTIndex();
-                String text = _book.getWorkbook().getSSTString(sstIndex).getString();
+                int sstIndex = getSSTIndex();
+                String text = getBoundWorkbook().getSSTString(sstIndex).getString();
                 return Boolean.parseBoolean(text);
             case NUMERIC:
-                return ((NumberRecord)_record).getValue() != 0;
+                return getNumericCellValue() != 0;
 
             case FORMULA:
                 // use cached formula result if it's the right type:
@@ -871,10 +1021,10 @@ public class HSSFCell extends CellBase {
             case BOOLEAN:
                 return ((BoolErrRecord) _record).getBooleanValue() ? "TRUE" : "FALSE";
             case STRING:
-                int sstIndex = ((LabelSSTRecord)_record).getSSTIndex();
-                return _book.getWorkbook().getSSTString(sstIndex).getString();
+                int sstIndex = getSSTIndex();
+                return getBoundWorkbook().getSSTString(sstIndex).getString();
             case NUMERIC:
-                return NumberToTextConverter.toText(((NumberRecord)_record).getValue());
+                return NumberToTextConverter.toText(getNumericCellValue());
             case ERROR:
                    return FormulaError.forInt(((BoolErrRecord)_record).getErrorValue()).getString();
             case FORMULA:
@@ -959,12 +1109,12 @@ public class HSSFCell extends CellBase {
     public void setCellStyle(HSSFCellStyle style) {
         // A style of null means resetting back to the default style
         if (style == null) {
-            _record.setXFIndex((short)0xf);
+            setXFIndex((short)0xf);
             return;
         }
 
         // Verify the style really does belong to our workbook
-        style.verifyBelongsToWorkbook(_book);
+        style.verifyBelongsToWorkbook(_sheet.getWorkbook());
 
         short styleIndex;
         if(style.getUserStyleName() != null) {
@@ -974,7 +1124,7 @@ public class HSSFCell extends CellBase {
         }
 
         // Change our cell record to use this style
-        _record.setXFIndex(styleIndex);
+        setXFIndex(styleIndex);
     }
 
     /**
@@ -985,9 +1135,9 @@ public class HSSFCell extends CellBase {
     @Override
     public HSSFCellStyle getCellStyle()
     {
-      short styleIndex=_record.getXFIndex();
-      ExtendedFormatRecord xf = _book.getWorkbook().getExFormatAt(styleIndex);
-      return new HSSFCellStyle(styleIndex, xf, _book);
+      short styleIndex=getXFIndex();
+      ExtendedFormatRecord xf = getBoundWorkbook().getExFormatAt(styleIndex);
+      return new HSSFCellStyle(styleIndex, xf, _sheet.getWorkbook());
     }
 
     /**
@@ -998,7 +1148,7 @@ public class HSSFCell extends CellBase {
 
     protected CellValueRecordInterface getCellValueRecord()
     {
-        return _record;
+        return record();
     }
 
     /**
@@ -1015,8 +1165,8 @@ public class HSSFCell extends CellBase {
     @Override
     public void setAsActiveCell()
     {
-        int row=_record.getRow();
-        short col=_record.getColumn();
+        int row=getRowIndex();
+        short col=(short)getColumnIndex();
         _sheet.getSheet().setActiveCellRow(row);
         _sheet.getSheet().setActiveCellCol(col);
     }
@@ -1072,8 +1222,8 @@ public class HSSFCell extends CellBase {
             return;
         }
 
-        comment.setRow(_record.getRow());
-        comment.setColumn(_record.getColumn());
+        comment.setRow(getRowIndex());
+        comment.setColumn(getColumnIndex());
         _comment = (HSSFComment)comment;
     }
 
@@ -1085,7 +1235,7 @@ public class HSSFCell extends CellBase {
      @Override
      public HSSFComment getCellComment(){
         if (_comment == null) {
-            _comment = _sheet.findCellComment(_record.getRow(), _record.getColumn());
+            _comment = _sheet.findCellComment(getRowIndex(), getColumnIndex());
         }
         return _comment;
     }
@@ -1098,7 +1248,7 @@ public class HSSFCell extends CellBase {
      */
     @Override
     public void removeCellComment() {
-        HSSFComment comment = _sheet.findCellComment(_record.getRow(), _record.getColumn());
+        HSSFComment comment = _sheet.findCellComment(getRowIndex(), getColumnIndex());
         _comment = null;
         if (null == comment){
             return;
@@ -1111,7 +1261,7 @@ public class HSSFCell extends CellBase {
      */
     @Override
     public HSSFHyperlink getHyperlink(){
-        return _sheet.getHyperlink(_record.getRow(), _record.getColumn());
+        return _sheet.getHyperlink(getRowIndex(), getColumnIndex());
     }
 
     /**
@@ -1134,10 +1284,10 @@ public class HSSFCell extends CellBase {
             link = new HSSFHyperlink(hyperlink);
         }
 
-        link.setFirstRow(_record.getRow());
-        link.setLastRow(_record.getRow());
-        link.setFirstColumn(_record.getColumn());
-        link.setLastColumn(_record.getColumn());
+        link.setFirstRow(getRowIndex());
+        link.setLastRow(getRowIndex());
+        link.setFirstColumn(getColumnIndex());
+        link.setLastColumn(getColumnIndex());
 
         switch(link.getType()){
             case EMAIL:
@@ -1168,7 +1318,7 @@ public class HSSFCell extends CellBase {
             RecordBase rec = it.next();
             if (rec instanceof HyperlinkRecord) {
                 HyperlinkRecord link = (HyperlinkRecord) rec;
-                if (link.getFirstColumn() == _record.getColumn() && link.getFirstRow() == _record.getRow()) {
+                if (link.getFirstColumn() == getColumnIndex() && link.getFirstRow() == getRowIndex()) {
                     it.remove();
                     return;
                 }
@@ -1194,9 +1344,9 @@ public class HSSFCell extends CellBase {
     }
 
     void setCellArrayFormula(CellRangeAddress range) {
-        int row = _record.getRow();
-        short col = _record.getColumn();
-        short styleIndex = _record.getXFIndex();
+        int row = getRowIndex();
+        short col = (short)getColumnIndex();
+        short styleIndex = getXFIndex();
         setCellType(CellType.FORMULA, false, row, col, styleIndex);
 
         // Billet for formula in rec
@@ -1241,7 +1391,7 @@ public class HSSFCell extends CellBase {
             throw new IllegalArgumentException("Expected user-defined style");
         }
 
-        InternalWorkbook iwb = _book.getWorkbook();
+        InternalWorkbook iwb = getBoundWorkbook();
         short userXf = -1;
         int numfmt = iwb.getNumExFormats();
         for(short i = 0; i < numfmt; i++){
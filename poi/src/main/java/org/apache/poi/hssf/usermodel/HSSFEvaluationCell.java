@@ -80,7 +80,7 @@ final class HSSFEvaluationCell implements EvaluationCell {
     }
     @Override
     public String getStringCellValue() {
-        return _cell.getRichStringCellValue().getString();
+        return _cell.getStringCellValue();
     }
     
     @Override
@@ -231,6 +231,13 @@ public final class HSSFEvaluationWorkbook implements FormulaRenderingWorkbook, E
         return fra.getFormulaTokens();
     }
 
+    @Override
+    public Ptg[] getSharedFormulaTokens(EvaluationCell evalCell) {
+        HSSFCell cell = ((HSSFEvaluationCell)evalCell).getHSSFCell();
+        FormulaRecordAggregate fra = (FormulaRecordAggregate) cell.getCellValueRecord();
+        return fra.getEvaluationTokens();
+    }
+
     @Override
     public UDFFinder getUDFFinder(){
         return _uBook.getUDFFinder();
@@ -18,9 +18,11 @@
 package org.apache.poi.hssf.usermodel;
 
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.poi.ss.formula.BaseFormulaEvaluator;
 import org.apache.poi.ss.formula.CollaboratingWorkbooksEnvironment;
+import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.IStabilityClassifier;
 import org.apache.poi.ss.formula.WorkbookEvaluator;
 import org.apache.poi.ss.formula.eval.BoolEval;
@@ -46,7 +48,7 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
     private final HSSFWorkbook _book;
 
     public HSSFFormulaEvaluator(HSSFWorkbook workbook) {
-        this(workbook, null);
+        this(workbook, null, null);
     }
     /**
      * @param workbook  The workbook to perform the formula evaluations in
@@ -66,7 +68,11 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
      * @param udfFinder pass {@code null} for default (AnalysisToolPak only)
      */
     private HSSFFormulaEvaluator(HSSFWorkbook workbook, IStabilityClassifier stabilityClassifier, UDFFinder udfFinder) {
-        super(new WorkbookEvaluator(HSSFEvaluationWorkbook.create(workbook), stabilityClassifier, udfFinder));
+        this(workbook, new WorkbookEvaluator(HSSFEvaluationWorkbook.create(workbook), stabilityClassifier, udfFinder));
+    }
+
+    private HSSFFormulaEvaluator(HSSFWorkbook workbook, WorkbookEvaluator bookEvaluator) {
+        super(bookEvaluator);
         _book = workbook;
     }
 
@@ -141,6 +147,11 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
         _bookEvaluator.notifyUpdateCell(new HSSFEvaluationCell((HSSFCell)cell));
     }
 
+    @Override
+    protected EvaluationCell toEvaluationCell(Cell cell) {
+        return new HSSFEvaluationCell((HSSFCell)cell);
+    }
+
     @Override
     public HSSFCell evaluateInCell(Cell cell) {
         return (HSSFCell) super.evaluateInCell(cell);
@@ -192,6 +203,29 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
         evaluateAllFormulaCells(_book, this);
     }
 
+    /**
+     * Evaluates all formula cells like {@link #evaluateAll()}, but evaluates sheets
+     * which don't refer to each other concurrently on the given pool.
+     * The workbook must not be modified while the evaluation is running.
+     * <p>
+     * The workers only read the records of the workbook. The records are read from the POIFS file system,
+     * when the workbook is opened. Sheets, which are parsed on demand, are parsed by the calling thread
+     * before the workers start. So the file system isn't accessed by several threads at the same time.
+     *
+     * @param pool the pool to run the evaluation on, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(Workbook, BaseFormulaEvaluator, ForkJoinPool)
+     * @since POI 5.4.1
+     */
+    public void evaluateAll(ForkJoinPool pool) {
+        evaluateAllFormulaCells(_book, this, pool);
+    }
+
+    @Override
+    protected HSSFFormulaEvaluator createWorkerEvaluator() {
+        return new HSSFFormulaEvaluator(_book, _bookEvaluator.copyFor(HSSFEvaluationWorkbook.create(_book)));
+    }
+
     /**
      * Returns a CellValue wrapper around the supplied ValueEval instance.
      * @param cell The cell with the formula
@@ -16,8 +16,13 @@
 ==================================================================== */
 package org.apache.poi.hssf.usermodel;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.ExtendedFormatRecord;
 import org.apache.poi.hssf.record.FontRecord;
 import org.apache.poi.hssf.record.StyleRecord;
@@ -45,52 +50,33 @@ public class HSSFOptimiser {
      * For now, only works on fonts used in {@link HSSFCellStyle}
      *  and {@link HSSFRichTextString}. Any other font uses
      *  (eg charts, pictures) may well end up broken!
-     * This can be a slow operation, especially if you have
-     *  lots of cells, cell styles or rich text strings
+     * Duplicates are found by hashing, so the time taken grows
+     *  linearly with the number of fonts, cell styles and
+     *  rich text strings
      * @param workbook The workbook in which to optimise the fonts
      */
     public static void optimiseFonts(HSSFWorkbook workbook) {
+        InternalWorkbook iwb = workbook.getWorkbook();
+
         // Where each font has ended up, and if we need to
         //  delete the record for it. Start off with no change
-        short[] newPos =
-            new short[workbook.getWorkbook().getNumberOfFontRecords()+1];
+        short[] newPos = new short[iwb.getNumberOfFontRecords()+1];
         boolean[] zapRecords = new boolean[newPos.length];
-        for(int i=0; i<newPos.length; i++) {
-            newPos[i] = (short)i;
-            zapRecords[i] = false;
-        }
-
-        // Get each font record, so we can do deletes
-        //  without getting confused
-        FontRecord[] frecs = new FontRecord[newPos.length];
-        for(int i=0; i<newPos.length; i++) {
-            // There is no 4!
-            if(i == 4) continue;
-
-            frecs[i] = workbook.getWorkbook().getFontRecordAt(i);
-        }
 
         // Loop over each font, seeing if it is the same
         //  as an earlier one. If it is, point users of the
         //  later duplicate copy to the earlier one, and
         //  mark the later one as needing deleting
         // Note - don't change built in fonts (those before 5)
-        for(int i=5; i<newPos.length; i++) {
-            // Check this one for being a duplicate
-            //  of an earlier one
-            int earlierDuplicate = -1;
-            for(int j=0; j<i && earlierDuplicate == -1; j++) {
-                if(j == 4) continue;
-
-                FontRecord frCheck = workbook.getWorkbook().getFontRecordAt(j);
-                if(frCheck.sameProperties(frecs[i])) {
-                    earlierDuplicate = j;
-                }
-            }
+        Map<FontRecord,Integer> firstFonts = new HashMap<>();
+        for(int i=0; i<newPos.length; i++) {
+            newPos[i] = (short)i;
+            // There is no 4!
+            if(i == 4) continue;
 
-            // If we got a duplicate, mark it as such
-            if(earlierDuplicate != -1) {
-                newPos[i] = (short)earlierDuplicate;
+            Integer earlierDuplicate = firstFonts.putIfAbsent(iwb.getFontRecordAt(i), i);
+            if(i >= 5 && earlierDuplicate != null) {
+                newPos[i] = earlierDuplicate.shortValue();
                 zapRecords[i] = true;
             }
         }
@@ -99,27 +85,10 @@ public class HSSFOptimiser {
         //  deletes that have occurred between
         //  the start and them
         // Only need to worry about user fonts
-        for(int i=5; i<newPos.length; i++) {
-            // Find the number deleted to that
-            //  point, and adjust
-            short preDeletePos = newPos[i];
-            short newPosition = preDeletePos;
-            for(int j=0; j<preDeletePos; j++) {
-                if(zapRecords[j]) newPosition--;
-            }
-
-            // Update the new position
-            newPos[i] = newPosition;
-        }
+        adjustForDeletes(newPos, zapRecords, 5);
 
         // Zap the un-needed user font records
-        for(int i=5; i<newPos.length; i++) {
-            if(zapRecords[i]) {
-                workbook.getWorkbook().removeFontRecord(
-                        frecs[i]
-                );
-            }
-        }
+        iwb.removeFontRecords(zapRecords);
 
         // Tell HSSFWorkbook that it needs to
         //  re-start its HSSFFontCache
@@ -127,8 +96,8 @@ public class HSSFOptimiser {
 
         // Update the cell styles to point at the
         //  new locations of the fonts
-        for(int i=0; i<workbook.getWorkbook().getNumExFormats(); i++) {
-            ExtendedFormatRecord xfr = workbook.getWorkbook().getExFormatAt(i);
+        for(int i=0; i<iwb.getNumExFormats(); i++) {
+            ExtendedFormatRecord xfr = iwb.getExFormatAt(i);
             xfr.setFontIndex(
                     newPos[ xfr.getFontIndex() ]
             );
@@ -138,7 +107,7 @@ public class HSSFOptimiser {
         //  the new locations of the fonts
         // Remember that one underlying unicode string
         //  may be shared by multiple RichTextStrings!
-        HashSet<UnicodeString> doneUnicodeStrings = new HashSet<>();
+        Set<UnicodeString> doneUnicodeStrings = Collections.newSetFromMap(new IdentityHashMap<>());
         for(int sheetNum=0; sheetNum<workbook.getNumberOfSheets(); sheetNum++) {
             HSSFSheet s = workbook.getSheetAt(sheetNum);
             for (Row row : s) {
@@ -147,17 +116,10 @@ public class HSSFOptimiser {
                         HSSFRichTextString rtr = (HSSFRichTextString)cell.getRichStringCellValue();
                         UnicodeString u = rtr.getRawUnicodeString();
 
-                        // Have we done this string already?
-                        if(! doneUnicodeStrings.contains(u)) {
-                            // Update for each new position
-                            for(short i=5; i<newPos.length; i++) {
-                                if(i != newPos[i]) {
-                                    u.swapFontUse(i, newPos[i]);
-                                }
-                            }
-
-                            // Mark as done
-                            doneUnicodeStrings.add(u);
+                        // Only strings with formatting use fonts,
+                        //  and each of them is updated just once
+                        if(u.getFormatRunCount() > 0 && doneUnicodeStrings.add(u)) {
+                            u.remapFontUse(newPos);
                         }
                     }
                 }
@@ -170,57 +132,53 @@ public class HSSFOptimiser {
     *  by removing duplicate ones, and ones that aren't used.
     * For best results, optimise the fonts via a call to
     *  {@link #optimiseFonts(HSSFWorkbook)} first.
+    * Duplicates are found by hashing, so the time taken grows
+    *  linearly with the number of cell styles and cells
     * @param workbook The workbook in which to optimise the cell styles
     */
    public static void optimiseCellStyles(HSSFWorkbook workbook) {
+       InternalWorkbook iwb = workbook.getWorkbook();
+
        // Where each style has ended up, and if we need to
        //  delete the record for it. Start off with no change
-       short[] newPos = new short[workbook.getWorkbook().getNumExFormats()];
+       short[] newPos = new short[iwb.getNumExFormats()];
        boolean[] isUsed = new boolean[newPos.length];
        boolean[] zapRecords = new boolean[newPos.length];
 
-       // to speed up the optimisation for workbooks with a large number of
-       // styles we perform the isUserDefined() check only once as it is
-       // costly according to some profiling
+       // Find the user defined styles with a single pass
+       //  over the style records
        boolean[] userDefined = new boolean[newPos.length];
+       for (org.apache.poi.hssf.record.Record r : iwb.getRecords()) {
+           if (r instanceof StyleRecord) {
+               StyleRecord sr = (StyleRecord) r;
+               int xf = sr.getXFIndex();
+               if (xf < userDefined.length && !sr.isBuiltin() && sr.getName() != null) {
+                   userDefined[xf] = true;
+               }
+           }
+       }
 
        // Get each style record, so we can do deletes
        //  without getting confused
        ExtendedFormatRecord[] xfrs = new ExtendedFormatRecord[newPos.length];
 
-       for(int i=0; i<newPos.length; i++) {
-           isUsed[i] = false;
-           newPos[i] = (short)i;
-           zapRecords[i] = false;
-
-           userDefined[i] = isUserDefined(workbook, i);
-
-           xfrs[i] = workbook.getWorkbook().getExFormatAt(i);
-       }
-
        // Loop over each style, seeing if it is the same
        //  as an earlier one. If it is, point users of the
        //  later duplicate copy to the earlier one, and
        //  mark the later one as needing deleting
-       // Only work on user added ones, which come after 20
-       for (int i = 21; i < newPos.length; i++) {
-           // Check this one for being a duplicate
-           //  of an earlier one
-           int earlierDuplicate = -1;
-           for (int j = 0; j < i; j++) {
-               ExtendedFormatRecord xfCheck = workbook.getWorkbook().getExFormatAt(j);
-               if (xfCheck.equals(xfrs[i]) &&
-                       // never duplicate user defined styles
-                       !userDefined[j]) {
-                   earlierDuplicate = j;
-                   break;
-               }
-           }
+       // Only work on user added ones, which come after 20,
+       //  and never duplicate user defined styles
+       Map<ExtendedFormatRecord,Integer> firstStyles = new HashMap<>();
+       for (int i = 0; i < newPos.length; i++) {
+           newPos[i] = (short)i;
+           xfrs[i] = iwb.getExFormatAt(i);
 
-           // If we got a duplicate, mark it as such
-           if(earlierDuplicate != -1) {
-               newPos[i] = (short)earlierDuplicate;
+           Integer earlierDuplicate = firstStyles.get(xfrs[i]);
+           if (i >= 21 && earlierDuplicate != null) {
+               newPos[i] = earlierDuplicate.shortValue();
                zapRecords[i] = true;
+           } else if (earlierDuplicate == null && !userDefined[i]) {
+               firstStyles.put(xfrs[i], i);
            }
        }
 
@@ -231,7 +189,7 @@ public class HSSFOptimiser {
            for (Row row : s) {
                for (Cell cellI : row) {
                    HSSFCell cell = (HSSFCell) cellI;
-                   short oldXf = cell.getCellValueRecord().getXFIndex();
+                   short oldXf = cell.getXFIndex();
                    // some documents contain invalid values here
                    if(oldXf < newPos.length) {
                        isUsed[oldXf] = true;
@@ -259,7 +217,7 @@ public class HSSFOptimiser {
        // Propagate isUsed for duplicates and always set user styles to being used to never optimize them away
        for (int i = 21; i < isUsed.length; i++) {
            // user defined styles are always "used"
-           if (isUserDefined(workbook, i)) {
+           if (userDefined[i]) {
                isUsed[i] = true;
            }
 
@@ -282,86 +240,80 @@ public class HSSFOptimiser {
        //  deletes that have occurred between
        //  the start and them
        // Only work on user added ones, which come after 20
-       for(int i=21; i<newPos.length; i++) {
-           // Find the number deleted to that
-           //  point, and adjust
-           short preDeletePos = newPos[i];
-           short newPosition = preDeletePos;
-           for(int j=0; j<preDeletePos; j++) {
-               if(zapRecords[j]) newPosition--;
-           }
+       adjustForDeletes(newPos, zapRecords, 21);
 
-           // Update the new position
-           newPos[i] = newPosition;
-           // also update StyleRecord and Parent-link
-           if (i != newPosition && newPosition != 0) {
-               workbook.getWorkbook().updateStyleRecord(i, newPosition);
-
-               ExtendedFormatRecord exFormat = workbook.getWorkbook().getExFormatAt(i);
-               short oldParent = exFormat.getParentIndex();
-               // some documents contain invalid values here
-               if(oldParent < newPos.length) {
-                   short newParent = newPos[oldParent];
-                   exFormat.setParentIndex(newParent);
-               }
+       // Also update StyleRecords and Parent-links, styles
+       //  which are removed keep their old references
+       short[] newStyleXfs = new short[newPos.length];
+       for (int i = 0; i < newPos.length; i++) {
+           newStyleXfs[i] = (zapRecords[i] && newPos[i] == 0) ? (short)i : newPos[i];
+       }
+       iwb.updateStyleRecords(newStyleXfs);
+       for (int i = 21; i < newPos.length; i++) {
+           if (zapRecords[i]) {
+               continue;
+           }
+           short oldParent = xfrs[i].getParentIndex();
+           // some documents contain invalid values here
+           if(oldParent < newPos.length) {
+               xfrs[i].setParentIndex(newPos[oldParent]);
            }
        }
 
        // Zap the un-needed user style records
-       // removing by index, because removing by object may delete
-       // styles we did not intend to (the ones that _were_ duplicated and not the duplicates)
-       int max = newPos.length;
-       int removed = 0; // to adjust index after deletion
-       for(int i=21; i<max; i++) {
-           if(zapRecords[i + removed]) {
-               workbook.getWorkbook().removeExFormatRecord(i);
-               i--;
-               max--;
-               removed++;
-           }
-       }
+       iwb.removeExFormatRecords(zapRecords);
 
        // Finally, update the cells to point at their new extended format records
+       HSSFCellStyle[] newStyles = new HSSFCellStyle[newPos.length];
        for (int sheetNum = 0; sheetNum < workbook.getNumberOfSheets(); sheetNum++) {
            HSSFSheet s = workbook.getSheetAt(sheetNum);
            for (Row row : s) {
                for (Cell cell : row) {
-                   short oldXf = ((HSSFCell) cell).getCellValueRecord().getXFIndex();
+                   HSSFCell hcell = (HSSFCell) cell;
+                   short oldXf = hcell.getXFIndex();
                    // some documents contain invalid values here
-                   if(oldXf >= newPos.length) {
-                        continue;
+                   if(oldXf < newPos.length && newPos[oldXf] != oldXf) {
+                       hcell.setXFIndex(newPos[oldXf]);
                    }
-                   HSSFCellStyle newStyle = workbook.getCellStyleAt(newPos[oldXf]);
-                   cell.setCellStyle(newStyle);
                }
 
                // adjust row column style
                short oldXf = ((HSSFRow) row).getRowRecord().getXFIndex();
                // some documents contain invalid values here
-               if(oldXf >= newPos.length) {
-                   continue;
+               if(oldXf < newPos.length && newPos[oldXf] != oldXf) {
+                   row.setRowStyle(getCellStyle(workbook, newStyles, newPos[oldXf]));
                }
-               HSSFCellStyle newStyle = workbook.getCellStyleAt(newPos[oldXf]);
-               row.setRowStyle(newStyle);
            }
 
            // adjust cell column style
            for (int col = s.getSheet().getMinColumnIndex(); col <= s.getSheet().getMaxColumnIndex(); col++) {
                short oldXf = s.getSheet().getXFIndexForColAt((short) col);
                // some documents contain invalid values here
-               if(oldXf >= newPos.length) {
-                   continue;
+               if(oldXf < newPos.length && newPos[oldXf] != oldXf) {
+                   s.setDefaultColumnStyle(col, getCellStyle(workbook, newStyles, newPos[oldXf]));
                }
-               HSSFCellStyle newStyle = workbook.getCellStyleAt(newPos[oldXf]);
-               s.setDefaultColumnStyle(col, newStyle);
            }
        }
    }
 
-    private static boolean isUserDefined(HSSFWorkbook workbook, int index) {
-        StyleRecord styleRecord = workbook.getWorkbook().getStyleRecord(index);
-        return styleRecord != null &&
-                !styleRecord.isBuiltin() &&
-                styleRecord.getName() != null;
+    /**
+     * Moves the new positions down by the number of deleted entries before them
+     */
+    private static void adjustForDeletes(short[] newPos, boolean[] zapRecords, int firstUserIndex) {
+        // the number of deleted entries before each position
+        int[] zappedBefore = new int[zapRecords.length + 1];
+        for (int i = 0; i < zapRecords.length; i++) {
+            zappedBefore[i + 1] = zappedBefore[i] + (zapRecords[i] ? 1 : 0);
+        }
+        for (int i = firstUserIndex; i < newPos.length; i++) {
+            newPos[i] = (short)(newPos[i] - zappedBefore[newPos[i]]);
+        }
+    }
+
+    private static HSSFCellStyle getCellStyle(HSSFWorkbook workbook, HSSFCellStyle[] styles, short index) {
+        if (styles[index] == null) {
+            styles[index] = workbook.getCellStyleAt(index);
+        }
+        return styles[index];
     }
 }
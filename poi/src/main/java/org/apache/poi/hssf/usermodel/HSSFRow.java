@@ -25,6 +25,7 @@ import java.util.Set;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
 import org.apache.poi.hssf.record.ExtendedFormatRecord;
 import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.aggregates.ValueRecordsAggregate;
 import org.apache.poi.hssf.usermodel.helpers.HSSFRowShifter;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaShifter;
@@ -215,9 +216,26 @@ public final class HSSFRow implements Row, Comparable<HSSFRow> {
      */
     HSSFCell createCellFromRecord(CellValueRecordInterface cell) {
         HSSFCell hcell = new HSSFCell(book, sheet, cell);
+        addCellFromSheet(hcell, cell.getColumn());
+        return hcell;
+    }
+
+    /**
+     * create a high level HSSFCell object for a number, string or blank cell, which is held
+     * by the sheet without a low level record.  Should only be called from HSSFSheet.
+     * @param column the column of the cell
+     * @param values the cell values of the sheet
+     * @param type the cell type
+     * @return HSSFCell representing the cell
+     */
+    HSSFCell createCellFromValues(int column, ValueRecordsAggregate values, CellType type) {
+        HSSFCell hcell = new HSSFCell(book, sheet, getRowNum(), (short)column, values, type);
+        addCellFromSheet(hcell, column);
+        return hcell;
+    }
 
+    private void addCellFromSheet(HSSFCell hcell, int colIx) {
         addCell(hcell);
-        int colIx = cell.getColumn();
         if (row.isEmpty()) {
             row.setFirstCol(colIx);
             row.setLastCol(colIx + 1);
@@ -231,7 +249,6 @@ public final class HSSFRow implements Row, Comparable<HSSFRow> {
             }*/
         }
         // TODO - RowRecord column boundaries need to be updated for cell comments too
-        return hcell;
     }
 
     /**
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.usermodel;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -37,6 +38,7 @@ import org.apache.poi.hssf.model.InternalSheet;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.AutoFilterInfoRecord;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DBCellRecord;
 import org.apache.poi.hssf.record.DVRecord;
 import org.apache.poi.hssf.record.DimensionsRecord;
 import org.apache.poi.hssf.record.DrawingRecord;
@@ -51,8 +53,10 @@ import org.apache.poi.hssf.record.SCLRecord;
 import org.apache.poi.hssf.record.WSBoolRecord;
 import org.apache.poi.hssf.record.WindowTwoRecord;
 import org.apache.poi.hssf.record.aggregates.DataValidityTable;
+import org.apache.poi.hssf.record.aggregates.FlushedRowBlocks;
 import org.apache.poi.hssf.record.aggregates.FormulaRecordAggregate;
 import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
+import org.apache.poi.hssf.record.aggregates.ValueRecordsAggregate;
 import org.apache.poi.hssf.record.aggregates.WorksheetProtectionBlock;
 import org.apache.poi.hssf.usermodel.helpers.HSSFColumnShifter;
 import org.apache.poi.hssf.usermodel.helpers.HSSFRowShifter;
@@ -126,6 +130,7 @@ public final class HSSFSheet implements Sheet {
     private HSSFPatriarch _patriarch;
     private int _firstrow = -1;
     private int _lastrow = -1;
+    private int _randomAccessWindowSize = -1;
 
     /**
      * Creates new HSSFSheet   - called by HSSFWorkbook to create a sheet from
@@ -205,22 +210,20 @@ public final class HSSFSheet implements Sheet {
             row = sheet.getNextRow();
         }
 
-        Iterator<CellValueRecordInterface> iter = sheet.getCellValueIterator();
+        ValueRecordsAggregate values = sheet.getRowsAggregate().getValuesAggregate();
         long timestart = currentTimeMillis();
 
         LOGGER.atDebug().log("Time at start of cell creating in HSSF sheet = {}", box(timestart));
-        HSSFRow lastrow = null;
-
-        // Add every cell to its row
-        while (iter.hasNext()) {
-            CellValueRecordInterface cval = iter.next();
+        HSSFRow[] lastrow = { null };
 
+        // Add every cell to its row, number, string and blank cells are kept without records
+        values.visitCells((rowIx, colIx, type, cval) -> {
             long cellstart = currentTimeMillis();
-            HSSFRow hrow = lastrow;
+            HSSFRow hrow = lastrow[0];
 
-            if (hrow == null || hrow.getRowNum() != cval.getRow()) {
-                hrow = getRow(cval.getRow());
-                lastrow = hrow;
+            if (hrow == null || hrow.getRowNum() != rowIx) {
+                hrow = getRow(rowIx);
+                lastrow[0] = hrow;
                 if (hrow == null) {
                     /* we removed this check, see bug 47245 for the discussion around this
                     // Some tools (like Perl module Spreadsheet::WriteExcel - bug 41187) skip the RowRecords
@@ -231,22 +234,26 @@ public final class HSSFSheet implements Sheet {
                     }*/
 
                     // create the row record on the fly now.
-                    RowRecord rowRec = new RowRecord(cval.getRow());
+                    RowRecord rowRec = new RowRecord(rowIx);
                     sheet.addRow(rowRec);
                     hrow = createRowFromRecord(rowRec);
+                    lastrow[0] = hrow;
                 }
             }
-            LOGGER.atTrace().log(() -> {
-                if (cval instanceof Record) {
-                    return new SimpleMessage("record id = " + Integer.toHexString(((Record) cval).getSid()));
-                } else {
-                    return new SimpleMessage("record = " + cval);
-                }
-            });
-            hrow.createCellFromRecord( cval );
+            if (cval == null) {
+                hrow.createCellFromValues(colIx, values, type);
+            } else {
+                LOGGER.atTrace().log(() -> {
+                    if (cval instanceof Record) {
+                        return new SimpleMessage("record id = " + Integer.toHexString(((Record) cval).getSid()));
+                    } else {
+                        return new SimpleMessage("record = " + cval);
+                    }
+                });
+                hrow.createCellFromRecord(cval);
+            }
             LOGGER.atTrace().log("record took {}ms", box(currentTimeMillis() - cellstart));
-
-        }
+        });
         LOGGER.atDebug().log("total sheet cell creation took {}ms", box(currentTimeMillis() - timestart));
     }
 
@@ -261,11 +268,24 @@ public final class HSSFSheet implements Sheet {
     @Override
     public HSSFRow createRow(int rownum) {
         HSSFRow row = new HSSFRow(_workbook, this, rownum);
+        int lastFlushedRowNum = getLastFlushedRowNum();
+        if (rownum <= lastFlushedRowNum) {
+            throw new IllegalArgumentException("Attempting to write a row[" + rownum + "] " +
+                "in the range [0," + lastFlushedRowNum + "] that is already written to disk.");
+        }
         // new rows inherit default height from the sheet
         row.setHeight(getDefaultRowHeight());
         row.getRowRecord().setBadFontHeight(false);
 
         addRow(row, true);
+
+        if (_randomAccessWindowSize > 0 && _rows.size() > _randomAccessWindowSize) {
+            try {
+                flushRows(_randomAccessWindowSize);
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }
         return row;
     }
 
@@ -301,6 +321,8 @@ public final class HSSFSheet implements Sheet {
                 String msg = "Row[rownum=" + row.getRowNum() + "] contains cell(s) included in a multi-cell array formula. You cannot change part of an array.";
                 xcell.tryToDeleteArrayFormula(msg);
             }
+            // the cells of a removed row keep their values, so they need their records
+            xcell.getCellValueRecord();
         }
 
         if (!_rows.isEmpty()) {
@@ -431,6 +453,131 @@ public final class HSSFSheet implements Sheet {
         return _lastrow;
     }
 
+    /**
+     * Specifies how many rows can be accessed at most via getRow(), similar to
+     * {@code SXSSFSheet}. When a new row is created via {@link #createRow(int)} and
+     * the number of rows in memory exceeds the specified value, the rows with the
+     * lowest index values are flushed to a temporary file and can't be accessed
+     * anymore. Rows are flushed in whole row blocks of 32 rows, so up to 31 rows more
+     * than the window size are kept in memory.<p>
+     *
+     * Flushed rows are copied into the workbook stream when the workbook is written.
+     * Rows can't be created or moved into the range of the flushed rows.<p>
+     *
+     * A value of -1 (the default) indicates unlimited access, i.e. rows are only
+     * flushed by explicit calls to {@link #flushRows(int)}. A value of 0 is not allowed
+     * because it would flush any newly created row without having a chance to specify
+     * any cells.
+     *
+     * @param value the maximum number of rows in memory or -1 for unlimited access
+     *
+     * @since POI 5.4.1
+     */
+    public void setRandomAccessWindowSize(int value) {
+        if (value == 0 || value < -1) {
+            throw new IllegalArgumentException("RandomAccessWindowSize must be either -1 or a positive integer");
+        }
+        _randomAccessWindowSize = value;
+    }
+
+    /**
+     * Flushes the rows with the lowest index values to a temporary file, until at most
+     * {@code remaining} rows are kept in memory. Only whole row blocks of 32 rows are
+     * flushed, so up to 31 rows more than {@code remaining} stay in memory.
+     * A clone of a sheet with flushed rows reads them back and keeps all of them in memory.
+     *
+     * @param remaining the number of rows to keep in memory
+     * @throws IOException if the temporary file can't be written
+     *
+     * @see #setRandomAccessWindowSize(int)
+     * @since POI 5.4.1
+     */
+    public void flushRows(int remaining) throws IOException {
+        int blockCount = (_rows.size() - Math.max(remaining, 0)) / DBCellRecord.BLOCK_SIZE;
+        if (blockCount <= 0) {
+            return;
+        }
+        _sheet.getRowsAggregate().flushRowBlocks(blockCount);
+
+        Iterator<HSSFRow> iter = _rows.values().iterator();
+        for (int i = blockCount * DBCellRecord.BLOCK_SIZE; i > 0; i--) {
+            iter.next();
+            iter.remove();
+        }
+    }
+
+    /**
+     * Flushes all whole row blocks of 32 rows to a temporary file. The remaining
+     * rows stay in memory.
+     *
+     * @throws IOException if the temporary file can't be written
+     *
+     * @see #flushRows(int)
+     * @since POI 5.4.1
+     */
+    public void flushRows() throws IOException {
+        flushRows(0);
+    }
+
+    /**
+     * Sets whether the number, string and blank cells of this sheet are kept as primitive
+     * values instead of record objects. This lowers the memory of sheets, which consist mostly
+     * of these cells. Their records are created on demand, e.g. when the sheet is written or
+     * a record is requested through the low level API. The cells behave the same with either
+     * storage.
+     * <p>
+     * This is off by default. Switching it on converts the cells of the sheet, switching it off
+     * creates the records of the converted cells again.
+     *
+     * @param compact whether to keep number, string and blank cells without records
+     *
+     * @since POI 5.4.1
+     */
+    public void setCompactCellStorage(boolean compact) {
+        ValueRecordsAggregate values = _sheet.getRowsAggregate().getValuesAggregate();
+        if (compact == values.isCompactCells()) {
+            return;
+        }
+        values.setCompactCells(compact);
+        if (compact) {
+            for (HSSFRow row : _rows.values()) {
+                for (Cell cell : row) {
+                    ((HSSFCell) cell).releaseRecord();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the number, string and blank cells are kept without records
+     *
+     * @see #setCompactCellStorage(boolean)
+     * @since POI 5.4.1
+     */
+    public boolean isCompactCellStorage() {
+        return _sheet.getRowsAggregate().getValuesAggregate().isCompactCells();
+    }
+
+    /**
+     * @return the row number of the last row flushed to disk, or -1 if no rows have been flushed
+     *
+     * @since POI 5.4.1
+     */
+    public int getLastFlushedRowNum() {
+        FlushedRowBlocks flushed = _sheet.getRowsAggregate().getFlushedRowBlocks();
+        return (flushed == null) ? -1 : flushed.getLastRowNum();
+    }
+
+    /**
+     * Deletes the temporary file of the flushed rows
+     */
+    void disposeFlushedRows() throws IOException {
+        FlushedRowBlocks flushed = _sheet.getRowsAggregate().getFlushedRowBlocks();
+        if (flushed != null) {
+            flushed.close();
+        }
+    }
+
     @Override
     public List<HSSFDataValidation> getDataValidations() {
         DataValidityTable dvt = _sheet.getOrCreateDataValidityTable();
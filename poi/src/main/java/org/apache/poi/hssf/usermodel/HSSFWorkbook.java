@@ -28,11 +28,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -43,8 +46,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import org.apache.commons.codec.digest.DigestUtils;
@@ -72,6 +80,7 @@ import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.model.RecordStream;
 import org.apache.poi.hssf.model.WorkbookRecordList;
 import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.aggregates.FlushedRowBlocks;
 import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.hssf.record.crypto.Biff8DecryptingStream;
@@ -91,6 +100,7 @@ import org.apache.poi.poifs.filesystem.FilteringDirectoryNode;
 import org.apache.poi.poifs.filesystem.Ole10Native;
 import org.apache.poi.poifs.filesystem.POIFSDocument;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.poifs.filesystem.TempFilePOIFSFileSystem;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaShifter;
 import org.apache.poi.ss.formula.FormulaType;
@@ -356,6 +366,69 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
      */
     public HSSFWorkbook(DirectoryNode directory, boolean preserveNodes)
             throws IOException {
+        this(directory, preserveNodes, false);
+    }
+
+    /**
+     * given a POI POIFSFileSystem object, and a specific directory
+     * within it, read in its Workbook and populate the high and
+     * low level models.
+     * <p>
+     * With {@code lazySheets}, only the workbook globals are parsed up front.
+     * The records of a sheet are parsed, when the sheet is accessed for the first time,
+     * e.g. via {@link #getSheetAt(int)} or {@link #getSheet(String)}. Until then only
+     * the raw bytes of the workbook stream are kept. This reduces the time and memory
+     * for opening large multi-sheet workbooks, of which only a few sheets are used.
+     * Workbooks with unsupported sheet types are always parsed completely.
+     *
+     * @param directory     the POI filesystem directory to process from
+     * @param preserveNodes whether to preserve other nodes, such as
+     *                      macros.  This takes more memory, so only say yes if you
+     *                      need to. If set, will store all of the POIFSFileSystem
+     *                      in memory
+     * @param lazySheets    whether to parse the sheets on first access
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalStateException a number of runtime exceptions can be thrown, especially if there are problems with the
+     * input format
+     * @see POIFSFileSystem
+     * @since POI 5.4.1
+     */
+    public HSSFWorkbook(DirectoryNode directory, boolean preserveNodes, boolean lazySheets)
+            throws IOException {
+        this(directory, preserveNodes, lazySheets, null);
+    }
+
+    /**
+     * given a POI POIFSFileSystem object, and a specific directory
+     * within it, read in its Workbook and populate the high and
+     * low level models.
+     * <p>
+     * The workbook globals are parsed first. The sheet substreams are independent of each
+     * other and are then parsed concurrently by tasks submitted to {@code sheetExecutor}.
+     * This includes the decryption of encrypted workbooks. The sheets keep their order
+     * within the workbook. Workbooks with unsupported sheet types are parsed sequentially.
+     *
+     * @param directory     the POI filesystem directory to process from
+     * @param preserveNodes whether to preserve other nodes, such as
+     *                      macros.  This takes more memory, so only say yes if you
+     *                      need to. If set, will store all of the POIFSFileSystem
+     *                      in memory
+     * @param sheetExecutor the executor for parsing the sheets, e.g. a
+     *                      {@link java.util.concurrent.ForkJoinPool}
+     * @throws IOException if the stream cannot be read or if the thread is interrupted
+     * while waiting for the sheets
+     * @throws IllegalStateException a number of runtime exceptions can be thrown, especially if there are problems with the
+     * input format
+     * @see POIFSFileSystem
+     * @since POI 5.4.1
+     */
+    public HSSFWorkbook(DirectoryNode directory, boolean preserveNodes, Executor sheetExecutor)
+            throws IOException {
+        this(directory, preserveNodes, false, Objects.requireNonNull(sheetExecutor, "sheetExecutor"));
+    }
+
+    private HSSFWorkbook(DirectoryNode directory, boolean preserveNodes, boolean lazySheets, Executor sheetExecutor)
+            throws IOException {
         super(directory);
         String workbookName = getWorkbookDirEntryName(directory);
 
@@ -367,29 +440,58 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
             clearDirectory();
         }
 
-        _sheets = new ArrayList<>(INITIAL_CAPACITY);
         names = new ArrayList<>(INITIAL_CAPACITY);
 
         // Grab the data from the workbook stream, however
         //  it happens to be spelled.
         InputStream stream = directory.createDocumentInputStream(workbookName);
 
-        List<org.apache.poi.hssf.record.Record> records = RecordFactory.createRecords(stream);
+        if (lazySheets || sheetExecutor != null) {
+            byte[] data;
+            try (InputStream is = stream) {
+                data = IOUtils.toByteArray(is);
+            }
+            int[] sheetOffsets = findSheetOffsets(data);
+            if (sheetOffsets != null) {
+                List<org.apache.poi.hssf.record.Record> records = readGlobalsRecords(data,
+                    sheetOffsets.length > 0 ? sheetOffsets[0] : data.length);
+                EncryptionInfo key = records.stream()
+                    .filter(r -> r instanceof FilePassRecord).findFirst()
+                    .map(r -> ((FilePassRecord) r).getEncryptionInfo()).orElse(null);
+                workbook = InternalWorkbook.createWorkbook(records);
+                setPropertiesFromWorkbook(workbook);
+                if (lazySheets) {
+                    _sheets = new LazySheetList(data, sheetOffsets, key);
+                } else {
+                    _sheets = new ArrayList<>(Math.max(INITIAL_CAPACITY, sheetOffsets.length));
+                    parseSheets(data, sheetOffsets, key, sheetExecutor);
+                }
+            } else {
+                // fall back to parsing all sheets
+                stream = UnsynchronizedByteArrayInputStream.builder().setByteArray(data).get();
+            }
+        }
+
+        if (_sheets == null) {
+            _sheets = new ArrayList<>(INITIAL_CAPACITY);
 
-        workbook = InternalWorkbook.createWorkbook(records);
-        setPropertiesFromWorkbook(workbook);
-        int recOffset = workbook.getNumRecords();
+            List<org.apache.poi.hssf.record.Record> records = RecordFactory.createRecords(stream);
 
-        // convert all LabelRecord records to LabelSSTRecord
-        convertLabelRecords(records, recOffset);
-        RecordStream rs = new RecordStream(records, recOffset);
-        while (rs.hasNext()) {
-            try {
-                InternalSheet sheet = InternalSheet.createSheet(rs);
-                _sheets.add(new HSSFSheet(this, sheet));
-            } catch (UnsupportedBOFType eb) {
-                // Hopefully there's a supported one after this!
-                LOGGER.atWarn().log("Unsupported BOF found of type {}", box(eb.getType()));
+            workbook = InternalWorkbook.createWorkbook(records);
+            setPropertiesFromWorkbook(workbook);
+            int recOffset = workbook.getNumRecords();
+
+            // convert all LabelRecord records to LabelSSTRecord
+            convertLabelRecords(records, recOffset);
+            RecordStream rs = new RecordStream(records, recOffset);
+            while (rs.hasNext()) {
+                try {
+                    InternalSheet sheet = InternalSheet.createSheet(rs);
+                    _sheets.add(new HSSFSheet(this, sheet));
+                } catch (UnsupportedBOFType eb) {
+                    // Hopefully there's a supported one after this!
+                    LOGGER.atWarn().log("Unsupported BOF found of type {}", box(eb.getType()));
+                }
             }
         }
 
@@ -400,6 +502,243 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
         }
     }
 
+    /**
+     * Scans the record headers of the workbook stream for the BOF records of the sheet substreams.
+     * The record headers are never encrypted.
+     *
+     * @return the offsets of the sheet BOF records or {@code null}, if the sheets can't be
+     * parsed independently, i.e. if the workbook contains unsupported sheet types
+     */
+    private static int[] findSheetOffsets(byte[] data) {
+        List<Integer> offsets = new ArrayList<>();
+        int bofDepth = 0;
+        int offset = 0;
+        while (offset + 4 <= data.length) {
+            int sid = LittleEndian.getUShort(data, offset);
+            int length = LittleEndian.getUShort(data, offset + 2);
+            if (sid == BOFRecord.sid) {
+                if (offset + 8 > data.length) {
+                    return null;
+                }
+                if (bofDepth == 0 && offset > 0) {
+                    int type = LittleEndian.getUShort(data, offset + 6);
+                    if (type != BOFRecord.TYPE_WORKSHEET && type != BOFRecord.TYPE_CHART
+                        && type != BOFRecord.TYPE_EXCEL_4_MACRO) {
+                        return null;
+                    }
+                    int next = offset + 4 + length;
+                    if (next + 2 <= data.length && LittleEndian.getUShort(data, next) == EOFRecord.sid) {
+                        // an empty substream can't be parsed on its own
+                        return null;
+                    }
+                    offsets.add(offset);
+                }
+                bofDepth++;
+            } else if (bofDepth == 0) {
+                // padding after the last substream
+                break;
+            } else if (sid == EOFRecord.sid) {
+                bofDepth--;
+            }
+            offset += 4 + length;
+        }
+        if (offset == 0 || bofDepth != 0) {
+            return null;
+        }
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Reads the records of the workbook globals, i.e. the first substream of the workbook stream
+     */
+    private static List<org.apache.poi.hssf.record.Record> readGlobalsRecords(byte[] data, int length)
+            throws IOException {
+        RecordFactoryInputStream recStream = new RecordFactoryInputStream(UnsynchronizedByteArrayInputStream
+            .builder().setByteArray(data).setLength(length).get(), true, true);
+        List<org.apache.poi.hssf.record.Record> records = new ArrayList<>();
+        org.apache.poi.hssf.record.Record record;
+        while ((record = recStream.nextRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Reads the records of a sheet substream, which can be done independently of the other sheets
+     *
+     * @param key the encryption info of the workbook or {@code null}
+     */
+    private static List<org.apache.poi.hssf.record.Record> readSheetRecords(
+            byte[] data, int[] sheetOffsets, int sheetNum, EncryptionInfo key) {
+        int start = sheetOffsets[sheetNum];
+        int end = (sheetNum + 1 < sheetOffsets.length) ? sheetOffsets[sheetNum + 1] : data.length;
+        try {
+            return RecordFactory.createRecords(UnsynchronizedByteArrayInputStream.builder()
+                .setByteArray(data).setOffset(start).setLength(end - start).get(), key, start);
+        } catch (IOException e) {
+            // can't happen for a byte array
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses the sheet substreams concurrently and adds the sheets in their original order.
+     * The records are parsed and aggregated in the tasks, the high level sheets and the
+     * conversion of LabelRecords, which adds to the SST, are done by the calling thread.
+     */
+    private void parseSheets(byte[] data, int[] sheetOffsets, EncryptionInfo key, Executor executor)
+            throws IOException {
+        List<CompletableFuture<Object>> tasks = new ArrayList<>(sheetOffsets.length);
+        try {
+            for (int i = 0; i < sheetOffsets.length; i++) {
+                final int sheetNum = i;
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    List<org.apache.poi.hssf.record.Record> records = readSheetRecords(data, sheetOffsets, sheetNum, key);
+                    for (org.apache.poi.hssf.record.Record r : records) {
+                        if (r.getSid() == LabelRecord.sid) {
+                            return records;
+                        }
+                    }
+                    return InternalSheet.createSheet(new RecordStream(records, 0));
+                }, executor));
+            }
+
+            for (CompletableFuture<Object> task : tasks) {
+                Object result = task.get();
+                InternalSheet sheet;
+                if (result instanceof InternalSheet) {
+                    sheet = (InternalSheet) result;
+                } else {
+                    @SuppressWarnings("unchecked")
+                    List<org.apache.poi.hssf.record.Record> records = (List<org.apache.poi.hssf.record.Record>) result;
+                    convertLabelRecords(records, 0);
+                    sheet = InternalSheet.createSheet(new RecordStream(records, 0));
+                }
+                _sheets.add(new HSSFSheet(this, sheet));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing the sheets");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            // don't parse the remaining sheets after a failure
+            for (CompletableFuture<Object> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * The sheets of a workbook opened with lazy sheets. The records of a sheet are only
+     * parsed, when the sheet is accessed for the first time.
+     * <p>
+     * Reading a sheet changes the list, so all accesses are synchronized on it. This keeps
+     * concurrent readers, like the parallel formula evaluation, from parsing a sheet twice.
+     */
+    private final class LazySheetList extends AbstractList<HSSFSheet> implements RandomAccess {
+        /** the workbook stream, released when all sheets are parsed */
+        private byte[] data;
+        /** the sheets, or the Integer index into {@link #sheetOffsets} of not yet parsed sheets */
+        private final List<Object> entries;
+        private final int[] sheetOffsets;
+        /** the encryption info of the workbook or {@code null} */
+        private final EncryptionInfo key;
+        private int unparsed;
+
+        LazySheetList(byte[] data, int[] sheetOffsets, EncryptionInfo key) {
+            this.data = data;
+            this.sheetOffsets = sheetOffsets;
+            this.key = key;
+            this.unparsed = sheetOffsets.length;
+            entries = new ArrayList<>(Math.max(INITIAL_CAPACITY, sheetOffsets.length));
+            for (int i = 0; i < sheetOffsets.length; i++) {
+                entries.add(i);
+            }
+        }
+
+        @Override
+        public synchronized HSSFSheet get(int index) {
+            Object entry = entries.get(index);
+            if (entry instanceof HSSFSheet) {
+                return (HSSFSheet) entry;
+            }
+            HSSFSheet sheet = parseSheet((Integer) entry);
+            entries.set(index, sheet);
+            if (--unparsed == 0) {
+                data = null;
+            }
+            return sheet;
+        }
+
+        private HSSFSheet parseSheet(int sheetNum) {
+            List<org.apache.poi.hssf.record.Record> records = readSheetRecords(data, sheetOffsets, sheetNum, key);
+            convertLabelRecords(records, 0);
+            return new HSSFSheet(HSSFWorkbook.this, InternalSheet.createSheet(new RecordStream(records, 0)));
+        }
+
+        /**
+         * @return {@code true}, if the sheet has already been parsed
+         */
+        synchronized boolean isParsed(int index) {
+            return entries.get(index) instanceof HSSFSheet;
+        }
+
+        @Override
+        public synchronized int size() {
+            return entries.size();
+        }
+
+        @Override
+        public synchronized HSSFSheet set(int index, HSSFSheet sheet) {
+            HSSFSheet old = get(index);
+            entries.set(index, sheet);
+            return old;
+        }
+
+        @Override
+        public synchronized void add(int index, HSSFSheet sheet) {
+            entries.add(index, sheet);
+            modCount++;
+        }
+
+        @Override
+        public synchronized HSSFSheet remove(int index) {
+            HSSFSheet old = get(index);
+            entries.remove(index);
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public synchronized int indexOf(Object o) {
+            // not yet parsed sheets can't be equal to any given sheet
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i) == o) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public synchronized int lastIndexOf(Object o) {
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                if (entries.get(i) == o) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
     /**
      * Companion to HSSFWorkbook(POIFSFileSystem), this constructs the
      * POI filesystem around your {@link InputStream}, including all nodes.
@@ -1093,10 +1432,16 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
     @Override
     public void removeSheetAt(int index) {
         validateSheetIndex(index);
-        boolean wasSelected = getSheetAt(index).isSelected();
+        HSSFSheet removedSheet = getSheetAt(index);
+        boolean wasSelected = removedSheet.isSelected();
 
         _sheets.remove(index);
         workbook.removeSheet(index);
+        try {
+            removedSheet.disposeFlushedRows();
+        } catch (IOException e) {
+            LOGGER.atWarn().withThrowable(e).log("Failed to delete the flushed rows of the removed sheet");
+        }
 
         // set the remaining active/selected sheet
         int nSheets = _sheets.size();
@@ -1338,7 +1683,31 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
      */
     @Override
     public void close() throws IOException {
-        super.close();
+        try {
+            for (HSSFSheet sheet : getSheetsWithFlushedRows()) {
+                sheet.disposeFlushedRows();
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * @return the sheets with rows flushed to temporary files, see {@link HSSFSheet#flushRows(int)}
+     */
+    private List<HSSFSheet> getSheetsWithFlushedRows() {
+        List<HSSFSheet> sheets = new ArrayList<>();
+        for (int i = 0; i < _sheets.size(); i++) {
+            // not yet parsed sheets can't have flushed rows
+            if (_sheets instanceof LazySheetList && !((LazySheetList) _sheets).isParsed(i)) {
+                continue;
+            }
+            HSSFSheet sheet = _sheets.get(i);
+            if (sheet.getLastFlushedRowNum() != -1) {
+                sheets.add(sheet);
+            }
+        }
+        return sheets;
     }
 
     /**
@@ -1407,7 +1776,9 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
      */
     @Override
     public void write(OutputStream stream) throws IOException {
-        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+        // with flushed rows, the workbook is assembled in a temporary file instead of in memory
+        try (POIFSFileSystem fs = getSheetsWithFlushedRows().isEmpty()
+                ? new POIFSFileSystem() : new TempFilePOIFSFileSystem()) {
             write(fs);
             fs.writeFilesystem(stream);
         }
@@ -1422,7 +1793,12 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
         List<String> excepts = new ArrayList<>(1);
 
         // Write out the Workbook stream
-        fs.createDocument(UnsynchronizedByteArrayInputStream.builder().setByteArray(getBytes()).get(), "Workbook");
+        if (getSheetsWithFlushedRows().isEmpty() || Biff8EncryptionKey.getCurrentUserPassword() != null) {
+            fs.createDocument(UnsynchronizedByteArrayInputStream.builder().setByteArray(getBytes()).get(), "Workbook");
+        } else {
+            // stream the records, so that the flushed rows don't need to be loaded into memory
+            writeWorkbookStream(fs);
+        }
 
         // Write out our HPFS properties, if we have them
         writeProperties(fs, excepts);
@@ -1458,7 +1834,7 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
      */
     private static final class SheetRecordCollector implements RecordVisitor {
 
-        private final List<org.apache.poi.hssf.record.Record> _list;
+        private final List<RecordBase> _list;
         private int _totalSize;
 
         public SheetRecordCollector() {
@@ -1477,26 +1853,52 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
 
         }
 
+        @Override
+        public void visitFlushedRowBlocks(FlushedRowBlocks blocks) {
+            _list.add(blocks);
+            _totalSize += blocks.getRecordSize();
+        }
+
         public int serialize(int offset, byte[] data) {
             int result = 0;
-            for (org.apache.poi.hssf.record.Record rec : _list) {
+            for (RecordBase rec : _list) {
                 result += rec.serialize(offset + result, data);
             }
             return result;
         }
-    }
 
+        /**
+         * Writes the records to a stream, flushed row blocks are copied from their temporary files
+         */
+        public int writeTo(OutputStream out) throws IOException {
+            byte[] buffer = new byte[1024];
+            int result = 0;
+            for (RecordBase rec : _list) {
+                if (rec instanceof FlushedRowBlocks) {
+                    ((FlushedRowBlocks) rec).writeTo(out);
+                    result += rec.getRecordSize();
+                    continue;
+                }
+                int recSize = rec.getRecordSize();
+                if (recSize > buffer.length) {
+                    buffer = new byte[Math.max(recSize, buffer.length * 2)];
+                }
+                int written = rec.serialize(0, buffer);
+                out.write(buffer, 0, written);
+                result += written;
+            }
+            return result;
+        }
+    }
 
     /**
-     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
-     * Use this to construct a POI POIFSFileSystem yourself.
+     * Tells the workbook and the sheets that serialization is about to occur,
+     * then collects the records of the sheets and sets their BOF offsets.
+     * The Workbook stream consists of the workbook records followed by the sheets.
      *
-     * @return byte[] array containing the binary representation of this workbook and all contained
-     * sheets, rows, cells, etc.
+     * @return the records of the sheets
      */
-    public byte[] getBytes() {
-        LOGGER.atDebug().log("HSSFWorkbook.getBytes()");
-
+    private SheetRecordCollector[] collectSheetRecords() {
         HSSFSheet[] sheets = getSheets();
         int nSheets = sheets.length;
 
@@ -1521,22 +1923,76 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
             totalsize += src.getTotalSize();
             srCollectors[k] = src;
         }
+        return srCollectors;
+    }
+
+    private static void checkSheetSize(int sheetIndex, int serializedSize, SheetRecordCollector src) {
+        if (serializedSize != src.getTotalSize()) {
+            // Wrong offset values have been passed in the call to setSheetBof() in collectSheetRecords().
+            // For books with more than one sheet, this discrepancy would cause excel
+            // to report errors and loose data while reading the workbook
+            throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
+                    + ") differs from pre-calculated size (" + src.getTotalSize()
+                    + ") for sheet (" + sheetIndex + ")");
+            // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
+        }
+    }
+
+    /**
+     * Writes the Workbook stream record by record, instead of building it in memory
+     * like {@link #getBytes()}. The flushed row blocks of the sheets are copied
+     * from their temporary files. Encryption is not supported.
+     */
+    private void writeWorkbookStream(POIFSFileSystem fs) throws IOException {
+        final SheetRecordCollector[] srCollectors = collectSheetRecords();
+        final int workbookSize = workbook.getSize();
+        int totalsize = workbookSize;
+        for (SheetRecordCollector src : srCollectors) {
+            totalsize += src.getTotalSize();
+        }
+
+        try {
+            fs.createDocument("Workbook", totalsize, event -> {
+                OutputStream os = event.getStream();
+                byte[] workbookBytes = new byte[workbookSize];
+                workbook.serialize(0, workbookBytes);
+                try {
+                    os.write(workbookBytes);
+                    for (int k = 0; k < srCollectors.length; k++) {
+                        checkSheetSize(k, srCollectors[k].writeTo(os), srCollectors[k]);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
+     * Use this to construct a POI POIFSFileSystem yourself.
+     *
+     * @return byte[] array containing the binary representation of this workbook and all contained
+     * sheets, rows, cells, etc.
+     */
+    public byte[] getBytes() {
+        LOGGER.atDebug().log("HSSFWorkbook.getBytes()");
+
+        SheetRecordCollector[] srCollectors = collectSheetRecords();
+        int totalsize = workbook.getSize();
+        for (SheetRecordCollector src : srCollectors) {
+            totalsize += src.getTotalSize();
+        }
 
         byte[] retval = new byte[totalsize];
         int pos = workbook.serialize(0, retval);
 
-        for (int k = 0; k < nSheets; k++) {
+        for (int k = 0; k < srCollectors.length; k++) {
             SheetRecordCollector src = srCollectors[k];
             int serializedSize = src.serialize(pos, retval);
-            if (serializedSize != src.getTotalSize()) {
-                // Wrong offset values have been passed in the call to setSheetBof() above.
-                // For books with more than one sheet, this discrepancy would cause excel
-                // to report errors and loose data while reading the workbook
-                throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
-                        + ") differs from pre-calculated size (" + src.getTotalSize()
-                        + ") for sheet (" + k + ")");
-                // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
-            }
+            checkSheetSize(k, serializedSize, src);
             pos += serializedSize;
         }
 
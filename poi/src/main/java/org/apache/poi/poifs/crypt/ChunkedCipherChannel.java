@@ -0,0 +1,176 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.crypt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.Internal;
+
+/**
+ * A read-only channel over data, which is encrypted in chunks that can be decrypted
+ * independently of each other. In contrast to {@link ChunkedCipherInputStream}, the
+ * data can be read at any position - only the chunk containing the position is read
+ * from the document and decrypted, without going through the preceding chunks.
+ *
+ * @since POI 5.4.1
+ */
+@Internal
+public abstract class ChunkedCipherChannel implements SeekableByteChannel {
+    private final DocumentInputStream stream;
+    private final int dataOffset;
+    /** the size of the encrypted data including the padding of the last chunk */
+    private final int encryptedSize;
+    private final long size;
+    private final byte[] chunk;
+    private final int chunkBits;
+
+    private Cipher cipher;
+    /** the index of the chunk, which is currently decrypted in {@link #chunk} */
+    private int chunkIndex = -1;
+    private long pos;
+    private boolean open = true;
+
+    /**
+     * @param stream the document containing the encrypted data, positioned at the start of the encrypted data
+     * @param dataOffset the offset of the encrypted data within the document
+     * @param size the size of the decrypted data
+     * @param chunkSize the size of the chunks, a power of 2
+     */
+    protected ChunkedCipherChannel(DocumentInputStream stream, int dataOffset, long size, int chunkSize) {
+        this.stream = stream;
+        this.dataOffset = dataOffset;
+        this.encryptedSize = stream.available();
+        this.size = size;
+        this.chunk = IOUtils.safelyAllocate(chunkSize, CryptoFunctions.MAX_RECORD_LENGTH);
+        this.chunkBits = Integer.bitCount(chunkSize - 1);
+    }
+
+    /**
+     * Initializes the cipher for decrypting the given chunk
+     *
+     * @param existing the cipher of the previous chunk or {@code null} for the first chunk
+     * @param block the index of the chunk
+     * @return the initialized cipher
+     */
+    protected abstract Cipher initCipherForBlock(Cipher existing, int block)
+    throws GeneralSecurityException;
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (pos >= size) {
+            return -1;
+        }
+        int total = 0;
+        final int chunkMask = chunk.length - 1;
+        while (dst.hasRemaining() && pos < size) {
+            int index = (int)(pos >> chunkBits);
+            if (index != chunkIndex) {
+                decryptChunk(index);
+            }
+            int offset = (int)(pos & chunkMask);
+            int count = (int)Math.min(Math.min(dst.remaining(), chunk.length - offset), size - pos);
+            dst.put(chunk, offset, count);
+            pos += count;
+            total += count;
+        }
+        return total;
+    }
+
+    private void decryptChunk(int index) throws IOException {
+        long start = (long)index << chunkBits;
+        int plainSize = (int)Math.min(chunk.length, size - start);
+        // encrypted data is processed in blocks of up to 16 bytes, so the last chunk is padded
+        int available = (int)Math.max(0, encryptedSize - start);
+        int todo = Math.min(available, Math.min(chunk.length, (plainSize + 15) & ~15));
+        if (todo < plainSize) {
+            throw new EOFException("buffer underrun");
+        }
+
+        chunkIndex = -1;
+        stream.seek((int)(dataOffset + start));
+        stream.readFully(chunk, 0, todo);
+        try {
+            cipher = initCipherForBlock(cipher, index);
+            cipher.doFinal(chunk, 0, todo, chunk);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptedDocumentException(e.getMessage(), e);
+        }
+        chunkIndex = index;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return pos;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative, but had " + newPosition);
+        }
+        pos = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        stream.close();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.poi.poifs.crypt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.security.GeneralSecurityException;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -80,6 +81,33 @@ public abstract class Decryptor implements GenericRecord {
         throw new EncryptedDocumentException("this decryptor doesn't support reading from a stream");
     }
 
+    /**
+     * @return {@code true}, if the decrypted data can be read at any position
+     *  via {@link #getDataChannel(DirectoryNode)}
+     *
+     * @since POI 5.4.1
+     */
+    public boolean isRandomAccessSupported() {
+        return false;
+    }
+
+    /**
+     * Return a channel for reading the decrypted data at any position.
+     * Only the parts of the encrypted data which are actually read are decrypted.
+     * Closing the channel closes the underlying document stream.
+     *
+     * @param dir the node to read from
+     * @return decrypted channel, whose size is the length of the decrypted data
+     * @throws EncryptedDocumentException if the encryption mode doesn't support random access
+     * @see #isRandomAccessSupported()
+     *
+     * @since POI 5.4.1
+     */
+    public SeekableByteChannel getDataChannel(DirectoryNode dir)
+        throws IOException, GeneralSecurityException {
+        throw new EncryptedDocumentException("this decryptor doesn't support random access");
+    }
+
     /**
      * Sets the chunk size of the data stream.
      * Needs to be set before the data stream is requested.
@@ -26,6 +26,7 @@ import static org.apache.poi.poifs.crypt.CryptoFunctions.hashPassword;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.spec.AlgorithmParameterSpec;
@@ -39,6 +40,7 @@ import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.poifs.crypt.ChainingMode;
+import org.apache.poi.poifs.crypt.ChunkedCipherChannel;
 import org.apache.poi.poifs.crypt.ChunkedCipherInputStream;
 import org.apache.poi.poifs.crypt.CipherAlgorithm;
 import org.apache.poi.poifs.crypt.CryptoFunctions;
@@ -49,6 +51,7 @@ import org.apache.poi.poifs.crypt.HashAlgorithm;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.DocumentInputStream;
 import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.LittleEndianConsts;
 
 /**
  * Decryptor implementation for Agile Encryption
@@ -217,6 +220,19 @@ public class AgileDecryptor extends Decryptor {
         return new AgileCipherInputStream(dis, _length);
     }
 
+    @Override
+    public boolean isRandomAccessSupported() {
+        return true;
+    }
+
+    @SuppressWarnings({"java:S2095"})
+    @Override
+    public SeekableByteChannel getDataChannel(DirectoryNode dir) throws IOException, GeneralSecurityException {
+        DocumentInputStream dis = dir.createDocumentInputStream(DEFAULT_POIFS_ENTRY);
+        _length = dis.readLong();
+        return new AgileCipherChannel(dis, _length);
+    }
+
     @Override
     public long getLength(){
         if(_length == -1) {
@@ -281,6 +297,22 @@ public class AgileDecryptor extends Decryptor {
         }
     }
 
+    /**
+     * Decrypts the 4096-byte segments of the EncryptedPackage stream on demand, see
+     * {@link AgileCipherInputStream} for the segment layout
+     */
+    private class AgileCipherChannel extends ChunkedCipherChannel {
+        public AgileCipherChannel(DocumentInputStream stream, long size) {
+            super(stream, LittleEndianConsts.LONG_SIZE, size, 4096);
+        }
+
+        @Override
+        protected Cipher initCipherForBlock(Cipher cipher, int block)
+        throws GeneralSecurityException {
+            return AgileDecryptor.initCipherForBlock(cipher, block, false, getEncryptionInfo(), getSecretKey(), Cipher.DECRYPT_MODE);
+        }
+    }
+
     @Override
     public AgileDecryptor copy() {
         return new AgileDecryptor(this);
@@ -72,6 +72,15 @@ public abstract class BlockStore {
      */
     protected abstract int getFreeBlock() throws IOException;
 
+    /**
+     * Checks that blocks may be allocated, written and freed, before
+     *  a stream starts changing them.
+     *
+     * @throws IllegalStateException if the store is read-only
+     */
+    protected void checkWritable() {
+    }
+
     /**
      * Creates a Detector for loops in the chain
      */
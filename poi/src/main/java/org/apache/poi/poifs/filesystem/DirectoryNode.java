@@ -204,6 +204,7 @@ public class DirectoryNode
      */
 
     boolean deleteEntry(final EntryNode entry) {
+        _filesystem.checkWritable();
         boolean rval =
                 (( DirectoryProperty ) getProperty())
                         .deleteChild(entry.getProperty());
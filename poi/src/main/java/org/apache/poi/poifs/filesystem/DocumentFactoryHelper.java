@@ -22,6 +22,8 @@ import static org.apache.poi.extractor.ExtractorFactory.OOXML_PACKAGE;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.security.GeneralSecurityException;
 
 import org.apache.poi.EncryptedDocumentException;
@@ -49,10 +51,27 @@ public final class DocumentFactoryHelper {
      * @throws IOException If an error occurs while decrypting or if the password does not match
      */
     public static InputStream getDecryptedStream(final POIFSFileSystem fs, String password)
+    throws IOException {
+        return getDecryptedStream(fs, password, getEncryptionInfo(fs.getRoot()));
+    }
+
+    /**
+     * Like {@link #getDecryptedStream(POIFSFileSystem, String)}, but with the encryption info,
+     * which the caller has already read, e.g. for {@link #getDecryptedChannel(POIFSFileSystem, String, EncryptionInfo)}.
+     *
+     * @param fs The OLE2 stream for the document
+     * @param password The password, null if the default password should be used
+     * @param info The encryption info, see {@link #getEncryptionInfo(DirectoryNode)}
+     * @return A stream for reading the decrypted data
+     * @throws IOException If an error occurs while decrypting or if the password does not match
+     *
+     * @since POI 5.4.1
+     */
+    public static InputStream getDecryptedStream(final POIFSFileSystem fs, String password, EncryptionInfo info)
     throws IOException {
         // wrap the stream in a FilterInputStream to close the POIFSFileSystem
         // as well when the resulting OPCPackage is closed
-        return new FilterInputStream(getDecryptedStream(fs.getRoot(), password)) {
+        return new FilterInputStream(getDecryptedStream(fs.getRoot(), password, info)) {
             @Override
             public void close() throws IOException {
                 fs.close();
@@ -72,12 +91,108 @@ public final class DocumentFactoryHelper {
      */
     public static InputStream getDecryptedStream(final DirectoryNode root, String password)
     throws IOException {
-        // first check if the node contains an plain package
-        if (root.hasEntryCaseInsensitive(OOXML_PACKAGE)) {
+        return getDecryptedStream(root, password, getEncryptionInfo(root));
+    }
+
+    private static InputStream getDecryptedStream(final DirectoryNode root, String password, EncryptionInfo info)
+    throws IOException {
+        if (info == null) {
             return root.createDocumentInputStream(OOXML_PACKAGE);
         }
 
-        EncryptionInfo info = new EncryptionInfo(root);
+        Decryptor d = getDecryptor(root, password, info);
+        try {
+            return d.getDataStream(root);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Wrap the OLE2 data in the {@link POIFSFileSystem} into a channel, which decrypts the data
+     * at the positions which are read. The filesystem is closed together with the channel.
+     *
+     * @param fs The OLE2 stream for the document
+     * @param password The password, null if the default password should be used
+     * @return A channel for reading the decrypted data or {@code null}, if the document isn't
+     *  encrypted or its encryption doesn't allow random access - use
+     *  {@link #getDecryptedStream(POIFSFileSystem, String)} in this case
+     * @throws IOException If an error occurs while decrypting or if the password does not match
+     *
+     * @since POI 5.4.1
+     */
+    public static SeekableByteChannel getDecryptedChannel(final POIFSFileSystem fs, String password)
+    throws IOException {
+        return getDecryptedChannel(fs, password, getEncryptionInfo(fs.getRoot()));
+    }
+
+    /**
+     * Like {@link #getDecryptedChannel(POIFSFileSystem, String)}, but with the encryption info,
+     * which the caller has already read. If no channel is returned, the same info can be passed to
+     * {@link #getDecryptedStream(POIFSFileSystem, String, EncryptionInfo)}.
+     *
+     * @param fs The OLE2 stream for the document
+     * @param password The password, null if the default password should be used
+     * @param info The encryption info, see {@link #getEncryptionInfo(DirectoryNode)}
+     * @return A channel for reading the decrypted data or {@code null}, if the document isn't
+     *  encrypted or its encryption doesn't allow random access
+     * @throws IOException If an error occurs while decrypting or if the password does not match
+     *
+     * @since POI 5.4.1
+     */
+    public static SeekableByteChannel getDecryptedChannel(final POIFSFileSystem fs, String password, EncryptionInfo info)
+    throws IOException {
+        SeekableByteChannel channel = getDecryptedChannel(fs.getRoot(), password, info);
+        return (channel == null) ? null : new FileSystemClosingChannel(channel, fs);
+    }
+
+    /**
+     * Wrap the OLE2 data of the DirectoryNode into a channel, which decrypts the data
+     * at the positions which are read.
+     *
+     * @param root The OLE2 directory node for the document
+     * @param password The password, null if the default password should be used
+     * @return A channel for reading the decrypted data or {@code null}, if the document isn't
+     *  encrypted or its encryption doesn't allow random access - use
+     *  {@link #getDecryptedStream(DirectoryNode, String)} in this case
+     * @throws IOException If an error occurs while decrypting or if the password does not match
+     *
+     * @since POI 5.4.1
+     */
+    public static SeekableByteChannel getDecryptedChannel(final DirectoryNode root, String password)
+    throws IOException {
+        return getDecryptedChannel(root, password, getEncryptionInfo(root));
+    }
+
+    private static SeekableByteChannel getDecryptedChannel(final DirectoryNode root, String password, EncryptionInfo info)
+    throws IOException {
+        if (info == null || !Decryptor.getInstance(info).isRandomAccessSupported()) {
+            return null;
+        }
+        Decryptor d = getDecryptor(root, password, info);
+        try {
+            return d.getDataChannel(root);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads the encryption info of an encrypted document
+     *
+     * @param root The OLE2 directory node for the document
+     * @return The encryption info or {@code null}, if the node contains a plain package
+     * @throws IOException If the encryption info can't be read
+     *
+     * @since POI 5.4.1
+     */
+    public static EncryptionInfo getEncryptionInfo(final DirectoryNode root) throws IOException {
+        // first check if the node contains an plain package
+        return root.hasEntryCaseInsensitive(OOXML_PACKAGE) ? null : new EncryptionInfo(root);
+    }
+
+    private static Decryptor getDecryptor(final DirectoryNode root, String password, EncryptionInfo info)
+    throws IOException {
         Decryptor d = Decryptor.getInstance(info);
 
         try {
@@ -90,7 +205,7 @@ public final class DocumentFactoryHelper {
             }
 
             if (passwordCorrect) {
-                return d.getDataStream(root);
+                return d;
             } else if (password != null) {
                 throw new EncryptedDocumentException("Password incorrect");
             } else {
@@ -118,4 +233,63 @@ public final class DocumentFactoryHelper {
     public static boolean hasOOXMLHeader(InputStream inp) throws IOException {
         return FileMagic.valueOf(inp) == FileMagic.OOXML;
     }
+
+    /**
+     * Closes the filesystem of an encrypted document together with its decrypted channel
+     */
+    private static final class FileSystemClosingChannel implements SeekableByteChannel {
+        private final SeekableByteChannel channel;
+        private final POIFSFileSystem fs;
+
+        FileSystemClosingChannel(SeekableByteChannel channel, POIFSFileSystem fs) {
+            this.channel = channel;
+            this.fs = fs;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                fs.close();
+            }
+        }
+    }
 }
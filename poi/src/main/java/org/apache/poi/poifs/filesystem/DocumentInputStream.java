@@ -24,11 +24,10 @@ import static org.apache.poi.util.LittleEndianConsts.SHORT_SIZE;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.property.DocumentProperty;
-import org.apache.poi.util.IOUtils;
-import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LittleEndianInput;
 
 /**
@@ -152,9 +151,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         if (atEOD()) {
             return EOF;
         }
-        byte[] b = new byte[1];
-        int result = read(b, 0, 1);
-        return (result == EOF) ? EOF : (b[0] & 0xFF);
+        return readUByte();
     }
 
     @Override
@@ -203,7 +200,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         _data = _document.getBlockIterator();
         _current_offset = 0;
         for(int i=0; i<_marked_offset_count; i++) {
-           _buffer = _data.next();
+           _buffer = nextBlock();
            _current_offset += _buffer.remaining();
         }
 
@@ -212,7 +209,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
       // Do we need to position within it?
       if(_current_offset != _marked_offset) {
         // Grab the right block
-         _buffer = _data.next();
+         _buffer = nextBlock();
          _current_block_count++;
 
         // Skip to the right place in it
@@ -226,6 +223,36 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
       _current_offset = _marked_offset;
     }
 
+    /**
+     * Moves to the given offset of the document, forwards or backwards.
+     * Unlike {@link #skip(long)} and {@link #reset()}, the blocks before
+     * the offset are only looked up in the allocation table, but not read,
+     * so this is cheap even for large documents.
+     *
+     * @param offset the new offset from the start of the document
+     * @throws IOException if the stream has been closed
+     * @throws IllegalArgumentException if the offset is outside the document
+     *
+     * @since POI 5.4.1
+     */
+    public void seek(int offset) throws IOException {
+        dieIfClosed();
+        if (offset < 0 || offset > _document_size) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside the document of size " + _document_size);
+        }
+        int blockSize = _document.getDocumentBlockSize();
+        int block = offset / blockSize;
+        _data = _document.getBlockIterator(block);
+        _current_block_count = block;
+        _current_offset = block * blockSize;
+        _buffer = null;
+        if (offset > _current_offset) {
+            ByteBuffer buf = currentBlock();
+            buf.position(buf.position() + offset - _current_offset);
+            _current_offset = offset;
+        }
+    }
+
    @Override
     public long skip(long n) throws IOException {
         dieIfClosed();
@@ -243,9 +270,15 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
         long rval = new_offset - _current_offset;
 
-        // TODO Do this better
-        byte[] skip = IOUtils.safelyAllocate(rval, Integer.MAX_VALUE);
-        readFully(skip);
+        // Move through the blocks without reading them
+        int remaining = (int)rval;
+        while (remaining > 0) {
+            ByteBuffer buf = currentBlock();
+            int limit = Math.min(remaining, buf.remaining());
+            buf.position(buf.position() + limit);
+            _current_offset += limit;
+            remaining -= limit;
+        }
         return rval;
     }
 
@@ -259,6 +292,24 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         return _current_offset == _document_size;
     }
 
+    /**
+     * @return the next block of the document, prepared for little endian reads
+     */
+    private ByteBuffer nextBlock() {
+        return _data.next().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return the block of the document, which contains the current offset
+     */
+    private ByteBuffer currentBlock() {
+        if (_buffer == null || !_buffer.hasRemaining()) {
+            _current_block_count++;
+            _buffer = nextBlock();
+        }
+        return _buffer;
+    }
+
     private void checkAvaliable(int requestedSize) {
         if (_closed) {
             throw new IllegalStateException("cannot perform requested operation on a closed stream");
@@ -284,14 +335,10 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
         int read = 0;
         while(read < len) {
-           if(_buffer == null || _buffer.remaining() == 0) {
-              _current_block_count++;
-              _buffer = _data.next();
-           }
-
-           int limit = Math.min(len-read, _buffer.remaining());
-           _buffer.get(buf, off+read, limit);
-         _current_offset += limit;
+           ByteBuffer block = currentBlock();
+           int limit = Math.min(len-read, block.remaining());
+           block.get(buf, off+read, limit);
+           _current_offset += limit;
            read += limit;
         }
     }
@@ -312,28 +359,38 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
       return Double.longBitsToDouble(readLong());
    }
 
-   @Override
+    // The primitives are read directly from the blocks, only values which
+    // span two blocks are put together byte by byte
+
+    @Override
     public long readLong() {
         checkAvaliable(LONG_SIZE);
-        byte[] data = new byte[LONG_SIZE];
-        readFully(data, 0, LONG_SIZE);
-        return LittleEndian.getLong(data, 0);
+        ByteBuffer block = currentBlock();
+        if (block.remaining() >= LONG_SIZE) {
+            _current_offset += LONG_SIZE;
+            return block.getLong();
+        }
+        long low = readInt() & 0xFFFFFFFFL;
+        long high = readInt() & 0xFFFFFFFFL;
+        return (high << 32) | low;
     }
 
-   @Override
-   public short readShort() {
-      checkAvaliable(SHORT_SIZE);
-      byte[] data = new byte[SHORT_SIZE];
-      readFully(data, 0, SHORT_SIZE);
-      return LittleEndian.getShort(data);
-   }
+    @Override
+    public short readShort() {
+        return (short) readUShort();
+    }
 
-   @Override
+    @Override
     public int readInt() {
         checkAvaliable(INT_SIZE);
-      byte[] data = new byte[INT_SIZE];
-      readFully(data, 0, INT_SIZE);
-      return LittleEndian.getInt(data);
+        ByteBuffer block = currentBlock();
+        if (block.remaining() >= INT_SIZE) {
+            _current_offset += INT_SIZE;
+            return block.getInt();
+        }
+        int low = readUShort();
+        int high = readUShort();
+        return (high << 16) | low;
     }
 
     public long readUInt() {
@@ -344,18 +401,20 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
     @Override
     public int readUShort() {
         checkAvaliable(SHORT_SIZE);
-      byte[] data = new byte[SHORT_SIZE];
-      readFully(data, 0, SHORT_SIZE);
-      return LittleEndian.getUShort(data);
+        ByteBuffer block = currentBlock();
+        if (block.remaining() >= SHORT_SIZE) {
+            _current_offset += SHORT_SIZE;
+            return block.getShort() & 0xFFFF;
+        }
+        int low = readUByte();
+        int high = readUByte();
+        return (high << 8) | low;
     }
 
     @Override
     public int readUByte() {
         checkAvaliable(1);
-        byte[] data = new byte[1];
-        readFully(data, 0, 1);
-        if (data[0] >= 0)
-            return data[0];
-        return data[0] + 256;
+        _current_offset++;
+        return currentBlock().get() & 0xFF;
     }
 }
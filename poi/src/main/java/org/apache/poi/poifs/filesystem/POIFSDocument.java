@@ -177,6 +177,13 @@ public final class POIFSDocument implements POIFSViewable, Iterable<ByteBuffer>
         return (getSize() > 0 ? _stream : Collections.<ByteBuffer>emptyList()).iterator();
     }
 
+    /**
+     * @return an iterator over the blocks of the document, which starts after the given number of blocks
+     */
+    Iterator<ByteBuffer> getBlockIterator(int skipBlocks) {
+        return (skipBlocks == 0) ? getBlockIterator() : _stream.getBlockIterator(skipBlocks);
+    }
+
     /**
      * @return size of the document
      */
@@ -18,6 +18,7 @@ package org.apache.poi.poifs.filesystem;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -42,6 +43,7 @@ import org.apache.poi.poifs.dev.POIFSViewable;
 import org.apache.poi.poifs.nio.ByteArrayBackedDataSource;
 import org.apache.poi.poifs.nio.DataSource;
 import org.apache.poi.poifs.nio.FileBackedDataSource;
+import org.apache.poi.poifs.nio.MappedFileDataSource;
 import org.apache.poi.poifs.property.DirectoryProperty;
 import org.apache.poi.poifs.property.DocumentProperty;
 import org.apache.poi.poifs.property.PropertyTable;
@@ -282,6 +284,27 @@ public class POIFSFileSystem extends BlockStore
         }
     }
 
+    private POIFSFileSystem(MappedFileDataSource data) throws IOException {
+        this(false);
+        _data = data;
+
+        try {
+            // Get the header, the file might be shorter than the header block
+            ByteBuffer headerBuffer = ByteBuffer.allocate(POIFSConstants.SMALLER_BIG_BLOCK_SIZE);
+            headerBuffer.put(data.read(POIFSConstants.SMALLER_BIG_BLOCK_SIZE, 0));
+            headerBuffer.position(0);
+
+            // Have the header processed
+            _header = new HeaderBlock(headerBuffer);
+
+            // Now process the various entries
+            readCoreContents();
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+    }
+
     /**
      * Create a POIFSFileSystem from an {@code InputStream}.  Normally the stream is read until
      * EOF.  The stream is always closed.
@@ -483,6 +506,7 @@ public class POIFSFileSystem extends BlockStore
      */
     @Override
     protected ByteBuffer createBlockIfNeeded(final int offset) throws IOException {
+        checkWritable();
         try {
             return getBlockAt(offset);
         } catch (IndexOutOfBoundsException e) {
@@ -527,6 +551,20 @@ public class POIFSFileSystem extends BlockStore
         );
     }
 
+    /**
+     * Memory-mapped filesystems are read-only, so they reject changes
+     * before any block or allocation table has been touched.
+     */
+    @Override
+    protected void checkWritable() {
+        if (_data instanceof MappedFileDataSource) {
+            throw new IllegalStateException(
+                    "POIFS opened memory-mapped, so it is read-only. " +
+                            "Open the FileSystem without mapping it to change it"
+            );
+        }
+    }
+
     /**
      * Finds a free block, and returns its offset.
      * This method will extend the file if needed, and if doing
@@ -534,6 +572,7 @@ public class POIFSFileSystem extends BlockStore
      */
     @Override
     protected int getFreeBlock() throws IOException {
+        checkWritable();
         int numSectors = bigBlockSize.getBATEntriesPerBlock();
 
         // First up, do we have any spare ones?
@@ -757,6 +796,13 @@ public class POIFSFileSystem extends BlockStore
      * @throws IOException thrown on errors writing to the stream
      */
     public void writeFilesystem(final OutputStream stream) throws IOException {
+        if (_data instanceof MappedFileDataSource) {
+            throw new IllegalArgumentException(
+                    "POIFS opened memory-mapped, so writeFilesystem(OutputStream) may " +
+                            "not be called. Open the FileSystem without mapping it first"
+            );
+        }
+
         // Have the datasource updated
         syncWithDataSource();
 
@@ -967,6 +1013,30 @@ public class POIFSFileSystem extends BlockStore
         return new POIFSFileSystem(file, false);
     }
 
+    /**
+     * Opens an existing POIFSFileSystem read-only by memory-mapping the {@link File}.
+     * <p>
+     * The blocks of the documents are read from the mapped file without copying them
+     * to the heap, which is the fastest way to scan many or large files. The filesystem
+     * can't be written out and changing its documents fails with an
+     * {@link IllegalStateException} before anything has been modified. The
+     * {@link DocumentInputStream}s must not be used after the filesystem has been closed.
+     *
+     * @param file The file to open
+     * @return The opened POIFSFileSystem
+     * @throws IOException on errors reading, or on invalid data
+     * @since POI 5.4.1
+     */
+    public static POIFSFileSystem openMapped(File file) throws IOException {
+        if (file.length() == 0) {
+            if (!file.exists()) {
+                throw new FileNotFoundException(file.toString());
+            }
+            throw new EmptyFileException(file);
+        }
+        return new POIFSFileSystem(new MappedFileDataSource(file));
+    }
+
     @Override
     protected int getBlockStoreBlockSize() {
         return getBigBlockSize();
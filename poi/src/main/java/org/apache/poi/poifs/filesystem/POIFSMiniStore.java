@@ -29,6 +29,7 @@ import org.apache.poi.poifs.property.RootProperty;
 import org.apache.poi.poifs.storage.BATBlock;
 import org.apache.poi.poifs.storage.BATBlock.BATBlockAndIndex;
 import org.apache.poi.poifs.storage.HeaderBlock;
+import org.apache.poi.util.IntList;
 import org.apache.poi.util.RecordFormatException;
 
 /**
@@ -41,6 +42,9 @@ public class POIFSMiniStore extends BlockStore {
     private final List<BATBlock> _sbat_blocks;
     private final HeaderBlock _header;
     private final RootProperty _root;
+    /** the big block offsets of the mini-stream, which have been looked up so far */
+    private final IntList _mini_stream_blocks = new IntList();
+    private Iterator<Integer> _mini_stream_offsets;
 
     POIFSMiniStore(POIFSFileSystem filesystem, RootProperty root,
                    List<BATBlock> sbats, HeaderBlock header) {
@@ -64,13 +68,7 @@ public class POIFSMiniStore extends BlockStore {
         int bigBlockNumber = byteOffset / _filesystem.getBigBlockSize();
         int bigBlockOffset = byteOffset % _filesystem.getBigBlockSize();
 
-        // Now locate the data block for it
-        Iterator<Integer> it = _mini_stream.getBlockOffsetIterator();
-        for (int i = 0; i < bigBlockNumber; i++) {
-            it.next();
-        }
-
-        ByteBuffer dataBlock = _filesystem.getBlockAt(it.next());
+        ByteBuffer dataBlock = _filesystem.getBlockAt(getMiniStreamBlock(bigBlockNumber));
         assert(dataBlock != null);
 
         // Position ourselves, and take a slice
@@ -82,6 +80,27 @@ public class POIFSMiniStore extends BlockStore {
         return miniBuffer;
     }
 
+    /**
+     * Locates the big block of the mini-stream. The chain is only followed once,
+     * otherwise reading a document from the mini-stream would walk the chain
+     * again for each of its mini blocks. The lookup is synchronized, as documents
+     * of a file system, which isn't modified, may be read by several threads.
+     */
+    private synchronized int getMiniStreamBlock(final int bigBlockNumber) {
+        if (_mini_stream_offsets == null) {
+            _mini_stream_offsets = _mini_stream.getBlockOffsetIterator();
+        }
+        while (_mini_stream_blocks.size() <= bigBlockNumber) {
+            _mini_stream_blocks.add(_mini_stream_offsets.next());
+        }
+        return _mini_stream_blocks.get(bigBlockNumber);
+    }
+
+    private synchronized void resetMiniStreamBlocks() {
+        _mini_stream_blocks.clear();
+        _mini_stream_offsets = null;
+    }
+
     /**
      * Load the block, extending the underlying stream if needed
      */
@@ -129,6 +148,9 @@ public class POIFSMiniStore extends BlockStore {
         // This is now the new end
         _filesystem.setNextBlock(newBigBlock, POIFSConstants.END_OF_CHAIN);
 
+        // The chain has changed, so look it up again
+        resetMiniStreamBlocks();
+
         // Now try again, to get the real small block
         return createBlockIfNeeded(offset);
     }
@@ -161,6 +183,11 @@ public class POIFSMiniStore extends BlockStore {
         );
     }
 
+    @Override
+    protected void checkWritable() {
+        _filesystem.checkWritable();
+    }
+
     /**
      * Finds a free block, and returns its offset.
      * This method will extend the file if needed, and if doing
@@ -96,6 +96,17 @@ public class POIFSStream implements Iterable<ByteBuffer>
         return new StreamBlockByteBufferIterator(startBlock);
     }
 
+    /**
+     * Returns an iterator over the blocks of the stream, which starts after the given
+     *  number of blocks. The skipped blocks are only looked up in the allocation
+     *  table, but not read.
+     */
+    Iterator<ByteBuffer> getBlockIterator(int skipBlocks) {
+        StreamBlockByteBufferIterator iter = (StreamBlockByteBufferIterator)getBlockIterator();
+        iter.skipBlocks(skipBlocks);
+        return iter;
+    }
+
     Iterator<Integer> getBlockOffsetIterator() {
         if(startBlock == POIFSConstants.END_OF_CHAIN) {
             throw new IllegalStateException(
@@ -118,6 +129,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
     }
 
     public OutputStream getOutputStream() throws IOException {
+        blockStore.checkWritable();
         if (outStream == null) {
             outStream = new StreamBlockByteBuffer();
         }
@@ -132,6 +144,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
      * Frees all blocks in the stream
      */
     public void free() throws IOException {
+        blockStore.checkWritable();
         ChainLoopDetector loopDetector = blockStore.getChainLoopDetector();
         free(loopDetector);
     }
@@ -202,6 +215,16 @@ public class POIFSStream implements Iterable<ByteBuffer>
             return nextBlock != POIFSConstants.END_OF_CHAIN;
         }
 
+        void skipBlocks(int count) {
+            for (int i = 0; i < count; i++) {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Can't skip past the end of the stream");
+                }
+                loopDetector.claim(nextBlock);
+                nextBlock = blockStore.getNextBlock(nextBlock);
+            }
+        }
+
         public ByteBuffer next() {
             if (!hasNext()) {
                 throw new NoSuchElementException("Can't read past the end of the stream");
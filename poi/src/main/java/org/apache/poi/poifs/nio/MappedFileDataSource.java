@@ -0,0 +1,171 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.nio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+
+/**
+ * A read-only POIFS {@link DataSource} backed by a memory-mapped File.
+ * <p>
+ * The whole file is mapped once when the data source is opened and
+ * {@link #read(int, long)} returns read-only slices of that mapping,
+ * so blocks are accessed without copying them to the heap. Only reads,
+ * which span two mapped segments (files larger than 1 GB are mapped
+ * in several segments), are copied.
+ * <p>
+ * The slices become invalid when the data source is closed and must
+ * not be used afterwards.
+ *
+ * @since POI 5.4.1
+ */
+public class MappedFileDataSource extends DataSource implements Closeable {
+    private static final Logger LOG = PoiLogManager.getLogger(MappedFileDataSource.class);
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final long size;
+    private final int segmentSize;
+    private ByteBuffer[] segments;
+
+    public MappedFileDataSource(File file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappedFileDataSource(File file, int segmentSize) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException(file.toString());
+        }
+        this.segmentSize = segmentSize;
+
+        // the mappings stay valid after the channel has been closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            size = channel.size();
+            int count = (int)((size + segmentSize - 1) / segmentSize);
+            segments = new ByteBuffer[count];
+            try {
+                for (int i = 0; i < count; i++) {
+                    long start = (long)i * segmentSize;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer read(int length, long position) throws IOException {
+        if (segments == null) {
+            throw new IOException("The data source has already been closed");
+        }
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " past the end of the file");
+        }
+
+        int toRead = (int)Math.min(length, size - position);
+        int segment = (int)(position / segmentSize);
+        int offset = (int)(position % segmentSize);
+
+        if (offset + toRead <= segments[segment].capacity()) {
+            ByteBuffer dst = segments[segment].duplicate();
+            dst.position(offset);
+            dst.limit(offset + toRead);
+            return dst.slice();
+        }
+
+        // the read spans multiple segments
+        ByteBuffer dst = ByteBuffer.allocate(toRead);
+        while (dst.hasRemaining()) {
+            ByteBuffer src = segments[segment++].duplicate();
+            src.position(offset);
+            src.limit(Math.min(src.capacity(), offset + dst.remaining()));
+            dst.put(src);
+            offset = 0;
+        }
+        dst.position(0);
+        return dst;
+    }
+
+    /**
+     * The mapped file can't be modified
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void write(ByteBuffer src, long position) {
+        throw new UnsupportedOperationException("The memory-mapped data source is read-only");
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void copyTo(OutputStream stream) throws IOException {
+        if (segments == null) {
+            throw new IOException("The data source has already been closed");
+        }
+        // Wrap the OutputSteam as a channel, but leave the stream open like the other data sources
+        WritableByteChannel out = Channels.newChannel(stream);
+        for (ByteBuffer segment : segments) {
+            ByteBuffer src = segment.duplicate();
+            while (src.hasRemaining()) {
+                out.write(src);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (segments == null) {
+            return;
+        }
+        for (ByteBuffer segment : segments) {
+            if (segment != null) {
+                unmap(segment);
+            }
+        }
+        segments = null;
+    }
+
+    private static void unmap(final ByteBuffer buffer) {
+        if (CleanerUtil.UNMAP_SUPPORTED) {
+            try {
+                CleanerUtil.getCleaner().freeBuffer(buffer);
+            } catch (IOException e) {
+                LOG.atWarn().withThrowable(e).log("Failed to unmap the buffer");
+            }
+        } else {
+            LOG.atDebug().log(CleanerUtil.UNMAP_NOT_SUPPORTED_REASON);
+        }
+    }
+}
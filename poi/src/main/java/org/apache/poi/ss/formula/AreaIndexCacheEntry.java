@@ -0,0 +1,88 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+/**
+ * Stores an index over the values of a cell area, see {@link AreaIndexProvider}.<p>
+ *
+ * The cells of the area are tracked as the sensitive input cells of a formula cache entry.
+ * When one of them changes, that entry is cleared, like the cached result of a formula,
+ * which also clears all formulas that used the index.
+ */
+final class AreaIndexCacheEntry {
+
+    /**
+     * Identifies an index within the indexes of a sheet
+     */
+    public static final class Key {
+        private final int _firstRow;
+        private final int _firstColumn;
+        private final int _lastRow;
+        private final int _lastColumn;
+        private final Object _indexType;
+
+        public Key(int firstRow, int firstColumn, int lastRow, int lastColumn, Object indexType) {
+            _firstRow = firstRow;
+            _firstColumn = firstColumn;
+            _lastRow = lastRow;
+            _lastColumn = lastColumn;
+            _indexType = indexType;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = _firstRow;
+            result = 31 * result + _firstColumn;
+            result = 31 * result + _lastRow;
+            result = 31 * result + _lastColumn;
+            return 31 * result + _indexType.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return _firstRow == other._firstRow && _firstColumn == other._firstColumn
+                && _lastRow == other._lastRow && _lastColumn == other._lastColumn
+                && _indexType.equals(other._indexType);
+        }
+    }
+
+    private final FormulaCellCacheEntry _cce = new FormulaCellCacheEntry();
+    private Object _index;
+
+    /**
+     * @return the entry, whose sensitive input cells are the cells of the area
+     */
+    public FormulaCellCacheEntry getCacheEntry() {
+        return _cce;
+    }
+
+    /**
+     * @return the index or {@code null}, if it needs to be built (again)
+     */
+    public Object getIndex() {
+        return _cce.getValue() == null ? null : _index;
+    }
+
+    public void setIndex(Object index) {
+        _index = index;
+    }
+}
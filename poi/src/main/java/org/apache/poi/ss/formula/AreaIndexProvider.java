@@ -0,0 +1,46 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.function.Function;
+
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.util.Internal;
+
+/**
+ * Implemented by areas, which can provide an index over their values, e.g. for looking up values
+ * without iterating over all cells of the area. The index is built once and kept by the evaluation
+ * cache until one of the cells of the area is changed.
+ *
+ * @since POI 5.4.1
+ */
+@Internal
+public interface AreaIndexProvider {
+
+    /**
+     * Returns the index of this area, building it on first use. The formula currently evaluated
+     * becomes dependent on all cells of the area, as if it had read all of them.
+     *
+     * @param indexType identifies the kind of index, the indexes of an area are cached per type
+     * @param builder creates the index from the values of the area in row-major order
+     * @return the index or {@code null}, if this area can't be indexed, e.g. because one of its cells
+     *  fails to evaluate or the area is too large - the caller then needs to access the values of the area
+     *  directly, so it only fails, if it reads the failing cell itself
+     */
+    <T> T getIndex(Object indexType, Function<ValueEval[], T> builder);
+}
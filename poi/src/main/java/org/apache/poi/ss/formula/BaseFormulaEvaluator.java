@@ -17,7 +17,17 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -281,11 +291,235 @@ public abstract class BaseFormulaEvaluator implements FormulaEvaluator, Workbook
         }
     }
 
+    /**
+     * Evaluates all formula cells of the workbook like {@link #evaluateAllFormulaCells(Workbook, FormulaEvaluator)},
+     * but evaluates sheets, which don't depend on each other, concurrently.
+     * <p>
+     * The sheets are grouped by analyzing the parsed formulas of all cells for references to other sheets,
+     * including references via defined names. Each group is evaluated by its own evaluator
+     * (see {@link #createWorkerEvaluator()}) on the given pool and the results are saved into the cells
+     * by the calling thread afterwards in the same order as the serial evaluation, i.e. the results match
+     * the serial evaluation.
+     * <p>
+     * The serial evaluation is used instead, if the evaluator doesn't support worker evaluators,
+     * if it's part of a {@link CollaboratingWorkbooksEnvironment}, if any formula refers to another workbook,
+     * or if all sheets depend on each other (e.g. because of {@code INDIRECT}).
+     * <p>
+     * All sheets are loaded by the calling thread before the evaluation starts, i.e. the workers only read
+     * the loaded cells and not the file, e.g. the POIFS file system of a HSSF workbook.
+     * The workbook must not be modified while the evaluation is running. User defined functions must
+     * be thread-safe and may only access other sheets via their arguments. If a formula can't be evaluated,
+     * the exception is rethrown and no results are saved.
+     *
+     * @param wb the workbook to evaluate
+     * @param evaluator the evaluator for the workbook, which provides the worker evaluators
+     * @param pool the pool to run the evaluation on
+     *
+     * @since POI 5.4.1
+     */
+    protected static void evaluateAllFormulaCells(Workbook wb, BaseFormulaEvaluator evaluator, ForkJoinPool pool) {
+        // the worker for the first group, which also tells if worker evaluators are supported
+        final BaseFormulaEvaluator firstWorker = wb.getNumberOfSheets() < 2 ? null : evaluator.createWorkerEvaluator();
+        final List<List<Integer>> groups = firstWorker == null ? null : getIndependentSheetGroups(wb, evaluator);
+        if (groups == null || groups.size() < 2) {
+            evaluateAllFormulaCells(wb, evaluator);
+            return;
+        }
+
+        final List<Callable<List<List<CellValue>>>> tasks = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            final List<Integer> group = groups.get(g);
+            final boolean isFirst = g == 0;
+            tasks.add(() -> {
+                final BaseFormulaEvaluator worker = isFirst ? firstWorker : evaluator.createWorkerEvaluator();
+                final List<List<CellValue>> valuesBySheet = new ArrayList<>(group.size());
+                for (int sheetIndex : group) {
+                    final List<CellValue> values = new ArrayList<>();
+                    for (Row r : wb.getSheetAt(sheetIndex)) {
+                        for (Cell c : r) {
+                            if (c.getCellType() == CellType.FORMULA) {
+                                values.add(worker.evaluateFormulaCellValue(c));
+                            }
+                        }
+                    }
+                    valuesBySheet.add(values);
+                }
+                return valuesBySheet;
+            });
+        }
+
+        final List<Future<List<List<CellValue>>>> results = pool.invokeAll(tasks);
+
+        // save the results in sheet order - for XSSF this keeps the shared strings in the same order
+        final List<List<CellValue>> valuesBySheet = getValuesBySheet(wb, groups, results);
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+            int valueIdx = 0;
+            for (Row r : wb.getSheetAt(i)) {
+                for (Cell c : r) {
+                    if (c.getCellType() == CellType.FORMULA) {
+                        evaluator.setCellValue(c, valuesBySheet.get(i).get(valueIdx++));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the groups of independent sheets or {@code null} if the workbook needs to be evaluated serially
+     */
+    private static List<List<Integer>> getIndependentSheetGroups(Workbook wb, BaseFormulaEvaluator evaluator) {
+        final WorkbookEvaluator bookEvaluator = evaluator._bookEvaluator;
+        if (bookEvaluator.getEnvironment() != CollaboratingWorkbooksEnvironment.EMPTY) {
+            return null;
+        }
+
+        final EvaluationWorkbook ewb = bookEvaluator.getWorkbook();
+        final SheetDependencyGraph graph = new SheetDependencyGraph(ewb, wb.getNumberOfSheets());
+        // this also loads all sheets, which are loaded on demand, before the workers start
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+            final EvaluationSheet es = ewb.getSheet(i);
+            for (Row r : wb.getSheetAt(i)) {
+                for (Cell c : r) {
+                    if (c.getCellType() == CellType.FORMULA) {
+                        graph.addFormula(i, ewb.getSharedFormulaTokens(es.getCell(c.getRowIndex(), c.getColumnIndex())));
+                    }
+                }
+            }
+            if (graph.hasExternalReferences()) {
+                return null;
+            }
+        }
+
+        return graph.getIndependentGroups();
+    }
+
+    /**
+     * @return the results of the groups indexed by sheet
+     */
+    private static List<List<CellValue>> getValuesBySheet(Workbook wb, List<List<Integer>> groups,
+            List<Future<List<List<CellValue>>>> results) {
+        final List<List<CellValue>> valuesBySheet = new ArrayList<>(Collections.nCopies(wb.getNumberOfSheets(), null));
+        for (int g = 0; g < groups.size(); g++) {
+            final List<List<CellValue>> values;
+            try {
+                values = results.get(g).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Formula evaluation was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException)e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+
+            final List<Integer> group = groups.get(g);
+            for (int i = 0; i < group.size(); i++) {
+                valuesBySheet.set(group.get(i), values.get(i));
+            }
+        }
+        return valuesBySheet;
+    }
+
+    /**
+     * Creates an evaluator for the same workbook with the same settings, but its own evaluation workbook
+     * and evaluation cache, so that it can be used independently of this evaluator by another thread.
+     * This is used by the parallel evaluation of {@link #evaluateAllFormulaCells(Workbook, BaseFormulaEvaluator, ForkJoinPool)}.
+     *
+     * @return the new evaluator or {@code null} (the default), if the file format doesn't support it
+     *
+     * @since POI 5.4.1
+     */
+    protected BaseFormulaEvaluator createWorkerEvaluator() {
+        return null;
+    }
+
+    /**
+     * Recalculates exactly the formula cells, which depend on the given changed cells, and saves their
+     * results like {@link #evaluateFormulaCell(Cell)}. This is meant for what-if scenarios, where a few
+     * input cells of an already evaluated workbook are changed repeatedly - instead of clearing all
+     * cached results, only the dependents of the changed cells are invalidated and recalculated.
+     * <p>
+     * The changed cells replace the calls to {@link #notifyUpdateCell(Cell)} / {@link #notifySetFormula(Cell)},
+     * i.e. they must already contain their new values or formulas. A changed formula cell is recalculated too.
+     * <p>
+     * The dependencies are tracked by the evaluation cache, i.e. only formula cells which have been evaluated
+     * by this evaluator before (e.g. by {@link #evaluateFormulaCell(Cell)}) are recognized as dirty. Cells of other workbooks
+     * in a {@link CollaboratingWorkbooksEnvironment} are only invalidated and are recalculated on demand.
+     *
+     * @param changedCells the value or formula cells, which have been changed
+     * @return the recalculated formula cells (the dirty set), whose results may have changed
+     *
+     * @since POI 5.4.1
+     */
+    public List<Cell> recalculate(Collection<? extends Cell> changedCells) {
+        if (changedCells.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Set<Object> dirtyCells = new LinkedHashSet<>();
+        for (Cell cell : changedCells) {
+            _bookEvaluator.notifyUpdateCell(toEvaluationCell(cell), dirtyCells);
+        }
+
+        // the identity keys of the evaluation cells are the usermodel cells
+        final Workbook wb = changedCells.iterator().next().getSheet().getWorkbook();
+        final List<Cell> result = new ArrayList<>(dirtyCells.size());
+        for (Object key : dirtyCells) {
+            if (!(key instanceof Cell)) {
+                continue;
+            }
+            final Cell cell = (Cell)key;
+            if (cell.getSheet().getWorkbook() == wb && cell.getCellType() == CellType.FORMULA) {
+                evaluateFormulaCell(cell);
+                result.add(cell);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Turns a usermodel cell into the evaluation cell of the file format.
+     * This is used by {@link #recalculate(Collection)}.
+     * <p>
+     * The default looks the cell up in the sheets of the evaluation workbook.
+     * The evaluators of the file formats override it to wrap the cell directly.
+     *
+     * @throws IllegalArgumentException if the cell is not part of the evaluated workbook
+     *
+     * @since POI 5.4.1
+     */
+    protected EvaluationCell toEvaluationCell(Cell cell) {
+        EvaluationWorkbook ewb = _bookEvaluator.getWorkbook();
+        int sheetIndex = ewb.getSheetIndex(cell.getSheet().getSheetName());
+        EvaluationCell evalCell = sheetIndex < 0 ? null
+            : ewb.getSheet(sheetIndex).getCell(cell.getRowIndex(), cell.getColumnIndex());
+        if (evalCell == null) {
+            throw new IllegalArgumentException("Cell " + cell.getAddress() + " of sheet '"
+                + cell.getSheet().getSheetName() + "' is not part of the evaluated workbook");
+        }
+        return evalCell;
+    }
+
     @Override
     public void setIgnoreMissingWorkbooks(boolean ignore){
         _bookEvaluator.setIgnoreMissingWorkbooks(ignore);
     }
 
+    /**
+     * Whether the formulas are compiled into evaluation plans, which are reused when the formula cells
+     * are evaluated again, e.g. by {@link #recalculate(Collection)} after changing input cells.
+     * Formula cells, which are changed, need to be passed to {@link #notifySetFormula(Cell)} or
+     * {@link #recalculate(Collection)} to drop their plans.
+     *
+     * @param compileFormulas {@code true} to compile the formulas, defaults to {@code false}
+     * @see WorkbookEvaluator#setCompileFormulas(boolean)
+     * @since POI 5.4.1
+     */
+    public void setCompileFormulas(boolean compileFormulas) {
+        _bookEvaluator.setCompileFormulas(compileFormulas);
+    }
+
     @Override
     public void setDebugEvaluationOutputForNextEval(boolean value){
         _bookEvaluator.setDebugEvaluationOutputForNextEval(value);
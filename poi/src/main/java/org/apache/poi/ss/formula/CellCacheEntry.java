@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -94,6 +98,23 @@ abstract class CellCacheEntry implements ICacheEntry {
             throw new IllegalStateException("Specified formula cell is not consumed by this cell");
         }
     }
+    /**
+     * Adds the formula cells, which use this cell directly or indirectly, to {@code result}.
+     * These are the cells, which are cleared by {@link #recurseClearCachedFormulaResults(IEvaluationListener)}.
+     */
+    public final void collectConsumingCells(Set<FormulaCellCacheEntry> result) {
+        // walk the dependency tree iteratively, as long formula chains would overflow the stack
+        Deque<CellCacheEntry> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            for (FormulaCellCacheEntry fc : pending.pop().getConsumingCells()) {
+                if (result.add(fc)) {
+                    pending.push(fc);
+                }
+            }
+        }
+    }
+
     public final void recurseClearCachedFormulaResults(IEvaluationListener listener) {
         if (listener == null) {
             recurseClearCachedFormulaResults();
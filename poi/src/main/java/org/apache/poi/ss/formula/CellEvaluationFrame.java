@@ -30,15 +30,57 @@ final class CellEvaluationFrame {
     private final FormulaCellCacheEntry _cce;
     private final Set<CellCacheEntry> _sensitiveInputCells;
     private FormulaUsedBlankCellSet _usedBlankCellGroup;
+    private final int _bookIndex;
+    /** the sheet of the evaluated cell or -1 for the frame of an area index */
+    private final int _sheetIndex;
+    private final int _rowIndex;
+    private final int _columnIndex;
+    private boolean _circularInput;
 
     public CellEvaluationFrame(FormulaCellCacheEntry cce) {
+        this(cce, -1, -1, -1, -1);
+    }
+
+    public CellEvaluationFrame(FormulaCellCacheEntry cce, int bookIndex, int sheetIndex, int rowIndex, int columnIndex) {
         _cce = cce;
+        _bookIndex = bookIndex;
+        _sheetIndex = sheetIndex;
+        _rowIndex = rowIndex;
+        _columnIndex = columnIndex;
         _sensitiveInputCells = new HashSet<>();
     }
     public CellCacheEntry getCCE() {
         return _cce;
     }
 
+    /**
+     * @return {@code true} if this frame builds the index of an area instead of evaluating a cell
+     */
+    public boolean isAreaIndex() {
+        return _sheetIndex < 0;
+    }
+
+    /**
+     * @return {@code true} if the evaluated cell lies within the given area
+     */
+    public boolean isCellIn(int bookIndex, int sheetIndex, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        return _sheetIndex >= 0 && _bookIndex == bookIndex && _sheetIndex == sheetIndex
+            && firstRow <= _rowIndex && _rowIndex <= lastRow
+            && firstColumn <= _columnIndex && _columnIndex <= lastColumn;
+    }
+
+    /**
+     * Marks the result of this frame as depending on a circular reference, which leads out of an
+     * area index. The result is preliminary then and must not be cached.
+     */
+    public void setCircularInput() {
+        _circularInput = true;
+    }
+
+    public boolean hasCircularInput() {
+        return _circularInput;
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder(64);
         sb.append(getClass().getName()).append(" [");
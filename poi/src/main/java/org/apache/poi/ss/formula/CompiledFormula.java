@@ -0,0 +1,515 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.FunctionEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.RefListEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.functions.ArrayMode;
+import org.apache.poi.ss.formula.functions.FreeRefFunction;
+import org.apache.poi.ss.formula.functions.Function;
+import org.apache.poi.ss.formula.functions.IfFunc;
+import org.apache.poi.ss.formula.ptg.AttrPtg;
+import org.apache.poi.ss.formula.ptg.BoolPtg;
+import org.apache.poi.ss.formula.ptg.ControlPtg;
+import org.apache.poi.ss.formula.ptg.ErrPtg;
+import org.apache.poi.ss.formula.ptg.FuncVarPtg;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.MemAreaPtg;
+import org.apache.poi.ss.formula.ptg.MemErrPtg;
+import org.apache.poi.ss.formula.ptg.MemFuncPtg;
+import org.apache.poi.ss.formula.ptg.MissingArgPtg;
+import org.apache.poi.ss.formula.ptg.NumberPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.StringPtg;
+import org.apache.poi.ss.formula.ptg.UnionPtg;
+import org.apache.poi.ss.formula.ptg.ValueOperatorPtg;
+
+/**
+ * The formula of a cell, lowered from its RPN tokens into a tree of operations, which can be
+ * evaluated repeatedly without interpreting the tokens again.
+ * <p>
+ * The tree evaluates the same operations in the same order as {@link WorkbookEvaluator#evaluateFormula}:
+ * the functions are looked up once, literal operands are converted to evaluation values once and
+ * operators with only literal operands are evaluated when the formula is compiled. The optimized
+ * IF of the tAttrIf/tAttrSkip tokens is evaluated lazily, i.e. only the selected branch is evaluated.
+ * <p>
+ * Formulas, which can't be lowered this way (e.g. with an optimized CHOOSE or unusual token
+ * sequences), keep their tokens and are interpreted as before.
+ */
+final class CompiledFormula {
+
+    private final Ptg[] _ptgs;
+    /** the root of the operation tree or {@code null} if the tokens are interpreted */
+    private final Node _root;
+
+    private CompiledFormula(Ptg[] ptgs, Node root) {
+        _ptgs = ptgs;
+        _root = root;
+    }
+
+    /**
+     * @param ptgs the formula tokens of the cell
+     * @param ec the context of the first evaluation, used for evaluating constant operators
+     * @return the compiled formula, which falls back to interpreting the tokens, if they can't be lowered
+     */
+    static CompiledFormula compile(Ptg[] ptgs, OperationEvaluationContext ec) {
+        Node root;
+        try {
+            root = new Compiler(ptgs, ec).compile();
+        } catch (NotCompilableException | NotImplementedException e) {
+            root = null;
+        }
+        return new CompiledFormula(ptgs, root);
+    }
+
+    Ptg[] getTokens() {
+        return _ptgs;
+    }
+
+    boolean isCompiled() {
+        return _root != null;
+    }
+
+    /**
+     * @return the unresolved result of the formula, like the last value on the stack
+     *  of {@link WorkbookEvaluator#evaluateFormula}
+     */
+    ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+        return _root.evaluate(evaluator, ec);
+    }
+
+    private static final class NotCompilableException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        NotCompilableException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Rebuilds the operation tree from the RPN tokens with a stack of nodes
+     */
+    private static final class Compiler {
+        private final Ptg[] _ptgs;
+        private final OperationEvaluationContext _ec;
+        private final List<Node> _stack = new ArrayList<>();
+
+        Compiler(Ptg[] ptgs, OperationEvaluationContext ec) {
+            _ptgs = ptgs;
+            _ec = ec;
+        }
+
+        Node compile() throws NotCompilableException {
+            EvaluationCell evalCell = _ec.getWorkbook().getSheet(_ec.getSheetIndex())
+                    .getCell(_ec.getRowIndex(), _ec.getColumnIndex());
+            if (evalCell == null || evalCell.isPartOfArrayFormulaGroup()) {
+                // array formulas evaluate the IF branches eagerly
+                throw new NotCompilableException("array formula");
+            }
+
+            for (int i = 0; i < _ptgs.length; i++) {
+                Ptg ptg = _ptgs[i];
+                if (ptg instanceof AttrPtg) {
+                    AttrPtg attrPtg = (AttrPtg) ptg;
+                    if (attrPtg.isOptimizedChoose()) {
+                        throw new NotCompilableException("optimized CHOOSE");
+                    }
+                    if (attrPtg.isOptimizedIf()) {
+                        // the condition is marked, the IF function is compiled once all branches are known
+                        Node condition = peek();
+                        checkUnmarked(condition);
+                        condition.ifAttrIndex = i;
+                        continue;
+                    }
+                    if (attrPtg.isSkip()) {
+                        Node branch = pop();
+                        checkUnmarked(branch);
+                        Node node = new MissingArgToBlankNode(branch);
+                        node.skipAttrIndex = i;
+                        push(node);
+                        continue;
+                    }
+                    if (attrPtg.isSum()) {
+                        // Excel prefers to encode 'SUM()' as a tAttr token
+                        push(createOperation(FuncVarPtg.SUM, i));
+                        continue;
+                    }
+                }
+                if (ptg instanceof ControlPtg || ptg instanceof MemFuncPtg ||
+                    ptg instanceof MemAreaPtg || ptg instanceof MemErrPtg) {
+                    continue;
+                }
+                if (ptg instanceof UnionPtg) {
+                    Node right = pop();
+                    Node left = pop();
+                    checkUnmarked(left, right);
+                    push(new UnionNode(left, right));
+                    continue;
+                }
+                if (ptg instanceof FuncVarPtg &&
+                    ((FuncVarPtg) ptg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_IF &&
+                    isOptimizedIf(((FuncVarPtg) ptg).getNumberOfOperands())) {
+                    push(createIf((FuncVarPtg) ptg, i));
+                    continue;
+                }
+                if (ptg instanceof OperationPtg) {
+                    push(createOperation((OperationPtg) ptg, i));
+                    continue;
+                }
+                push(createOperand(ptg));
+            }
+            if (_stack.size() != 1) {
+                throw new NotCompilableException("unbalanced formula");
+            }
+            Node root = pop();
+            checkUnmarked(root);
+            return root;
+        }
+
+        /**
+         * tAttrIf and tAttrSkip tokens are only expected around the arguments of an IF function
+         */
+        private static void checkUnmarked(Node... nodes) throws NotCompilableException {
+            for (Node node : nodes) {
+                if (node.ifAttrIndex >= 0 || node.skipAttrIndex >= 0) {
+                    throw new NotCompilableException("attribute tokens without IF");
+                }
+            }
+        }
+
+        private boolean isOptimizedIf(int numberOfOperands) {
+            return (numberOfOperands == 2 || numberOfOperands == 3) &&
+                    _stack.size() >= numberOfOperands &&
+                    _stack.get(_stack.size() - numberOfOperands).ifAttrIndex >= 0;
+        }
+
+        private Node createIf(FuncVarPtg ptg, int index) throws NotCompilableException {
+            int numberOfOperands = ptg.getNumberOfOperands();
+            Node falseBranch = numberOfOperands == 3 ? pop() : null;
+            Node trueBranch = pop();
+            Node condition = pop();
+            if (condition.skipAttrIndex >= 0 || trueBranch.ifAttrIndex >= 0 ||
+                (falseBranch != null && falseBranch.ifAttrIndex >= 0)) {
+                throw new NotCompilableException("unexpected IF attributes");
+            }
+
+            // check that the jumps of the interpreter lead to the same branches
+            int skipAfterTrue = jump(condition.ifAttrIndex, ((AttrPtg) _ptgs[condition.ifAttrIndex]).getData());
+            if (skipAfterTrue != trueBranch.skipAttrIndex ||
+                jump(skipAfterTrue, ((AttrPtg) _ptgs[skipAfterTrue]).getData() + 1) != index) {
+                throw new NotCompilableException("unexpected IF jumps");
+            }
+            if (falseBranch == null) {
+                // the interpreter only evaluates IF(condition, FALSE) when the IF function follows the skip
+                if (skipAfterTrue + 1 != index) {
+                    throw new NotCompilableException("unexpected IF jumps");
+                }
+            } else if (falseBranch.skipAttrIndex < 0 ||
+                jump(falseBranch.skipAttrIndex, ((AttrPtg) _ptgs[falseBranch.skipAttrIndex]).getData() + 1) != index) {
+                throw new NotCompilableException("unexpected IF jumps");
+            }
+            condition.ifAttrIndex = -1;
+            trueBranch.skipAttrIndex = -1;
+            if (falseBranch != null) {
+                falseBranch.skipAttrIndex = -1;
+            }
+            return new IfNode(condition, trueBranch, falseBranch, createOperation(ptg, index, new Node[0]));
+        }
+
+        /**
+         * @return the index of the token, where the interpreter continues after skipping the given distance
+         */
+        private int jump(int startIndex, int distInBytes) throws NotCompilableException {
+            int remBytes = distInBytes;
+            int index = startIndex;
+            while (remBytes > 0) {
+                index++;
+                if (index >= _ptgs.length) {
+                    throw new NotCompilableException("skip distance too far");
+                }
+                remBytes -= _ptgs[index].getSize();
+            }
+            if (remBytes < 0) {
+                throw new NotCompilableException("bad skip distance");
+            }
+            return index;
+        }
+
+        private Node createOperation(OperationPtg ptg, int index) throws NotCompilableException {
+            int numberOfOperands = ptg.getNumberOfOperands();
+            Node[] operands = new Node[numberOfOperands];
+            for (int j = numberOfOperands - 1; j >= 0; j--) {
+                operands[j] = pop();
+            }
+            OperationNode node = createOperation(ptg, index, operands);
+            return (ptg instanceof ValueOperatorPtg) ? fold(node) : node;
+        }
+
+        private OperationNode createOperation(OperationPtg ptg, int index, Node[] operands)
+        throws NotCompilableException {
+            checkUnmarked(operands);
+            Function func = OperationEvaluatorFactory.getFunction(ptg);
+            FreeRefFunction udfFunc = func == null ? OperationEvaluatorFactory.getFreeRefFunction(ptg) : null;
+            if (func == null && udfFunc == null) {
+                throw new NotCompilableException("unexpected operation " + ptg.getClass().getName());
+            }
+            return new OperationNode(func, udfFunc, operands, isArrayModeFunction(index));
+        }
+
+        /**
+         * The interpreter switches to array mode for an operation with area operands,
+         * if the next variable argument function in the token list supports it
+         */
+        private boolean isArrayModeFunction(int index) {
+            for (int i = index; i < _ptgs.length; i++) {
+                if (_ptgs[i] instanceof FuncVarPtg) {
+                    try {
+                        Function func = FunctionEval.getBasicFunction(((FuncVarPtg) _ptgs[i]).getFunctionIndex());
+                        return func instanceof ArrayMode;
+                    } catch (NotImplementedException e) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Operators only depend on their operands, so they are evaluated once, if all operands are literals
+         */
+        private Node fold(OperationNode node) {
+            for (Node operand : node._operands) {
+                if (!(operand instanceof ConstantNode) || ((ConstantNode) operand)._value == MissingArgEval.instance) {
+                    return node;
+                }
+            }
+            try {
+                ValueEval value = node.evaluate(null, _ec);
+                return value == null ? node : new ConstantNode(value);
+            } catch (RuntimeException e) {
+                // leave it to the evaluation to report the problem
+                return node;
+            }
+        }
+
+        private static Node createOperand(Ptg ptg) {
+            if (ptg instanceof IntPtg) {
+                return new ConstantNode(new NumberEval(((IntPtg) ptg).getValue()));
+            }
+            if (ptg instanceof NumberPtg) {
+                return new ConstantNode(new NumberEval(((NumberPtg) ptg).getValue()));
+            }
+            if (ptg instanceof StringPtg) {
+                return new ConstantNode(new StringEval(((StringPtg) ptg).getValue()));
+            }
+            if (ptg instanceof BoolPtg) {
+                return new ConstantNode(BoolEval.valueOf(((BoolPtg) ptg).getValue()));
+            }
+            if (ptg instanceof ErrPtg) {
+                return new ConstantNode(ErrorEval.valueOf(((ErrPtg) ptg).getErrorCode()));
+            }
+            if (ptg instanceof MissingArgPtg) {
+                return new ConstantNode(MissingArgEval.instance);
+            }
+            // references, names and arrays are resolved for each evaluation
+            return new OperandNode(ptg);
+        }
+
+        private void push(Node node) {
+            _stack.add(node);
+        }
+
+        private Node peek() throws NotCompilableException {
+            if (_stack.isEmpty()) {
+                throw new NotCompilableException("missing operand");
+            }
+            return _stack.get(_stack.size() - 1);
+        }
+
+        private Node pop() throws NotCompilableException {
+            Node node = peek();
+            _stack.remove(_stack.size() - 1);
+            return node;
+        }
+    }
+
+    private abstract static class Node {
+        /** the index of the tAttrIf token following this node, only used while compiling */
+        int ifAttrIndex = -1;
+        /** the index of the tAttrSkip token following this node, only used while compiling */
+        int skipAttrIndex = -1;
+
+        abstract ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec);
+    }
+
+    private static final class ConstantNode extends Node {
+        private final ValueEval _value;
+
+        ConstantNode(ValueEval value) {
+            _value = value;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            return _value;
+        }
+    }
+
+    private static final class OperandNode extends Node {
+        private final Ptg _ptg;
+
+        OperandNode(Ptg ptg) {
+            _ptg = ptg;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            return evaluator.getEvalForPtg(_ptg, ec);
+        }
+    }
+
+    private static final class OperationNode extends Node {
+        private final Function _func;
+        private final FreeRefFunction _udfFunc;
+        private final Node[] _operands;
+        private final boolean _arrayModeFunction;
+
+        OperationNode(Function func, FreeRefFunction udfFunc, Node[] operands, boolean arrayModeFunction) {
+            _func = func;
+            _udfFunc = udfFunc;
+            _operands = operands;
+            _arrayModeFunction = arrayModeFunction;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            int numops = _operands.length;
+            ValueEval[] ops = new ValueEval[numops];
+            for (int j = 0; j < numops; j++) {
+                ops[j] = _operands[j].evaluate(evaluator, ec);
+            }
+            return invoke(ops, ec);
+        }
+
+        ValueEval invoke(ValueEval[] ops, OperationEvaluationContext ec) {
+            boolean areaArg = false;
+            if (_arrayModeFunction) {
+                for (ValueEval op : ops) {
+                    if (op instanceof AreaEval) {
+                        areaArg = true;
+                        break;
+                    }
+                }
+            }
+            ec.setArrayMode(areaArg);
+            ValueEval result = (_func != null)
+                    ? OperationEvaluatorFactory.evaluate(_func, ops, ec)
+                    : _udfFunc.evaluate(ops, ec);
+            ec.setArrayMode(false);
+            if (result == null) {
+                throw new IllegalStateException("Evaluation result must not be null");
+            }
+            return result;
+        }
+    }
+
+    private static final class UnionNode extends Node {
+        private final Node _left;
+        private final Node _right;
+
+        UnionNode(Node left, Node right) {
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            ValueEval v1 = _left.evaluate(evaluator, ec);
+            ValueEval v2 = _right.evaluate(evaluator, ec);
+            return new RefListEval(v1, v2);
+        }
+    }
+
+    /**
+     * A branch of an optimized IF, which is followed by a tAttrSkip token
+     */
+    private static final class MissingArgToBlankNode extends Node {
+        private final Node _branch;
+
+        MissingArgToBlankNode(Node branch) {
+            _branch = branch;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            ValueEval value = _branch.evaluate(evaluator, ec);
+            return value == MissingArgEval.instance ? BlankEval.instance : value;
+        }
+    }
+
+    /**
+     * The IF function marked up with tAttrIf/tAttrSkip tokens, which only evaluates the selected branch
+     */
+    private static final class IfNode extends Node {
+        private final Node _condition;
+        private final Node _trueBranch;
+        private final Node _falseBranch;
+        /** the IF function, which is called, when the false branch is missing */
+        private final OperationNode _ifFunc;
+
+        IfNode(Node condition, Node trueBranch, Node falseBranch, OperationNode ifFunc) {
+            _condition = condition;
+            _trueBranch = trueBranch;
+            _falseBranch = falseBranch;
+            _ifFunc = ifFunc;
+        }
+
+        @Override
+        ValueEval evaluate(WorkbookEvaluator evaluator, OperationEvaluationContext ec) {
+            ValueEval arg0 = _condition.evaluate(evaluator, ec);
+            boolean evaluatedPredicate;
+            try {
+                evaluatedPredicate = IfFunc.evaluateFirstArg(arg0, ec.getRowIndex(), ec.getColumnIndex());
+            } catch (EvaluationException e) {
+                return e.getErrorEval();
+            }
+            if (evaluatedPredicate) {
+                return _trueBranch.evaluate(evaluator, ec);
+            }
+            if (_falseBranch != null) {
+                return _falseBranch.evaluate(evaluator, ec);
+            }
+            return _ifFunc.invoke(new ValueEval[]{ arg0, BoolEval.FALSE }, ec);
+        }
+    }
+}
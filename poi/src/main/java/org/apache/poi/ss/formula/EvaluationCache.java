@@ -17,6 +17,13 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
 import org.apache.poi.ss.formula.eval.BlankEval;
@@ -36,6 +43,8 @@ final class EvaluationCache {
 
     private final PlainCellCache _plainCellCache;
     private final FormulaCellCache _formulaCellCache;
+    /** the area indexes grouped by sheet, so that updates of blank cells only visit the indexes of their sheet */
+    private final Map<BookSheetKey, Map<AreaIndexCacheEntry.Key, AreaIndexCacheEntry>> _areaIndexCache;
     /** only used for testing. <code>null</code> otherwise */
     final IEvaluationListener _evaluationListener;
 
@@ -43,6 +52,7 @@ final class EvaluationCache {
         _evaluationListener = evaluationListener;
         _plainCellCache = new PlainCellCache();
         _formulaCellCache = new FormulaCellCache();
+        _areaIndexCache = new HashMap<>();
     }
 
     public void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
@@ -55,7 +65,7 @@ final class EvaluationCache {
 
         if (cell.getCellType() == CellType.FORMULA) {
             if (fcce == null) {
-                fcce = new FormulaCellCacheEntry();
+                fcce = new FormulaCellCacheEntry(cell.getIdentityKey());
                 if (pcce == null) {
                     if (_evaluationListener != null) {
                         _evaluationListener.onChangeFromBlankValue(sheetIndex, rowIndex,
@@ -68,6 +78,8 @@ final class EvaluationCache {
             } else {
                 fcce.recurseClearCachedFormulaResults(_evaluationListener);
                 fcce.clearFormulaEntry();
+                // the formula may have changed
+                fcce.setCompiledFormula(null);
             }
             if (pcce == null) {
                 // was formula cell before - no change of type
@@ -112,10 +124,59 @@ final class EvaluationCache {
         }
     }
 
+    /**
+     * Adds the identity keys of the formula cells, whose cached results will be cleared by
+     * {@link #notifyUpdateCell(int, int, EvaluationCell)} for the specified cell, to {@code result}.
+     * The specified cell itself is added, if it is a formula cell.
+     */
+    public void collectDependentCells(int bookIndex, int sheetIndex, EvaluationCell cell, Set<Object> result) {
+        int rowIndex = cell.getRowIndex();
+        int columnIndex = cell.getColumnIndex();
+        FormulaCellCacheEntry fcce = _formulaCellCache.get(cell);
+        PlainValueCellCacheEntry pcce = _plainCellCache.get(new Loc(bookIndex, sheetIndex, rowIndex, columnIndex));
+
+        Set<FormulaCellCacheEntry> dependents = new HashSet<>();
+        if (fcce != null) {
+            fcce.collectConsumingCells(dependents);
+        }
+        if (pcce != null) {
+            boolean unchanged = fcce == null && cell.getCellType() != CellType.FORMULA
+                && areValuesEqual(pcce.getValue(), WorkbookEvaluator.getValueFromNonFormulaCell(cell));
+            if (!unchanged) {
+                pcce.collectConsumingCells(dependents);
+            }
+        }
+        if (fcce == null && pcce == null) {
+            // the cell was blank before - see updateAnyBlankReferencingFormulas
+            final BookSheetKey bsk = new BookSheetKey(bookIndex, sheetIndex);
+            _formulaCellCache.applyOperation(entry -> {
+                if (entry.isUsedBlankCell(bsk, rowIndex, columnIndex) && dependents.add(entry)) {
+                    entry.collectConsumingCells(dependents);
+                }
+            });
+            for (AreaIndexCacheEntry indexEntry : getAreaIndexEntries(bsk)) {
+                FormulaCellCacheEntry entry = indexEntry.getCacheEntry();
+                if (entry.isUsedBlankCell(bsk, rowIndex, columnIndex)) {
+                    entry.collectConsumingCells(dependents);
+                }
+            }
+        }
+
+        if (cell.getCellType() == CellType.FORMULA) {
+            result.add(cell.getIdentityKey());
+        }
+        for (FormulaCellCacheEntry dependent : dependents) {
+            result.add(dependent.getIdentityKey());
+        }
+    }
+
     private void updateAnyBlankReferencingFormulas(int bookIndex, int sheetIndex,
             final int rowIndex, final int columnIndex) {
         final BookSheetKey bsk = new BookSheetKey(bookIndex, sheetIndex);
         _formulaCellCache.applyOperation(entry -> entry.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener));
+        for (AreaIndexCacheEntry indexEntry : getAreaIndexEntries(bsk)) {
+            indexEntry.getCacheEntry().notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
+        }
     }
 
     public PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
@@ -171,12 +232,24 @@ final class EvaluationCache {
         FormulaCellCacheEntry result = _formulaCellCache.get(cell);
         if (result == null) {
 
-            result = new FormulaCellCacheEntry();
+            result = new FormulaCellCacheEntry(cell.getIdentityKey());
             _formulaCellCache.put(cell, result);
         }
         return result;
     }
 
+    public AreaIndexCacheEntry getOrCreateAreaIndexEntry(int bookIndex, int sheetIndex, int firstRow,
+            int firstColumn, int lastRow, int lastColumn, Object indexType) {
+        return _areaIndexCache.computeIfAbsent(new BookSheetKey(bookIndex, sheetIndex), k -> new HashMap<>())
+                .computeIfAbsent(new AreaIndexCacheEntry.Key(firstRow, firstColumn, lastRow, lastColumn, indexType),
+                        k -> new AreaIndexCacheEntry());
+    }
+
+    private Collection<AreaIndexCacheEntry> getAreaIndexEntries(BookSheetKey bsk) {
+        Map<AreaIndexCacheEntry.Key, AreaIndexCacheEntry> entries = _areaIndexCache.get(bsk);
+        return entries == null ? Collections.emptyList() : entries.values();
+    }
+
     /**
      * Should be called whenever there are changes to input cells in the evaluated workbook.
      */
@@ -186,6 +259,7 @@ final class EvaluationCache {
         }
         _plainCellCache.clear();
         _formulaCellCache.clear();
+        _areaIndexCache.clear();
     }
     public void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
 
@@ -59,18 +59,72 @@ final class EvaluationTracker {
      * <br>
      * @return {@code false} if the specified cell is already being evaluated
      */
-    public boolean startEvaluate(FormulaCellCacheEntry cce) {
+    public boolean startEvaluate(FormulaCellCacheEntry cce, int bookIndex, int sheetIndex, int rowIndex, int columnIndex) {
+        return startEvaluate(cce, new CellEvaluationFrame(cce, bookIndex, sheetIndex, rowIndex, columnIndex));
+    }
+
+    /**
+     * Notifies this evaluation tracker that the index of an area is about to be built,
+     * see {@link #startEvaluate(FormulaCellCacheEntry, int, int, int, int)}.
+     */
+    public boolean startAreaIndex(FormulaCellCacheEntry cce) {
+        return startEvaluate(cce, new CellEvaluationFrame(cce));
+    }
+
+    private boolean startEvaluate(FormulaCellCacheEntry cce, CellEvaluationFrame frame) {
         if (cce == null) {
             throw new IllegalArgumentException("cellLoc must not be null");
         }
         if (_currentlyEvaluatingCells.contains(cce)) {
+            markCircularInputs(cce);
             return false;
         }
         _currentlyEvaluatingCells.add(cce);
-        _evaluationFrames.add(new CellEvaluationFrame(cce));
+        _evaluationFrames.add(frame);
         return true;
     }
 
+    /**
+     * An area index evaluates all cells of its area, also cells which the formula using the index
+     * wouldn't read otherwise. If one of these cells depends on a cell being evaluated below the
+     * index, the frames from the index upwards only see a preliminary value of that cell.
+     */
+    private void markCircularInputs(FormulaCellCacheEntry cce) {
+        int nFrames = _evaluationFrames.size();
+        int i = nFrames - 1;
+        while (i >= 0 && _evaluationFrames.get(i).getCCE() != cce) {
+            i--;
+        }
+        for (i++; i < nFrames; i++) {
+            if (_evaluationFrames.get(i).isAreaIndex()) {
+                for (; i < nFrames; i++) {
+                    _evaluationFrames.get(i).setCircularInput();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the result of the current frame depends on a circular reference,
+     *  which leads out of an area index
+     */
+    public boolean hasCircularInput() {
+        int nFrames = _evaluationFrames.size();
+        return nFrames > 0 && _evaluationFrames.get(nFrames - 1).hasCircularInput();
+    }
+
+    /**
+     * @return {@code true} if one of the cells currently being evaluated lies within the given area
+     */
+    public boolean isEvaluatingCellIn(int bookIndex, int sheetIndex, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        for (CellEvaluationFrame frame : _evaluationFrames) {
+            if (frame.isCellIn(bookIndex, sheetIndex, firstRow, firstColumn, lastRow, lastColumn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void updateCacheResult(ValueEval result) {
 
         int nFrames = _evaluationFrames.size();
@@ -87,6 +141,10 @@ final class EvaluationTracker {
             // safely be cached is that of the top evaluated cell.
             return;
         }
+        if (frame.hasCircularInput()) {
+            // the result is preliminary, see markCircularInputs()
+            return;
+        }
 
         frame.updateFormulaResult(result);
     }
@@ -93,6 +93,18 @@ public interface EvaluationWorkbook {
     EvaluationName getName(String name, int sheetIndex);
     String resolveNameXText(NameXPtg ptg);
     Ptg[] getFormulaTokens(EvaluationCell cell);
+    /**
+     * Returns the tokens for evaluating the cell formula. Unlike {@link #getFormulaTokens(EvaluationCell)},
+     * the tokens of a shared formula may be returned unconverted, i.e. with
+     * {@link org.apache.poi.ss.formula.ptg.RefNPtg RefNPtg} and {@link org.apache.poi.ss.formula.ptg.AreaNPtg AreaNPtg}
+     * references relative to the cell, and may be the same for all cells of the shared formula.
+     *
+     * @return the tokens of the cell formula, which must not be modified
+     * @since POI 5.4.1
+     */
+    default Ptg[] getSharedFormulaTokens(EvaluationCell cell) {
+        return getFormulaTokens(cell);
+    }
     UDFFinder getUDFFinder();
     SpreadsheetVersion getSpreadsheetVersion();
 
@@ -40,10 +40,35 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
 
     private FormulaUsedBlankCellSet _usedBlankCellGroup;
 
+    /** the {@link EvaluationCell#getIdentityKey() identity key} of the formula cell */
+    private final Object _identityKey;
+
+    /** the compiled formula of the cell, if formulas are compiled */
+    private CompiledFormula _compiledFormula;
+
     public FormulaCellCacheEntry() {
-        // leave fields un-set
+        this(null);
+    }
+
+    public FormulaCellCacheEntry(Object identityKey) {
+        _identityKey = identityKey;
+    }
+
+    /**
+     * @return the identity key of the formula cell or {@code null} if unknown
+     */
+    public Object getIdentityKey() {
+        return _identityKey;
     }
     
+    public CompiledFormula getCompiledFormula() {
+        return _compiledFormula;
+    }
+
+    public void setCompiledFormula(CompiledFormula compiledFormula) {
+        _compiledFormula = compiledFormula;
+    }
+
     public boolean isInputSensitive() {
         if (_sensitiveInputCells != null) {
             if (_sensitiveInputCells.length > 0 ) {
@@ -111,12 +136,14 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
         _usedBlankCellGroup = usedBlankAreas;
     }
 
+    public boolean isUsedBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex) {
+        return _usedBlankCellGroup != null && _usedBlankCellGroup.containsCell(bsk, rowIndex, columnIndex);
+    }
+
     public void notifyUpdatedBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex, IEvaluationListener evaluationListener) {
-        if (_usedBlankCellGroup != null) {
-            if (_usedBlankCellGroup.containsCell(bsk, rowIndex, columnIndex)) {
-                clearFormulaEntry();
-                recurseClearCachedFormulaResults(evaluationListener);
-            }
+        if (isUsedBlankCell(bsk, rowIndex, columnIndex)) {
+            clearFormulaEntry();
+            recurseClearCachedFormulaResults(evaluationListener);
         }
     }
 }
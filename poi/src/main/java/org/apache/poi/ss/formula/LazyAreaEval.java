@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.AreaEvalBase;
 import org.apache.poi.ss.formula.eval.ValueEval;
@@ -27,7 +29,7 @@ import org.apache.poi.ss.util.CellReference;
 /**
  * Provides Lazy Evaluation to 3D Ranges
  */
-final class LazyAreaEval extends AreaEvalBase {
+final class LazyAreaEval extends AreaEvalBase implements AreaIndexProvider {
     private final SheetRangeEvaluator _evaluator;
 
     LazyAreaEval(AreaI ptg, SheetRangeEvaluator evaluator) {
@@ -54,6 +56,15 @@ final class LazyAreaEval extends AreaEvalBase {
         return _evaluator.getEvalForCell(sheetIndex, rowIx, colIx);
     }
 
+    @Override
+    public <T> T getIndex(Object indexType, Function<ValueEval[], T> builder) {
+        if (getFirstSheetIndex() != getLastSheetIndex()) {
+            return null;
+        }
+        return _evaluator.getSheetEvaluator(getFirstSheetIndex()).getAreaIndex(
+                getFirstRow(), getFirstColumn(), getLastRow(), getLastColumn(), indexType, builder);
+    }
+
     @Override
     public AreaEval offset(int relFirstRowIx, int relLastRowIx, int relFirstColIx, int relLastColIx) {
         AreaI area = new OffsetArea(getFirstRow(), getFirstColumn(),
@@ -101,41 +101,64 @@ final class OperationEvaluatorFactory {
         if(ptg == null) {
             throw new IllegalArgumentException("ptg must not be null");
         }
+        Function result = getFunction(ptg);
+        if (result != null) {
+            return evaluate(result, args, ec);
+        }
+        FreeRefFunction udfFunc = getFreeRefFunction(ptg);
+        if (udfFunc != null) {
+            return udfFunc.evaluate(args, ec);
+        }
+
+        throw new IllegalStateException("Unexpected operation ptg class (" + ptg.getClass().getName() + ")");
+    }
+
+    /**
+     * @return the function evaluating the operation or {@code null} if the operation
+     *  is evaluated by a {@link #getFreeRefFunction(OperationPtg) FreeRefFunction}
+     * @throws org.apache.poi.ss.formula.eval.NotImplementedException if the function is not supported
+     */
+    static Function getFunction(OperationPtg ptg) {
         Function result = _instancesByPtgClass.get(ptg.getSid());
-        FreeRefFunction udfFunc = null;
-        if (result == null) {
-            if (ptg instanceof AbstractFunctionPtg) {
-                AbstractFunctionPtg fptg = (AbstractFunctionPtg)ptg;
-                int functionIndex = fptg.getFunctionIndex();
-                switch (functionIndex) {
-                    case FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT:
-                        udfFunc = Indirect.instance;
-                        break;
-                    case FunctionMetadataRegistry.FUNCTION_INDEX_EXTERNAL:
-                        udfFunc = UserDefinedFunction.instance;
-                        break;
-                    default:
-                        result = FunctionEval.getBasicFunction(functionIndex);
-                        break;
-                }
+        if (result == null && ptg instanceof AbstractFunctionPtg) {
+            int functionIndex = ((AbstractFunctionPtg)ptg).getFunctionIndex();
+            if (functionIndex != FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT &&
+                functionIndex != FunctionMetadataRegistry.FUNCTION_INDEX_EXTERNAL) {
+                result = FunctionEval.getBasicFunction(functionIndex);
             }
         }
-        if (result != null) {
+        return result;
+    }
 
-            if (result instanceof ArrayFunction) {
-                ArrayFunction func = (ArrayFunction) result;
-                ValueEval eval = evaluateArrayFunction(func, args, ec);
-                if (eval != null) {
-                    return eval;
-                }
+    /**
+     * @return the function evaluating INDIRECT or external functions, otherwise {@code null}
+     */
+    static FreeRefFunction getFreeRefFunction(OperationPtg ptg) {
+        if (ptg instanceof AbstractFunctionPtg) {
+            switch (((AbstractFunctionPtg)ptg).getFunctionIndex()) {
+                case FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT:
+                    return Indirect.instance;
+                case FunctionMetadataRegistry.FUNCTION_INDEX_EXTERNAL:
+                    return UserDefinedFunction.instance;
+                default:
+                    break;
             }
+        }
+        return null;
+    }
 
-            return  result.evaluate(args, ec.getRowIndex(), ec.getColumnIndex());
-        } else if (udfFunc != null) {
-            return udfFunc.evaluate(args, ec);
+    /**
+     * evaluates a function, which has been looked up by {@link #getFunction(OperationPtg)}
+     */
+    static ValueEval evaluate(Function func, ValueEval[] args, OperationEvaluationContext ec) {
+        if (func instanceof ArrayFunction) {
+            ValueEval eval = evaluateArrayFunction((ArrayFunction) func, args, ec);
+            if (eval != null) {
+                return eval;
+            }
         }
 
-        throw new IllegalStateException("Unexpected operation ptg class (" + ptg.getClass().getName() + ")");
+        return func.evaluate(args, ec.getRowIndex(), ec.getColumnIndex());
     }
 
     static ValueEval evaluateArrayFunction(ArrayFunction func, ValueEval[] args,
@@ -77,7 +77,7 @@ public class SharedFormula {
         return newPtgStack;
     }
 
-    private int fixupRelativeColumn(int currentcolumn, int column, boolean relative) {
+    /* package */ int fixupRelativeColumn(int currentcolumn, int column, boolean relative) {
         if(relative) {
             // mask out upper bits to produce 'wrapping' at the maximum column ("IV" for .xls and  "XFD" for .xlsx)
             return (column + currentcolumn) & _columnWrappingMask;
@@ -85,7 +85,7 @@ public class SharedFormula {
         return column;
     }
 
-    private int fixupRelativeRow(int currentrow, int row, boolean relative) {
+    /* package */ int fixupRelativeRow(int currentrow, int row, boolean relative) {
         if(relative) {
             return (row+currentrow) & _rowWrappingMask;
         }
@@ -0,0 +1,209 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheetRange;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+
+/**
+ * Collects the cross-sheet references of formulas and groups the sheets of a workbook
+ * into sets of sheets, which can be evaluated independently of each other.
+ * <p>
+ * Two sheets end up in the same group, if a formula on one of them refers - directly or
+ * via a defined name - to the other one. Formulas which can reach arbitrary sheets
+ * (i.e. {@code INDIRECT}) or whose references can't be resolved put all sheets into one group.
+ * References to other workbooks are only recorded, as they require the
+ * {@link CollaboratingWorkbooksEnvironment} of the original evaluator.
+ */
+final class SheetDependencyGraph {
+    /** names nested deeper than this are treated as unresolvable */
+    private static final int MAX_NAME_DEPTH = 32;
+
+    private final EvaluationWorkbook _workbook;
+    /** union-find parents of the sheet indexes */
+    private final int[] _parent;
+    private boolean _external;
+
+    SheetDependencyGraph(EvaluationWorkbook workbook, int numberOfSheets) {
+        _workbook = workbook;
+        _parent = new int[numberOfSheets];
+        for (int i = 0; i < numberOfSheets; i++) {
+            _parent[i] = i;
+        }
+    }
+
+    /**
+     * Records the sheets referenced by the given formula tokens
+     *
+     * @param sheetIndex the index of the sheet containing the formula
+     * @param ptgs the parsed formula
+     */
+    void addFormula(int sheetIndex, Ptg[] ptgs) {
+        addTokens(sheetIndex, ptgs, 0);
+    }
+
+    /**
+     * @return {@code true}, if any of the added formulas refers to another workbook
+     */
+    boolean hasExternalReferences() {
+        return _external;
+    }
+
+    /**
+     * @return the indexes of the sheets which can be evaluated independently, grouped by their dependencies.
+     *  The groups and the sheets within a group are in ascending sheet order.
+     */
+    List<List<Integer>> getIndependentGroups() {
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < _parent.length; i++) {
+            groups.computeIfAbsent(find(i), k -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private void addTokens(int sheetIndex, Ptg[] ptgs, int depth) {
+        if (depth > MAX_NAME_DEPTH) {
+            linkAll();
+            return;
+        }
+        for (Ptg ptg : ptgs) {
+            if (ptg instanceof Pxg) {
+                addPxg(sheetIndex, (Pxg)ptg, depth);
+            } else if (ptg instanceof ExternSheetReferenceToken) {
+                addExternSheetReference(sheetIndex, ((ExternSheetReferenceToken)ptg).getExternSheetIndex());
+            } else if (ptg instanceof NamePtg) {
+                addName(sheetIndex, _workbook.getName((NamePtg)ptg), depth);
+            } else if (ptg instanceof NameXPtg) {
+                addNameX(sheetIndex, (NameXPtg)ptg, depth);
+            } else if (ptg instanceof AbstractFunctionPtg &&
+                    ((AbstractFunctionPtg)ptg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT) {
+                linkAll();
+            }
+        }
+    }
+
+    private void addPxg(int sheetIndex, Pxg pxg, int depth) {
+        if (pxg.getExternalWorkbookNumber() > 0) {
+            _external = true;
+            return;
+        }
+        if (pxg instanceof NameXPxg) {
+            NameXPxg nameX = (NameXPxg)pxg;
+            int nameSheet = (nameX.getSheetName() == null) ? -1 : _workbook.getSheetIndex(nameX.getSheetName());
+            addName(sheetIndex, _workbook.getName(nameX.getNameName(), nameSheet), depth);
+            return;
+        }
+        String lastSheetName = (pxg instanceof Pxg3D) ? ((Pxg3D)pxg).getLastSheetName() : null;
+        linkRange(sheetIndex, pxg.getSheetName(), lastSheetName);
+    }
+
+    private void addExternSheetReference(int sheetIndex, int externSheetIndex) {
+        ExternalSheet externalSheet = _workbook.getExternalSheet(externSheetIndex);
+        if (externalSheet == null) {
+            // unresolvable - be conservative
+            linkAll();
+        } else if (externalSheet.getWorkbookName() != null) {
+            _external = true;
+        } else if (externalSheet instanceof ExternalSheetRange) {
+            ExternalSheetRange range = (ExternalSheetRange)externalSheet;
+            linkRange(sheetIndex, range.getFirstSheetName(), range.getLastSheetName());
+        } else {
+            linkRange(sheetIndex, externalSheet.getSheetName(), null);
+        }
+    }
+
+    private void addNameX(int sheetIndex, NameXPtg nameX, int depth) {
+        // see OperationEvaluationContext.getNameXEval(NameXPtg)
+        ExternalSheet externalSheet = _workbook.getExternalSheet(nameX.getSheetRefIndex());
+        if (externalSheet != null && externalSheet.getWorkbookName() != null) {
+            _external = true;
+            return;
+        }
+        String name = _workbook.resolveNameXText(nameX);
+        int sheetNameAt = name.indexOf('!');
+        EvaluationName evalName = (sheetNameAt > -1)
+            ? _workbook.getName(name.substring(sheetNameAt + 1), _workbook.getSheetIndex(name.substring(0, sheetNameAt)))
+            : _workbook.getName(name, -1);
+        // no name means it's an add-in function
+        addName(sheetIndex, evalName, depth);
+    }
+
+    private void addName(int sheetIndex, EvaluationName name, int depth) {
+        if (name == null || name.isFunctionName() || !name.hasFormula()) {
+            return;
+        }
+        addTokens(sheetIndex, name.getNameDefinition(), depth+1);
+    }
+
+    private void linkRange(int sheetIndex, String firstSheetName, String lastSheetName) {
+        if (firstSheetName == null) {
+            return;
+        }
+        int first = _workbook.getSheetIndex(firstSheetName);
+        int last = (lastSheetName == null) ? first : _workbook.getSheetIndex(lastSheetName);
+        if (first == -1 || last == -1) {
+            // evaluates to #REF!, so there's no dependency
+            return;
+        }
+        for (int i = Math.min(first, last); i <= Math.max(first, last); i++) {
+            union(sheetIndex, i);
+        }
+    }
+
+    private void linkAll() {
+        for (int i = 1; i < _parent.length; i++) {
+            union(0, i);
+        }
+    }
+
+    private int find(int sheetIndex) {
+        int root = sheetIndex;
+        while (_parent[root] != root) {
+            root = _parent[root];
+        }
+        // path compression
+        for (int i = sheetIndex; _parent[i] != root; ) {
+            int next = _parent[i];
+            _parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    private void union(int sheetIndex1, int sheetIndex2) {
+        int root1 = find(sheetIndex1);
+        int root2 = find(sheetIndex2);
+        if (root1 != root2) {
+            // keep the lower index as root, so the groups are ordered by their first sheet
+            _parent[Math.max(root1, root2)] = Math.min(root1, root2);
+        }
+    }
+}
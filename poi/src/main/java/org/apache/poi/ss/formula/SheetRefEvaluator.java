@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.FuncVarPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -48,6 +50,15 @@ final class SheetRefEvaluator {
         return _bookEvaluator.evaluateReference(getSheet(), _sheetIndex, rowIndex, columnIndex, _tracker);
     }
 
+    /**
+     * @see AreaIndexProvider#getIndex(Object, Function)
+     */
+    public <T> T getAreaIndex(int firstRow, int firstColumn, int lastRow, int lastColumn,
+            Object indexType, Function<ValueEval[], T> builder) {
+        return _bookEvaluator.getAreaIndex(this, _sheetIndex, firstRow, firstColumn, lastRow, lastColumn,
+                indexType, builder, _tracker);
+    }
+
     private EvaluationSheet getSheet() {
         if (_sheet == null) {
             _sheet = _bookEvaluator.getSheet(_sheetIndex);
@@ -66,7 +77,7 @@ final class SheetRefEvaluator {
         EvaluationCell cell = getSheet().getCell(rowIndex, columnIndex);
         if(cell != null && cell.getCellType() == CellType.FORMULA){
             EvaluationWorkbook wb = _bookEvaluator.getWorkbook();
-            for(Ptg ptg : wb.getFormulaTokens(cell)){
+            for(Ptg ptg : wb.getSharedFormulaTokens(cell)){
                 if(ptg instanceof FuncVarPtg){
                     FuncVarPtg f = (FuncVarPtg)ptg;
                     if("SUBTOTAL".equals(f.getName())) {
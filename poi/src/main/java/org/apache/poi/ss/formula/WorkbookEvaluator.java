@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.TreeSet;
 
@@ -69,9 +70,18 @@ public final class WorkbookEvaluator {
     private CollaboratingWorkbooksEnvironment _collaboratingWorkbookEnvironment;
     private final IStabilityClassifier _stabilityClassifier;
     private final AggregatingUDFFinder _udfFinder;
+    /**
+     * resolves the relative references of shared formulas, which are evaluated without conversion
+     */
+    private final SharedFormula _sharedFormula;
 
     private boolean _ignoreMissingWorkbooks;
 
+    /**
+     * whether the formulas of the cells are compiled and kept in the evaluation cache
+     */
+    private boolean _compileFormulas;
+
     /**
      * whether print detailed messages about the next formula evaluation
      */
@@ -79,6 +89,12 @@ public final class WorkbookEvaluator {
 
     // special logger for formula evaluation output (because of possibly very large output)
     private static final Logger EVAL_LOG = PoiLogManager.getLogger("POI.FormulaEval");
+
+    /**
+     * The maximum number of cells of an area, which is indexed for lookups
+     */
+    /* package */ static final int MAX_AREA_INDEX_SIZE = 100_000;
+
     // current indent level for evaluation; negative value for no output
     private int dbgEvaluationOutputIndent = -1;
 
@@ -99,6 +115,7 @@ public final class WorkbookEvaluator {
         _collaboratingWorkbookEnvironment = CollaboratingWorkbooksEnvironment.EMPTY;
         _workbookIx = 0;
         _stabilityClassifier = stabilityClassifier;
+        _sharedFormula = workbook == null ? null : new SharedFormula(workbook.getSpreadsheetVersion());
 
         AggregatingUDFFinder defaultToolkit = // workbook can be null in unit tests
                 workbook == null ? null : (AggregatingUDFFinder) workbook.getUDFFinder();
@@ -158,6 +175,25 @@ public final class WorkbookEvaluator {
         return _evaluationListener;
     }
 
+    /**
+     * Creates an evaluator with the same settings as this one, but with its own evaluation cache.
+     * As long as the workbooks aren't modified, the new evaluator can be used by another thread
+     * concurrently to this evaluator.
+     * The copy isn't attached to the {@link CollaboratingWorkbooksEnvironment} of this evaluator.
+     *
+     * @param workbook another instance of the evaluation workbook of the same underlying workbook
+     * @return the new evaluator
+     *
+     * @since POI 5.4.1
+     */
+    public WorkbookEvaluator copyFor(EvaluationWorkbook workbook) {
+        // the UDFs of this evaluator are already registered with the underlying workbook
+        WorkbookEvaluator copy = new WorkbookEvaluator(workbook, null, _stabilityClassifier, null);
+        copy._ignoreMissingWorkbooks = _ignoreMissingWorkbooks;
+        copy._compileFormulas = _compileFormulas;
+        return copy;
+    }
+
     /**
      * Should be called whenever there are changes to input cells in the evaluated workbook.
      * Failure to call this method after changing cell values will cause incorrect behaviour
@@ -178,6 +214,17 @@ public final class WorkbookEvaluator {
         _cache.notifyUpdateCell(_workbookIx, sheetIndex, cell);
     }
 
+    /**
+     * Like {@link #notifyUpdateCell(EvaluationCell)}, but also adds the identity keys of the formula
+     * cells, which need to be recalculated because of the change, to {@code dirtyCells}.
+     * This includes the specified cell, if it is a formula cell.
+     */
+    public void notifyUpdateCell(EvaluationCell cell, Set<Object> dirtyCells) {
+        int sheetIndex = getSheetIndex(cell.getSheet());
+        _cache.collectDependentCells(_workbookIx, sheetIndex, cell, dirtyCells);
+        _cache.notifyUpdateCell(_workbookIx, sheetIndex, cell);
+    }
+
     /**
      * Should be called to tell the cell value cache that the specified cell has just been
      * deleted.
@@ -251,20 +298,25 @@ public final class WorkbookEvaluator {
         IEvaluationListener evalListener = _evaluationListener;
         ValueEval result;
         if (cce.getValue() == null) {
-            if (!tracker.startEvaluate(cce)) {
+            if (!tracker.startEvaluate(cce, _workbookIx, sheetIndex, rowIndex, columnIndex)) {
                 return ErrorEval.CIRCULAR_REF_ERROR;
             }
 
             try {
 
-                Ptg[] ptgs = _workbook.getFormulaTokens(srcCell);
                 OperationEvaluationContext ec = new OperationEvaluationContext
                         (this, _workbook, sheetIndex, rowIndex, columnIndex, tracker);
+                CompiledFormula compiled = _compileFormulas ? cce.getCompiledFormula() : null;
+                if (_compileFormulas && compiled == null) {
+                    compiled = CompiledFormula.compile(_workbook.getSharedFormulaTokens(srcCell), ec);
+                    cce.setCompiledFormula(compiled);
+                }
+                Ptg[] ptgs = compiled == null ? _workbook.getSharedFormulaTokens(srcCell) : compiled.getTokens();
                 if (evalListener == null) {
-                    result = evaluateFormula(ec, ptgs);
+                    result = evaluateFormula(ec, ptgs, compiled);
                 } else {
                     evalListener.onStartEvaluate(srcCell, cce);
-                    result = evaluateFormula(ec, ptgs);
+                    result = evaluateFormula(ec, ptgs, compiled);
                     evalListener.onEndEvaluate(cce, result);
                 }
 
@@ -368,6 +420,17 @@ public final class WorkbookEvaluator {
     }
 
 
+    /**
+     * Evaluates the compiled formula, unless the debug output is enabled or the formula couldn't be compiled
+     */
+    private ValueEval evaluateFormula(OperationEvaluationContext ec, Ptg[] ptgs, CompiledFormula compiled) {
+        if (compiled == null || !compiled.isCompiled() || dbgEvaluationOutputForNextEval || dbgEvaluationOutputIndent > 0) {
+            return evaluateFormula(ec, ptgs);
+        }
+        ValueEval value = compiled.evaluate(this, ec);
+        return ec.isSingleValue() ? dereferenceResult(value, ec) : value;
+    }
+
     // visibility raised for testing
     @Internal
     /* package */ ValueEval evaluateFormula(OperationEvaluationContext ec, Ptg[] ptgs) {
@@ -663,12 +726,12 @@ public final class WorkbookEvaluator {
 
     /**
      * returns an appropriate Eval impl instance for the Ptg. The Ptg must be
-     * one of: Area3DPtg, AreaPtg, ReferencePtg, Ref3DPtg, IntPtg, NumberPtg,
+     * one of: Area3DPtg, AreaPtg, ReferencePtg, Ref3DPtg, AreaNPtg, RefNPtg, IntPtg, NumberPtg,
      * StringPtg, BoolPtg
      * <p>
      * special Note: OperationPtg subtypes cannot be passed here!
      */
-    private ValueEval getEvalForPtg(Ptg ptg, OperationEvaluationContext ec) {
+    /* package */ ValueEval getEvalForPtg(Ptg ptg, OperationEvaluationContext ec) {
         //  consider converting all these (ptg instanceof XxxPtg) expressions to (ptg.getClass() == XxxPtg.class)
 
         if (ptg instanceof NamePtg) {
@@ -728,6 +791,23 @@ public final class WorkbookEvaluator {
             AreaPtg aptg = (AreaPtg) ptg;
             return ec.getAreaEval(aptg.getFirstRow(), aptg.getFirstColumn(), aptg.getLastRow(), aptg.getLastColumn());
         }
+        // tokens of shared formulas, relative to the evaluated cell
+        if (ptg instanceof RefNPtg) {
+            RefNPtg rptg = (RefNPtg) ptg;
+            int row = _sharedFormula.fixupRelativeRow(ec.getRowIndex(), rptg.getRow(), rptg.isRowRelative());
+            int col = _sharedFormula.fixupRelativeColumn(ec.getColumnIndex(), rptg.getColumn(), rptg.isColRelative());
+            return ec.getRefEval(row, col);
+        }
+        if (ptg instanceof AreaNPtg) {
+            AreaNPtg aptg = (AreaNPtg) ptg;
+            int rowIx = ec.getRowIndex();
+            int colIx = ec.getColumnIndex();
+            return ec.getAreaEval(
+                    _sharedFormula.fixupRelativeRow(rowIx, aptg.getFirstRow(), aptg.isFirstRowRelative()),
+                    _sharedFormula.fixupRelativeColumn(colIx, aptg.getFirstColumn(), aptg.isFirstColRelative()),
+                    _sharedFormula.fixupRelativeRow(rowIx, aptg.getLastRow(), aptg.isLastRowRelative()),
+                    _sharedFormula.fixupRelativeColumn(colIx, aptg.getLastColumn(), aptg.isLastColRelative()));
+        }
 
         if (ptg instanceof ArrayPtg) {
             ArrayPtg aptg = (ArrayPtg) ptg;
@@ -791,6 +871,72 @@ public final class WorkbookEvaluator {
         return evaluateAny(cell, sheetIndex, rowIndex, columnIndex, tracker);
     }
 
+    /**
+     * Used by the lazy area evals to get an index over the values of an area.
+     * The index is built once and kept in the cache, with the cells of the area as its inputs.
+     * The formula currently evaluated is made dependent on the index, i.e. its cached result is
+     * cleared together with the index, when one of the cells of the area changes.
+     *
+     * The cells of the area are evaluated up front, also those the caller wouldn't read in a linear scan.
+     * So the area isn't indexed, if it contains a cell currently being evaluated or if one of its cells
+     * depends on such a cell. The results of the cells depending on it aren't cached in this case either.
+     * Whole columns and areas of more than {@link #MAX_AREA_INDEX_SIZE} cells aren't indexed, as building
+     * the index could take much longer than a linear scan, which stops at the first match.
+     *
+     * @return the index or {@code null} if the area can't be indexed, because one of its cells
+     *  is part of a circular reference or can't be evaluated, because the area is too large,
+     *  or if an evaluation listener traces the evaluation cell by cell
+     * @see AreaIndexProvider#getIndex(Object, java.util.function.Function)
+     */
+    /* package */ <T> T getAreaIndex(SheetRefEvaluator sre, int sheetIndex, int firstRow, int firstColumn,
+            int lastRow, int lastColumn, Object indexType, java.util.function.Function<ValueEval[], T> builder, EvaluationTracker tracker) {
+        if (_evaluationListener != null) {
+            // the listener only knows about cache entries of cells
+            return null;
+        }
+        int width = lastColumn - firstColumn + 1;
+        long size = (long)(lastRow - firstRow + 1) * width;
+        if (size > MAX_AREA_INDEX_SIZE || (firstRow == 0 && lastRow == sre.getMaxRowNum())) {
+            return null;
+        }
+        AreaIndexCacheEntry entry = _cache.getOrCreateAreaIndexEntry(_workbookIx, sheetIndex,
+                firstRow, firstColumn, lastRow, lastColumn, indexType);
+        FormulaCellCacheEntry cce = entry.getCacheEntry();
+        @SuppressWarnings("unchecked")
+        T index = (T)entry.getIndex();
+        if (index == null) {
+            // a built index implies, that none of its cells is being evaluated, as their results are cached
+            if (tracker.isEvaluatingCellIn(_workbookIx, sheetIndex, firstRow, firstColumn, lastRow, lastColumn)) {
+                // the area refers to a cell, whose value is not known yet
+                return null;
+            }
+            if (!tracker.startAreaIndex(cce)) {
+                return null;
+            }
+            try {
+                ValueEval[] values = new ValueEval[(int)size];
+                for (int i = 0; i < values.length; i++) {
+                    ValueEval value = sre.getEvalForCell(firstRow + i / width, firstColumn + i % width);
+                    if (value == ErrorEval.CIRCULAR_REF_ERROR || tracker.hasCircularInput()) {
+                        // the value of the cell is not final yet
+                        return null;
+                    }
+                    values[i] = value;
+                }
+                index = builder.apply(values);
+                entry.setIndex(index);
+                tracker.updateCacheResult(BlankEval.instance);
+            } catch (RuntimeException e) {
+                // only fail, if the caller reads the failing cell itself
+                return null;
+            } finally {
+                tracker.endEvaluate(cce);
+            }
+        }
+        tracker.acceptFormulaDependency(cce);
+        return index;
+    }
+
     public FreeRefFunction findUserDefinedFunction(String functionName) {
         return _udfFinder.findFunction(functionName);
     }
@@ -946,6 +1092,28 @@ public final class WorkbookEvaluator {
         return _ignoreMissingWorkbooks;
     }
 
+    /**
+     * Whether the formulas of the evaluated cells are compiled into evaluation plans, which are kept
+     * in the evaluation cache together with the cell results. This speeds up repeated evaluations of
+     * the same formulas, e.g. when only input cells are changed and the dependents are recalculated
+     * via {@link #notifyUpdateCell(EvaluationCell)}. The plans are dropped when a formula cell is
+     * updated or by {@link #clearAllCachedResultValues()}.
+     *
+     * @param compileFormulas {@code true} to compile the formulas, defaults to {@code false}
+     * @since POI 5.4.1
+     */
+    public void setCompileFormulas(boolean compileFormulas) {
+        _compileFormulas = compileFormulas;
+    }
+
+    /**
+     * @return whether the formulas of the evaluated cells are compiled
+     * @since POI 5.4.1
+     */
+    public boolean isCompileFormulas() {
+        return _compileFormulas;
+    }
+
     /**
      * Return a collection of functions that POI can evaluate
      *
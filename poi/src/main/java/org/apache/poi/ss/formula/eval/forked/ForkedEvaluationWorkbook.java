@@ -103,6 +103,15 @@ final class ForkedEvaluationWorkbook implements EvaluationWorkbook {
         return _masterBook.getFormulaTokens(cell);
     }
 
+    @Override
+    public Ptg[] getSharedFormulaTokens(EvaluationCell cell) {
+        if (cell instanceof ForkedEvaluationCell) {
+            // doesn't happen yet because formulas cannot be modified from the master workbook
+            throw new IllegalStateException("Updated formulas not supported yet");
+        }
+        return _masterBook.getSharedFormulaTokens(cell);
+    }
+
     @Override
     public EvaluationName getName(NamePtg namePtg) {
         return _masterBook.getName(namePtg);
@@ -27,6 +27,7 @@ import org.apache.poi.ss.formula.eval.RefEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.functions.CountUtils.I_MatchPredicate;
 import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
+import org.apache.poi.util.IntList;
 
 /**
  * Base class for SUMIFS() and COUNTIFS() functions, as they share much of the same logic, 
@@ -133,6 +134,11 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
      */
     private static ValueEval aggregateMatchingCells(Aggregator aggregator, AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates)
             throws EvaluationException {
+        CriteriaIndex[] indexes = getCriteriaIndexes(ranges, predicates);
+        if (indexes != null) {
+            return aggregateIndexedCells(aggregator, sumRange, ranges[0].getWidth(), indexes, predicates);
+        }
+
         int height = ranges[0].getHeight();
         int width = ranges[0].getWidth();
 
@@ -167,6 +173,68 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
         return aggregator.getResult();
     }
 
+    /**
+     * @return the indexes of the criteria ranges or {@code null}, if the cells need to be tested one by one
+     */
+    private static CriteriaIndex[] getCriteriaIndexes(AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        for (I_MatchPredicate mp : predicates) {
+            if (mp == null) {
+                // nothing matches
+                return null;
+            }
+        }
+        CriteriaIndex[] indexes = new CriteriaIndex[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            indexes[i] = CriteriaIndex.getIndex(ranges[i]);
+            if (indexes[i] == null) {
+                return null;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Like {@link #aggregateMatchingCells(Aggregator, AreaEval, AreaEval[], I_MatchPredicate[])},
+     * but only tests the cells, which are preselected by the most selective criterion, in the same order.
+     */
+    private static ValueEval aggregateIndexedCells(Aggregator aggregator, AreaEval sumRange, int width,
+            CriteriaIndex[] indexes, I_MatchPredicate[] predicates) throws EvaluationException {
+        IntList candidates = null;
+        for (int i = 0; i < indexes.length; i++) {
+            IntList list = indexes[i].getCandidates(predicates[i]);
+            if (list != null && (candidates == null || list.size() < candidates.size())) {
+                candidates = list;
+            }
+        }
+
+        int count = candidates == null ? indexes[0].getSize() : candidates.size();
+        for (int j = 0; j < count; j++) {
+            int index = candidates == null ? j : candidates.get(j);
+
+            boolean matches = true;
+            for (int i = 0; i < indexes.length; i++) {
+                if (!predicates[i].matches(indexes[i].getValue(index))) {
+                    matches = false;
+                    break;
+                }
+            }
+
+            if (matches) {
+                if (sumRange != null) {
+                    // only the matching cells of the sum range are evaluated, like in the cell by cell test
+                    ValueEval value = sumRange.getRelativeValue(index / width, index % width);
+                    if (value instanceof ErrorEval) {
+                        throw new EvaluationException((ErrorEval)value);
+                    }
+                    aggregator.addValue(value);
+                } else {
+                    aggregator.addValue(null);
+                }
+            }
+        }
+        return aggregator.getResult();
+    }
+
     protected static AreaEval convertRangeArg(ValueEval eval) throws EvaluationException {
         if (eval instanceof AreaEval) {
             return (AreaEval) eval;
@@ -165,6 +165,16 @@ public final class Countif extends Fixed2ArgFunction {
             return getClass().getName() + " [" + _operator.getRepresentation() + getValueText() + "]";
         }
         protected abstract String getValueText();
+        /**
+         * @return the key of the {@link CriteriaIndex} group containing the cells, which may match,
+         *  or {@code null} if the cells can't be preselected by a single group
+         */
+        protected Object getIndexKey() {
+            return null;
+        }
+        protected final boolean isEquality() {
+            return getCode() == CmpOp.NONE || getCode() == CmpOp.EQ;
+        }
     }
 
     private static final class NumberMatcher extends MatcherBase {
@@ -179,6 +189,10 @@ public final class Countif extends Fixed2ArgFunction {
         protected String getValueText() {
             return String.valueOf(_value);
         }
+        @Override
+        protected Object getIndexKey() {
+            return isEquality() ? CriteriaIndex.toKey(_value) : null;
+        }
 
         @Override
         public boolean matches(ValueEval x) {
@@ -235,6 +249,10 @@ public final class Countif extends Fixed2ArgFunction {
         protected String getValueText() {
             return _value == 1 ? "TRUE" : "FALSE";
         }
+        @Override
+        protected Object getIndexKey() {
+            return isEquality() ? _value == 1 : null;
+        }
 
         private static int boolToInt(boolean value) {
             return value ? 1 : 0;
@@ -332,6 +350,10 @@ public final class Countif extends Fixed2ArgFunction {
             }
             return _pattern.pattern();
         }
+        @Override
+        protected Object getIndexKey() {
+            return isEquality() && _pattern == null ? CriteriaIndex.toKey(_value) : null;
+        }
 
         @Override
         public boolean matches(ValueEval x) {
@@ -481,6 +503,14 @@ public final class Countif extends Fixed2ArgFunction {
                 + evaluatedCriteriaArg.getClass().getName() + ")");
     }
 
+    /**
+     * @return the key of the {@link CriteriaIndex} group containing the cells, which may match
+     *  the predicate, or {@code null} if all cells need to be tested
+     */
+    /* package */ static Object getCriteriaIndexKey(I_MatchPredicate predicate) {
+        return predicate instanceof MatcherBase ? ((MatcherBase)predicate).getIndexKey() : null;
+    }
+
     /**
      *
      * @return the de-referenced criteria arg (possibly {@link ErrorEval})
@@ -0,0 +1,131 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.AreaIndexProvider;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CountUtils.I_MatchPredicate;
+import org.apache.poi.util.IntList;
+
+/**
+ * Groups the cells of a criteria range by their values, so the cells matching an equality
+ * criterion of SUMIFS, COUNTIFS etc. are found without testing every cell of the range.<p>
+ *
+ * The groups only preselect the cells - a cell may be in the group of a criterion without
+ * matching it, so the criterion still needs to be tested on the preselected cells.
+ * The index is built once per range and kept by the evaluation cache, see {@link AreaIndexProvider}.
+ */
+final class CriteriaIndex {
+    /** ranges up to this size are simply tested cell by cell */
+    private static final int MIN_SIZE = 8;
+
+    private final ValueEval[] _values;
+    private final Map<Object, IntList> _groups;
+
+    private CriteriaIndex(ValueEval[] values) {
+        _values = values;
+        _groups = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            ValueEval value = values[i];
+            if (value instanceof NumberEval) {
+                addToGroup(toKey(((NumberEval)value).getNumberValue()), i);
+            } else if (value instanceof StringEval) {
+                String text = ((StringEval)value).getStringValue();
+                addToGroup(toKey(text), i);
+                // numeric text is also matched by number criteria
+                Double number = OperandResolver.parseDouble(text);
+                if (number != null) {
+                    addToGroup(toKey(number), i);
+                }
+            } else if (value instanceof BoolEval) {
+                addToGroup(((BoolEval)value).getBooleanValue(), i);
+            } else if (value == BlankEval.instance) {
+                // blank cells are matched by the empty string criterion
+                addToGroup(toKey(""), i);
+            }
+        }
+    }
+
+    private void addToGroup(Object key, int index) {
+        _groups.computeIfAbsent(key, k -> new IntList(1)).add(index);
+    }
+
+    /**
+     * @return the index of the range or {@code null}, if the range is not indexed, e.g. because one
+     *  of its cells fails to evaluate - the caller then tests the cells one by one and only fails,
+     *  if it reads the failing cell itself
+     */
+    static CriteriaIndex getIndex(AreaEval range) {
+        if (!(range instanceof AreaIndexProvider) || range.getHeight() * range.getWidth() < MIN_SIZE) {
+            return null;
+        }
+        return ((AreaIndexProvider)range).getIndex(CriteriaIndex.class, CriteriaIndex::new);
+    }
+
+    /**
+     * @return the number of cells of the range
+     */
+    int getSize() {
+        return _values.length;
+    }
+
+    /**
+     * @param index the position of the cell in the range in row-major order
+     * @return the value of the cell
+     */
+    ValueEval getValue(int index) {
+        return _values[index];
+    }
+
+    /**
+     * @return the ascending positions of the cells, which may match the predicate,
+     *  or {@code null} if all cells of the range need to be tested
+     */
+    IntList getCandidates(I_MatchPredicate predicate) {
+        Object key = Countif.getCriteriaIndexKey(predicate);
+        if (key == null) {
+            return null;
+        }
+        IntList group = _groups.get(key);
+        return group == null ? new IntList(0) : group;
+    }
+
+    /**
+     * @return the group key of a number - the key of negative zero is the key of zero,
+     *  as numeric text is compared with {@code ==}
+     */
+    static Object toKey(double value) {
+        return value == 0.0 ? 0.0 : value;
+    }
+
+    /**
+     * @return the group key of a text, which is compared case-insensitively
+     */
+    static Object toKey(String value) {
+        return LookupUtils.toCaseInsensitiveKey(value);
+    }
+}
@@ -47,6 +47,16 @@ final class DoubleList {
         _count++;
     }
 
+    /**
+     * Adds the values from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive) of the array
+     */
+    public void addAll(double[] values, int fromIndex, int toIndex) {
+        int length = toIndex - fromIndex;
+        ensureCapacity(_count + length);
+        System.arraycopy(values, fromIndex, _array, _count, length);
+        _count += length;
+    }
+
     public int getLength() {
         return _count;
     }
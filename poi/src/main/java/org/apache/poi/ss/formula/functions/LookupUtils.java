@@ -26,6 +26,7 @@ import java.util.NoSuchElementException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.poi.ss.formula.AreaIndexProvider;
 import org.apache.poi.ss.formula.TwoDEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
@@ -181,6 +182,10 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        TwoDEval getArea() {
+            return _tableArray.getHeight() == 1 ? _tableArray : _tableArray.getRow(_rowIndex);
+        }
     }
 
     private static final class ColumnVector implements ValueVector {
@@ -212,6 +217,10 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        TwoDEval getArea() {
+            return _tableArray.getWidth() == 1 ? _tableArray : _tableArray.getColumn(_columnIndex);
+        }
     }
 
     private static final class SheetVector implements ValueVector {
@@ -385,6 +394,11 @@ public final class LookupUtils {
         protected abstract CompareResult compareSameType(ValueEval other);
         /** used only for debug purposes */
         protected abstract String getValueAsString();
+        /**
+         * @return the key of the values, which are equal to the lookup value, in an {@link ExactMatchIndex}
+         *  or {@code null} if the lookup value doesn't only match equal values
+         */
+        protected abstract Object getIndexKey();
     }
 
     private static class StringLookupComparer extends LookupValueComparerBase {
@@ -423,6 +437,13 @@ public final class LookupUtils {
         protected String getValueAsString() {
             return _value;
         }
+        @Override
+        protected Object getIndexKey() {
+            if (_wildCardPattern != null && (_isMatchFunction || !_matchExact)) {
+                return null;
+            }
+            return toCaseInsensitiveKey(_value);
+        }
     }
 
     private static final class TolerantStringLookupComparer extends StringLookupComparer {
@@ -461,6 +482,10 @@ public final class LookupUtils {
         protected String getValueAsString() {
             return String.valueOf(_value);
         }
+        @Override
+        protected Object getIndexKey() {
+            return _value;
+        }
     }
     private static final class BooleanLookupComparer extends LookupValueComparerBase {
         private final boolean _value;
@@ -486,6 +511,10 @@ public final class LookupUtils {
         protected String getValueAsString() {
             return String.valueOf(_value);
         }
+        @Override
+        protected Object getIndexKey() {
+            return _value;
+        }
     }
 
     /**
@@ -682,8 +711,8 @@ public final class LookupUtils {
      * @param matchMode
      * @return zero based index into the vector, -1 if value cannot be found
      */
-    private static int lookupFirstIndexOfValue(LookupValueComparer lookupComparer, ValueVector vector,
-                                               MatchMode matchMode) {
+    static int lookupFirstIndexOfValue(LookupValueComparer lookupComparer, ValueVector vector,
+                                       MatchMode matchMode) {
         return lookupIndexOfValue(lookupComparer, vector, matchMode, false);
     }
 
@@ -702,6 +731,15 @@ public final class LookupUtils {
 
     private static int lookupIndexOfValue(LookupValueComparer lookupComparer, ValueVector vector,
                                           MatchMode matchMode, boolean reverse) {
+        if (!reverse) {
+            int idx = ExactMatchIndex.lookupFirstIndexOfValue(lookupComparer, vector);
+            if (idx >= 0) {
+                return idx;
+            }
+            if (idx == -1 && (matchMode == MatchMode.ExactMatch || matchMode == MatchMode.WildcardMatch)) {
+                return -1;
+            }
+        }
         int bestMatchIdx = -1;
         ValueEval bestMatchEval = null;
         Iterator<Integer> idxIter = reverse ? vector.reverseIndexIterator() : vector.indexIterator();
@@ -806,6 +844,86 @@ public final class LookupUtils {
         }
     }
 
+    /**
+     * Maps the values of a row or column to the index of their first occurrence, so exact matches
+     * can be found without comparing the lookup value to every item of the vector.
+     * The index is built for cell areas only and is kept by the evaluation cache.
+     */
+    private static final class ExactMatchIndex {
+        /** vectors up to this size are simply searched */
+        private static final int MIN_SIZE = 8;
+
+        private final Map<Object, Integer> _firstIndexes;
+
+        private ExactMatchIndex(ValueEval[] values) {
+            _firstIndexes = new HashMap<>(values.length * 4 / 3 + 1);
+            for (int i = 0; i < values.length; i++) {
+                Object key = toKey(values[i]);
+                if (key != null) {
+                    _firstIndexes.putIfAbsent(key, i);
+                }
+            }
+        }
+
+        /**
+         * @return the index of the first item equal to the lookup value, -1 if there is none,
+         *  or -2 if the vector has not been searched via an index
+         */
+        static int lookupFirstIndexOfValue(LookupValueComparer lookupComparer, ValueVector vector) {
+            if (!(lookupComparer instanceof LookupValueComparerBase) || vector.getSize() < MIN_SIZE) {
+                return -2;
+            }
+            Object key = ((LookupValueComparerBase)lookupComparer).getIndexKey();
+            TwoDEval area = null;
+            if (vector instanceof ColumnVector) {
+                area = ((ColumnVector)vector).getArea();
+            } else if (vector instanceof RowVector) {
+                area = ((RowVector)vector).getArea();
+            }
+            if (key == null || !(area instanceof AreaIndexProvider)) {
+                return -2;
+            }
+            ExactMatchIndex index = ((AreaIndexProvider)area).getIndex(ExactMatchIndex.class, ExactMatchIndex::new);
+            if (index == null) {
+                return -2;
+            }
+            Integer idx = index._firstIndexes.get(key);
+            if (idx == null) {
+                return -1;
+            }
+            // the case folding of the keys may be coarser than String.compareToIgnoreCase
+            return lookupComparer.compareTo(vector.getItem(idx)).isEqual() ? idx : -2;
+        }
+
+        /**
+         * @return the key of values, which are only matched by equal lookup values, otherwise {@code null}
+         */
+        private static Object toKey(ValueEval value) {
+            Class<?> cls = value.getClass();
+            if (cls == NumberEval.class) {
+                // Double.equals() treats -0.0 and NaN like Double.compare()
+                return ((NumberEval)value).getNumberValue();
+            }
+            if (cls == StringEval.class) {
+                return toCaseInsensitiveKey(((StringEval)value).getStringValue());
+            }
+            if (cls == BoolEval.class) {
+                return ((BoolEval)value).getBooleanValue();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return a key, which is equal for strings that are equal according to
+     *  {@link String#compareToIgnoreCase(String)}
+     */
+    static String toCaseInsensitiveKey(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        value.codePoints().forEach(cp -> sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp))));
+        return sb.toString();
+    }
+
     /**
      * Encapsulates some standard binary search functionality so the unusual Excel behaviour can
      * be clearly distinguished.
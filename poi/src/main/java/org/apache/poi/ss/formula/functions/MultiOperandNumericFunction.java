@@ -20,6 +20,7 @@ package org.apache.poi.ss.formula.functions;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.ThreeDEval;
 import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -139,6 +140,13 @@ public abstract class MultiOperandNumericFunction implements Function {
      * Collects values from a single argument
      */
     private void collectValues(ValueEval operand, DoubleList temp) throws EvaluationException {
+        if (operand instanceof AreaEval && isSubtotalCounted() && isHiddenRowCounted()) {
+            NumericAreaValues values = NumericAreaValues.getValues((AreaEval) operand);
+            if (values != null) {
+                collectValues(values, temp);
+                return;
+            }
+        }
         if (operand instanceof ThreeDEval) {
             ThreeDEval ae = (ThreeDEval) operand;
             for (int sIx = ae.getFirstSheetIndex(); sIx <= ae.getLastSheetIndex(); sIx++) {
@@ -178,6 +186,27 @@ public abstract class MultiOperandNumericFunction implements Function {
         collectValue(operand, false, temp);
     }
 
+    /**
+     * Collects the values of an area like the loop over the {@link TwoDEval} cells, but copies
+     * the consecutive numbers of the area at once
+     */
+    private void collectValues(NumericAreaValues values, DoubleList temp) throws EvaluationException {
+        double[] numbers = values.getNumbers();
+        ValueEval[] others = values.getOthers();
+        int size = values.getSize();
+        int numberIx = 0;
+        int otherIx = 0;
+        for (int i = 0; i < size; i++) {
+            int end = values.getNumberRunEnd(i);
+            temp.addAll(numbers, numberIx, numberIx + end - i);
+            numberIx += end - i;
+            if (end < size) {
+                collectValue(others[otherIx++], !treatStringsAsZero(), temp);
+            }
+            i = end;
+        }
+    }
+
     private void collectValue(ValueEval ve, boolean isViaReference, DoubleList temp) throws EvaluationException {
         if (ve == null) {
             throw new IllegalArgumentException("ve must not be null");
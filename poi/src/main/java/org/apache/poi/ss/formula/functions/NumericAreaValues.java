@@ -0,0 +1,113 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.poi.ss.formula.AreaIndexProvider;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * The values of an area with the numbers in primitive form, so numeric functions like SUM, AVERAGE,
+ * MIN and MAX copy the numbers of an area in bulk instead of converting the value of every cell.<p>
+ *
+ * The values are read once per area and kept by the evaluation cache, see {@link AreaIndexProvider},
+ * so further formulas over the same area only depend on the cached values instead of on every cell.
+ * Each distinct area keeps its own copy of the numbers, e.g. running totals like {@code SUM($A$1:A1)},
+ * {@code SUM($A$1:A2)} ... would keep a quadratic number of values. So only large areas, which pay off
+ * when used by several formulas, are cached - smaller areas are read cell by cell.<p>
+ *
+ * While an evaluation listener is set, all areas are read cell by cell, as the listener traces
+ * the evaluation of cells and doesn't know about area entries.
+ */
+final class NumericAreaValues {
+    /** areas below this size are simply read cell by cell */
+    /* package */ static final int MIN_SIZE = 1024;
+
+    private final int _size;
+    /** the values of the numeric cells in row-major order */
+    private final double[] _numbers;
+    /** the values of the other cells in row-major order */
+    private final ValueEval[] _others;
+    /** the positions of the numeric cells or {@code null} if all cells are numeric */
+    private final BitSet _numberCells;
+
+    private NumericAreaValues(ValueEval[] values) {
+        _size = values.length;
+        double[] numbers = new double[values.length];
+        List<ValueEval> others = new ArrayList<>();
+        BitSet numberCells = new BitSet(values.length);
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            ValueEval value = values[i];
+            if (value instanceof NumberEval) {
+                numbers[count++] = ((NumberEval)value).getNumberValue();
+                numberCells.set(i);
+            } else {
+                others.add(value);
+            }
+        }
+        _numbers = count == numbers.length ? numbers : Arrays.copyOf(numbers, count);
+        _others = others.toArray(new ValueEval[0]);
+        _numberCells = _others.length == 0 ? null : numberCells;
+    }
+
+    /**
+     * @return the values of the area or {@code null}, if the area needs to be read cell by cell
+     */
+    static NumericAreaValues getValues(AreaEval area) {
+        if (!(area instanceof AreaIndexProvider) || area.getHeight() * area.getWidth() < MIN_SIZE) {
+            return null;
+        }
+        return ((AreaIndexProvider)area).getIndex(NumericAreaValues.class, NumericAreaValues::new);
+    }
+
+    /**
+     * @return the number of cells of the area
+     */
+    int getSize() {
+        return _size;
+    }
+
+    /**
+     * @return the values of the numeric cells in row-major order
+     */
+    double[] getNumbers() {
+        return _numbers;
+    }
+
+    /**
+     * @return the values of the non-numeric cells in row-major order
+     */
+    ValueEval[] getOthers() {
+        return _others;
+    }
+
+    /**
+     * @param index the position of a cell in row-major order
+     * @return the end (exclusive) of the consecutive numeric cells starting at the position
+     */
+    int getNumberRunEnd(int index) {
+        return _numberCells == null ? _size : Math.min(_numberCells.nextClearBit(index), _size);
+    }
+}
@@ -0,0 +1,587 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A {@link SortedMap} with {@code int} keys, backed by a sorted {@code int[]} of keys
+ * and a parallel array of values.
+ * <p>
+ * Compared to a {@link java.util.TreeMap} this needs neither boxed keys nor tree nodes,
+ * i.e. it uses roughly two references per mapping instead of a 40 byte entry plus an
+ * {@link Integer}. Lookups are binary searches, appending keys in ascending order is
+ * amortized constant time and {@code headMap(key).size()} is logarithmic.
+ * Inserting or removing keys in the middle needs to move the following entries,
+ * so this is best suited for data which is mostly created in key order, like the
+ * rows of a sheet or the cells of a row.
+ * <p>
+ * The views returned by {@link #headMap(Integer)}, {@link #tailMap(Integer)} and
+ * {@link #subMap(Integer, Integer)} are backed by this map. Iterators are fail-fast.
+ * {@code null} keys are not supported.
+ * <p>
+ * This class is only meant for internal use in Apache POI.
+ *
+ * @param <V> the type of the mapped values
+ *
+ * @since POI 5.4.1
+ */
+@Internal
+public class SortedIntArrayMap<V> extends AbstractMap<Integer, V> implements SortedMap<Integer, V> {
+    private static final int DEFAULT_SIZE = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int modCount;
+
+    /**
+     * create an empty map with the default capacity
+     */
+    public SortedIntArrayMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * create an empty map
+     *
+     * @param initialCapacity the number of mappings which can be added before the backing arrays are grown
+     */
+    public SortedIntArrayMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        keys = new int[initialCapacity];
+        values = new Object[initialCapacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key the key
+     * @return the value mapped to the key or {@code null} if there's no such mapping
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        final int idx = indexOf(key);
+        return idx < 0 ? null : (V)values[idx];
+    }
+
+    @Override
+    public V get(Object key) {
+        return (key instanceof Integer) ? get(((Integer)key).intValue()) : null;
+    }
+
+    /**
+     * @param key the key
+     * @return {@code true}, if the key is mapped
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof Integer) && containsKey(((Integer)key).intValue());
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i=0; i<size; i++) {
+            if (Objects.equals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associates the value with the key
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previously mapped value or {@code null} if the key wasn't mapped before
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        // fast path for appending in ascending key order
+        if (size == 0 || keys[size-1] < key) {
+            insertAt(size, key, value);
+            return null;
+        }
+        final int idx = indexOf(key);
+        if (idx >= 0) {
+            final V old = (V)values[idx];
+            values[idx] = value;
+            return old;
+        }
+        insertAt(-(idx+1), key, value);
+        return null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    /**
+     * Removes the mapping of the key
+     *
+     * @param key the key
+     * @return the previously mapped value or {@code null} if the key wasn't mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        final int idx = indexOf(key);
+        if (idx < 0) {
+            return null;
+        }
+        final V old = (V)values[idx];
+        removeAt(idx);
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return (key instanceof Integer) ? remove(((Integer)key).intValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Comparator<? super Integer> comparator() {
+        return null;
+    }
+
+    /**
+     * @return the lowest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public int firstIntKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[0];
+    }
+
+    /**
+     * @return the highest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public int lastIntKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[size-1];
+    }
+
+    @Override
+    public Integer firstKey() {
+        return firstIntKey();
+    }
+
+    @Override
+    public Integer lastKey() {
+        return lastIntKey();
+    }
+
+    @Override
+    public SortedMap<Integer, V> subMap(Integer fromKey, Integer toKey) {
+        return new SubMap(fromKey.longValue(), toKey.longValue());
+    }
+
+    @Override
+    public SortedMap<Integer, V> headMap(Integer toKey) {
+        return new SubMap(Long.MIN_VALUE, toKey.longValue());
+    }
+
+    @Override
+    public SortedMap<Integer, V> tailMap(Integer fromKey) {
+        return new SubMap(fromKey.longValue(), Long.MAX_VALUE);
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new SubMap(Long.MIN_VALUE, Long.MAX_VALUE).keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new SubMap(Long.MIN_VALUE, Long.MAX_VALUE).values();
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new SubMap(Long.MIN_VALUE, Long.MAX_VALUE).entrySet();
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * @return the index of the first key which is greater or equal than the given key
+     */
+    private int lowerBound(long key) {
+        if (key <= Integer.MIN_VALUE) {
+            return 0;
+        }
+        if (key > Integer.MAX_VALUE) {
+            return size;
+        }
+        final int idx = indexOf((int)key);
+        return idx < 0 ? -(idx+1) : idx;
+    }
+
+    private void insertAt(int idx, int key, V value) {
+        if (size == keys.length) {
+            final int newCap = Math.max(DEFAULT_SIZE, size + (size >> 1));
+            keys = Arrays.copyOf(keys, newCap);
+            values = Arrays.copyOf(values, newCap);
+        }
+        if (idx < size) {
+            System.arraycopy(keys, idx, keys, idx+1, size-idx);
+            System.arraycopy(values, idx, values, idx+1, size-idx);
+        }
+        keys[idx] = key;
+        values[idx] = value;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int idx) {
+        final int moved = size-idx-1;
+        if (moved > 0) {
+            System.arraycopy(keys, idx+1, keys, idx, moved);
+            System.arraycopy(values, idx+1, values, idx, moved);
+        }
+        values[--size] = null;
+        modCount++;
+    }
+
+    /**
+     * A range view on the parent map - the lower bound is inclusive, the upper bound exclusive.
+     * The bounds are kept as longs, so unbounded ends don't need special handling.
+     */
+    private final class SubMap extends AbstractMap<Integer, V> implements SortedMap<Integer, V> {
+        private final long lo;
+        private final long hi;
+
+        SubMap(long lo, long hi) {
+            if (lo > hi) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(Object key) {
+            if (!(key instanceof Integer)) {
+                return false;
+            }
+            final int k = (Integer)key;
+            return lo <= k && k < hi;
+        }
+
+        private int fromIdx() {
+            return lowerBound(lo);
+        }
+
+        private int toIdx() {
+            return lowerBound(hi);
+        }
+
+        @Override
+        public int size() {
+            return toIdx() - fromIdx();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(key) && SortedIntArrayMap.this.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? SortedIntArrayMap.this.get(key) : null;
+        }
+
+        @Override
+        public V put(Integer key, V value) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return SortedIntArrayMap.this.put(key.intValue(), value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return inRange(key) ? SortedIntArrayMap.this.remove(key) : null;
+        }
+
+        @Override
+        public void clear() {
+            final int from = fromIdx(), to = toIdx();
+            if (from == to) {
+                return;
+            }
+            System.arraycopy(keys, to, keys, from, size-to);
+            System.arraycopy(values, to, values, from, size-to);
+            final int newSize = size-(to-from);
+            Arrays.fill(values, newSize, size, null);
+            size = newSize;
+            modCount++;
+        }
+
+        @Override
+        public Comparator<? super Integer> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<Integer, V> subMap(Integer fromKey, Integer toKey) {
+            if (fromKey < lo || toKey > hi) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new SubMap(fromKey.longValue(), toKey.longValue());
+        }
+
+        @Override
+        public SortedMap<Integer, V> headMap(Integer toKey) {
+            if (toKey > hi) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new SubMap(lo, toKey.longValue());
+        }
+
+        @Override
+        public SortedMap<Integer, V> tailMap(Integer fromKey) {
+            if (fromKey < lo) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new SubMap(fromKey.longValue(), hi);
+        }
+
+        @Override
+        public Integer firstKey() {
+            final int from = fromIdx();
+            if (from == toIdx()) {
+                throw new NoSuchElementException();
+            }
+            return keys[from];
+        }
+
+        @Override
+        public Integer lastKey() {
+            final int to = toIdx();
+            if (to == fromIdx()) {
+                throw new NoSuchElementException();
+            }
+            return keys[to-1];
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            return new AbstractSet<Integer>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    return new RangeIterator<Integer>() {
+                        @Override
+                        Integer element(int idx) {
+                            return keys[idx];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return SubMap.this.containsKey(o);
+                }
+            };
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new AbstractCollection<V>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new RangeIterator<V>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        V element(int idx) {
+                            return (V)values[idx];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, V>> entrySet() {
+            return new AbstractSet<Map.Entry<Integer, V>>() {
+                @Override
+                public Iterator<Map.Entry<Integer, V>> iterator() {
+                    return new RangeIterator<Map.Entry<Integer, V>>() {
+                        @Override
+                        Map.Entry<Integer, V> element(int idx) {
+                            return new KeyEntry(keys[idx]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+            };
+        }
+
+        private abstract class RangeIterator<E> implements Iterator<E> {
+            private int next = fromIdx();
+            private int end = toIdx();
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            abstract E element(int idx);
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public E next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                last = next++;
+                return element(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeAt(last);
+                next = last;
+                end--;
+                last = -1;
+                expectedModCount = modCount;
+            }
+        }
+    }
+
+    /**
+     * A map entry which reads and writes through to the backing arrays
+     */
+    private final class KeyEntry implements Map.Entry<Integer, V> {
+        private final int key;
+
+        KeyEntry(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return get(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            final int idx = indexOf(key);
+            if (idx < 0) {
+                throw new IllegalStateException("entry was removed");
+            }
+            final V old = (V)values[idx];
+            values[idx] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.poi.hssf.record.DVALRecord;
 import org.apache.poi.hssf.record.DVRecord;
 import org.apache.poi.hssf.record.EOFRecord;
 import org.apache.poi.hssf.record.FeatHdrRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
 import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.SelectionRecord;
 import org.apache.poi.hssf.record.WindowTwoRecord;
@@ -166,4 +167,40 @@ final class TestHSSFEventFactory {
             Biff8EncryptionKey.setCurrentUserPassword(null);
         }
     }
+
+    @Test
+    void testNumericCellListener() throws Exception {
+        boolean hasMulRK = false;
+        for (String sample : new String[]{ "SimpleMultiCell.xls", "Formatting.xls", "45365.xls" }) {
+            List<String> expected = new ArrayList<>();
+            HSSFRequest req = new HSSFRequest();
+            req.addListener(r -> {
+                NumberRecord nr = (NumberRecord) r;
+                expected.add(nr.getRow() + "/" + nr.getColumn() + "/" + nr.getXFIndex() + "/" + nr.getValue());
+            }, NumberRecord.sid);
+            try (InputStream is = HSSFTestDataSamples.openSampleFileStream(sample);
+                 POIFSFileSystem fs = new POIFSFileSystem(is)) {
+                new HSSFEventFactory().processWorkbookEvents(req, fs);
+            }
+
+            List<String> actual = new ArrayList<>();
+            List<Short> sids = new ArrayList<>();
+            req = new HSSFRequest();
+            req.addNumericCellListener(c -> {
+                actual.add(c.getRow() + "/" + c.getColumn() + "/" + c.getXFIndex() + "/" + c.getValue());
+                sids.add(c.getSid());
+            });
+            // the record listeners don't receive the numeric cells anymore
+            req.addListener(r -> actual.add("unexpected " + r), NumberRecord.sid);
+            try (InputStream is = HSSFTestDataSamples.openSampleFileStream(sample);
+                 POIFSFileSystem fs = new POIFSFileSystem(is)) {
+                new HSSFEventFactory().processWorkbookEvents(req, fs);
+            }
+
+            assertFalse(expected.isEmpty(), sample);
+            assertEquals(expected, actual, sample);
+            hasMulRK |= sids.contains(MulRKRecord.sid);
+        }
+        assertTrue(hasMulRK, "samples without MulRK records");
+    }
 }
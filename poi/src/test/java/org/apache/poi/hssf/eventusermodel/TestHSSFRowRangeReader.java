@@ -0,0 +1,195 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing for {@link HSSFRowRangeReader}
+ */
+final class TestHSSFRowRangeReader {
+    private static final int[][] RANGES = {
+        { 0, 0 }, { 31, 32 }, { 100, 163 }, { 500, 500 }, { 990, 5000 }, { 2000, 3000 }, { 0, 65535 }
+    };
+
+    @Test
+    void testReadRows() throws IOException {
+        byte[] data = createWorkbook();
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(data));
+             HSSFRowRangeReader reader = new HSSFRowRangeReader(fs)) {
+            assertEquals(2, reader.getNumberOfSheets());
+            assertEquals("data", reader.getSheetName(1));
+            assertEquals("text 7", reader.getSSTRecord().getString(7).getString());
+
+            for (int[] range : RANGES) {
+                assertEquals(expectedRecords(data, 1, range[0], range[1]), readRows(reader, 1, range[0], range[1]));
+                assertTrue(reader.isLastReadIndexed());
+            }
+            assertEquals(expectedRecords(data, 0, 0, 10), readRows(reader, 0, 0, 10));
+
+            assertThrows(IllegalArgumentException.class, () -> reader.readRows(2, 0, 0, r -> {}));
+            assertThrows(IllegalArgumentException.class, () -> reader.readRows(1, 5, 4, r -> {}));
+        }
+    }
+
+    @Test
+    void testStaleIndex() throws IOException {
+        byte[] data = createWorkbook();
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(data))) {
+            byte[] stream;
+            try (InputStream is = fs.createDocumentInputStream("Workbook")) {
+                stream = IOUtils.toByteArray(is);
+            }
+            // let the DBCELL offsets of the second sheet and its BoundSheet record point elsewhere
+            int indexCount = 0;
+            int boundSheetCount = 0;
+            for (int pos = 0; pos < stream.length; pos += 4 + LittleEndian.getUShort(stream, pos + 2)) {
+                int sid = LittleEndian.getUShort(stream, pos);
+                if (sid == BoundSheetRecord.sid && ++boundSheetCount == 2) {
+                    LittleEndian.putInt(stream, pos + 4, 7);
+                } else if (sid == IndexRecord.sid && ++indexCount == 2) {
+                    int len = LittleEndian.getUShort(stream, pos + 2);
+                    for (int i = pos + 4 + 16; i < pos + 4 + len; i += 4) {
+                        LittleEndian.putInt(stream, i, LittleEndian.getInt(stream, i) + 2);
+                    }
+                }
+            }
+            assertEquals(2, indexCount);
+            fs.createOrUpdateDocument(new ByteArrayInputStream(stream), "Workbook");
+
+            try (HSSFRowRangeReader reader = new HSSFRowRangeReader(fs)) {
+                for (int[] range : RANGES) {
+                    assertEquals(expectedRecords(data, 1, range[0], range[1]), readRows(reader, 1, range[0], range[1]));
+                    assertFalse(reader.isLastReadIndexed());
+                }
+            }
+        }
+    }
+
+    private static byte[] createWorkbook() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            wb.createSheet("first").createRow(3).createCell(2).setCellValue("first sheet");
+            HSSFSheet sheet = wb.createSheet("data");
+            for (int r = 0; r < 1000; r++) {
+                if (r % 7 == 3) {
+                    // leave some gaps
+                    continue;
+                }
+                HSSFRow row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("text " + (r % 50));
+                row.createCell(2).setCellFormula("A" + (r + 1) + "*2");
+                row.createCell(3).setCellFormula("B" + (r + 1) + "&\"!\"");
+                if (r % 3 == 0) {
+                    row.createCell(5);
+                }
+            }
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            wb.write(bos);
+            return bos.toByteArray();
+        }
+    }
+
+    private static List<String> readRows(HSSFRowRangeReader reader, int sheetIndex, int firstRow, int lastRow)
+            throws IOException {
+        List<String> records = new ArrayList<>();
+        reader.readRows(sheetIndex, firstRow, lastRow, r -> records.add(r.toString()));
+        return records;
+    }
+
+    /**
+     * @return the records of the rows within the range, read by the {@link HSSFEventFactory}
+     */
+    private static List<String> expectedRecords(byte[] data, int sheetIndex, int firstRow, int lastRow)
+            throws IOException {
+        List<String> records = new ArrayList<>();
+        HSSFRequest req = new HSSFRequest();
+        req.addListenerForAllRecords(new HSSFListener() {
+            private int substream = -1;
+            private int depth;
+            private boolean formulaAdded;
+
+            @Override
+            public void processRecord(Record r) {
+                if (r instanceof BOFRecord) {
+                    if (depth++ == 0) {
+                        substream++;
+                    }
+                    return;
+                }
+                if (r instanceof EOFRecord) {
+                    depth--;
+                }
+                if (substream != sheetIndex + 1) {
+                    return;
+                }
+                int row = -1;
+                if (r instanceof RowRecord) {
+                    row = ((RowRecord)r).getRowNumber();
+                } else if (r instanceof CellValueRecordInterface) {
+                    row = ((CellValueRecordInterface)r).getRow();
+                } else if (r instanceof StringRecord && formulaAdded) {
+                    records.add(r.toString());
+                }
+                formulaAdded = row >= firstRow && row <= lastRow;
+                if (formulaAdded) {
+                    records.add(r.toString());
+                    formulaAdded = r instanceof FormulaRecord;
+                }
+            }
+        });
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(data))) {
+            new HSSFEventFactory().processWorkbookEvents(req, fs);
+        }
+        // make sure the test covers the different record types
+        if (lastRow - firstRow > 10 && firstRow < 1000 && sheetIndex == 1) {
+            assertTrue(records.stream().anyMatch(s -> s.contains("/* STRING */")));
+            assertTrue(records.stream().anyMatch(s -> s.contains("/* LABEL_SST */")));
+            assertTrue(records.stream().anyMatch(s -> s.contains("/* BLANK */")));
+        }
+        return records;
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 import static org.apache.poi.hssf.HSSFTestDataSamples.openSampleWorkbook;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,4 +41,49 @@ public class TestWorkbookRecordList {
             assertEquals(-1, records.getTabpos());
         }
     }
+
+    @Test
+    public void removeAllUpdatesPositions() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            for (int i = 0; i < 10; i++) {
+                wb.createFont();
+            }
+            WorkbookRecordList records = wb.getInternalWorkbook().getWorkbookRecordList();
+            WorkbookRecordList expected = copyPositions(records);
+
+            // removing one record at a time is the reference
+            int fontStart = records.getFontpos() - 13;
+            boolean[] remove = new boolean[14];
+            for (int i = 13; i >= 0; i -= 3) {
+                remove[i] = true;
+                expected.remove(fontStart + i);
+            }
+            records.removeAll(fontStart, remove);
+
+            assertEquals(expected.getRecords(), records.getRecords());
+            assertEquals(expected.getFontpos(), records.getFontpos());
+            assertEquals(expected.getXfpos(), records.getXfpos());
+            assertEquals(expected.getBspos(), records.getBspos());
+            assertEquals(expected.getBackuppos(), records.getBackuppos());
+            assertEquals(expected.getTabpos(), records.getTabpos());
+            assertEquals(expected.getPalettepos(), records.getPalettepos());
+        }
+    }
+
+    private static WorkbookRecordList copyPositions(WorkbookRecordList records) {
+        WorkbookRecordList copy = new WorkbookRecordList();
+        // the records are removed from both lists, so each needs its own
+        copy.setRecords(new ArrayList<>(records.getRecords()));
+        copy.setProtpos(records.getProtpos());
+        copy.setBspos(records.getBspos());
+        copy.setTabpos(records.getTabpos());
+        copy.setFontpos(records.getFontpos());
+        copy.setXfpos(records.getXfpos());
+        copy.setBackuppos(records.getBackuppos());
+        copy.setNamepos(records.getNamepos());
+        copy.setSupbookpos(records.getSupbookpos());
+        copy.setExternsheetPos(records.getExternsheetPos());
+        copy.setPalettepos(records.getPalettepos());
+        return copy;
+    }
 }
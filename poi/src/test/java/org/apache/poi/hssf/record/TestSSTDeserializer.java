@@ -26,7 +26,6 @@ import java.io.InputStream;
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.util.HexRead;
-import org.apache.poi.util.IntMapper;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -58,7 +57,7 @@ final class TestSSTDeserializer {
         RecordInputStream in = TestcaseRecordInputStream.create(concat(header, continueBytes));
 
 
-        IntMapper<UnicodeString> strings = new IntMapper<>();
+        SSTStringTable strings = new SSTStringTable();
         SSTDeserializer deserializer = new SSTDeserializer( strings );
         deserializer.manufactureStrings(1, in );
 
@@ -71,7 +70,7 @@ final class TestSSTDeserializer {
         byte[] continueBytes = readSampleHexData("evencontinuation.txt", "continue1", ContinueRecord.sid);
         RecordInputStream in = TestcaseRecordInputStream.create(concat(header, continueBytes));
 
-        IntMapper<UnicodeString> strings = new IntMapper<>();
+        SSTStringTable strings = new SSTStringTable();
         SSTDeserializer deserializer = new SSTDeserializer( strings );
         deserializer.manufactureStrings( 2, in);
 
@@ -90,7 +89,7 @@ final class TestSSTDeserializer {
 
         RecordInputStream in = TestcaseRecordInputStream.create(concat(header, concat(continue1, continue2)));
 
-        IntMapper<UnicodeString> strings = new IntMapper<>();
+        SSTStringTable strings = new SSTStringTable();
         SSTDeserializer deserializer = new SSTDeserializer( strings );
         deserializer.manufactureStrings( 2, in);
 
@@ -104,7 +103,7 @@ final class TestSSTDeserializer {
         byte[] continueBytes = readSampleHexData("extendedtextstrings.txt", "rich-continue1", ContinueRecord.sid);
         RecordInputStream in = TestcaseRecordInputStream.create(concat(header, continueBytes));
 
-        IntMapper<UnicodeString> strings = new IntMapper<>();
+        SSTStringTable strings = new SSTStringTable();
         SSTDeserializer deserializer = new SSTDeserializer( strings );
         deserializer.manufactureStrings( 1, in);
 
@@ -115,7 +114,7 @@ final class TestSSTDeserializer {
         continueBytes = readSampleHexData("extendedtextstrings.txt", "norich-continue1", ContinueRecord.sid);
         in = TestcaseRecordInputStream.create(concat(header, continueBytes));
 
-        strings = new IntMapper<>();
+        strings = new SSTStringTable();
         deserializer = new SSTDeserializer( strings );
         deserializer.manufactureStrings( 1, in);
 
@@ -131,7 +130,7 @@ final class TestSSTDeserializer {
         byte[] nonContinuationRecord = readSampleHexData("notenoughstrings.txt", "non-continuation-record", ExtSSTRecord.sid);
         RecordInputStream in = TestcaseRecordInputStream.create(concat(sstRecord, nonContinuationRecord));
 
-        IntMapper<UnicodeString> strings = new IntMapper<>();
+        SSTStringTable strings = new SSTStringTable();
         SSTDeserializer deserializer = new SSTDeserializer(strings);
 
         // The record data in notenoughstrings.txt only contains 1 string, deliberately pass in a larger number.
@@ -21,7 +21,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.hssf.record.cont.ContinuableRecordOutput;
-import org.apache.poi.util.IntMapper;
 import org.apache.poi.util.LittleEndianConsts;
 import org.junit.jupiter.api.Test;
 
@@ -33,7 +32,7 @@ final class TestSSTRecordSizeCalculator {
     private static final int COMPRESSED_PLAIN_STRING_OVERHEAD = 3;
     private static final int OPTION_FIELD_SIZE = 1;
 
-    private final IntMapper<UnicodeString> strings = new IntMapper<>();
+    private final SSTStringTable strings = new SSTStringTable();
 
 
     /** standard record overhead: two shorts (record id plus data space size)*/
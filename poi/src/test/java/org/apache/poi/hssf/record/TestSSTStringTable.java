@@ -0,0 +1,123 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.hssf.record.common.FormatRun;
+import org.apache.poi.hssf.record.common.UnicodeString;
+import org.junit.jupiter.api.Test;
+
+final class TestSSTStringTable {
+
+    @Test
+    void testLookup() {
+        SSTStringTable strings = new SSTStringTable();
+        UnicodeString rich = new UnicodeString("rich");
+        rich.addFormatRun(new FormatRun((short)0, (short)1));
+
+        strings.add(new UnicodeString("abc"));
+        strings.add(new UnicodeString("\u0424\u0419\u0426"));
+        strings.add(rich);
+        strings.add(new UnicodeString(""));
+        strings.add(new UnicodeString("abc"));
+
+        assertEquals(5, strings.size());
+        assertEquals(4, strings.getIndex(new UnicodeString("abc")));
+        assertEquals(1, strings.getIndex(new UnicodeString("\u0424\u0419\u0426")));
+        assertEquals(3, strings.getIndex(new UnicodeString("")));
+        assertEquals(-1, strings.getIndex(new UnicodeString("ab")));
+        assertEquals(-1, strings.getIndex(new UnicodeString("rich")));
+        assertEquals(2, strings.getIndex(rich.copy()));
+
+        // rich strings are kept as is, plain strings are created on demand
+        assertSame(rich, strings.get(2));
+        assertNotSame(strings.get(0), strings.get(0));
+        assertEquals(new UnicodeString("\u0424\u0419\u0426"), strings.get(1));
+
+        // the option flags are part of the identity of a string
+        UnicodeString wideAbc = new UnicodeString("abc");
+        wideAbc.setOptionFlags((byte)0x01);
+        assertEquals(-1, strings.getIndex(wideAbc));
+        strings.add(wideAbc);
+        assertEquals(5, strings.getIndex(wideAbc));
+        assertEquals(wideAbc, strings.get(5));
+        assertEquals(4, strings.getIndex(new UnicodeString("abc")));
+
+        SSTStringTable copy = strings.copy();
+        copy.add(new UnicodeString("def"));
+        assertEquals(6, copy.getIndex(new UnicodeString("def")));
+        assertEquals(-1, strings.getIndex(new UnicodeString("def")));
+        assertEquals(strings.getElements(), copy.getElements().subList(0, 6));
+    }
+
+    @Test
+    void testRoundTrip() {
+        List<UnicodeString> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            expected.add(new UnicodeString("String " + i));
+        }
+        // long strings span several continue records and fill more than one page
+        StringBuilder latin = new StringBuilder();
+        StringBuilder wide = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            latin.append((char)('A' + i % 26));
+            wide.append((char)(0x400 + i % 64));
+        }
+        for (int i = 0; i < 40; i++) {
+            expected.add(new UnicodeString(i + latin.toString()));
+            expected.add(new UnicodeString(i + wide.toString()));
+        }
+        // unpaired surrogates and characters above 0xFF
+        expected.add(new UnicodeString("\uD83D\uDE1C \uD83D \u00e4\u00f6\u00fc \u20ac"));
+        UnicodeString rich = new UnicodeString("rich text");
+        rich.addFormatRun(new FormatRun((short)0, (short)1));
+        rich.addFormatRun(new FormatRun((short)5, (short)2));
+        expected.add(rich);
+
+        SSTRecord sst = new SSTRecord();
+        for (UnicodeString us : expected) {
+            sst.addString(us);
+        }
+        // duplicates aren't added again
+        assertEquals(7, sst.addString(new UnicodeString("String 7")));
+        assertEquals(expected.size(), sst.getNumUniqueStrings());
+
+        byte[] data = sst.serialize();
+        RecordInputStream in = new RecordInputStream(new ByteArrayInputStream(data));
+        in.nextRecord();
+        SSTRecord sst2 = new SSTRecord(in);
+        assertFalse(in.hasNextRecord());
+
+        assertEquals(expected.size(), sst2.countStrings());
+        Iterator<UnicodeString> iter = sst2.getStrings();
+        for (UnicodeString us : expected) {
+            assertEquals(us, iter.next());
+        }
+        assertFalse(iter.hasNext());
+        assertEquals(rich.getFormatRunCount(), sst2.getString(expected.size() - 1).getFormatRunCount());
+    }
+}
@@ -20,24 +20,36 @@ package org.apache.poi.hssf.record;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
 
 import java.util.stream.Stream;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.aggregates.FormulaRecordAggregate;
+import org.apache.poi.hssf.record.aggregates.ValueRecordsAggregate;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaRenderer;
 import org.apache.poi.ss.formula.FormulaType;
 import org.apache.poi.ss.formula.SharedFormula;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefNPtg;
 import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.util.LittleEndianInput;
 import org.junit.jupiter.api.Test;
 
@@ -171,6 +183,43 @@ final class TestSharedFormulaRecord {
         assertEquals(4, countSharedFormulas(sheet));
     }
 
+    @Test
+    void testEvaluateSharedTokens() throws IOException {
+        try (HSSFWorkbook wb = HSSFTestDataSamples.openSampleWorkbook(SHARED_FORMULA_TEST_XLS)) {
+            HSSFSheet sheet = wb.getSheetAt(0);
+            ValueRecordsAggregate values = sheet.getSheet().getRowsAggregate().getValuesAggregate();
+            FormulaRecordAggregate fraB = (FormulaRecordAggregate) values.getCell(32768, 1);
+            FormulaRecordAggregate fraC = (FormulaRecordAggregate) values.getCell(32768, 2);
+
+            // the cells of a shared formula range are evaluated from the same tokens
+            Ptg[] ptgs = fraB.getEvaluationTokens();
+            assertSame(ptgs, fraC.getEvaluationTokens());
+            assertTrue(Stream.of(ptgs).anyMatch(RefNPtg.class::isInstance));
+            // ... while the converted tokens are created per call
+            assertNotSame(fraB.getFormulaTokens(), fraB.getFormulaTokens());
+            assertEquals("B32770*2", HSSFFormulaParser.toFormulaString(wb, fraB.getFormulaTokens()));
+
+            // the evaluation workbook keeps returning converted tokens, except for the evaluation
+            HSSFEvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+            EvaluationCell evalB = ewb.getSheet(0).getCell(32768, 1);
+            assertSame(ptgs, ewb.getSharedFormulaTokens(evalB));
+            assertTrue(Stream.of(ewb.getFormulaTokens(evalB)).noneMatch(RefNPtg.class::isInstance));
+
+            // all formulas evaluate to the results cached in the file
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            int count = 0;
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA && cell.getCachedFormulaResultType() == CellType.NUMERIC) {
+                        assertEquals(cell.getNumericCellValue(), fe.evaluate(cell).getNumberValue(), 0.0, cell.getAddress().formatAsString());
+                        count++;
+                    }
+                }
+            }
+            assertTrue(count > 0);
+        }
+    }
+
     @Test
     void testUnshareFormulaDueToChangeFormula() {
         HSSFWorkbook wb;
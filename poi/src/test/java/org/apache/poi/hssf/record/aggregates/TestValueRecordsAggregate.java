@@ -21,7 +21,11 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -37,7 +41,9 @@ import org.apache.poi.hssf.model.RowBlocksReader;
 import org.apache.poi.hssf.record.BlankRecord;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
 import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
 import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.Record;
 import org.apache.poi.hssf.record.SharedFormulaRecord;
 import org.apache.poi.hssf.record.WindowTwoRecord;
@@ -203,6 +209,116 @@ final class TestValueRecordsAggregate {
         assertArrayEquals(expectedArray, actualArray);
     }
 
+    @Test
+    void testCellsWithoutRecords() {
+        List<org.apache.poi.hssf.record.Record> records = new ArrayList<>();
+        for (int row = 1; row < 70; row += 3) {
+            NumberRecord nr = new NumberRecord();
+            nr.setRow(row);
+            nr.setColumn((short) 0);
+            nr.setXFIndex((short) 21);
+            nr.setValue(row + 0.5);
+            records.add(nr);
+            LabelSSTRecord lr = new LabelSSTRecord();
+            lr.setRow(row);
+            lr.setColumn((short) 1);
+            lr.setSSTIndex(row);
+            records.add(lr);
+            records.add(newBlankRecord(2, row));
+            records.add(newBlankRecord(3, row));
+            FormulaRecord fr = new FormulaRecord();
+            fr.setRow(row);
+            fr.setColumn((short) 5);
+            records.add(fr);
+        }
+        records.add(new WindowTwoRecord());
+
+        // the same cells, kept as record objects
+        ValueRecordsAggregate expected = new ValueRecordsAggregate();
+        for (org.apache.poi.hssf.record.Record rec : records) {
+            if (rec instanceof FormulaRecord) {
+                expected.insertCell(new FormulaRecordAggregate((FormulaRecord) rec, null, SharedValueManager.createEmpty()));
+            } else if (rec instanceof CellValueRecordInterface) {
+                expected.insertCell((CellValueRecordInterface) ((org.apache.poi.hssf.record.Record) rec).copy());
+            }
+        }
+        // cells are read as records by default
+        ValueRecordsAggregate plain = new ValueRecordsAggregate();
+        for (org.apache.poi.hssf.record.Record rec : records) {
+            if (rec instanceof CellValueRecordInterface && !(rec instanceof FormulaRecord)) {
+                plain.construct((CellValueRecordInterface) rec, null, null);
+            }
+        }
+        assertFalse(plain.isCompactCells());
+        assertTrue(plain.hasCellRecord(4, 0));
+
+        valueRecord.setCompactCells(true);
+        constructValueRecord(records);
+
+        assertEquals(expected.getPhysicalNumberOfCells(), valueRecord.getPhysicalNumberOfCells());
+        assertEquals(0, valueRecord.getFirstCellNum());
+        assertEquals(5, valueRecord.getLastCellNum());
+        assertFalse(valueRecord.hasCellRecord(4, 0));
+        assertTrue(valueRecord.hasCellRecord(4, 5));
+        assertEquals(4.5, valueRecord.getNumericValue(4, 0));
+        assertEquals(4, valueRecord.getSSTIndex(4, 1));
+        assertEquals(21, valueRecord.getXFIndex(4, 0));
+        assertThrows(IllegalStateException.class, () -> valueRecord.getNumericValue(4, 1));
+        assertThrows(IllegalStateException.class, () -> valueRecord.getSSTIndex(5, 1));
+
+        assertEquals(expected.getRowCellBlockSize(0, 80), valueRecord.getRowCellBlockSize(0, 80));
+        for (int row = 0; row < 80; row++) {
+            assertEquals(expected.rowHasCells(row), valueRecord.rowHasCells(row));
+            if (expected.rowHasCells(row)) {
+                assertArrayEquals(serializeRow(expected, row), serializeRow(valueRecord, row));
+            }
+        }
+
+        List<CellValueRecordInterface> visited = new ArrayList<>();
+        valueRecord.visitCells((row, column, type, rec) -> {
+            assertEquals(rec == null, type != null);
+            if (rec == null) {
+                assertFalse(valueRecord.hasCellRecord(row, column));
+            }
+            visited.add(rec);
+        });
+        assertEquals(expected.getPhysicalNumberOfCells(), visited.size());
+
+        // records are created on demand and kept from then on
+        valueRecord.setNumericValue(4, 0, 42);
+        NumberRecord nr = (NumberRecord) valueRecord.getCell(4, 0);
+        assertEquals(42, nr.getValue());
+        assertEquals(21, nr.getXFIndex());
+        assertTrue(valueRecord.hasCellRecord(4, 0));
+        assertSame(nr, valueRecord.getCell(4, 0));
+        assertNull(valueRecord.getCell(4, 4));
+
+        valueRecord.removeCell(newBlankRecord(2, 4));
+        valueRecord.insertNumberCell(4, 4, (short) 15, 1.0);
+        assertEquals(expected.getPhysicalNumberOfCells(), valueRecord.getPhysicalNumberOfCells());
+        valueRecord.removeAllCellsValuesForRow(4);
+        assertFalse(valueRecord.rowHasCells(4));
+        assertEquals(expected.getPhysicalNumberOfCells() - 5, getValueRecords().size());
+
+        // switching it off creates the records
+        valueRecord.setCompactCells(false);
+        assertTrue(valueRecord.hasCellRecord(7, 0));
+        assertTrue(valueRecord.hasCellRecord(7, 3));
+        assertEquals(7.5, ((NumberRecord) valueRecord.getCell(7, 0)).getValue());
+        assertEquals(expected.getPhysicalNumberOfCells() - 5, valueRecord.getPhysicalNumberOfCells());
+        for (int row = 7; row < 80; row++) {
+            assertEquals(expected.rowHasCells(row), valueRecord.rowHasCells(row));
+        }
+    }
+
+    private static byte[] serializeRow(ValueRecordsAggregate vra, int row) {
+        byte[] buf = new byte[vra.getRowCellBlockSize(row, row)];
+        SerializerVisitor sv = new SerializerVisitor(buf);
+        vra.visitCellsForRow(row, sv);
+        assertEquals(buf.length, sv.getWriteIndex());
+        return buf;
+    }
+
     private static BlankRecord newBlankRecord() {
         return newBlankRecord( 2, 2 );
     }
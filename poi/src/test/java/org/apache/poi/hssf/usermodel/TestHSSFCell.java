@@ -21,12 +21,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -34,9 +37,12 @@ import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.hssf.HSSFITestDataProvider;
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.model.InternalSheet;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
 import org.apache.poi.hssf.record.DBCellRecord;
 import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.record.aggregates.ValueRecordsAggregate;
 import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.ss.usermodel.BaseTestCell;
 import org.apache.poi.ss.usermodel.Cell;
@@ -441,4 +447,98 @@ final class TestHSSFCell extends BaseTestCell {
             }
         }
     }
+
+    /**
+     * Number, string and blank cells are held by the sheet without records, if the sheet compacts its cells
+     */
+    @Test
+    void cellsWithoutRecords() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            HSSFCellStyle style = wb.createCellStyle();
+            for (int r = 0; r < 100; r++) {
+                HSSFRow row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("Row " + r);
+                row.createCell(2).setCellStyle(style);
+                row.createCell(3).setCellValue(r % 2 == 0);
+            }
+
+            try (HSSFWorkbook wb2 = HSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                HSSFSheet sheet2 = wb2.getSheetAt(0);
+                ValueRecordsAggregate values = sheet2.getSheet().getRowsAggregate().getValuesAggregate();
+                assertFalse(sheet2.isCompactCellStorage());
+                assertTrue(values.hasCellRecord(10, 0));
+                sheet2.setCompactCellStorage(true);
+                assertTrue(sheet2.isCompactCellStorage());
+                assertFalse(values.hasCellRecord(10, 0));
+                assertTrue(values.hasCellRecord(10, 3));
+
+                HSSFRow row = sheet2.getRow(10);
+                HSSFCell number = row.getCell(0);
+                HSSFCell string = row.getCell(1);
+                HSSFCell blank = row.getCell(2);
+                assertEquals(10, number.getNumericCellValue());
+                assertEquals("Row 10", string.getStringCellValue());
+                assertEquals("Row 10", string.getRichStringCellValue().getString());
+                assertEquals(CellType.BLANK, blank.getCellType());
+                assertEquals(style.getIndex(), blank.getCellStyle().getIndex());
+                assertEquals(10, blank.getRowIndex());
+                assertEquals(2, blank.getColumnIndex());
+
+                number.setCellValue(11.5);
+                number.setCellStyle(wb2.getCellStyleAt(style.getIndex()));
+                string.setCellValue("changed");
+                blank.setCellValue(true);
+                row.getCell(3).setCellValue(3);
+
+                // records requested through the low level API are kept in sync
+                HSSFCell other = sheet2.getRow(20).getCell(0);
+                Iterator<CellValueRecordInterface> iter = sheet2.getSheet().getCellValueIterator();
+                NumberRecord rec = (NumberRecord) iter.next();
+                assertEquals(0, rec.getValue());
+                while (iter.hasNext()) {
+                    CellValueRecordInterface cvr = iter.next();
+                    if (cvr.getRow() == 20 && cvr.getColumn() == 0) {
+                        ((NumberRecord) cvr).setValue(21);
+                    }
+                }
+                assertEquals(21, other.getNumericCellValue());
+                other.setCellValue(22);
+                assertSame(other.getCellValueRecord(), sheet2.getSheet().getRowsAggregate().getValuesAggregate().getCell(20, 0));
+
+                // cells of removed rows keep their values
+                HSSFRow removed = sheet2.getRow(30);
+                HSSFCell removedCell = removed.getCell(1);
+                sheet2.removeRow(removed);
+                assertEquals("Row 30", removedCell.getStringCellValue());
+
+                sheet2.shiftRows(40, 41, 10);
+                assertEquals(40, sheet2.getRow(50).getCell(0).getNumericCellValue());
+                assertEquals("Row 41", sheet2.getRow(51).getCell(1).getStringCellValue());
+
+                // switching it off keeps the cells working
+                HSSFCell number99 = sheet2.getRow(99).getCell(0);
+                sheet2.setCompactCellStorage(false);
+                assertTrue(values.hasCellRecord(99, 0));
+                number99.setCellValue(99);
+                assertSame(number99.getCellValueRecord(), values.getCell(99, 0));
+
+                try (HSSFWorkbook wb3 = HSSFTestDataSamples.writeOutAndReadBack(wb2)) {
+                    HSSFSheet sheet3 = wb3.getSheetAt(0);
+                    HSSFRow row3 = sheet3.getRow(10);
+                    assertEquals(11.5, row3.getCell(0).getNumericCellValue());
+                    assertEquals(style.getIndex(), row3.getCell(0).getCellStyle().getIndex());
+                    assertEquals("changed", row3.getCell(1).getStringCellValue());
+                    assertTrue(row3.getCell(2).getBooleanCellValue());
+                    assertEquals(3, row3.getCell(3).getNumericCellValue());
+                    assertEquals(22, sheet3.getRow(20).getCell(0).getNumericCellValue());
+                    assertNull(sheet3.getRow(30));
+                    assertEquals("Row 41", sheet3.getRow(51).getCell(1).getStringCellValue());
+                    assertEquals(99, sheet3.getRow(99).getCell(0).getNumericCellValue());
+                    assertEquals(4 * 99 - 8, sheet3.getSheet().getRowsAggregate().getValuesAggregate().getPhysicalNumberOfCells());
+                }
+            }
+        }
+    }
 }
@@ -17,16 +17,20 @@
 
 package org.apache.poi.hssf.usermodel;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.poi.hssf.HSSFITestDataProvider;
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.record.NameRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationListener;
 import org.apache.poi.ss.formula.WorkbookEvaluator;
@@ -37,6 +41,8 @@ import org.apache.poi.ss.usermodel.BaseTestFormulaEvaluator;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.util.TempFile;
 import org.junit.jupiter.api.Test;
 
 final class TestHSSFFormulaEvaluator extends BaseTestFormulaEvaluator {
@@ -282,4 +288,102 @@ final class TestHSSFFormulaEvaluator extends BaseTestFormulaEvaluator {
             }
         }
     }
+
+    @Test
+    void testEvaluateAllParallel() throws IOException {
+        try (HSSFWorkbook wb = createIndependentSheets()) {
+            new HSSFFormulaEvaluator(wb).evaluateAll();
+            double[][] expected = new double[6][];
+            for (int s = 0; s < 6; s++) {
+                expected[s] = getFormulaResults(wb.getSheetAt(s));
+            }
+            for (Row row : wb.getSheet("S0")) {
+                row.getCell(1).setCellValue(0);
+            }
+
+            new HSSFFormulaEvaluator(wb).evaluateAll(ForkJoinPool.commonPool());
+            for (int s = 0; s < 6; s++) {
+                assertArrayEquals(expected[s], getFormulaResults(wb.getSheetAt(s)), 0);
+            }
+            assertEquals("v208", wb.getSheet("S1").getRow(4).getCell(2).getStringCellValue());
+            assertEquals(CellType.ERROR, wb.getSheet("S2").getRow(1).getCell(3).getCachedFormulaResultType());
+
+            // INDIRECT may refer to any sheet
+            wb.getSheet("S0").getRow(0).createCell(4).setCellFormula("INDIRECT(\"S5!D1\")");
+            new HSSFFormulaEvaluator(wb).evaluateAll(ForkJoinPool.commonPool());
+            assertEquals(wb.getSheet("S5").getRow(0).getCell(3).getNumericCellValue(),
+                wb.getSheet("S0").getRow(0).getCell(4).getNumericCellValue(), 0);
+        }
+    }
+
+    /**
+     * Six sheets S0..S5 of 50 rows; S1 refers to S0, and S2..S5 end up in one group
+     */
+    private static HSSFWorkbook createIndependentSheets() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        for (int s = 0; s < 6; s++) {
+            HSSFSheet sheet = wb.createSheet("S" + s);
+            for (int r = 0; r < 50; r++) {
+                HSSFRow row = sheet.createRow(r);
+                row.createCell(0).setCellValue(s * 100 + r);
+                row.createCell(1).setCellFormula("A" + (r + 1) + "*2");
+                row.createCell(2).setCellFormula("\"v\"&B" + (r + 1));
+            }
+        }
+        HSSFName name = wb.createName();
+        name.setNameName("Total3");
+        name.setRefersToFormula("SUM(S3!B1:B50)");
+
+        // S1 -> S0, S4 -> S3 via the name, S5 -> S2:S3 - S2,S3,S4,S5 end up in one group
+        wb.getSheet("S1").getRow(0).createCell(3).setCellFormula("SUM(S0!A1:A50)+B1");
+        wb.getSheet("S4").getRow(0).createCell(3).setCellFormula("Total3+B1");
+        wb.getSheet("S5").getRow(0).createCell(3).setCellFormula("SUM(S2:S3!A1)");
+        wb.getSheet("S2").getRow(1).createCell(3).setCellFormula("1/0");
+        return wb;
+    }
+
+    @Test
+    void testEvaluateAllParallelFromFile() throws IOException {
+        File file = TempFile.createTempFile("testEvaluateAllParallelFromFile", ".xls");
+        try (HSSFWorkbook wb = createIndependentSheets()) {
+            wb.write(file);
+        }
+
+        double[][] expected = new double[6][];
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true);
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), true, true)) {
+            new HSSFFormulaEvaluator(wb).evaluateAll();
+            for (int s = 0; s < 6; s++) {
+                expected[s] = getFormulaResults(wb.getSheetAt(s));
+            }
+        }
+
+        // the sheets are parsed on demand and the document is read from the file,
+        // neither of which may happen in the workers
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true);
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), true, true)) {
+            new HSSFFormulaEvaluator(wb).evaluateAll(ForkJoinPool.commonPool());
+            for (int s = 0; s < 6; s++) {
+                assertArrayEquals(expected[s], getFormulaResults(wb.getSheetAt(s)), 0);
+            }
+        }
+        try (POIFSFileSystem fs = POIFSFileSystem.openMapped(file);
+             HSSFWorkbook wb = new HSSFWorkbook(fs.getRoot(), true, true)) {
+            new HSSFFormulaEvaluator(wb).evaluateAll(ForkJoinPool.commonPool());
+            for (int s = 0; s < 6; s++) {
+                assertArrayEquals(expected[s], getFormulaResults(wb.getSheetAt(s)), 0);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static double[] getFormulaResults(HSSFSheet sheet) {
+        HSSFCell d1 = sheet.getRow(0).getCell(3);
+        return new double[] {
+            sheet.getRow(0).getCell(1).getNumericCellValue(),
+            sheet.getRow(49).getCell(1).getNumericCellValue(),
+            d1 == null ? 0 : d1.getNumericCellValue()
+        };
+    }
 }
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.io.IOException;
 
+import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
@@ -665,6 +666,52 @@ final class TestHSSFOptimiser {
         assertEquals(cnt + 4 + 2 * 2, wb.getNumCellStyles());
     }
 
+    @Test
+    void testManyDuplicates() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            HSSFRichTextString rich = new HSSFRichTextString("rich");
+            // styles and fonts in 10 variants, each created 300 times
+            for (int i = 0; i < 3000; i++) {
+                HSSFFont font = wb.createFont();
+                font.setFontHeightInPoints((short) (10 + i % 10));
+                HSSFCellStyle style = wb.createCellStyle();
+                style.setFont(font);
+                style.setFillForegroundColor((short) (8 + i % 10));
+                sheet.createRow(i).createCell(0).setCellStyle(style);
+                if (i == 2999) {
+                    rich.applyFont(0, 2, font);
+                }
+            }
+            sheet.getRow(0).createCell(1).setCellValue(rich);
+            assertEquals(3004, wb.getNumberOfFonts());
+            assertEquals(3021, wb.getNumCellStyles());
+
+            HSSFOptimiser.optimiseFonts(wb);
+            HSSFOptimiser.optimiseCellStyles(wb);
+
+            // the 10pt font is the same as the built-in default font
+            assertEquals(13, wb.getNumberOfFonts());
+            assertEquals(31, wb.getNumCellStyles());
+            for (int i = 0; i < 3000; i++) {
+                HSSFCellStyle style = sheet.getRow(i).getCell(0).getCellStyle();
+                assertEquals(21 + i % 10, style.getIndex());
+                assertEquals(8 + i % 10, style.getFillForegroundColor());
+                assertEquals(10 + i % 10, style.getFont(wb).getFontHeightInPoints());
+            }
+            HSSFRichTextString rich2 = sheet.getRow(0).getCell(1).getRichStringCellValue();
+            assertEquals(19, wb.getFontAt(rich2.getFontAtIndex(0)).getFontHeightInPoints());
+
+            try (HSSFWorkbook wb2 = HSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                assertEquals(13, wb2.getNumberOfFonts());
+                assertEquals(31, wb2.getNumCellStyles());
+                HSSFCellStyle style = wb2.getSheetAt(0).getRow(2999).getCell(0).getCellStyle();
+                assertEquals(17, style.getFillForegroundColor());
+                assertEquals(19, style.getFont(wb2).getFontHeightInPoints());
+            }
+        }
+    }
+
     private void checkUserStyles(HSSFSheet sheet) {
         HSSFCellStyle parentStyle1 = sheet.getRow(1).getCell(0).getCellStyle().getParentStyle();
         assertNotNull(parentStyle1);
@@ -29,9 +29,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.ddf.EscherDgRecord;
 import org.apache.poi.hssf.HSSFITestDataProvider;
 import org.apache.poi.hssf.HSSFTestDataSamples;
@@ -40,6 +42,7 @@ import org.apache.poi.hssf.model.InternalSheet;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.*;
 import org.apache.poi.hssf.record.aggregates.WorksheetProtectionBlock;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.formula.ptg.Area3DPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.AutoFilter;
@@ -53,6 +56,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.apache.poi.ss.util.PaneInformation;
+import org.apache.poi.util.IOUtils;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -1132,4 +1136,93 @@ final class TestHSSFSheet extends BaseTestSheet {
             assertSame(PaneType.LOWER_RIGHT, sheet.getPaneInformation().getActivePaneType());
         }
     }
+
+    @Test
+    void flushRows() throws IOException {
+        try (HSSFWorkbook wb1 = new HSSFWorkbook();
+             HSSFWorkbook wb2 = new HSSFWorkbook()) {
+            HSSFSheet sheet1 = wb1.createSheet("data");
+            sheet1.setRandomAccessWindowSize(50);
+            fillFlushRowsSheet(sheet1);
+            fillFlushRowsSheet(wb2.createSheet("data"));
+            wb1.createSheet("other").createRow(0).createCell(0).setCellValue("other");
+            wb2.createSheet("other").createRow(0).createCell(0).setCellValue("other");
+
+            // rows are flushed in whole row blocks
+            int flushedRows = 1000 - sheet1.getPhysicalNumberOfRows();
+            assertTrue(flushedRows > 0);
+            assertEquals(0, flushedRows % 32);
+            assertTrue(sheet1.getPhysicalNumberOfRows() < 50 + 32);
+            assertEquals((flushedRows - 1) * 2, sheet1.getLastFlushedRowNum());
+            assertNull(sheet1.getRow(0));
+            assertNotNull(sheet1.getRow(flushedRows * 2));
+            assertEquals(0, sheet1.getFirstRowNum());
+            assertEquals(1998, sheet1.getLastRowNum());
+            assertThrows(IllegalArgumentException.class, () -> sheet1.createRow(sheet1.getLastFlushedRowNum()));
+            assertEquals(-1, wb1.getSheetAt(1).getLastFlushedRowNum());
+
+            // other visitors than the serializers get the records read back from the temporary file
+            List<Integer> rowNums = new ArrayList<>();
+            sheet1.getSheet().visitContainedRecords(r -> {
+                if (r instanceof RowRecord) {
+                    rowNums.add(((RowRecord) r).getRowNumber());
+                }
+            }, 0);
+            assertEquals(1000, rowNums.size());
+            assertEquals(0, rowNums.get(0));
+            assertEquals(1998, rowNums.get(999));
+
+            // a clone of a sheet with flushed rows has all of them in memory
+            HSSFSheet clone = wb1.cloneSheet(0);
+            assertEquals(1000, clone.getPhysicalNumberOfRows());
+            assertEquals(-1, clone.getLastFlushedRowNum());
+            assertEquals("Row 0", clone.getRow(0).getCell(1).getStringCellValue());
+            wb1.cloneSheet(1);
+            wb2.cloneSheet(0);
+            wb2.cloneSheet(1);
+
+            // the records, including the INDEX and DBCELL records, are the same as without flushing
+            byte[] expected = wb2.getBytes();
+            assertArrayEquals(expected, wb1.getBytes());
+
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            wb1.write(bos);
+            try (POIFSFileSystem fs = new POIFSFileSystem(bos.toInputStream())) {
+                byte[] actual;
+                try (InputStream is = fs.createDocumentInputStream("Workbook")) {
+                    actual = IOUtils.toByteArray(is);
+                }
+                assertArrayEquals(expected, actual);
+
+                try (HSSFWorkbook wb3 = new HSSFWorkbook(fs)) {
+                    HSSFSheet sheet3 = wb3.getSheet("data");
+                    assertEquals(1000, sheet3.getPhysicalNumberOfRows());
+                    for (int r = 0; r < 1000; r += 99) {
+                        HSSFRow row = sheet3.getRow(r * 2);
+                        assertEquals(r, row.getCell(0).getNumericCellValue(), 0.0);
+                        assertEquals("Row " + r, row.getCell(1).getStringCellValue());
+                        assertEquals("A" + (r * 2 + 1) + "*2", row.getCell(2).getCellFormula());
+                    }
+                    assertEquals("other", wb3.getSheet("other").getRow(0).getCell(0).getStringCellValue());
+                }
+            }
+
+            // flush the remaining whole row blocks
+            sheet1.flushRows();
+            assertTrue(sheet1.getPhysicalNumberOfRows() < 32);
+            assertArrayEquals(expected, wb1.getBytes());
+        }
+    }
+
+    private static void fillFlushRowsSheet(HSSFSheet sheet) {
+        for (int r = 0; r < 1000; r++) {
+            HSSFRow row = sheet.createRow(r * 2);
+            row.createCell(0).setCellValue(r);
+            row.createCell(1).setCellValue("Row " + r);
+            row.createCell(2).setCellFormula("A" + (r * 2 + 1) + "*2");
+            if (r % 5 == 0) {
+                row.createCell(4);
+            }
+        }
+    }
 }
@@ -18,12 +18,14 @@
 package org.apache.poi.hssf.usermodel;
 
 import static org.apache.poi.POITestCase.assertContains;
+import static org.apache.poi.hssf.HSSFTestDataSamples.openSampleFileStream;
 import static org.apache.poi.hssf.HSSFTestDataSamples.openSampleWorkbook;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -40,6 +42,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
@@ -58,6 +65,7 @@ import org.apache.poi.hssf.record.NameRecord;
 import org.apache.poi.hssf.record.Record;
 import org.apache.poi.hssf.record.RecordBase;
 import org.apache.poi.hssf.record.WindowOneRecord;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
@@ -67,6 +75,7 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellReferenceType;
 import org.apache.poi.ss.usermodel.ConditionalFormatting;
 import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Name;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -79,6 +88,7 @@ import org.apache.poi.util.TempFile;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.provider.CsvSource;
 
 /**
@@ -1266,4 +1276,167 @@ public final class TestHSSFWorkbook extends BaseTestWorkbook {
             return closed;
         }
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "SampleSS.xls", "45365.xls", "Formatting.xls", "WithChart.xls", "ContinueRecordProblem.xls" })
+    void testLazySheets(String sample) throws IOException {
+        try (HSSFWorkbook eager = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false);
+             HSSFWorkbook lazy = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false, true)) {
+            assertEquals(eager.getNumberOfSheets(), lazy.getNumberOfSheets());
+            assertEquals(-1, lazy.getSheetIndex(eager.getSheetAt(0)));
+
+            // access the sheets in reverse order, to make sure they are parsed independently
+            for (int i = eager.getNumberOfSheets() - 1; i >= 0; i--) {
+                assertEquals(eager.getSheetName(i), lazy.getSheetName(i));
+                HSSFSheet expected = eager.getSheetAt(i);
+                HSSFSheet actual = lazy.getSheetAt(i);
+                assertSame(actual, lazy.getSheetAt(i));
+                assertEquals(i, lazy.getSheetIndex(actual));
+                assertSameCells(expected, actual);
+            }
+
+            try (HSSFWorkbook wb2 = HSSFTestDataSamples.writeOutAndReadBack(lazy)) {
+                assertEquals(eager.getNumberOfSheets(), wb2.getNumberOfSheets());
+            }
+        }
+    }
+
+    @Test
+    void testLazySheetsConcurrentAccess() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (HSSFWorkbook lazy = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream("45365.xls")).getRoot(), false, true)) {
+            List<Future<List<HSSFSheet>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    List<HSSFSheet> sheets = new ArrayList<>();
+                    for (int i = 0; i < lazy.getNumberOfSheets(); i++) {
+                        sheets.add(lazy.getSheetAt(i));
+                    }
+                    return sheets;
+                }));
+            }
+
+            // every sheet is parsed exactly once
+            List<HSSFSheet> expected = results.get(0).get();
+            for (Future<List<HSSFSheet>> result : results) {
+                List<HSSFSheet> sheets = result.get();
+                for (int i = 0; i < expected.size(); i++) {
+                    assertSame(expected.get(i), sheets.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testLazySheetsModified() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            for (int i = 0; i < 3; i++) {
+                wb.createSheet("Sheet" + i).createRow(0).createCell(0).setCellValue("value " + i);
+            }
+            try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+                wb.write(bos);
+                try (HSSFWorkbook lazy = new HSSFWorkbook(new POIFSFileSystem(bos.toInputStream()).getRoot(), false, true)) {
+                    lazy.removeSheetAt(1);
+                    lazy.createSheet("Sheet3").createRow(0).createCell(0).setCellValue("value 3");
+                    lazy.cloneSheet(0);
+
+                    try (HSSFWorkbook wb2 = HSSFTestDataSamples.writeOutAndReadBack(lazy)) {
+                        assertEquals(4, wb2.getNumberOfSheets());
+                        String[] expected = { "value 0", "value 2", "value 3", "value 0" };
+                        for (int i = 0; i < expected.length; i++) {
+                            assertEquals(expected[i], wb2.getSheetAt(i).getRow(0).getCell(0).getStringCellValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "SampleSS.xls", "45365.xls", "Formatting.xls", "WithChart.xls", "ContinueRecordProblem.xls" })
+    void testParallelSheets(String sample) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (HSSFWorkbook eager = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false);
+             HSSFWorkbook parallel = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false, executor)) {
+            assertSameWorkbook(eager, parallel);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "password.xls, password", "35897-type4.xls, freedom", "xor-encryption-abc.xls, abc" })
+    void testParallelSheetsEncrypted(String sample, String password) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Biff8EncryptionKey.setCurrentUserPassword(password);
+        try (HSSFWorkbook eager = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false);
+             HSSFWorkbook parallel = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false, executor);
+             HSSFWorkbook lazy = new HSSFWorkbook(new POIFSFileSystem(openSampleFileStream(sample)).getRoot(), false, true)) {
+            assertSameWorkbook(eager, parallel);
+            assertSameWorkbook(eager, lazy);
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelSheetsEncryptedLarge() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Biff8EncryptionKey.setCurrentUserPassword("pass");
+        try (HSSFWorkbook wb = new HSSFWorkbook();
+             UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            // the sheets start in the middle of the RC4 blocks
+            for (int s = 0; s < 4; s++) {
+                HSSFSheet sheet = wb.createSheet("Sheet" + s);
+                for (int r = 0; r < 1000 + s * 7; r++) {
+                    HSSFRow row = sheet.createRow(r);
+                    row.createCell(0).setCellValue("Sheet " + s + " row " + r);
+                    row.createCell(1).setCellValue(r * 1.5);
+                    row.createCell(2).setCellFormula("B" + (r + 1) + "*2");
+                }
+            }
+            wb.write(bos);
+
+            try (HSSFWorkbook eager = new HSSFWorkbook(bos.toInputStream());
+                 HSSFWorkbook parallel = new HSSFWorkbook(new POIFSFileSystem(bos.toInputStream()).getRoot(), false, executor)) {
+                assertSameWorkbook(eager, parallel);
+                assertEquals("Sheet 3 row 1020", parallel.getSheetAt(3).getRow(1020).getCell(0).getStringCellValue());
+            }
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelSheetsFailure() throws IOException {
+        Executor failing = command -> {
+            throw new RejectedExecutionException("no threads");
+        };
+        try (POIFSFileSystem fs = new POIFSFileSystem(openSampleFileStream("SampleSS.xls"))) {
+            assertThrows(RejectedExecutionException.class, () -> new HSSFWorkbook(fs.getRoot(), false, failing));
+        }
+    }
+
+    private static void assertSameWorkbook(HSSFWorkbook expected, HSSFWorkbook actual) {
+        assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+        for (int i = 0; i < expected.getNumberOfSheets(); i++) {
+            assertEquals(expected.getSheetName(i), actual.getSheetName(i));
+            assertSameCells(expected.getSheetAt(i), actual.getSheetAt(i));
+        }
+    }
+
+    private static void assertSameCells(HSSFSheet expected, HSSFSheet actual) {
+        DataFormatter df = new DataFormatter();
+        assertEquals(expected.getPhysicalNumberOfRows(), actual.getPhysicalNumberOfRows());
+        for (Row row : expected) {
+            Row actualRow = actual.getRow(row.getRowNum());
+            for (Cell cell : row) {
+                assertEquals(df.formatCellValue(cell), df.formatCellValue(actualRow.getCell(cell.getColumnIndex())));
+            }
+        }
+    }
 }
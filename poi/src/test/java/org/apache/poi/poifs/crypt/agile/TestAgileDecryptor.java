@@ -19,13 +19,21 @@ package org.apache.poi.poifs.crypt.agile;
 
 import static org.apache.poi.poifs.crypt.Decryptor.DEFAULT_POIFS_ENTRY;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
@@ -37,6 +45,7 @@ import org.apache.poi.poifs.filesystem.DocumentInputStream;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.HexDump;
 import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -55,6 +64,46 @@ class TestAgileDecryptor {
         return data.stream();
     }
 
+    @Test
+    void testDataChannel() throws Exception {
+        byte[] testData = new byte[5 * 4096 + 1234];
+        new Random(4711).nextBytes(testData);
+
+        EncryptionInfo infoEnc = new EncryptionInfo(EncryptionMode.agile);
+        Encryptor enc = infoEnc.getEncryptor();
+        enc.confirmPassword("f");
+
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            try (OutputStream os = enc.getDataStream(fs)) {
+                os.write(testData);
+            }
+
+            Decryptor dec = new EncryptionInfo(fs).getDecryptor();
+            assertTrue(dec.isRandomAccessSupported());
+            assertTrue(dec.verifyPassword("f"));
+            try (SeekableByteChannel channel = dec.getDataChannel(fs.getRoot())) {
+                // forwards and backwards, within and across segments
+                int[][] reads = { { 20000, 100 }, { 10, 5000 }, { 4090, 12 }, { 16384, 4096 },
+                    { testData.length - 20, 20 }, { 0, 1 }, { 8191, 2 } };
+                for (int[] read : reads) {
+                    ByteBuffer buf = ByteBuffer.allocate(read[1]);
+                    channel.position(read[0]);
+                    assertEquals(read[1], channel.read(buf));
+                    assertEquals(read[0] + read[1], channel.position());
+                    assertArrayEquals(Arrays.copyOfRange(testData, read[0], read[0] + read[1]), buf.array());
+                }
+
+                // reading beyond the end
+                ByteBuffer buf = ByteBuffer.allocate(100);
+                channel.position(testData.length - 10);
+                assertEquals(10, channel.read(buf));
+                assertEquals(-1, channel.read(buf));
+
+                assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+            }
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     void testAgileDecryptor(byte[] testData) throws Exception {
@@ -89,6 +138,12 @@ class TestAgileDecryptor {
 
             actualData = IOUtils.toByteArray(is);
             is.close();
+
+            // the channel returns the same data
+            try (SeekableByteChannel channel = dec.getDataChannel(fsDec.getRoot())) {
+                assertEquals(testData.length, channel.size());
+                assertArrayEquals(testData, IOUtils.toByteArray(Channels.newInputStream(channel)));
+            }
         }
 
         // input-data and resulting decrypted data should be equal
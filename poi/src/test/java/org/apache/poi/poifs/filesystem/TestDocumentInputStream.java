@@ -17,6 +17,7 @@
 
 package org.apache.poi.poifs.filesystem;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,6 +30,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 
 import org.apache.poi.POIDataSamples;
+import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.SuppressForbidden;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -364,6 +366,62 @@ final class TestDocumentInputStream {
         assertEquals(0, available(stream));
     }
 
+    /**
+     * Tests that we can seek forwards and backwards within the stream
+     */
+    @Test
+    void testSeek() throws IOException {
+        DocumentInputStream stream = new DocumentInputStream(_workbook_n);
+        int[] offsets = { 4000, 13, 512, 511, 0, 1536, _workbook_size - 1 };
+        for (int offset : offsets) {
+            stream.seek(offset);
+            assertEquals(_workbook_size - offset, available(stream));
+            assertEquals(_workbook_data[offset] & 0xFF, stream.read());
+        }
+
+        // reading across the block boundary after seeking
+        stream.seek(1020);
+        byte[] buffer = new byte[10];
+        stream.readFully(buffer);
+        assertArrayEquals(Arrays.copyOfRange(_workbook_data, 1020, 1030), buffer);
+
+        // mark and reset still work after seeking
+        stream.mark(0);
+        assertEquals(_workbook_data[1030] & 0xFF, stream.read());
+        stream.seek(3);
+        stream.reset();
+        assertEquals(_workbook_data[1030] & 0xFF, stream.read());
+
+        stream.seek(_workbook_size);
+        assertEquals(0, available(stream));
+        assertEquals(-1, stream.read());
+
+        assertThrows(IllegalArgumentException.class, () -> stream.seek(-1));
+        assertThrows(IllegalArgumentException.class, () -> stream.seek(_workbook_size + 1));
+    }
+
+    /**
+     * Tests that the primitives are read correctly, also if they span two blocks
+     */
+    @Test
+    void testReadPrimitives() throws IOException {
+        for (int start = 0; start < 8; start++) {
+            DocumentInputStream stream = new DocumentInputStream(_workbook_n);
+            assertEquals(start, stream.skip(start));
+            int offset = start;
+            while (available(stream) >= 15) {
+                assertEquals(LittleEndian.getLong(_workbook_data, offset), stream.readLong());
+                assertEquals(LittleEndian.getInt(_workbook_data, offset + 8), stream.readInt());
+                assertEquals(LittleEndian.getShort(_workbook_data, offset + 12), stream.readShort());
+                assertEquals(LittleEndian.getUByte(_workbook_data, offset + 14), stream.readUByte());
+                offset += 15;
+            }
+            assertEquals(_workbook_size - offset, available(stream));
+            stream.skip(available(stream) - 7L);
+            assertThrows(IllegalStateException.class, stream::readLong);
+        }
+    }
+
     /**
      * Test that we can read files at multiple levels down the tree
      */
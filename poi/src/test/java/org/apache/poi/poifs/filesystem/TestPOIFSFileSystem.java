@@ -26,6 +26,7 @@ import java.nio.channels.FileChannel;
 import java.util.HashMap;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.EmptyFileException;
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.hpsf.NoPropertySetStreamException;
 import org.apache.poi.hpsf.Property;
@@ -37,6 +38,7 @@ import org.apache.poi.poifs.common.POIFSConstants;
 import org.apache.poi.poifs.storage.BATBlock;
 import org.apache.poi.poifs.storage.HeaderBlock;
 import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -301,6 +303,81 @@ final class TestPOIFSFileSystem {
         }
     }
 
+    @Test
+    void test64322Mapped() throws NoPropertySetStreamException, IOException {
+        try (POIFSFileSystem poiFS = POIFSFileSystem.openMapped(_samples.getFile("64322.ole2"))) {
+            int count = recurseDir(poiFS.getRoot());
+
+            assertEquals(1285, count, "Expecting a fixed number of entries being found in the test-document");
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"64322.ole2", "BlockSize4096.zvi", "Notes.ole2"})
+    void openMapped(String sample) throws IOException {
+        File file = _samples.getFile(sample);
+        try (POIFSFileSystem mapped = POIFSFileSystem.openMapped(file);
+             POIFSFileSystem copied = new POIFSFileSystem(file)) {
+            assertFalse(mapped.isInPlaceWriteable());
+            assertSameDocuments(copied.getRoot(), mapped.getRoot());
+
+            assertThrows(IllegalArgumentException.class, mapped::writeFilesystem);
+            assertThrows(IllegalArgumentException.class,
+                () -> mapped.writeFilesystem(UnsynchronizedByteArrayOutputStream.builder().get()));
+        }
+    }
+
+    @Test
+    void openMappedRejectsChanges() throws IOException {
+        File file = HSSFTestDataSamples.getSampleFile("SampleSS.xls");
+        try (POIFSFileSystem mapped = POIFSFileSystem.openMapped(file);
+             POIFSFileSystem copied = new POIFSFileSystem(file)) {
+            DirectoryEntry root = mapped.getRoot();
+            int entries = root.getEntryCount();
+            DocumentEntry existing = (DocumentEntry) root.getEntry("Workbook");
+
+            assertThrows(IllegalStateException.class,
+                () -> root.createDocument("New", new ByteArrayInputStream(new byte[100])));
+            assertThrows(IllegalStateException.class,
+                () -> root.createDocument("NewBig", new ByteArrayInputStream(new byte[5000])));
+            assertThrows(IllegalStateException.class,
+                () -> root.createDocument("NewListener", 10, event -> fail("must not be called")));
+            assertThrows(IllegalStateException.class, () -> new DocumentOutputStream(existing));
+            assertThrows(IllegalStateException.class, existing::delete);
+
+            // nothing has been changed by the rejected attempts
+            assertEquals(entries, root.getEntryCount());
+            assertFalse(root.hasEntry("New"));
+            assertSameDocuments(copied.getRoot(), root);
+        }
+    }
+
+    private static void assertSameDocuments(DirectoryEntry expected, DirectoryEntry actual) throws IOException {
+        assertEquals(expected.getEntryCount(), actual.getEntryCount());
+        for (Entry entry : expected) {
+            Entry other = actual.getEntry(entry.getName());
+            if (entry instanceof DirectoryEntry) {
+                assertSameDocuments((DirectoryEntry) entry, (DirectoryEntry) other);
+            } else {
+                try (DocumentInputStream is1 = new DocumentInputStream((DocumentEntry) entry);
+                     DocumentInputStream is2 = new DocumentInputStream((DocumentEntry) other)) {
+                    assertArrayEquals(IOUtils.toByteArray(is1), IOUtils.toByteArray(is2), entry.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void openMappedEmptyFile() throws IOException {
+        File file = TempFile.createTempFile("TestPOIFSFileSystem", ".ole2");
+        try {
+            assertThrows(EmptyFileException.class, () -> POIFSFileSystem.openMapped(file));
+        } finally {
+            assertTrue(file.delete());
+        }
+        assertThrows(FileNotFoundException.class, () -> POIFSFileSystem.openMapped(file));
+    }
+
     @Test
     void test64542CloseChannelFalse() throws IOException {
         File file = _samples.getFile("64322.ole2");
@@ -19,6 +19,7 @@
 
 package org.apache.poi.poifs.nio;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -31,7 +32,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.TempFile;
@@ -166,6 +169,46 @@ class TestDataSource {
             "Shouldn't be able to read off the end of the file");
     }
 
+    @Test
+    void testMappedFile() throws Exception {
+        File f = data.getFile("Notes.ole2");
+        byte[] expected;
+        try (InputStream in = data.openResourceAsStream("Notes.ole2")) {
+            expected = IOUtils.toByteArray(in);
+        }
+
+        // the default segment size and segments, which aren't aligned with the blocks
+        for (int segmentSize : new int[]{1 << 30, 1000}) {
+            try (MappedFileDataSource ds = new MappedFileDataSource(f, segmentSize)) {
+                assertEquals(8192, ds.size());
+
+                // Start of file, within and across segments
+                for (long position : new long[]{0, 0x400, 990, 1996}) {
+                    ByteBuffer bs = ds.read(16, position);
+                    assertEquals(16, bs.remaining());
+                    assertEquals(0, bs.position());
+                    for (int i = 0; i < 16; i++) {
+                        assertEquals(expected[(int) position + i], bs.get());
+                    }
+                }
+
+                // Can go to the end, but not past it
+                ByteBuffer bs = ds.read(8, 8190);
+                assertEquals(2, bs.remaining());
+                assertThrows(IndexOutOfBoundsException.class, () -> ds.read(4, ds.size()),
+                    "Shouldn't be able to read off the end of the file");
+
+                // The file can't be modified
+                assertThrows(ReadOnlyBufferException.class, () -> ds.read(4, 0).put((byte) 0));
+                assertThrows(UnsupportedOperationException.class, () -> ds.write(ByteBuffer.allocate(4), 0));
+
+                UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+                ds.copyTo(bos);
+                assertArrayEquals(expected, bos.toByteArray());
+            }
+        }
+    }
+
     @Test
     void testByteArray() {
         byte[] data = new byte[256];
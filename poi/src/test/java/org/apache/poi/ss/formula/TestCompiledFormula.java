@@ -0,0 +1,168 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.apache.poi.ss.util.Utils.addRow;
+import static org.apache.poi.ss.util.Utils.assertBoolean;
+import static org.apache.poi.ss.util.Utils.assertDouble;
+import static org.apache.poi.ss.util.Utils.assertError;
+import static org.apache.poi.ss.util.Utils.assertString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the evaluation of formulas via {@link CompiledFormula}
+ */
+class TestCompiledFormula {
+
+    @Test
+    void testEvaluate() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            fe.setCompileFormulas(true);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            assertDouble(fe, cell, "A1*2+1", 7);
+            assertDouble(fe, cell, "-A1/(1+2*3)", -3 / 7.0);
+            assertString(fe, cell, "\"x\"&A1&TEXT(A1,\"0.0\")", "x33.0");
+            assertDouble(fe, cell, "SUM(A1:A5)+SUM(A1)", 17);
+            assertDouble(fe, cell, "SUMPRODUCT(A1:A5,A1:A5)", 52);
+            assertString(fe, cell, "CHOOSE(MOD(A1,3)+1,\"x\",\"y\",\"z\")", "x");
+            assertDouble(fe, cell, "INDIRECT(\"A\"&(MOD(A1,5)+1))", 1);
+            assertDouble(fe, cell, "INDEX(A1:A5,MOD(A1,5)+1)+1", 2);
+            assertDouble(fe, cell, "VLOOKUP(A1,A1:A5,1,FALSE)", 3);
+            assertDouble(fe, cell, "ROW()*COLUMN()", 101);
+            assertBoolean(fe, cell, "ISBLANK(C1)", true);
+            assertBoolean(fe, cell, "A1%+1=2", false);
+            assertError(fe, cell, "A1/0", FormulaError.DIV0);
+        }
+    }
+
+    /**
+     * Only the selected branch of an optimized IF is evaluated, so a branch referring to the
+     * formula cell itself is not a circular reference.
+     */
+    @Test
+    void testIf() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            fe.setCompileFormulas(true);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            assertString(fe, cell, "IF(A1>2,\"big\",CW1)", "big");
+            assertString(fe, cell, "IF(A1<2,CW1,\"small\")", "small");
+            assertString(fe, cell, "IF(A1>1,IF(A1>3,\"a\",\"b\"),IF(A1<1,\"c\"))", "b");
+            assertBoolean(fe, cell, "IF(A1>5,1)", false);
+            assertDouble(fe, cell, "IF(A1>2,A1*10)", 30);
+            assertError(fe, cell, "IF(A1,1/0,NA())", FormulaError.DIV0);
+            assertError(fe, cell, "IF(1/0,1,2)", FormulaError.DIV0);
+        }
+    }
+
+    @Test
+    void testCompile() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(1);
+            cell.setCellFormula("IF(A1>2,SUM(A1:A5),-A1&\"x\")");
+            HSSFEvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(ewb, null, null);
+            OperationEvaluationContext ec = new OperationEvaluationContext(
+                    evaluator, ewb, 0, 0, 1, new EvaluationTracker(new EvaluationCache(null)));
+            Ptg[] ptgs = ewb.getFormulaTokens(ewb.getSheet(0).getCell(0, 1));
+            CompiledFormula cf = CompiledFormula.compile(ptgs, ec);
+            assertTrue(cf.isCompiled());
+            assertEquals(ptgs, cf.getTokens());
+
+            // unbalanced tokens are left to the interpreter
+            assertFalse(CompiledFormula.compile(new Ptg[]{ new IntPtg(1), new IntPtg(2) }, ec).isCompiled());
+        }
+    }
+
+    @Test
+    void testArrayFormula() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFSheet sheet = wb.getSheetAt(0);
+            sheet.setArrayFormula("IF(A1:A3>2,A1:A3,0)", CellRangeAddress.valueOf("D1:D3"));
+            HSSFEvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(ewb, null, null);
+            OperationEvaluationContext ec = new OperationEvaluationContext(
+                    evaluator, ewb, 0, 0, 3, new EvaluationTracker(new EvaluationCache(null)));
+            Ptg[] ptgs = ewb.getFormulaTokens(ewb.getSheet(0).getCell(0, 3));
+            assertFalse(CompiledFormula.compile(ptgs, ec).isCompiled());
+
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            fe.setCompileFormulas(true);
+            assertEquals(3, fe.evaluate(sheet.getRow(0).getCell(3)).getNumberValue());
+            assertEquals(4, fe.evaluate(sheet.getRow(2).getCell(3)).getNumberValue());
+        }
+    }
+
+    @Test
+    void testRecalculate() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFSheet sheet = wb.getSheetAt(0);
+            HSSFCell linear = sheet.getRow(0).createCell(1);
+            linear.setCellFormula("A1*2+1");
+            HSSFCell branch = sheet.getRow(1).createCell(1);
+            branch.setCellFormula("IF(A1>2,\"big\",\"small\")");
+            HSSFCell sum = sheet.getRow(2).createCell(1);
+            sum.setCellFormula("SUM(A1:A5)");
+
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            fe.setCompileFormulas(true);
+            assertTrue(fe._bookEvaluator.isCompileFormulas());
+            fe.evaluateAll();
+
+            HSSFCell input = sheet.getRow(0).getCell(0);
+            input.setCellValue(0);
+            fe.recalculate(Collections.singletonList(input));
+            assertEquals(1, fe.evaluate(linear).getNumberValue());
+            assertEquals("small", fe.evaluate(branch).getStringValue());
+            assertEquals(11, fe.evaluate(sum).getNumberValue());
+
+            // a changed formula is compiled again
+            linear.setCellFormula("A1*3+2");
+            fe.notifySetFormula(linear);
+            assertEquals(2, fe.evaluate(linear).getNumberValue());
+        }
+    }
+
+    private static HSSFWorkbook initWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet();
+        addRow(sheet, 0, 3);
+        addRow(sheet, 1, 1);
+        addRow(sheet, 2, 4);
+        addRow(sheet, 3, 1);
+        addRow(sheet, 4, 5);
+        return wb;
+    }
+}
@@ -0,0 +1,72 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFName;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link SheetDependencyGraph}.
+ */
+final class TestSheetDependencyGraph {
+
+    @Test
+    void testGroups() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook(6)) {
+            HSSFName name = wb.createName();
+            name.setNameName("Total4");
+            name.setRefersToFormula("SUM(S4!A1:A5)");
+
+            SheetDependencyGraph graph = new SheetDependencyGraph(HSSFEvaluationWorkbook.create(wb), 6);
+            assertEquals("[[0], [1], [2], [3], [4], [5]]", graph.getIndependentGroups().toString());
+
+            addFormula(wb, graph, 1, "S0!A1+A2");
+            addFormula(wb, graph, 3, "Total4*2");
+            addFormula(wb, graph, 5, "A1+1");
+            assertEquals("[[0, 1], [2], [3, 4], [5]]", graph.getIndependentGroups().toString());
+
+            addFormula(wb, graph, 2, "SUM(S4:S5!A1)");
+            assertEquals("[[0, 1], [2, 3, 4, 5]]", graph.getIndependentGroups().toString());
+            assertFalse(graph.hasExternalReferences());
+
+            addFormula(wb, graph, 0, "INDIRECT(\"S1!A1\")");
+            assertEquals("[[0, 1, 2, 3, 4, 5]]", graph.getIndependentGroups().toString());
+        }
+    }
+
+    private static HSSFWorkbook createWorkbook(int sheets) {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        for (int s = 0; s < sheets; s++) {
+            wb.createSheet("S" + s).createRow(0).createCell(0).setCellValue(s);
+        }
+        return wb;
+    }
+
+    private static void addFormula(HSSFWorkbook wb, SheetDependencyGraph graph, int sheetIndex, String formula) {
+        wb.getSheetAt(sheetIndex).getRow(0).createCell(1).setCellFormula(formula);
+        HSSFEvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+        graph.addFormula(sheetIndex, ewb.getFormulaTokens(ewb.getSheet(sheetIndex).getCell(0, 1)));
+    }
+}
@@ -26,11 +26,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
@@ -45,6 +47,7 @@ import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -644,4 +647,64 @@ class TestWorkbookEvaluator {
             assertEquals("3", cellC3.getStringCellValue());
         }
     }
+
+    /**
+     * Evaluators outside of POI, which don't override toEvaluationCell, can still recalculate
+     */
+    @Test
+    void testRecalculateWithDefaultEvaluationCell() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet("Sheet1");
+            HSSFRow row = sheet.createRow(0);
+            HSSFCell a1 = row.createCell(0);
+            a1.setCellValue(2);
+            HSSFCell b1 = row.createCell(1);
+            b1.setCellFormula("A1*10");
+
+            WorkbookEvaluator bookEvaluator = new WorkbookEvaluator(HSSFEvaluationWorkbook.create(wb), null, null);
+            BaseFormulaEvaluator fe = new BaseFormulaEvaluator(bookEvaluator) {
+                @Override
+                protected CellValue evaluateFormulaCellValue(Cell cell) {
+                    ValueEval eval = _bookEvaluator.evaluate(toEvaluationCell(cell));
+                    return new CellValue(((NumberEval)eval).getNumberValue());
+                }
+
+                @Override
+                protected RichTextString createRichTextString(String str) {
+                    return new HSSFRichTextString(str);
+                }
+
+                @Override
+                public void evaluateAll() {
+                    evaluateAllFormulaCells(wb, this);
+                }
+
+                @Override
+                public void notifySetFormula(Cell cell) {
+                    _bookEvaluator.notifyUpdateCell(toEvaluationCell(cell));
+                }
+
+                @Override
+                public void notifyUpdateCell(Cell cell) {
+                    _bookEvaluator.notifyUpdateCell(toEvaluationCell(cell));
+                }
+
+                @Override
+                public void notifyDeleteCell(Cell cell) {
+                    _bookEvaluator.notifyDeleteCell(toEvaluationCell(cell));
+                }
+            };
+            fe.evaluateFormulaCell(b1);
+            assertEquals(20, b1.getNumericCellValue(), 0);
+
+            a1.setCellValue(3);
+            assertEquals(Collections.singletonList(b1), fe.recalculate(Collections.singletonList(a1)));
+            assertEquals(30, b1.getNumericCellValue(), 0);
+
+            try (HSSFWorkbook other = new HSSFWorkbook()) {
+                Cell foreign = other.createSheet("Other").createRow(0).createCell(0);
+                assertThrows(IllegalArgumentException.class, () -> fe.recalculate(Collections.singletonList(foreign)));
+            }
+        }
+    }
 }
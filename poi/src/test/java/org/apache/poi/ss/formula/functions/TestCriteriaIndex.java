@@ -0,0 +1,166 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.apache.poi.ss.util.Utils.addRow;
+import static org.apache.poi.ss.util.Utils.assertDouble;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.udf.DefaultUDFFinder;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for SUMIFS, COUNTIFS etc. with criteria ranges, whose matching cells are
+ * preselected by a {@link CriteriaIndex}
+ */
+final class TestCriteriaIndex {
+
+    @Test
+    void testEqualityCriteria() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"apple\")", 3);
+            assertDouble(fe, cell, "SUMIFS(B1:B12,A1:A12,\"APPLE\")", 15);
+            assertDouble(fe, cell, "SUMIFS(B1:B12,A1:A12,5)", 5);
+            assertDouble(fe, cell, "SUMIFS(B1:B12,A1:A12,\"=5\")", 5);
+            assertDouble(fe, cell, "SUMIFS(B1:B12,A1:A12,0)", 9);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"\")", 2);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,TRUE)", 1);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"b~*c\")", 1);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"zzz\")", 0);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"apple\",B1:B12,\">5\")", 1);
+            assertDouble(fe, cell, "AVERAGEIFS(B1:B12,A1:A12,\"apple\")", 5);
+            assertDouble(fe, cell, "MAXIFS(B1:B12,A1:A12,\"apple\",B1:B12,\"<10\")", 4);
+        }
+    }
+
+    /**
+     * Only the cells of the sum range at matching positions are read, like in the cell by cell test.
+     */
+    @Test
+    void testSumRangeMatchesOnly() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFSheet sheet = wb.getSheetAt(0);
+            for (int i = 0; i < 12; i++) {
+                sheet.getRow(i).createCell(2).setCellFormula("NA()");
+            }
+            sheet.getRow(0).createCell(2).setCellValue(1);
+            sheet.getRow(3).createCell(2).setCellValue(20);
+            sheet.getRow(9).createCell(2).setCellValue(300);
+            // refers to the SUMIFS cell
+            sheet.getRow(7).getCell(2).setCellFormula("D1");
+
+            HSSFCell sum = sheet.getRow(0).createCell(3);
+            sum.setCellFormula("SUMIFS(C1:C12,A1:A12,\"apple\")");
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            assertEquals(321, fe.evaluate(sum).getNumberValue());
+            assertEquals(321, fe.evaluate(sheet.getRow(7).getCell(2)).getNumberValue());
+        }
+    }
+
+    @Test
+    void testUpdateCriteriaRange() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFSheet sheet = wb.getSheetAt(0);
+            HSSFCell count = sheet.getRow(0).createCell(100);
+            count.setCellFormula("COUNTIFS(A1:A12,\"apple\")");
+            HSSFCell sum = sheet.getRow(0).createCell(101);
+            sum.setCellFormula("SUMIFS(B1:B12,A1:A12,7)");
+            assertEquals(3, fe.evaluate(count).getNumberValue());
+            assertEquals(12, fe.evaluate(sum).getNumberValue());
+
+            // previously blank cell
+            HSSFCell cell = sheet.getRow(4).getCell(0);
+            cell.setCellValue("APPLE");
+            fe.notifyUpdateCell(cell);
+            assertEquals(4, fe.evaluate(count).getNumberValue());
+
+            // input of a formula cell within the criteria range
+            cell = sheet.getRow(0).getCell(1);
+            cell.setCellValue(0);
+            fe.notifyUpdateCell(cell);
+            assertEquals(0, fe.evaluate(sum).getNumberValue());
+            cell.setCellValue(1);
+            fe.notifyUpdateCell(cell);
+            assertEquals(12, fe.evaluate(sum).getNumberValue());
+
+            // input within the summed range
+            cell = sheet.getRow(11).getCell(1);
+            cell.setCellValue(100);
+            fe.notifyUpdateCell(cell);
+            assertEquals(100, fe.evaluate(sum).getNumberValue());
+        }
+    }
+
+    /**
+     * The index of a criteria range evaluates all of its cells, but a cell which fails to evaluate
+     * must only fail the function, if the cell by cell test would read it.
+     */
+    @Test
+    void testFailingCellInCriteriaRange() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            UDFFinder udff = new DefaultUDFFinder(new String[] { "failing" }, new FreeRefFunction[] {
+                (args, ec) -> { throw new IllegalStateException("failing cell"); }
+            });
+            wb.addToolPack(udff);
+            HSSFSheet sheet = wb.getSheetAt(0);
+            sheet.getRow(0).createCell(2).setCellValue(1);
+            sheet.getRow(3).createCell(2).setCellValue(2);
+            sheet.getRow(9).createCell(2).setCellValue(3);
+            // not read, as the first criterion doesn't match
+            sheet.getRow(1).createCell(2).setCellFormula("failing()");
+
+            HSSFFormulaEvaluator fe = HSSFFormulaEvaluator.create(wb, null, udff);
+            HSSFCell cell = sheet.getRow(0).createCell(100);
+            assertDouble(fe, cell, "COUNTIFS(A1:A12,\"apple\",C1:C12,\">1\")", 2);
+            assertDouble(fe, cell, "SUMIFS(B1:B12,A1:A12,\"apple\",C1:C12,\">1\")", 14);
+            cell.setCellFormula("COUNTIFS(C1:C12,\">1\")");
+            fe.notifyUpdateCell(cell);
+            assertThrows(IllegalStateException.class, () -> fe.evaluate(cell));
+        }
+    }
+
+    private static HSSFWorkbook initWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet();
+        addRow(sheet, 0, "apple", 1);
+        addRow(sheet, 1, 5, 2);
+        addRow(sheet, 2, "5", 3);
+        addRow(sheet, 3, "Apple", 4);
+        addRow(sheet, 4, null, 5);
+        addRow(sheet, 5, "", 6);
+        addRow(sheet, 6, true, 7);
+        addRow(sheet, 7, "b*c", 8);
+        addRow(sheet, 8, 0, 9);
+        addRow(sheet, 9, "apple", 10);
+        addRow(sheet, 10, "x", 11);
+        addRow(sheet, 11, null, 12);
+        sheet.getRow(11).getCell(0).setCellFormula("B1+6");
+        return wb;
+    }
+}
@@ -0,0 +1,190 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.apache.poi.ss.util.Utils.addRow;
+import static org.apache.poi.ss.util.Utils.assertDouble;
+import static org.apache.poi.ss.util.Utils.assertError;
+import static org.apache.poi.ss.util.Utils.assertString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.udf.DefaultUDFFinder;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for the exact match lookups of VLOOKUP, HLOOKUP, MATCH and XLOOKUP,
+ * which use an index over the lookup range
+ */
+final class TestLookupIndex {
+
+    @Test
+    void testExactMatch() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            assertString(fe, cell, "VLOOKUP(5,A1:B13,2,FALSE)", "r1");
+            assertString(fe, cell, "VLOOKUP(\"APPLE\",A1:B13,2,FALSE)", "r2");
+            assertString(fe, cell, "VLOOKUP(\"5\",A1:B13,2,FALSE)", "r6");
+            assertString(fe, cell, "VLOOKUP(TRUE,A1:B13,2,FALSE)", "r3");
+            assertString(fe, cell, "VLOOKUP(FALSE,A1:B13,2,FALSE)", "r7");
+            assertString(fe, cell, "VLOOKUP(10,A1:B13,2,FALSE)", "r13");
+            assertString(fe, cell, "VLOOKUP(\"b*c\",A1:B13,2,FALSE)", "r8");
+            assertString(fe, cell, "VLOOKUP(\"bx*\",A1:B13,2,FALSE)", "r9");
+            assertString(fe, cell, "VLOOKUP(\"äPFEL\",A1:B13,2,FALSE)", "r10");
+            assertString(fe, cell, "VLOOKUP(0,A1:B13,2,FALSE)", "r11");
+            assertError(fe, cell, "VLOOKUP(999,A1:B13,2,FALSE)", FormulaError.NA);
+            assertError(fe, cell, "VLOOKUP(\"apples\",A1:B13,2,FALSE)", FormulaError.NA);
+
+            assertString(fe, cell, "HLOOKUP(\"APPLE\",A21:C22,2,FALSE)", "c2");
+            assertDouble(fe, cell, "MATCH(\"?pple\",A1:A13,0)", 2);
+            assertDouble(fe, cell, "MATCH(TRUE,A21:C21,0)", 3);
+
+            assertString(fe, cell, "XLOOKUP(\"apple\",A1:A13,B1:B13,,0,-1)", "r5");
+            assertString(fe, cell, "XLOOKUP(6,A1:A13,B1:B13,,-1)", "r1");
+            assertString(fe, cell, "XLOOKUP(6,A1:A13,B1:B13,,1)", "r12");
+            assertString(fe, cell, "XLOOKUP(\"x\",A1:A13,B1:B13,\"none\")", "none");
+            assertDouble(fe, cell, "XMATCH(\"5\",A1:A13)", 6);
+        }
+    }
+
+    @Test
+    void testUpdateLookupRange() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFSheet sheet = wb.getSheetAt(0);
+            HSSFCell match = sheet.getRow(0).createCell(100);
+            match.setCellFormula("MATCH(\"new\",A1:A13,0)");
+            HSSFCell lookup = sheet.getRow(0).createCell(101);
+            lookup.setCellFormula("VLOOKUP(12,A1:B13,2,FALSE)");
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(match).getErrorValue());
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(lookup).getErrorValue());
+
+            // previously blank cell
+            HSSFCell cell = sheet.getRow(3).createCell(0);
+            cell.setCellValue("new");
+            fe.notifyUpdateCell(cell);
+            assertEquals(4, fe.evaluate(match).getNumberValue());
+
+            // input of a formula cell within the range
+            cell = sheet.getRow(0).getCell(0);
+            cell.setCellValue(6);
+            fe.notifyUpdateCell(cell);
+            assertEquals("r13", fe.evaluate(lookup).getStringValue());
+
+            // removed value
+            cell = sheet.getRow(3).getCell(0);
+            sheet.getRow(3).removeCell(cell);
+            fe.notifyDeleteCell(cell);
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(match).getErrorValue());
+        }
+    }
+
+    /**
+     * The index of a range evaluates all of its cells, but cells which depend on the lookup itself
+     * must get the same results as with a linear scan, which stops at the first match.
+     */
+    @Test
+    void testRangeDependsOnLookup() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            for (int i = 0; i < 10; i++) {
+                addRow(sheet, i, String.valueOf((char)('a' + i)), i + 1);
+            }
+            HSSFCell dependent = sheet.getRow(1).getCell(0);
+            dependent.setCellFormula("IFERROR(D1&\"x\",\"?\")");
+            HSSFCell lookup = sheet.getRow(0).createCell(3);
+            lookup.setCellFormula("VLOOKUP(\"a\",A1:B10,2,FALSE)");
+            // the lookup within its own range
+            HSSFCell inRange = sheet.getRow(2).createCell(3);
+            inRange.setCellFormula("VLOOKUP(\"c\",A1:D10,2,FALSE)");
+
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            assertEquals(1, fe.evaluate(lookup).getNumberValue());
+            assertEquals("1x", fe.evaluate(dependent).getStringValue());
+            assertEquals(3, fe.evaluate(inRange).getNumberValue());
+
+            fe.clearAllCachedResultValues();
+            assertEquals(3, fe.evaluate(inRange).getNumberValue());
+            assertEquals(1, fe.evaluate(lookup).getNumberValue());
+            assertEquals("1x", fe.evaluate(dependent).getStringValue());
+
+            HSSFCell cell = sheet.getRow(0).createCell(100);
+            assertDouble(fe, cell, "MATCH(\"1x\",A1:A10,0)", 2);
+        }
+    }
+
+    /**
+     * The index of a range evaluates all of its cells, but a cell which fails to evaluate
+     * must only fail the lookup, if a linear scan would reach it.
+     */
+    @Test
+    void testFailingCellInRange() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            UDFFinder udff = new DefaultUDFFinder(new String[] { "failing" }, new FreeRefFunction[] {
+                (args, ec) -> { throw new IllegalStateException("failing cell"); }
+            });
+            wb.addToolPack(udff);
+            HSSFSheet sheet = wb.createSheet();
+            for (int i = 0; i < 10; i++) {
+                addRow(sheet, i, String.valueOf((char)('a' + i)), i + 1);
+            }
+            sheet.getRow(8).getCell(0).setCellFormula("failing()");
+
+            HSSFFormulaEvaluator fe = HSSFFormulaEvaluator.create(wb, null, udff);
+            HSSFCell cell = sheet.getRow(0).createCell(100);
+            assertDouble(fe, cell, "VLOOKUP(\"c\",A1:B10,2,FALSE)", 3);
+            assertDouble(fe, cell, "MATCH(\"b\",A1:A10,0)", 2);
+            assertDouble(fe, cell, "VLOOKUP(\"d\",A:B,2,FALSE)", 4);
+            cell.setCellFormula("VLOOKUP(\"j\",A1:B10,2,FALSE)");
+            fe.notifyUpdateCell(cell);
+            assertThrows(IllegalStateException.class, () -> fe.evaluate(cell));
+        }
+    }
+
+    private static HSSFWorkbook initWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet();
+        addRow(sheet, 0, 5, "r1");
+        addRow(sheet, 1, "apple", "r2");
+        addRow(sheet, 2, true, "r3");
+        addRow(sheet, 3, null, "r4");
+        addRow(sheet, 4, "Apple", "r5");
+        addRow(sheet, 5, "5", "r6");
+        addRow(sheet, 6, false, "r7");
+        addRow(sheet, 7, "b*c", "r8");
+        addRow(sheet, 8, "bxc", "r9");
+        addRow(sheet, 9, "Äpfel", "r10");
+        addRow(sheet, 10, 0, "r11");
+        addRow(sheet, 11, 7, "r12");
+        addRow(sheet, 12, null, "r13");
+        sheet.getRow(12).getCell(0).setCellFormula("A1*2");
+
+        addRow(sheet, 20, "x", "apple", true);
+        addRow(sheet, 21, "c1", "c2", "c3");
+        return wb;
+    }
+}
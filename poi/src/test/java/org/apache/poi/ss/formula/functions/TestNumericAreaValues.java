@@ -0,0 +1,129 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.apache.poi.ss.util.Utils.assertDouble;
+import static org.apache.poi.ss.util.Utils.assertError;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for SUM, AVERAGE etc. over areas, which are large enough to be read via {@link NumericAreaValues}
+ */
+final class TestNumericAreaValues {
+    private static final int ROWS = NumericAreaValues.MIN_SIZE;
+
+    @Test
+    void testNumbers() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            assertDouble(fe, cell, "SUM(A1:A1024)", 524800);
+            assertDouble(fe, cell, "AVERAGE(A1:A1024)", 512.5);
+            assertDouble(fe, cell, "MIN(A1:A1024)", 1);
+            assertDouble(fe, cell, "MAX(A1:A1024)", 1024);
+            // below the size of cached areas
+            assertDouble(fe, cell, "SUM(A1:A10)", 55);
+        }
+    }
+
+    @Test
+    void testOtherValues() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFCell cell = wb.getSheetAt(0).getRow(0).createCell(100);
+            // text, booleans and blanks of the area are ignored
+            assertDouble(fe, cell, "SUM(B1:B1024)", 2042);
+            assertDouble(fe, cell, "AVERAGE(B1:B1024)", 2042 / 1020.0);
+            assertDouble(fe, cell, "MAX(B1:B1024)", 4);
+            // ... but counted by the A functions
+            assertDouble(fe, cell, "MINA(B1:B1024)", 0);
+            assertDouble(fe, cell, "AVERAGEA(B1:B1024)", 2043 / 1023.0);
+            assertDouble(fe, cell, "SUM(A1:B1024)", 526842);
+            assertDouble(fe, cell, "SUM(A1:A1024,\"3\",TRUE)", 524804);
+            assertError(fe, cell, "SUM(C1:C1024)", FormulaError.DIV0);
+            assertError(fe, cell, "MAX(A1:A1024,C1:C1024)", FormulaError.DIV0);
+        }
+    }
+
+    @Test
+    void testUpdateArea() throws IOException {
+        try (HSSFWorkbook wb = initWorkbook()) {
+            HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+            HSSFSheet sheet = wb.getSheetAt(0);
+            HSSFCell sumA = sheet.getRow(0).createCell(100);
+            sumA.setCellFormula("SUM(A1:A1024)");
+            HSSFCell sumB = sheet.getRow(0).createCell(101);
+            sumB.setCellFormula("SUM(B1:B1024)");
+            assertEquals(524800, fe.evaluate(sumA).getNumberValue());
+            assertEquals(2042, fe.evaluate(sumB).getNumberValue());
+
+            HSSFCell cell = sheet.getRow(4).getCell(0);
+            cell.setCellValue(20);
+            fe.notifyUpdateCell(cell);
+            assertEquals(524815, fe.evaluate(sumA).getNumberValue());
+            cell.setCellValue("text");
+            fe.notifyUpdateCell(cell);
+            assertEquals(524795, fe.evaluate(sumA).getNumberValue());
+
+            // input of a formula cell within the area
+            cell = sheet.getRow(0).getCell(0);
+            cell.setCellValue(2);
+            fe.notifyUpdateCell(cell);
+            assertEquals(2046, fe.evaluate(sumB).getNumberValue());
+
+            // previously blank cell
+            cell = sheet.getRow(9).createCell(1);
+            cell.setCellValue(100);
+            fe.notifyUpdateCell(cell);
+            assertEquals(2146, fe.evaluate(sumB).getNumberValue());
+        }
+    }
+
+    /**
+     * Column A holds the numbers 1 to 1024, column B the number 2 apart from some other values
+     * and column C numbers and an error.
+     */
+    private static HSSFWorkbook initWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet();
+        for (int r = 0; r < ROWS; r++) {
+            HSSFRow row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r + 1);
+            if (r != 9) {
+                row.createCell(1).setCellValue(2);
+            }
+            row.createCell(2).setCellValue(r * 0.5);
+        }
+        sheet.getRow(2).getCell(1).setCellValue("5");
+        sheet.getRow(4).getCell(1).setCellValue(true);
+        sheet.getRow(7).getCell(1).setCellFormula("A1*4");
+        sheet.getRow(11).getCell(1).setCellValue("text");
+        sheet.getRow(2).getCell(2).setCellFormula("1/0");
+        return wb;
+    }
+}
@@ -25,10 +25,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
 
 import org.apache.poi.ss.ITestDataProvider;
 import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.BaseFormulaEvaluator;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.junit.jupiter.api.Test;
 
@@ -258,6 +262,53 @@ public abstract class BaseTestFormulaEvaluator {
        wb.close();
     }
 
+    @Test
+    void testRecalculate() throws IOException {
+        try (Workbook wb = _testDataProvider.createWorkbook()) {
+            Sheet sheet = wb.createSheet("Sheet1");
+            Row r1 = sheet.createRow(0);
+            Cell a1 = r1.createCell(0);
+            a1.setCellValue(1);
+            r1.createCell(1).setCellValue(2);
+            Cell d1 = r1.createCell(3);
+            d1.setCellFormula("C1*2");
+            Row r2 = sheet.createRow(1);
+            Cell a2 = r2.createCell(0);
+            a2.setCellFormula("A1*10");
+            Cell b2 = r2.createCell(1);
+            b2.setCellFormula("B1+1");
+            Cell a3 = sheet.createRow(2).createCell(0);
+            a3.setCellFormula("A2+B2");
+
+            BaseFormulaEvaluator fe = (BaseFormulaEvaluator)wb.getCreationHelper().createFormulaEvaluator();
+            for (Cell c : Arrays.asList(d1, a2, b2, a3)) {
+                fe.evaluateFormulaCell(c);
+            }
+            assertEquals(13, a3.getNumericCellValue(), 0);
+
+            // only the dependents of the changed value are recalculated
+            a1.setCellValue(3);
+            assertEquals(new HashSet<>(Arrays.asList(a2, a3)), new HashSet<>(fe.recalculate(Collections.singletonList(a1))));
+            assertEquals(30, a2.getNumericCellValue(), 0);
+            assertEquals(33, a3.getNumericCellValue(), 0);
+
+            // unchanged value
+            a1.setCellValue(3);
+            assertTrue(fe.recalculate(Collections.singletonList(a1)).isEmpty());
+
+            // previously blank cell
+            Cell c1 = r1.createCell(2);
+            c1.setCellValue(5);
+            assertEquals(Collections.singletonList(d1), fe.recalculate(Collections.singletonList(c1)));
+            assertEquals(10, d1.getNumericCellValue(), 0);
+
+            // changed formula
+            b2.setCellFormula("B1+2");
+            assertEquals(new HashSet<>(Arrays.asList(b2, a3)), new HashSet<>(fe.recalculate(Collections.singletonList(b2))));
+            assertEquals(34, a3.getNumericCellValue(), 0);
+        }
+    }
+
     private static void setValue(Sheet sheet, int rowIndex, int colIndex, double value) {
         Row row = sheet.getRow(rowIndex);
         if (row == null) {
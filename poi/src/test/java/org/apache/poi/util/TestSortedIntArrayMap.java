@@ -0,0 +1,152 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class to test SortedIntArrayMap
+ */
+final class TestSortedIntArrayMap {
+    @Test
+    void testPutGetRemove() {
+        SortedIntArrayMap<String> map = new SortedIntArrayMap<>(0);
+        assertTrue(map.isEmpty());
+        assertThrows(NoSuchElementException.class, map::firstKey);
+
+        assertNull(map.put(5, "5"));
+        assertNull(map.put(1, "1"));
+        assertNull(map.put(9, "9"));
+        assertEquals("5", map.put(5, "five"));
+
+        assertEquals(3, map.size());
+        assertEquals("five", map.get(5));
+        assertEquals("five", map.get(Integer.valueOf(5)));
+        assertNull(map.get(4));
+        assertNull(map.get("5"));
+        assertTrue(map.containsKey(9));
+        assertTrue(map.containsValue("1"));
+        assertFalse(map.containsValue("5"));
+        assertEquals(1, map.firstIntKey());
+        assertEquals(9, map.lastKey().intValue());
+
+        assertEquals("1", map.remove(1));
+        assertNull(map.remove(1));
+        assertEquals(2, map.size());
+        assertEquals(5, map.firstIntKey());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5));
+    }
+
+    @Test
+    void testSameAsTreeMap() {
+        SortedIntArrayMap<Integer> map = new SortedIntArrayMap<>();
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random rnd = new Random(4711);
+        for (int i = 0; i < 5000; i++) {
+            int key = rnd.nextInt(1000) - 200;
+            if (rnd.nextInt(4) == 0) {
+                assertEquals(ref.remove(key), map.remove(key));
+            } else {
+                assertEquals(ref.put(key, i), map.put(key, Integer.valueOf(i)));
+            }
+        }
+        assertEquals(ref, map);
+        assertEquals(ref.hashCode(), map.hashCode());
+        assertEquals(new ArrayList<>(ref.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(new ArrayList<>(ref.values()), new ArrayList<>(map.values()));
+        assertEquals(ref.headMap(100), map.headMap(100));
+        assertEquals(ref.tailMap(-50), map.tailMap(-50));
+        assertEquals(ref.subMap(-10, 300), map.subMap(-10, 300));
+        assertEquals(ref.subMap(-10, 300).headMap(20), map.subMap(-10, 300).headMap(20));
+        assertEquals(ref.headMap(500).size(), map.headMap(500).size());
+        assertEquals(ref.subMap(0, 400).firstKey(), map.subMap(0, 400).firstKey());
+        assertEquals(ref.subMap(0, 400).lastKey(), map.subMap(0, 400).lastKey());
+    }
+
+    @Test
+    void testViews() {
+        SortedIntArrayMap<String> map = new SortedIntArrayMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i*10, Integer.toString(i*10));
+        }
+
+        SortedMap<Integer, String> head = map.headMap(50);
+        assertEquals(5, head.size());
+        assertNull(head.get(50));
+        assertThrows(IllegalArgumentException.class, () -> head.put(60, "60"));
+
+        // views are backed by the map
+        map.put(15, "15");
+        assertEquals(6, head.size());
+        head.remove(15);
+        assertFalse(map.containsKey(15));
+
+        // clearing a view removes the range from the map
+        map.subMap(20, 40).clear();
+        assertEquals(8, map.size());
+        assertFalse(map.containsKey(20));
+        assertFalse(map.containsKey(30));
+        assertTrue(map.containsKey(40));
+
+        for (Map.Entry<Integer, String> me : map.tailMap(80).entrySet()) {
+            me.setValue("x" + me.getKey());
+        }
+        assertEquals("x90", map.get(90));
+        assertEquals("70", map.get(70));
+    }
+
+    @Test
+    void testIteratorRemove() {
+        SortedIntArrayMap<String> map = new SortedIntArrayMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        for (Iterator<String> it = map.values().iterator(); it.hasNext(); ) {
+            if (Integer.parseInt(it.next()) % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(5, map.size());
+        assertEquals("[1, 3, 5, 7, 9]", map.keySet().toString());
+
+        Iterator<Integer> it = map.keySet().iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        map.put(100, "100");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}